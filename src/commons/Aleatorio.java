@@ -0,0 +1,96 @@
+package commons;
+
+import java.util.SplittableRandom;
+
+/**
+ * Servicio de números aleatorios de la simulación.
+ * Todos los aleatorios de un día salen de flujos SplittableRandom derivados de una semilla maestra,
+ * del ámbito que los usa (una piscifactoría por su posición, la granja de langostinos...) y del día,
+ * de modo que una partida con la misma semilla repite exactamente los mismos resultados,
+ * aunque las piscifactorías avancen en paralelo o la partida se haya guardado y cargado entre medias,
+ * como comprueba PruebaPersistencia.
+ */
+public class Aleatorio {
+
+    /** Semilla maestra de la partida. */
+    private static long semilla = new SplittableRandom().nextLong();
+
+    /** Constructor privado, la clase solo tiene métodos estáticos. */
+    private Aleatorio() {
+    }
+
+    /**
+     * Devuelve la semilla maestra de la partida.
+     *
+     * @return la semilla maestra.
+     */
+    public static long getSemilla() {
+        return semilla;
+    }
+
+    /**
+     * Establece la semilla maestra de la partida.
+     *
+     * @param nuevaSemilla la nueva semilla maestra.
+     */
+    public static void setSemilla(long nuevaSemilla) {
+        semilla = nuevaSemilla;
+    }
+
+    /**
+     * Crea el flujo de aleatorios de un ámbito para un día concreto.
+     * Los flujos de sus partes, como los tanques de una piscifactoría, se obtienen con split() en un orden fijo.
+     *
+     * @param ambito Nombre que identifica a quién usa el flujo.
+     * @param dia    Día de la simulación.
+     * @return un generador independiente para ese ámbito y día.
+     */
+    public static SplittableRandom flujo(String ambito, int dia) {
+        long mezcla = mezclar(semilla ^ ambito.hashCode());
+        return new SplittableRandom(mezclar(mezcla + dia));
+    }
+
+    /**
+     * Cuenta cuántos de varios sucesos independientes ocurren, sin sortear cada uno por separado.
+     * Con pocos sucesos los sortea uno a uno; con muchos usa la aproximación normal de la binomial,
+     * que cuesta dos aleatorios sea cual sea el número de sucesos.
+     *
+     * @param rand         Generador de aleatorios a usar.
+     * @param n            Número de sucesos.
+     * @param probabilidad Probabilidad de que ocurra cada suceso.
+     * @return número de sucesos que ocurren, entre 0 y n.
+     */
+    public static int binomial(SplittableRandom rand, int n, double probabilidad) {
+        if (n <= 0 || probabilidad <= 0) {
+            return 0;
+        }
+        if (probabilidad >= 1) {
+            return n;
+        }
+        double varianza = n * probabilidad * (1 - probabilidad);
+        if (varianza < 25) {
+            int exitos = 0;
+            for (int i = 0; i < n; i++) {
+                if (rand.nextDouble() < probabilidad) {
+                    exitos++;
+                }
+            }
+            return exitos;
+        }
+        double normal = Math.sqrt(-2 * Math.log(1 - rand.nextDouble())) * Math.cos(2 * Math.PI * rand.nextDouble());
+        long exitos = Math.round(n * probabilidad + normal * Math.sqrt(varianza));
+        return (int) Math.max(0, Math.min(n, exitos));
+    }
+
+    /**
+     * Dispersa los bits de un valor con la función de mezcla de SplitMix64.
+     *
+     * @param valor el valor a mezclar.
+     * @return el valor mezclado.
+     */
+    private static long mezclar(long valor) {
+        valor = (valor ^ (valor >>> 30)) * 0xbf58476d1ce4e5b9L;
+        valor = (valor ^ (valor >>> 27)) * 0x94d049bb133111ebL;
+        return valor ^ (valor >>> 31);
+    }
+}
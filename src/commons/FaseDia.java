@@ -0,0 +1,65 @@
+package commons;
+
+/** Fases en que se divide el avance de un día de la simulación, en el orden en que se ejecutan. */
+public enum FaseDia {
+
+    /** Previsión de la demanda de comida y traspaso desde el almacén central a cada piscifactoría. */
+    APROVISIONAMIENTO("Aprovisionamiento"),
+
+    /** Alimentación de los peces de todas las piscifactorías. */
+    ALIMENTACION("Alimentación"),
+
+    /** Crecimiento y mortalidad de los peces de todos los tanques. */
+    CRECIMIENTO("Crecimiento"),
+
+    /** Retirada de los peces muertos para la granja de langostinos. */
+    MUERTOS("Retirada de muertos"),
+
+    /** Reproducción de los peces de todos los tanques. */
+    REPRODUCCION("Reproducción"),
+
+    /** Venta de los peces en edad óptima de todos los tanques. */
+    VENTA("Venta"),
+
+    /** Aplicación en orden de los resultados de cada piscifactoría. */
+    RESULTADOS("Resultados"),
+
+    /** Reparto de la comida del almacén central entre las piscifactorías. */
+    DISTRIBUCION("Distribución de comida"),
+
+    /** Producción de la granja de fitoplancton. */
+    FITOPLANCTON("Granja de fitoplancton"),
+
+    /** Producción de la granja de langostinos. */
+    LANGOSTINOS("Granja de langostinos"),
+
+    /** Generación de los pedidos automáticos. */
+    PEDIDOS("Pedidos automáticos"),
+
+    /** Registro del fin del día en el log y la transcripción. */
+    REGISTRO("Registro"),
+
+    /** Guardado de la partida tras avanzar los días. */
+    GUARDADO("Guardado");
+
+    /** Nombre de la fase para mostrar. */
+    private final String nombre;
+
+    /**
+     * Crea una fase con su nombre para mostrar.
+     *
+     * @param nombre Nombre de la fase.
+     */
+    FaseDia(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Devuelve el nombre de la fase para mostrar.
+     *
+     * @return nombre de la fase.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+}
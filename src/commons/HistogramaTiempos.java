@@ -0,0 +1,154 @@
+package commons;
+
+import java.util.Arrays;
+
+/**
+ * Histograma de duraciones con cubos de precisión relativa fija, al estilo de HdrHistogram.
+ * Los valores menores de 64 tienen un cubo cada uno y a partir de ahí cada potencia de dos se divide en 32 cubos,
+ * así que cualquier percentil se conoce con un error menor del 3 % ocupando un array fijo.
+ * Registrar un valor no reserva memoria y cuesta unas pocas operaciones de bits.
+ */
+public class HistogramaTiempos {
+
+    /** Bits de precisión de cada cubo. */
+    private static final int BITS = 6;
+
+    /** Valores exactos al principio del histograma y tamaño de cada potencia de dos. */
+    private static final int EXACTOS = 1 << BITS;
+
+    /** Cubos en que se divide cada potencia de dos. */
+    private static final int SUBCUBOS = EXACTOS / 2;
+
+    /** Número de valores registrados en cada cubo. */
+    private final long[] cuentas = new long[EXACTOS + (64 - BITS) * SUBCUBOS];
+
+    /** Número de valores registrados. */
+    private long total = 0;
+
+    /** Suma de los valores registrados. */
+    private long suma = 0;
+
+    /** Menor valor registrado. */
+    private long minimo = Long.MAX_VALUE;
+
+    /** Mayor valor registrado. */
+    private long maximo = 0;
+
+    /**
+     * Registra un valor. Los valores negativos se registran como cero.
+     *
+     * @param valor El valor a registrar, en nanosegundos.
+     */
+    public void registrar(long valor) {
+        valor = Math.max(valor, 0);
+        cuentas[indice(valor)]++;
+        total++;
+        suma += valor;
+        minimo = Math.min(minimo, valor);
+        maximo = Math.max(maximo, valor);
+    }
+
+    /**
+     * Devuelve el valor por debajo del que queda el porcentaje indicado de los valores registrados.
+     *
+     * @param porcentaje Percentil entre 0 y 100.
+     * @return el límite superior del cubo del percentil, sin pasar del máximo, o 0 si no hay valores.
+     */
+    public long percentil(double porcentaje) {
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(total * porcentaje / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < cuentas.length; i++) {
+            acumulado += cuentas[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo);
+            }
+        }
+        return maximo;
+    }
+
+    /**
+     * Devuelve el número de valores registrados.
+     *
+     * @return número de valores.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Devuelve la suma de los valores registrados.
+     *
+     * @return suma de los valores.
+     */
+    public long getSuma() {
+        return suma;
+    }
+
+    /**
+     * Devuelve el menor valor registrado.
+     *
+     * @return menor valor, o 0 si no hay valores.
+     */
+    public long getMinimo() {
+        return total == 0 ? 0 : minimo;
+    }
+
+    /**
+     * Devuelve el mayor valor registrado.
+     *
+     * @return mayor valor.
+     */
+    public long getMaximo() {
+        return maximo;
+    }
+
+    /**
+     * Devuelve la media de los valores registrados.
+     *
+     * @return media de los valores, o 0 si no hay valores.
+     */
+    public double getMedia() {
+        return total == 0 ? 0 : (double) suma / total;
+    }
+
+    /** Borra todos los valores registrados. */
+    public void reiniciar() {
+        Arrays.fill(cuentas, 0);
+        total = 0;
+        suma = 0;
+        minimo = Long.MAX_VALUE;
+        maximo = 0;
+    }
+
+    /**
+     * Calcula el cubo de un valor.
+     *
+     * @param valor El valor, no negativo.
+     * @return índice del cubo.
+     */
+    private static int indice(long valor) {
+        if (valor < EXACTOS) {
+            return (int) valor;
+        }
+        int desplazamiento = 63 - Long.numberOfLeadingZeros(valor) - (BITS - 1);
+        return EXACTOS + (desplazamiento - 1) * SUBCUBOS + (int) (valor >>> desplazamiento) - SUBCUBOS;
+    }
+
+    /**
+     * Calcula el mayor valor que cae en un cubo.
+     *
+     * @param indice Índice del cubo.
+     * @return límite superior del cubo.
+     */
+    private static long limiteSuperior(int indice) {
+        if (indice < EXACTOS) {
+            return indice;
+        }
+        int desplazamiento = (indice - EXACTOS) / SUBCUBOS + 1;
+        long mantisa = (indice - EXACTOS) % SUBCUBOS + SUBCUBOS;
+        return ((mantisa + 1) << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,104 @@
+package commons;
+
+/**
+ * Previsión de la comida que consumirán los peces de una piscifactoría en un día.
+ * Cada tipo de alimentación suma la media y la varianza de su consumo, y la previsión de cada tipo de comida
+ * es la media más un margen de varias desviaciones típicas, de modo que casi nunca se queda corta.
+ */
+public class PrevisionComida {
+
+    /** Desviaciones típicas que se añaden a la media de consumo como margen. */
+    private static final double MARGEN = 3;
+
+    /** Consumo medio de comida animal. */
+    private double mediaAnimal = 0;
+
+    /** Varianza del consumo de comida animal. */
+    private double varianzaAnimal = 0;
+
+    /** Consumo medio de comida vegetal. */
+    private double mediaVegetal = 0;
+
+    /** Varianza del consumo de comida vegetal. */
+    private double varianzaVegetal = 0;
+
+    /** Consumo medio de comida de cualquiera de los dos tipos. */
+    private double mediaIndistinta = 0;
+
+    /** Varianza del consumo de comida de cualquiera de los dos tipos. */
+    private double varianzaIndistinta = 0;
+
+    /**
+     * Suma un consumo de comida animal.
+     *
+     * @param media    Consumo medio.
+     * @param varianza Varianza del consumo.
+     */
+    public void sumarAnimal(double media, double varianza) {
+        mediaAnimal += media;
+        varianzaAnimal += varianza;
+    }
+
+    /**
+     * Suma un consumo de comida vegetal.
+     *
+     * @param media    Consumo medio.
+     * @param varianza Varianza del consumo.
+     */
+    public void sumarVegetal(double media, double varianza) {
+        mediaVegetal += media;
+        varianzaVegetal += varianza;
+    }
+
+    /**
+     * Suma un consumo que puede salir de cualquiera de los dos tipos de comida.
+     *
+     * @param media    Consumo medio.
+     * @param varianza Varianza del consumo.
+     */
+    public void sumarIndistinta(double media, double varianza) {
+        mediaIndistinta += media;
+        varianzaIndistinta += varianza;
+    }
+
+    /**
+     * Devuelve la comida animal prevista.
+     *
+     * @return unidades de comida animal previstas.
+     */
+    public int getAnimal() {
+        return cota(mediaAnimal, varianzaAnimal);
+    }
+
+    /**
+     * Devuelve la comida vegetal prevista.
+     *
+     * @return unidades de comida vegetal previstas.
+     */
+    public int getVegetal() {
+        return cota(mediaVegetal, varianzaVegetal);
+    }
+
+    /**
+     * Devuelve la comida prevista que puede salir de cualquiera de los dos tipos.
+     *
+     * @return unidades de comida de cualquier tipo previstas.
+     */
+    public int getIndistinta() {
+        return cota(mediaIndistinta, varianzaIndistinta);
+    }
+
+    /**
+     * Calcula la cota de consumo a partir de la media y la varianza.
+     *
+     * @param media    Consumo medio.
+     * @param varianza Varianza del consumo.
+     * @return la media más el margen, redondeada hacia arriba.
+     */
+    private static int cota(double media, double varianza) {
+        if (media <= 0) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(media + MARGEN * Math.sqrt(varianza)));
+    }
+}
@@ -0,0 +1,532 @@
+package commons;
+
+import java.io.File;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import edificios.AlmacenCentral;
+import edificios.GranjaFitoplancton;
+import edificios.GranjaLangostinos;
+import edificios.TanqueLangostinos;
+import estadisticas.Estadisticas;
+import helpers.FileHelper;
+import peces.Pez;
+import peces.tipos.doble.Dorada;
+import peces.tipos.doble.TruchaArcoiris;
+import peces.tipos.mar.Besugo;
+import peces.tipos.rio.PercaEuropea;
+import peces.tipos.rio.TilapiaDelNilo;
+import persistencia.DiarioPartida;
+import persistencia.GestorEstado;
+import piscifactoria.Piscifactoria;
+import piscifactoria.PiscifactoriaDeMar;
+import piscifactoria.PiscifactoriaDeRio;
+import piscifactoria.ResultadoDia;
+import propiedades.PecesDatos;
+import registros.Registros;
+import tanque.ModoAlmacenamiento;
+import tanque.Tanque;
+
+/**
+ * Comprueba que guardar una partida y volver a cargarla la deja como estaba.
+ * Primero comprueba que avanzar la partida en paralelo da lo mismo que en secuencia,
+ * con comida de sobra y con tan poca que el almacén central no cubre las previsiones,
+ * y que el diario no anota los peces que solo han envejecido. También comprueba que cada pez ocupa
+ * como mucho la mitad de lo que ocupaba antes de guardar todo su estado en un int.
+ * Monta una partida sintética con piscifactorías de río y de mar, la avanza unos días guardándola con diario
+ * y la guarda también completa, en JSON y en binario. Carga las dos en otros simuladores y compara con la original
+ * el día, las monedas, la comida y, tanque a tanque, el estado de los peces en el mismo orden.
+ * Después avanza todas unos días más y comprueba que las cargadas siguen igual que la original.
+ * Se repite con cada modo de almacenamiento de los tanques, o solo con el indicado.
+ * Escribe partidas y registros en las carpetas saves y logs del directorio de trabajo,
+ * así que conviene ejecutarlo desde un directorio aparte.
+ */
+public class PruebaPersistencia {
+
+    /** Texto de ayuda con los argumentos admitidos. */
+    private static final String USO = "Uso: PruebaPersistencia [--dias=N] [--semilla=N] [--almacenamiento=LISTA|COLUMNAR|COHORTES] [--paralelo]";
+
+    /** Nombre de la partida sintética. */
+    private static final String PARTIDA = "prueba_persistencia";
+
+    /** Comida inicial del almacén central y de cada piscifactoría, y capacidad de sus depósitos. */
+    private static final int COMIDA = 5_000;
+
+    /** Comida inicial del almacén central y de cada piscifactoría cuando no alcanza para todos los peces. */
+    private static final int COMIDA_ESCASA = 60;
+
+    /** Monedas con que empieza el programa, antes de cargar ninguna partida. */
+    private static final int MONEDAS_INICIALES = 100;
+
+    /** Peces de cada tanque sintético. */
+    private static final int PECES_POR_TANQUE = 20;
+
+    /** Capacidad de los tanques de río, la misma que tienen en el juego y con la que se cargan. */
+    private static final int CAPACIDAD_RIO = 25;
+
+    /** Capacidad de los tanques de mar, la misma que tienen en el juego y con la que se cargan. */
+    private static final int CAPACIDAD_MAR = 100;
+
+    /** Tanques llenos de besugos adultos de la partida con que se mide el diario. */
+    private static final int TANQUES_DIARIO = 5;
+
+    /** Días que se avanza la partida con que se mide el diario, menos de los que les faltan a los besugos para venderse. */
+    private static final int DIAS_DIARIO = 5;
+
+    /** Veces que la partida completa debe ocupar, como mínimo, lo que el diario anota cada día. */
+    private static final int PROPORCION_DIARIO = 5;
+
+    /** Peces que se crean para medir lo que ocupa cada uno cuando JOL no está disponible. */
+    private static final int PECES_MEDIDOS = 1_000_000;
+
+    /** Bytes que ocupaba cada pez con punteros comprimidos antes de guardar todo su estado en un int. */
+    private static final int TAMAÑO_PEZ_ANTERIOR = 40;
+
+    /** Registros compartidos por todos los simuladores de la prueba. */
+    private static Registros registro;
+
+    /** Comprobaciones que han fallado. */
+    private static int fallos = 0;
+
+    /** Constructor privado, la clase solo tiene métodos estáticos. */
+    private PruebaPersistencia() {
+    }
+
+    /**
+     * Punto de entrada de la prueba.
+     * Termina con código 0 si pasan todas las comprobaciones, 1 si falla alguna y 2 si los argumentos no son válidos.
+     *
+     * @param args Argumentos de línea de comandos. Admite:
+     *             "--dias=N" con los días que se avanza la partida antes de guardarla (por defecto 30),
+     *             "--semilla=N" con la semilla de la partida (por defecto 1),
+     *             "--almacenamiento=" para probar solo ese modo de almacenamiento y
+     *             "--paralelo" para avanzar las piscifactorías en paralelo, como en Simulador.
+     */
+    public static void main(String[] args) {
+        int dias = 30;
+        long semilla = 1;
+        ModoAlmacenamiento[] modos = ModoAlmacenamiento.values();
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--dias=")) {
+                    dias = Integer.parseInt(arg.substring("--dias=".length()));
+                } else if (arg.startsWith("--semilla=")) {
+                    semilla = Long.parseLong(arg.substring("--semilla=".length()));
+                } else if (arg.startsWith("--almacenamiento=")) {
+                    modos = new ModoAlmacenamiento[] {
+                            ModoAlmacenamiento.valueOf(arg.substring("--almacenamiento=".length()).toUpperCase()) };
+                } else if (arg.equals("--paralelo")) {
+                    Simulador.diaParalelo = true;
+                } else {
+                    throw new IllegalArgumentException("Argumento desconocido: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USO);
+            System.exit(2);
+        }
+
+        FileHelper.crearCarpetas(new String[] {"logs", "saves", "transcripciones"});
+        registro = new Registros(PARTIDA);
+        try {
+            comprobarCota("memoria por pez", medirPez(), TAMAÑO_PEZ_ANTERIOR / 2);
+            for (ModoAlmacenamiento modo : modos) {
+                Tanque.modoAlmacenamiento = modo;
+                comprobarParalelo(modo + ", comida de sobra", COMIDA / 2, dias, semilla);
+                comprobarParalelo(modo + ", comida escasa", COMIDA_ESCASA, dias, semilla);
+                comprobarTamañoDiario(modo.toString());
+                for (boolean binario : new boolean[] { false, true }) {
+                    comprobarGuardado(modo + (binario ? " binario" : " JSON"), binario, dias, semilla);
+                }
+            }
+        } finally {
+            GestorEstado.esperarGuardados();
+            registro.closeLogError();
+            File[] archivos = new File("saves").listFiles((carpeta, nombre) -> nombre.startsWith(PARTIDA));
+            if (archivos != null) {
+                for (File archivo : archivos) {
+                    archivo.delete();
+                }
+            }
+        }
+        System.out.println(fallos == 0 ? "\nTodas las comprobaciones han pasado." : "\n" + fallos + " comprobaciones han fallado.");
+        System.exit(fallos == 0 ? 0 : 1);
+    }
+
+    /**
+     * Avanza la partida sintética guardándola cada día con diario, la guarda después completa
+     * y comprueba que las dos cargan el mismo estado que tenía la partida.
+     * Después avanza otros tantos días la partida original y cada una de las cargadas,
+     * y comprueba que las cargadas terminan igual que la que no se ha interrumpido.
+     *
+     * @param prueba  Nombre de la comprobación.
+     * @param binario true para guardar en binario y false para JSON.
+     * @param dias    Días que se avanza la partida antes de guardarla y después de cargarla.
+     * @param semilla Semilla de la partida.
+     */
+    private static void comprobarGuardado(String prueba, boolean binario, int dias, long semilla) {
+        // Cada comprobación guarda su diario en una partida distinta, para empezarlo siempre con la partida completa
+        String partidaDiario = PARTIDA + "_diario_" + prueba.replace(' ', '_');
+        GestorEstado.guardadoBinario = binario;
+        Simulador original = crearPartida(semilla, COMIDA / 2);
+        original.setNombreEntidad(partidaDiario);
+        GestorEstado.diasEntreCompletas = dias + 1;
+        GestorEstado.guardarEstado(original);
+        for (int i = 0; i < dias; i++) {
+            avanzar(original, 1);
+            GestorEstado.guardarEstado(original);
+        }
+        GestorEstado.esperarGuardados();
+        GestorEstado.diasEntreCompletas = 0;
+        original.setNombreEntidad(PARTIDA);
+        GestorEstado.guardarEstado(original);
+        GestorEstado.esperarGuardados();
+        // La carga cambia las monedas, que son comunes a todos los simuladores
+        List<String> guardado = describirPartida(original);
+        comprobar("partida completa, " + prueba, guardado, describirPartida(cargar(PARTIDA)));
+        comprobar("partida con diario, " + prueba, guardado, describirPartida(cargar(partidaDiario)));
+
+        Simulador.instance = original;
+        avanzar(original, dias);
+        List<String> continuada = describirPartida(original);
+        comprobar("continuación de la partida completa, " + prueba, continuada, describirPartida(avanzar(cargar(PARTIDA), dias)));
+        comprobar("continuación de la partida con diario, " + prueba, continuada,
+                describirPartida(avanzar(cargar(partidaDiario), dias)));
+    }
+
+    /**
+     * Guarda con diario unos días una partida en la que los peces solo envejecen: besugos machos adultos y alimentados,
+     * sin hembras con las que reproducirse y lejos todavía de la edad de venta. Comprueba que cada día el diario ocupa
+     * bastante menos que la partida completa en binario, porque no vuelve a anotar esos peces,
+     * y que la partida se carga igual desde el diario.
+     *
+     * @param prueba Nombre de la comprobación.
+     */
+    private static void comprobarTamañoDiario(String prueba) {
+        String partidaDiario = PARTIDA + "_diario_adultos_" + prueba;
+        boolean binario = GestorEstado.guardadoBinario;
+        try {
+            GestorEstado.guardadoBinario = true;
+            Simulador original = crearPartidaAdultos();
+            original.setNombreEntidad(partidaDiario);
+            GestorEstado.diasEntreCompletas = DIAS_DIARIO + 1;
+            GestorEstado.guardarEstado(original);
+            for (int i = 0; i < DIAS_DIARIO; i++) {
+                avanzar(original, 1);
+                GestorEstado.guardarEstado(original);
+            }
+            GestorEstado.esperarGuardados();
+            GestorEstado.diasEntreCompletas = 0;
+            original.setNombreEntidad(PARTIDA);
+            GestorEstado.guardarEstado(original);
+            GestorEstado.esperarGuardados();
+
+            long diario = DiarioPartida.archivoDiario(new File("saves", partidaDiario + ".save")).length();
+            long completa = new File("saves", PARTIDA + ".save").length();
+            comprobarCota("tamaño del diario por día, " + prueba, diario / DIAS_DIARIO, completa / PROPORCION_DIARIO);
+            comprobar("partida con diario de peces que solo envejecen, " + prueba, describirPartida(original),
+                    describirPartida(cargar(partidaDiario)));
+        } finally {
+            GestorEstado.guardadoBinario = binario;
+        }
+    }
+
+    /**
+     * Mide los bytes que ocupa un pez. Si JOL está en el classpath se usa su tamaño de instancia;
+     * si no, lo que crece la memoria ocupada al crear PECES_MEDIDOS peces.
+     *
+     * @return los bytes que ocupa cada pez.
+     */
+    private static long medirPez() {
+        try {
+            Class<?> disposicion = Class.forName("org.openjdk.jol.info.ClassLayout");
+            Object clase = disposicion.getMethod("parseClass", Class.class).invoke(null, Besugo.class);
+            return (Long) disposicion.getMethod("instanceSize").invoke(clase);
+        } catch (ReflectiveOperationException e) {
+            // Sin JOL se mide sobre el montículo
+        }
+        Pez[] peces = new Pez[PECES_MEDIDOS];
+        long antes = memoriaOcupada();
+        for (int i = 0; i < peces.length; i++) {
+            peces[i] = new Besugo(i % 2 == 0);
+        }
+        long despues = memoriaOcupada();
+        Reference.reachabilityFence(peces);
+        return Math.round((despues - antes) / (double) peces.length);
+    }
+
+    /**
+     * Devuelve la memoria ocupada del montículo después de pedir varias recolecciones de basura.
+     *
+     * @return los bytes ocupados.
+     */
+    private static long memoriaOcupada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Avanza la partida sintética los mismos días en secuencia y en paralelo, y comprueba que terminan igual:
+     * las monedas, la comida, los peces de cada tanque y las ventas y los nacimientos de todos los días.
+     *
+     * @param prueba  Nombre de la comprobación.
+     * @param comida  Comida inicial del almacén central y de cada piscifactoría.
+     * @param dias    Días que se avanza la partida.
+     * @param semilla Semilla de la partida.
+     */
+    private static void comprobarParalelo(String prueba, int comida, int dias, long semilla) {
+        boolean paralelo = Simulador.diaParalelo;
+        try {
+            Simulador.diaParalelo = false;
+            List<String> secuencial = describirAvance(crearPartida(semilla, comida), dias);
+            Simulador.diaParalelo = true;
+            comprobar("día en paralelo, " + prueba, secuencial, describirAvance(crearPartida(semilla, comida), dias));
+        } finally {
+            Simulador.diaParalelo = paralelo;
+        }
+    }
+
+    /**
+     * Avanza varios días una partida y la describe junto con las ventas y los nacimientos de esos días.
+     *
+     * @param simulador Simulador con la partida, que debe ser la instancia actual.
+     * @param dias      Días a avanzar.
+     * @return la descripción de la partida, con una línea más para las ventas y otra para los nacimientos.
+     */
+    private static List<String> describirAvance(Simulador simulador, int dias) {
+        ResultadoDia acumulado = new ResultadoDia();
+        for (int i = 0; i < dias; i++) {
+            simulador.avanzarDia(false, acumulado);
+        }
+        List<String> lineas = describirPartida(simulador);
+        StringBuilder ventas = new StringBuilder("ventas:");
+        for (Map.Entry<String, int[]> venta : new TreeMap<>(acumulado.getVentas()).entrySet()) {
+            ventas.append(' ').append(venta.getKey()).append(' ').append(venta.getValue()[0]);
+        }
+        lineas.add(ventas.toString());
+        lineas.add("nacimientos: " + new TreeMap<>(acumulado.getNacimientos()));
+        return lineas;
+    }
+
+    /**
+     * Avanza varios días una partida.
+     *
+     * @param simulador Simulador con la partida, que debe ser la instancia actual.
+     * @param dias      Días a avanzar.
+     * @return el mismo simulador.
+     */
+    private static Simulador avanzar(Simulador simulador, int dias) {
+        for (int i = 0; i < dias; i++) {
+            simulador.avanzarDia(false, null);
+        }
+        return simulador;
+    }
+
+    /**
+     * Carga una partida guardada en un simulador nuevo, partiendo de las monedas con que empieza el programa.
+     *
+     * @param partida Nombre de la partida.
+     * @return el simulador con la partida cargada.
+     */
+    private static Simulador cargar(String partida) {
+        Simulador.monedas.setMonedas(MONEDAS_INICIALES);
+        Simulador cargado = nuevoSimulador();
+        GestorEstado.load(cargado, partida);
+        return cargado;
+    }
+
+    /**
+     * Crea un simulador vacío con los registros de la prueba y lo deja como instancia actual.
+     *
+     * @return el simulador creado.
+     */
+    private static Simulador nuevoSimulador() {
+        Simulador simulador = new Simulador();
+        Simulador.instance = simulador;
+        simulador.registro = registro;
+        simulador.estadisticas = new Estadisticas(simulador.getPecesImplementados());
+        simulador.setNombreEntidad(PARTIDA);
+        return simulador;
+    }
+
+    /**
+     * Crea la partida sintética: el almacén central, las dos granjas y piscifactorías de río y de mar
+     * con tanques de varias especies y peces de edades repartidas.
+     *
+     * @param semilla Semilla de la partida.
+     * @param comida  Comida inicial del almacén central y de cada piscifactoría.
+     * @return el simulador con la partida.
+     */
+    private static Simulador crearPartida(long semilla, int comida) {
+        Aleatorio.setSemilla(semilla);
+        Simulador.monedas.setMonedas(MONEDAS_INICIALES);
+        SplittableRandom rand = new SplittableRandom(semilla);
+        Simulador simulador = nuevoSimulador();
+        simulador.almacenCentral = new AlmacenCentral(COMIDA, comida, comida);
+        simulador.granjaFitoplancton = new GranjaFitoplancton(1, 0);
+        List<TanqueLangostinos> tanquesLangostinos = new ArrayList<>();
+        tanquesLangostinos.add(new TanqueLangostinos(0, 3));
+        GranjaLangostinos granjaLangostinos = new GranjaLangostinos(0, tanquesLangostinos);
+        for (TanqueLangostinos tanque : tanquesLangostinos) {
+            tanque.setGranja(granjaLangostinos);
+        }
+        simulador.granjaLangostinos = granjaLangostinos;
+
+        simulador.getPiscifactorias().add(crearPiscifactoria(new PiscifactoriaDeRio("Río", COMIDA, comida, comida),
+                CAPACIDAD_RIO, new int[] { 0, 1, 2 }, rand));
+        simulador.getPiscifactorias().add(crearPiscifactoria(new PiscifactoriaDeMar("Mar", COMIDA, comida, comida),
+                CAPACIDAD_MAR, new int[] { 3, 2, 4 }, rand));
+        // Otra con el mismo nombre, que no debe compartir los aleatorios con la primera
+        simulador.getPiscifactorias().add(crearPiscifactoria(new PiscifactoriaDeRio("Río", COMIDA, comida, comida),
+                CAPACIDAD_RIO, new int[] { 1, 0 }, rand));
+        return simulador;
+    }
+
+    /**
+     * Crea una partida con una piscifactoría de mar llena de besugos machos adultos y alimentados,
+     * con comida de sobra para los días que se guarda con diario.
+     *
+     * @return el simulador con la partida.
+     */
+    private static Simulador crearPartidaAdultos() {
+        Simulador.monedas.setMonedas(MONEDAS_INICIALES);
+        Simulador simulador = nuevoSimulador();
+        simulador.almacenCentral = new AlmacenCentral(COMIDA, COMIDA, COMIDA);
+        Piscifactoria piscifactoria = new PiscifactoriaDeMar("Mar", COMIDA, COMIDA, COMIDA);
+        piscifactoria.getTanques().clear();
+        for (int t = 0; t < TANQUES_DIARIO; t++) {
+            Tanque tanque = new Tanque(t + 1, CAPACIDAD_MAR);
+            for (int i = 0; i < CAPACIDAD_MAR; i++) {
+                Pez pez = new Besugo(true);
+                pez.setEdad(pez.getDatos().getMadurez() + i % (pez.getDatos().getOptimo() - pez.getDatos().getMadurez() - DIAS_DIARIO));
+                pez.setFertil(true);
+                pez.setMaduro(true);
+                pez.setAlimentado(true);
+                tanque.getPeces().add(pez);
+            }
+            piscifactoria.getTanques().add(tanque);
+        }
+        simulador.getPiscifactorias().add(piscifactoria);
+        return simulador;
+    }
+
+    /**
+     * Llena una piscifactoría con un tanque por cada especie indicada.
+     *
+     * @param piscifactoria Piscifactoría a llenar.
+     * @param capacidad     Capacidad de cada tanque.
+     * @param especies      Índices de las especies de cada tanque, según crearPez.
+     * @param rand          Generador de aleatorios.
+     * @return la piscifactoría llenada.
+     */
+    private static Piscifactoria crearPiscifactoria(Piscifactoria piscifactoria, int capacidad, int[] especies,
+            SplittableRandom rand) {
+        piscifactoria.getTanques().clear();
+        for (int especie : especies) {
+            Tanque tanque = new Tanque(piscifactoria.getTanques().size() + 1, capacidad);
+            for (int i = 0; i < PECES_POR_TANQUE; i++) {
+                tanque.getPeces().add(crearPez(especie, rand.nextBoolean(), rand));
+            }
+            piscifactoria.getTanques().add(tanque);
+        }
+        return piscifactoria;
+    }
+
+    /**
+     * Crea un pez de una de las especies de prueba con una edad aleatoria anterior a la óptima.
+     *
+     * @param especie Índice de la especie: 0 tilapia, 1 perca, 2 dorada, 3 besugo y 4 trucha.
+     * @param sexo    true para macho, false para hembra.
+     * @param rand    Generador de aleatorios.
+     * @return el pez creado.
+     */
+    private static Pez crearPez(int especie, boolean sexo, SplittableRandom rand) {
+        Pez pez = switch (especie) {
+            case 0 -> new TilapiaDelNilo(sexo);
+            case 1 -> new PercaEuropea(sexo);
+            case 2 -> new Dorada(sexo);
+            case 3 -> new Besugo(sexo);
+            default -> new TruchaArcoiris(sexo);
+        };
+        PecesDatos datos = pez.getDatos();
+        pez.setEdad(rand.nextInt(datos.getOptimo()));
+        pez.setCiclo(1 + rand.nextInt(datos.getCiclo()));
+        return pez;
+    }
+
+    /**
+     * Describe el estado de la partida: el día, las monedas, la comida y los peces de cada tanque en su orden.
+     *
+     * @param simulador Simulador a describir.
+     * @return una línea con los datos generales, otra por piscifactoría y otra por tanque con el estado de sus peces.
+     */
+    private static List<String> describirPartida(Simulador simulador) {
+        List<String> lineas = new ArrayList<>();
+        lineas.add("día " + simulador.getDia() + ", monedas " + Simulador.monedas.getMonedas() + ", almacén "
+                + simulador.almacenCentral.getCantidadComidaAnimal() + "/" + simulador.almacenCentral.getCantidadComidaVegetal());
+        for (Piscifactoria piscifactoria : simulador.getPiscifactorias()) {
+            lineas.add(piscifactoria.getNombre() + ": comida " + piscifactoria.getComidaAnimalActual() + "/"
+                    + piscifactoria.getComidaVegetalActual());
+            for (Tanque tanque : piscifactoria.getTanques()) {
+                StringBuilder linea = new StringBuilder(piscifactoria.getNombre()).append(" tanque ")
+                        .append(tanque.getNumeroTanque()).append(':');
+                for (Pez pez : tanque.getPeces()) {
+                    linea.append(' ').append(pez.getEdad()).append('/').append(pez.getCiclo())
+                            .append(pez.isSexo() ? 'M' : 'H').append(pez.isVivo() ? 'v' : 'm')
+                            .append(pez.isFertil() ? 'f' : '-').append(pez.isMaduro() ? 'd' : '-')
+                            .append(pez.isAlimentado() ? 'a' : '-');
+                }
+                lineas.add(linea.toString());
+            }
+        }
+        return lineas;
+    }
+
+    /**
+     * Comprueba que una medida no pasa de un máximo, muestra el resultado y cuenta el fallo si lo pasa.
+     *
+     * @param prueba   Nombre de la comprobación.
+     * @param obtenido Valor medido.
+     * @param maximo   Valor máximo admitido.
+     */
+    private static void comprobarCota(String prueba, long obtenido, long maximo) {
+        if (obtenido > maximo) {
+            fallos++;
+            System.out.println("FALLO " + prueba);
+            System.out.println("  esperado: como mucho " + maximo);
+            System.out.println("  obtenido: " + obtenido);
+        } else {
+            System.out.println("OK    " + prueba + " (" + obtenido + ", como mucho " + maximo + ")");
+        }
+    }
+
+    /**
+     * Compara dos descripciones, muestra el resultado y cuenta el fallo si no coinciden.
+     *
+     * @param prueba   Nombre de la comprobación.
+     * @param esperado Descripción esperada.
+     * @param obtenido Descripción obtenida.
+     */
+    private static void comprobar(String prueba, List<String> esperado, List<String> obtenido) {
+        for (int i = 0; i < Math.max(esperado.size(), obtenido.size()); i++) {
+            String linea = i < esperado.size() ? esperado.get(i) : null;
+            String otra = i < obtenido.size() ? obtenido.get(i) : null;
+            if (linea == null || !linea.equals(otra)) {
+                fallos++;
+                System.out.println("FALLO " + prueba);
+                System.out.println("  esperado: " + linea);
+                System.out.println("  obtenido: " + otra);
+                return;
+            }
+        }
+        System.out.println("OK    " + prueba);
+    }
+}
@@ -0,0 +1,173 @@
+package commons;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Existencias de un tipo de comida que pueden consumirse desde varios hilos a la vez.
+ * Cada operación lee y modifica la cantidad en un solo paso atómico, sin bloqueos, de modo que
+ * nunca se consume más comida de la que hay ni se deposita más de la que cabe.
+ * Quien consume reserva de una vez todo lo que necesita un lote de peces y devuelve lo que no use.
+ */
+public class ReservaComida {
+
+    /** Cantidad de comida disponible. */
+    private final AtomicInteger cantidad;
+
+    /**
+     * Crea unas existencias con una cantidad inicial.
+     *
+     * @param cantidadInicial Cantidad de comida inicial.
+     */
+    public ReservaComida(int cantidadInicial) {
+        cantidad = new AtomicInteger(Math.max(cantidadInicial, 0));
+    }
+
+    /**
+     * Reserva hasta una cantidad de comida, o la que quede si hay menos.
+     *
+     * @param maximo Cantidad de comida que se quiere reservar.
+     * @return la cantidad reservada, entre 0 y maximo.
+     */
+    public int reservar(int maximo) {
+        if (maximo <= 0) {
+            return 0;
+        }
+        while (true) {
+            int actual = cantidad.get();
+            int reservada = Math.min(actual, maximo);
+            if (reservada <= 0 || cantidad.compareAndSet(actual, actual - reservada)) {
+                return Math.max(reservada, 0);
+            }
+        }
+    }
+
+    /**
+     * Reserva una cantidad exacta de comida solo si la hay entera.
+     *
+     * @param unidades Cantidad de comida a reservar.
+     * @return true si se ha reservado, false si no había suficiente.
+     */
+    public boolean reservarExacta(int unidades) {
+        while (true) {
+            int actual = cantidad.get();
+            if (actual < unidades) {
+                return false;
+            }
+            if (cantidad.compareAndSet(actual, actual - unidades)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserva raciones de dos existencias como si se tomasen una a una de la que tenga más,
+     * y de la primera en caso de empate. Si otro hilo consume a la vez, se reservan menos raciones.
+     *
+     * @param primera  Existencias preferidas en caso de empate.
+     * @param segunda  Otras existencias.
+     * @param raciones Número de raciones a reservar.
+     * @return Un arreglo con las raciones reservadas de la primera y de la segunda existencias.
+     */
+    public static int[] reservarNivelando(ReservaComida primera, ReservaComida segunda, int raciones) {
+        int disponiblePrimera = primera.getCantidad();
+        int disponibleSegunda = segunda.getCantidad();
+        raciones = (int) Math.min(raciones, (long) disponiblePrimera + disponibleSegunda);
+        if (raciones <= 0) {
+            return new int[] { 0, 0 };
+        }
+
+        int dePrimera = nivelarPrimera(disponiblePrimera, disponibleSegunda, raciones);
+        return new int[] { primera.reservar(dePrimera), segunda.reservar(raciones - dePrimera) };
+    }
+
+    /**
+     * Calcula cuántas raciones salen de la primera de dos cantidades al tomarlas una a una de la que tenga más,
+     * y de la primera en caso de empate. Si las raciones superan la suma, el resto se sigue alternando entre las dos.
+     *
+     * @param disponiblePrimera Cantidad preferida en caso de empate.
+     * @param disponibleSegunda Otra cantidad.
+     * @param raciones          Número de raciones a tomar.
+     * @return las raciones que salen de la primera cantidad.
+     */
+    public static int nivelarPrimera(int disponiblePrimera, int disponibleSegunda, int raciones) {
+        long diferencia = Math.abs((long) disponiblePrimera - disponibleSegunda);
+        if (raciones <= diferencia) {
+            return disponiblePrimera >= disponibleSegunda ? raciones : 0;
+        } else if (disponiblePrimera >= disponibleSegunda) {
+            return (int) (diferencia + (raciones - diferencia + 1) / 2);
+        } else {
+            return (int) ((raciones - diferencia + 1) / 2);
+        }
+    }
+
+    /**
+     * Devuelve comida reservada que no se ha llegado a consumir.
+     *
+     * @param unidades Cantidad de comida a devolver.
+     */
+    public void devolver(int unidades) {
+        if (unidades > 0) {
+            cantidad.addAndGet(unidades);
+        }
+    }
+
+    /**
+     * Deposita comida sin superar una capacidad máxima.
+     *
+     * @param unidades  Cantidad de comida a depositar.
+     * @param capacidad Capacidad máxima de las existencias.
+     * @return la cantidad depositada, que es menor que unidades si no cabe entera.
+     */
+    public int depositar(int unidades, int capacidad) {
+        if (unidades <= 0) {
+            return 0;
+        }
+        while (true) {
+            int actual = cantidad.get();
+            int depositada = Math.min(unidades, capacidad - actual);
+            if (depositada <= 0) {
+                return 0;
+            }
+            if (cantidad.compareAndSet(actual, actual + depositada)) {
+                return depositada;
+            }
+        }
+    }
+
+    /**
+     * Deposita una cantidad exacta de comida solo si cabe entera.
+     *
+     * @param unidades  Cantidad de comida a depositar.
+     * @param capacidad Capacidad máxima de las existencias.
+     * @return true si se ha depositado, false si no cabía.
+     */
+    public boolean depositarExacta(int unidades, int capacidad) {
+        while (true) {
+            int actual = cantidad.get();
+            if (unidades > capacidad - actual) {
+                return false;
+            }
+            if (cantidad.compareAndSet(actual, actual + unidades)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Devuelve la cantidad de comida disponible.
+     *
+     * @return cantidad de comida disponible.
+     */
+    public int getCantidad() {
+        return cantidad.get();
+    }
+
+    /**
+     * Establece la cantidad de comida disponible, por ejemplo al cargar una partida.
+     *
+     * @param nuevaCantidad la nueva cantidad de comida.
+     */
+    public void setCantidad(int nuevaCantidad) {
+        cantidad.set(nuevaCantidad);
+    }
+}
@@ -1,5 +1,6 @@
 package commons;
 
+import java.io.IOException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -7,6 +8,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 import database.DAOPedidos;
 import database.GeneradorBD;
@@ -15,6 +17,7 @@ import database.dtos.DTOPedido;
 import edificios.AlmacenCentral;
 import edificios.GranjaFitoplancton;
 import edificios.GranjaLangostinos;
+import edificios.RepartoComida;
 
 import helpers.FileHelper;
 import helpers.InputHelper;
@@ -23,13 +26,15 @@ import helpers.MenuHelper;
 import piscifactoria.Piscifactoria;
 import piscifactoria.PiscifactoriaDeMar;
 import piscifactoria.PiscifactoriaDeRio;
+import piscifactoria.ResultadoDia;
 
+import tanque.ModoAlmacenamiento;
+import tanque.Poblacion;
 import tanque.Tanque;
 
+import peces.Especie;
 import peces.Pez;
-import peces.tipos.doble.*;
-import peces.tipos.mar.*;
-import peces.tipos.rio.*;
+import peces.RegistroEspecies;
 
 import persistencia.GestorEstado;
 import estadisticas.Estadisticas;
@@ -55,6 +60,12 @@ public class Simulador {
     /** Instancia del simulador. */
     public static Simulador instance = null;
 
+    /**
+     * Si es true, las piscifactorías se alimentan y avanzan el día en paralelo sobre el ForkJoinPool común.
+     * El resultado es el mismo que en secuencia, porque todas se aprovisionan del almacén central antes de que coma ninguna.
+     */
+    public static boolean diaParalelo = false;
+
     /** Días transcurridos en la simulación. */
     private int dia = 0;
 
@@ -68,21 +79,9 @@ public class Simulador {
     private String nombrePiscifactoria;
 
     /** Lista de nombres de peces implementados. */
-    public final String[] pecesImplementados = {
-        AlmacenPropiedades.DORADA.getNombre(),
-        AlmacenPropiedades.SALMON_ATLANTICO.getNombre(),
-        AlmacenPropiedades.TRUCHA_ARCOIRIS.getNombre(),
-        AlmacenPropiedades.ARENQUE_ATLANTICO.getNombre(),
-        AlmacenPropiedades.BESUGO.getNombre(),
-        AlmacenPropiedades.LENGUADO_EUROPEO.getNombre(),
-        AlmacenPropiedades.LUBINA_RAYADA.getNombre(),
-        AlmacenPropiedades.ROBALO.getNombre(),
-        AlmacenPropiedades.CARPA_PLATEADA.getNombre(),
-        AlmacenPropiedades.PEJERREY.getNombre(),
-        AlmacenPropiedades.PERCA_EUROPEA.getNombre(),
-        AlmacenPropiedades.SALMON_CHINOOK.getNombre(),
-        AlmacenPropiedades.TILAPIA_NILO.getNombre()
-    };
+    public final String[] pecesImplementados = RegistroEspecies.implementadas().stream()
+            .map(Especie::getNombre)
+            .toArray(String[]::new);
 
     /** Sistema de monedas para manejar transacciones. */
     public static SistemaMonedas monedas = SistemaMonedas.getInstancia();
@@ -102,6 +101,9 @@ public class Simulador {
     /** Registro de logs y eventos del sistema. */
     public Registros registro;
 
+    /** Tiempo real acumulado en cada fase del avance de los días. */
+    public final TiemposFases tiempos = new TiemposFases();
+
     /** DAO para gestionar los pedidos en la base de datos. */
     public DAOPedidos pedidos = new DAOPedidos();
 
@@ -297,6 +299,22 @@ public class Simulador {
         estadisticas.mostrar();
     }
 
+    /** Muestra un menú con los informes: las estadísticas por tipo de pez y los tiempos de simulación. */
+    public void informes() {
+        System.out.println("\n========================= Informes =========================");
+        String[] opcionesInformes = { "Estadísticas", "Tiempos de simulación" };
+        MenuHelper.mostrarMenuCancelar(opcionesInformes);
+
+        switch (InputHelper.solicitarNumero(0, opcionesInformes.length)) {
+            case 1:
+                showStats();
+                break;
+            case 2:
+                showTiempos();
+                break;
+        }
+    }
+
     /** Muestra el estado de un pez seleccionado por el usuario. */
     public void showIctio() {
         System.out.println("\n======================== Ictiopedia ========================");
@@ -351,21 +369,141 @@ public class Simulador {
 
     /** Simula un día en todas las piscifactorías. */
     public void nextDay() {
+        int[] resumen = avanzarDia(true, null);
+
+        long inicio = System.nanoTime();
+        if (dia % 10 == 0) {
+            pedidos.generarPedidoAutomatico();
+            inicio = medir(FaseDia.PEDIDOS, inicio);
+        }
+        registro.registroFinDelDia(dia, resumen[2], resumen[3], resumen[1], monedas.getMonedas());
+        medir(FaseDia.REGISTRO, inicio);
+    }
+
+    /**
+     * Simula varios días consecutivos en todas las piscifactorías.
+     * Con más de un día se usa el avance rápido: no se muestra nada por consola durante el avance,
+     * los pedidos automáticos se generan juntos al final, se registra un único resumen
+     * y se informa del número de días simulados por segundo.
+     *
+     * @param dias Número de días a simular.
+     */
+    public void nextDay(int dias) {
+        if (dias <= 1) {
+            for (int i = 0; i < dias; i++) {
+                nextDay();
+            }
+            return;
+        }
+
+        int diaInicial = dia;
+        int pecesVendidos = 0, monedasGanadas = 0, pedidosPendientes = 0;
+        int[] resumen = null;
+        long inicio = System.nanoTime();
+
+        for (int i = 0; i < dias; i++) {
+            resumen = avanzarDia(false, null);
+            pecesVendidos += resumen[0];
+            monedasGanadas += resumen[1];
+            if (dia % 10 == 0) {
+                pedidosPendientes++;
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long inicioCierre = System.nanoTime();
+        int pedidosGenerados = pedidos.generarPedidosAutomaticos(pedidosPendientes);
+        if (pedidosPendientes > 0) {
+            inicioCierre = medir(FaseDia.PEDIDOS, inicioCierre);
+        }
+        registro.registroAvanceRapido(diaInicial, dia, resumen[2], resumen[3], pecesVendidos, monedasGanadas,
+                monedas.getMonedas(), pedidosGenerados);
+        medir(FaseDia.REGISTRO, inicioCierre);
+
+        System.out.println("\nAvanzados " + dias + " días, del día " + (diaInicial + 1) + " al día " + dia + ".");
+        System.out.println(pecesVendidos + " peces vendidos por un total de " + monedasGanadas + " monedas.");
+        System.out.println(pedidosGenerados + " pedidos generados.");
+        System.out.printf("Tiempo: %.3f s (%.1f días/s).%n", segundos, dias / Math.max(segundos, 1e-9));
+    }
+
+    /**
+     * Avanza un día en todas las piscifactorías y edificios, sin generar pedidos ni registrar el fin del día.
+     * El tiempo de cada fase se registra en los tiempos del simulador; el de las fases de los tanques es la suma
+     * de lo que ha tardado cada tanque, aunque las piscifactorías avancen en paralelo.
+     *
+     * @param mostrar   true para mostrar por consola el resultado de cada piscifactoría y los avisos del día,
+     *                  false para avanzarlo sin escribir nada por consola.
+     * @param acumulado Resultado donde se suman los resultados de todas las piscifactorías, o null.
+     * @return Un arreglo con los peces vendidos, las monedas ganadas y los peces vivos de río y de mar.
+     */
+    int[] avanzarDia(boolean mostrar, ResultadoDia acumulado) {
         int pecesVendidos = 0, monedasGanadas = 0;
         int totalPecesVendidos = 0, totalMonedasGanadas = 0;
 
         dia++;
 
-        System.out.println("\nFin del día " + dia + ".\n");
-        for (Piscifactoria piscifactoria : piscifactorias) {
-            int[] resultadoPiscifactoria = piscifactoria.nextDay();
-            pecesVendidos = resultadoPiscifactoria[0];
-            monedasGanadas = resultadoPiscifactoria[1];
+        if (mostrar) {
+            System.out.println("\nFin del día " + dia + ".\n");
+        }
+        long inicio = System.nanoTime();
+        if (almacenCentral != null) {
+            almacenCentral.aprovisionar(piscifactorias);
+            inicio = medir(FaseDia.APROVISIONAMIENTO, inicio);
+        }
+        if (diaParalelo) {
+            IntStream.range(0, piscifactorias.size()).parallel().forEach(i -> piscifactorias.get(i).alimentar(i, dia));
+        } else {
+            for (int i = 0; i < piscifactorias.size(); i++) {
+                piscifactorias.get(i).alimentar(i, dia);
+            }
+        }
+        if (almacenCentral != null) {
+            for (Piscifactoria piscifactoria : piscifactorias) {
+                piscifactoria.liquidarTraspaso(almacenCentral);
+            }
+        }
+        inicio = medir(FaseDia.ALIMENTACION, inicio);
+
+        List<ResultadoDia> resultados;
+        if (diaParalelo) {
+            resultados = IntStream.range(0, piscifactorias.size()).parallel()
+                    .mapToObj(i -> piscifactorias.get(i).nextDay(i, dia)).toList();
+        } else {
+            resultados = new ArrayList<>();
+            for (int i = 0; i < piscifactorias.size(); i++) {
+                resultados.add(piscifactorias.get(i).nextDay(i, dia));
+            }
+        }
+        ResultadoDia tanques = new ResultadoDia();
+        for (ResultadoDia resultado : resultados) {
+            tanques.sumar(resultado);
+        }
+        tiempos.registrar(FaseDia.CRECIMIENTO, tanques.getNanos(FaseDia.CRECIMIENTO));
+        if (granjaLangostinos != null) {
+            tiempos.registrar(FaseDia.MUERTOS, tanques.getNanos(FaseDia.MUERTOS));
+        }
+        tiempos.registrar(FaseDia.REPRODUCCION, tanques.getNanos(FaseDia.REPRODUCCION));
+        tiempos.registrar(FaseDia.VENTA, tanques.getNanos(FaseDia.VENTA));
+        inicio = System.nanoTime();
+
+        for (int i = 0; i < piscifactorias.size(); i++) {
+            Piscifactoria piscifactoria = piscifactorias.get(i);
+            ResultadoDia resultado = resultados.get(i);
+            resultado.aplicar(monedas, estadisticas, granjaLangostinos, mostrar);
+            if (acumulado != null) {
+                acumulado.sumar(resultado);
+            }
+            pecesVendidos = resultado.getPecesVendidos();
+            monedasGanadas = resultado.getMonedasGanadas();
             totalPecesVendidos += pecesVendidos;
             totalMonedasGanadas += monedasGanadas;
-            System.out.println("Piscifactoría " + piscifactoria.getNombre() + ": " + pecesVendidos + " peces vendidos por " + monedasGanadas + " monedas");
+            if (mostrar) {
+                System.out.println("Piscifactoría " + piscifactoria.getNombre() + ": " + pecesVendidos + " peces vendidos por " + monedasGanadas + " monedas");
+            }
+        }
+        if (mostrar) {
+            System.out.println("\n" + totalPecesVendidos + " peces vendidos por un total de " + totalMonedasGanadas + " monedas.");
         }
-        System.out.println("\n" + totalPecesVendidos + " peces vendidos por un total de " + totalMonedasGanadas + " monedas.");
    
         int pecesDeRio = 0, pecesDeMar = 0;
 
@@ -376,29 +514,35 @@ public class Simulador {
                 pecesDeMar += piscifactoria.getTotalVivos();
             }
         }
+        inicio = medir(FaseDia.RESULTADOS, inicio);
 
         if (almacenCentral != null) {
             almacenCentral.distribuirComida(piscifactorias);
+            inicio = medir(FaseDia.DISTRIBUCION, inicio);
             
             if (granjaFitoplancton != null) {
-                granjaFitoplancton.nextDay(almacenCentral);
+                granjaFitoplancton.nextDay(almacenCentral, mostrar);
+                inicio = medir(FaseDia.FITOPLANCTON, inicio);
             }
             if (granjaLangostinos != null) {
-                granjaLangostinos.nextDay(almacenCentral);
+                granjaLangostinos.nextDay(almacenCentral, dia, mostrar);
+                medir(FaseDia.LANGOSTINOS, inicio);
             }
         }
-
-        if (dia % 10 == 0) {
-            pedidos.generarPedidoAutomatico();
-        }
-        registro.registroFinDelDia(dia, pecesDeRio, pecesDeMar, totalMonedasGanadas, monedas.getMonedas());
+        return new int[] { totalPecesVendidos, totalMonedasGanadas, pecesDeRio, pecesDeMar };
     }
 
-    /** Simula varios días consecutivos en todas las piscifactorías. */
-    public void nextDay(int dias) {
-        for (int i = 0; i < dias; i++) {
-            nextDay();
-        }
+    /**
+     * Suma a una fase el tiempo transcurrido desde un instante.
+     *
+     * @param fase   La fase que acaba de terminar.
+     * @param inicio Instante en que empezó la fase, en nanosegundos.
+     * @return Instante actual, en que empieza la siguiente fase.
+     */
+    private long medir(FaseDia fase, long inicio) {
+        long fin = System.nanoTime();
+        tiempos.registrar(fase, fin - inicio);
+        return fin;
     }
 
     /** Añade comida al almacén central si está construido, o a una piscifactoría seleccionada. */
@@ -549,30 +693,12 @@ public class Simulador {
             while (opcion != 0) {
                 boolean esDeRio = selectTank.getKey() instanceof PiscifactoriaDeRio;
 
+                List<Especie> criables = RegistroEspecies.criables(esDeRio);
                 String[] opcionesPeces;
                 if (tanqueSeleccionado.getPeces().isEmpty()) {
-                    if (esDeRio) {
-                        opcionesPeces = new String[] {
-                                "Dorada",
-                                "Salmón del Atlántico",
-                                "Trucha Arcoíris",
-                                "Carpa Plateada",
-                                "Pejerrey",
-                                "Perca Europea",
-                                "Salmón Chinook",
-                                "Tilapia del Nilo"
-                        };
-                    } else {
-                        opcionesPeces = new String[] {
-                                "Dorada",
-                                "Salmon del Atlántico",
-                                "Trucha Arcoíris",
-                                "Arenque del Atlántico",
-                                "Besugo",
-                                "Lenguado Europeo",
-                                "Lubina Rayada",
-                                "Robalo"
-                        };
+                    opcionesPeces = new String[criables.size()];
+                    for (int i = 0; i < opcionesPeces.length; i++) {
+                        opcionesPeces[i] = criables.get(i).getNombre();
                     }
                 } else {
                     opcionesPeces = new String[] { tanqueSeleccionado.getPeces().get(0).getNombre() };
@@ -588,32 +714,8 @@ public class Simulador {
                 Pez pezSeleccionado = null;
 
                 if (tanqueSeleccionado.getPeces().isEmpty()) {
-                    switch (opcion) {
-                        case 1:
-                            pezSeleccionado = new Dorada(sexo);
-                            break;
-                        case 2:
-                            pezSeleccionado = new SalmonAtlantico(sexo);
-                            break;
-                        case 3:
-                            pezSeleccionado = new TruchaArcoiris(sexo);
-                            break;
-                        case 4:
-                            pezSeleccionado = esDeRio ? new CarpaPlateada(sexo) : new ArenqueDelAtlantico(sexo);
-                            break;
-                        case 5:
-                            pezSeleccionado = esDeRio ? new Pejerrey(sexo) : new Besugo(sexo);
-                            break;
-                        case 6:
-                            pezSeleccionado = esDeRio ? new PercaEuropea(sexo) : new LenguadoEuropeo(sexo);
-                            break;
-                        case 7:
-                            pezSeleccionado = esDeRio ? new SalmonChinook(sexo) : new LubinaRayada(sexo);
-                            break;
-                        case 8:
-                            pezSeleccionado = esDeRio ? new TilapiaDelNilo(sexo) : new Robalo(sexo);
-                            break;
-                        case 0:
+                    if (opcion != 0) {
+                        pezSeleccionado = criables.get(opcion - 1).crear(sexo);
                     }
                 } else {
                     switch (opcion) {
@@ -627,10 +729,10 @@ public class Simulador {
                 if (opcion != 0 && tanqueSeleccionado.addFish(pezSeleccionado)) {
                     estadisticas.registrarNacimiento(pezSeleccionado.getNombre());
                     System.out.println("\n" + pezSeleccionado.getNombre() + (pezSeleccionado.isSexo() ? " (M)" : " (H)")
-                            + " comprado por " + pezSeleccionado.getDatos().getCoste() + " monedas. Añadido al tanque "
+                            + " comprado por " + pezSeleccionado.getEspecie().getCoste() + " monedas. Añadido al tanque "
                             + tanqueSeleccionado.getNumeroTanque() + " de la piscifactoría "
                             + selectTank.getKey().getNombre() + ".");
-                    registro.registroComprarPeces(pezSeleccionado.getNombre(), pezSeleccionado.isSexo(), pezSeleccionado.getDatos().getCoste(), tanqueSeleccionado.getNumeroTanque(), nombrePiscifactoria);
+                    registro.registroComprarPeces(pezSeleccionado.getNombre(), pezSeleccionado.isSexo(), pezSeleccionado.getEspecie().getCoste(), tanqueSeleccionado.getNumeroTanque(), nombrePiscifactoria);
                 }
             }
         }
@@ -1147,27 +1249,7 @@ public class Simulador {
 
                     pezSeleccionado = (!tanqueSeleccionado.getPeces().isEmpty())
                             ? tanqueSeleccionado.getPeces().get(0).clonar(sexo)
-                            : (esDeRio
-                                    ? new Pez[] {
-                                            new Dorada(sexo),
-                                            new SalmonAtlantico(sexo),
-                                            new TruchaArcoiris(sexo),
-                                            new CarpaPlateada(sexo),
-                                            new Pejerrey(sexo),
-                                            new PercaEuropea(sexo),
-                                            new SalmonChinook(sexo),
-                                            new TilapiaDelNilo(sexo)
-                                    }
-                                    : new Pez[] {
-                                            new Dorada(sexo),
-                                            new SalmonAtlantico(sexo),
-                                            new TruchaArcoiris(sexo),
-                                            new ArenqueDelAtlantico(sexo),
-                                            new Besugo(sexo),
-                                            new LenguadoEuropeo(sexo),
-                                            new LubinaRayada(sexo),
-                                            new Robalo(sexo)
-                                    })[random.nextInt(7)];
+                            : RegistroEspecies.criables(esDeRio).get(random.nextInt(7)).crear(sexo);
                     tanqueSeleccionado.getPeces().add(pezSeleccionado);
                 }
                 System.out.println("\nSe han añadido 4 " + pezSeleccionado.getNombre() + " al tanque "
@@ -1186,93 +1268,55 @@ public class Simulador {
      * @param tipo El tipo de comida a distribuir ("algae", "animal", "general").
      */
     public void distribuirComida(int cantidadComida, String tipo) {
-     
         switch (tipo) {
             case "algae":
-                int necesitanComidaVegetal = 0;
-
-                do {
-                    for (Piscifactoria piscifactoria : piscifactorias) {
-                        if (piscifactoria.getComidaVegetalActual() < piscifactoria.getCapacidadMaximaComida()) {
-                            necesitanComidaVegetal++;
-                        }
-                    }
-                    int comidaVegetalPorPiscifactoria = (necesitanComidaVegetal > 0) ? cantidadComida / necesitanComidaVegetal : 0;
-        
-                    for (Piscifactoria piscifactoria : piscifactorias) {
-                        if (piscifactoria.getComidaVegetalActual() < piscifactoria.getCapacidadMaximaComida()) {
-                            int espacioDisponibleVegetal = piscifactoria.getCapacidadMaximaComida() - piscifactoria.getComidaVegetalActual();
-                            int comidaMaxima = Math.min(espacioDisponibleVegetal, comidaVegetalPorPiscifactoria);
-                            piscifactoria.añadirComidaVegetal(comidaMaxima);
-                            cantidadComida -= comidaMaxima;
-                            necesitanComidaVegetal--;
-                        }
-                    }
-                } while (necesitanComidaVegetal != 0);
+                RepartoComida.repartirVegetal(piscifactorias, cantidadComida);
                 break;
 
             case "animal":
-                int necesitanComidaAnimal = 0;
-
-                do {
-                    for (Piscifactoria piscifactoria : piscifactorias) {
-                        if (piscifactoria.getComidaAnimalActual() < piscifactoria.getCapacidadMaximaComida()) {
-                            necesitanComidaAnimal++;
-                        }
-                    }
-                    int comidaAnimalPorPiscifactoria = (necesitanComidaAnimal > 0) ? cantidadComida / necesitanComidaAnimal : 0;
-        
-                    for (Piscifactoria piscifactoria : piscifactorias) {
-                        if (piscifactoria.getComidaAnimalActual() < piscifactoria.getCapacidadMaximaComida()) {
-                            int espacioDisponibleAnimal = piscifactoria.getCapacidadMaximaComida() - piscifactoria.getComidaAnimalActual();
-                            int comidaMaxima = Math.min(espacioDisponibleAnimal, comidaAnimalPorPiscifactoria);
-                            piscifactoria.añadirComidaAnimal(comidaMaxima);
-                            cantidadComida -= comidaMaxima;
-                            necesitanComidaAnimal--;
-                        }
-                    }
-                } while (necesitanComidaAnimal != 0);
+                RepartoComida.repartirAnimal(piscifactorias, cantidadComida);
                 break;
     
             case "general":
-                necesitanComidaAnimal = 0;
-                necesitanComidaVegetal = 0;
-
-                do {
-                    for (Piscifactoria piscifactoria : piscifactorias) {
-                        if (piscifactoria.getComidaAnimalActual() < piscifactoria.getCapacidadMaximaComida()) {
-                            necesitanComidaAnimal++;
-                        }
-                        if (piscifactoria.getComidaVegetalActual() < piscifactoria.getCapacidadMaximaComida()) {
-                            necesitanComidaVegetal++;
-                        }
-                    }
-        
-                    int comidaAnimalPorPiscifactoria = (necesitanComidaAnimal > 0) ? (cantidadComida / 2) / necesitanComidaAnimal : 0;
-                    int comidaVegetalPorPiscifactoria = (necesitanComidaVegetal > 0) ? (cantidadComida / 2) / necesitanComidaVegetal : 0;
-        
-                    for (Piscifactoria piscifactoria : piscifactorias) {
-                        if (piscifactoria.getComidaAnimalActual() < piscifactoria.getCapacidadMaximaComida()) {
-                            int espacioDisponibleAnimal = piscifactoria.getCapacidadMaximaComida() - piscifactoria.getComidaAnimalActual();
-                            int comidaMaxima = Math.min(espacioDisponibleAnimal, comidaAnimalPorPiscifactoria);
-                            piscifactoria.añadirComidaAnimal(comidaMaxima);
-                            cantidadComida -= comidaMaxima;
-                            necesitanComidaAnimal--;
-                        }
-        
-                        if (piscifactoria.getComidaVegetalActual() < piscifactoria.getCapacidadMaximaComida()) {
-                            int espacioDisponibleVegetal = piscifactoria.getCapacidadMaximaComida() - piscifactoria.getComidaVegetalActual();
-                            int comidaMaxima = Math.min(espacioDisponibleVegetal, comidaVegetalPorPiscifactoria);
-                            piscifactoria.añadirComidaVegetal(comidaMaxima);
-                            cantidadComida -= comidaMaxima;
-                            necesitanComidaVegetal--;
-                        }
-                    }
-                } while (necesitanComidaAnimal != 0 && necesitanComidaVegetal != 0);
+                RepartoComida.repartirAnimal(piscifactorias, cantidadComida / 2);
+                RepartoComida.repartirVegetal(piscifactorias, cantidadComida / 2);
                 break;
         }
     }
 
+    /** Guarda la partida tras avanzar uno o varios días, registrando el tiempo del guardado. */
+    public void guardarTrasAvance() {
+        long inicio = System.nanoTime();
+        GestorEstado.guardarEstado(this);
+        medir(FaseDia.GUARDADO, inicio);
+    }
+
+    /** Muestra los tiempos de cada fase de los días simulados en esta sesión. */
+    public void showTiempos() {
+        if (!tiempos.hayMuestras()) {
+            System.out.println("\nAún no se ha simulado ningún día en esta sesión.");
+            return;
+        }
+        System.out.println("\n======================= Tiempos de simulación (ms) =======================");
+        System.out.print(tiempos.informe());
+        String cargaDiferida = GestorEstado.informeCargaDiferida(this);
+        if (cargaDiferida != null) {
+            System.out.println(cargaDiferida);
+        }
+    }
+
+    /** Escribe los tiempos de cada fase en la carpeta de logs, si se ha simulado algún día. */
+    public void volcarTiempos() {
+        if (tiempos.hayMuestras()) {
+            String ruta = "logs/" + (nombreEntidad != null ? nombreEntidad : "default") + "_tiempos.txt";
+            try {
+                tiempos.volcar(ruta);
+            } catch (IOException e) {
+                registro.registroLogError("Error al escribir los tiempos de simulación: " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Envía un pedido de forma manual.
      * Muestra los pedidos pendientes, solicita la referencia del pedido y la cantidad de peces disponibles,
@@ -1312,7 +1356,8 @@ public class Simulador {
 
                 DTOPedido pedidoActualizado = pedidos.enviarPedido(pedidoSeleccionado, cantidadDisponible);
                 if (cantidadDisponible > 0) {
-                    if (tanque.getPeces().get(0).getNombre().equals(pedidoActualizado.getNombrePez())) {
+                    Especie especiePedido = RegistroEspecies.porNombre(pedidoActualizado.getNombrePez());
+                    if (especiePedido != null && tanque.getEspecie().getId() == especiePedido.getId()) {
                         List<Pez> peces = tanque.getPeces();
 
                         int pecesEnviados = pedidoActualizado.getCantidadEnviada() - cantidadEnviadaAnterior;
@@ -1407,10 +1452,37 @@ public class Simulador {
      * mostrando el menú y procesando las opciones del usuario.
      * El ciclo continúa hasta que el usuario decide salir.
      *
-     * @param args Argumentos de línea de comandos, no utilizados.
+     * @param args Argumentos de línea de comandos. Admite:
+     *             "--almacenamiento=LISTA|COLUMNAR|COHORTES" para elegir cómo guardan los tanques a sus peces,
+     *             "--verificar-contadores" para contrastar los contadores de los tanques con un recuento completo,
+     *             "--paralelo" para avanzar el día de las piscifactorías en paralelo,
+     *             "--guardado-compacto" para guardar la partida sin sangrías ni saltos de línea,
+     *             "--guardado-binario" para guardar la partida en formato binario en lugar de JSON,
+     *             "--diario=N" para guardar cada día solo los cambios en un diario y la partida completa cada N días,
+     *             "--puntos-control=N" para dejar un punto de control en cada guardado y conservar los N más recientes y
+     *             "--semilla=N" para fijar la semilla de una partida nueva.
      */
     public static void main(String[] args) {
         Simulador simulador = null;
+        for (String arg : args) {
+            if (arg.startsWith("--almacenamiento=")) {
+                Tanque.modoAlmacenamiento = ModoAlmacenamiento.valueOf(arg.substring("--almacenamiento=".length()).toUpperCase());
+            } else if (arg.equals("--verificar-contadores")) {
+                Poblacion.verificarContadores = true;
+            } else if (arg.equals("--paralelo")) {
+                Simulador.diaParalelo = true;
+            } else if (arg.equals("--guardado-compacto")) {
+                GestorEstado.guardadoCompacto = true;
+            } else if (arg.equals("--guardado-binario")) {
+                GestorEstado.guardadoBinario = true;
+            } else if (arg.startsWith("--diario=")) {
+                GestorEstado.diasEntreCompletas = Integer.parseInt(arg.substring("--diario=".length()));
+            } else if (arg.startsWith("--puntos-control=")) {
+                GestorEstado.puntosControl = Integer.parseInt(arg.substring("--puntos-control=".length()));
+            } else if (arg.startsWith("--semilla=")) {
+                Aleatorio.setSemilla(Long.parseLong(arg.substring("--semilla=".length())));
+            }
+        }
         try {
             simulador = new Simulador();
             Simulador.instance = simulador;
@@ -1426,11 +1498,11 @@ public class Simulador {
                     case 1: simulador.showGeneralStatus(); break;
                     case 2: simulador.showSpecificStatus(); break;
                     case 3: simulador.showTankStatus(); break;
-                    case 4: simulador.showStats(); break;
+                    case 4: simulador.informes(); break;
                     case 5: simulador.showIctio(); break;
                     case 6: 
                         simulador.nextDay();
-                        GestorEstado.guardarEstado(simulador);
+                        simulador.guardarTrasAvance();
                         break;
                     case 7: 
                         simulador.addFood();
@@ -1447,7 +1519,7 @@ public class Simulador {
                     case 14:
                         int dias = InputHelper.readInt("\nIngrese los días para avanzar en el simulador: ");
                         simulador.nextDay(dias);
-                        GestorEstado.guardarEstado(simulador);
+                        simulador.guardarTrasAvance();
                         break;
                     case 15: simulador.enviarPedidoManual(); break;
                     case 95: simulador.borrarPedidos(); break;
@@ -1485,7 +1557,11 @@ public class Simulador {
             }
         } finally {
             InputHelper.close();
+            if (simulador != null) {
+                simulador.volcarTiempos();
+            }
             if (simulador != null && simulador.registro != null) {
+                GestorEstado.esperarGuardados();
                 simulador.registro.closeLogError();
             }
             if (simulador != null) {
@@ -0,0 +1,199 @@
+package commons;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import estadisticas.Estadisticas;
+import helpers.FileHelper;
+import persistencia.GestorEstado;
+import piscifactoria.Piscifactoria;
+import piscifactoria.ResultadoDia;
+import registros.Registros;
+import tanque.ModoAlmacenamiento;
+import tanque.Poblacion;
+import tanque.Tanque;
+
+/**
+ * Ejecuta una partida guardada sin menús ni entrada por teclado.
+ * Carga una partida de la carpeta saves, avanza un número de días con una semilla opcional
+ * y escribe un resumen en JSON con las monedas, la población por especie, las ventas y el tiempo de cada fase.
+ * No guarda la partida, no genera pedidos ni necesita la base de datos, así que puede ejecutarse sobre copias
+ * de partidas reales para hacer proyecciones o medir el rendimiento de la simulación.
+ */
+public class SimuladorLotes {
+
+    /** Texto de ayuda con los argumentos admitidos. */
+    private static final String USO = "Uso: SimuladorLotes --partida=NOMBRE --dias=N --salida=RUTA [--semilla=N]"
+            + " [--almacenamiento=LISTA|COLUMNAR|COHORTES] [--paralelo] [--verificar-contadores]";
+
+    /** Constructor privado, la clase solo tiene métodos estáticos. */
+    private SimuladorLotes() {
+    }
+
+    /**
+     * Punto de entrada de la ejecución por lotes.
+     * Termina con código 0 si se escribe el resumen, 1 si falla la ejecución y 2 si los argumentos no son válidos.
+     *
+     * @param args Argumentos de línea de comandos. Admite:
+     *             "--partida=NOMBRE" con el nombre de la partida en la carpeta saves, sin extensión,
+     *             "--dias=N" con el número de días a simular,
+     *             "--salida=RUTA" con el archivo donde se escribe el resumen,
+     *             "--semilla=N" para fijar la semilla en lugar de usar la de la partida
+     *             y las mismas opciones "--almacenamiento=", "--paralelo" y "--verificar-contadores" que Simulador.
+     */
+    public static void main(String[] args) {
+        String partida = null;
+        String salida = null;
+        Long semilla = null;
+        int dias = -1;
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--partida=")) {
+                    partida = arg.substring("--partida=".length());
+                } else if (arg.startsWith("--dias=")) {
+                    dias = Integer.parseInt(arg.substring("--dias=".length()));
+                } else if (arg.startsWith("--salida=")) {
+                    salida = arg.substring("--salida=".length());
+                } else if (arg.startsWith("--semilla=")) {
+                    semilla = Long.parseLong(arg.substring("--semilla=".length()));
+                } else if (arg.startsWith("--almacenamiento=")) {
+                    Tanque.modoAlmacenamiento = ModoAlmacenamiento.valueOf(arg.substring("--almacenamiento=".length()).toUpperCase());
+                } else if (arg.equals("--paralelo")) {
+                    Simulador.diaParalelo = true;
+                } else if (arg.equals("--verificar-contadores")) {
+                    Poblacion.verificarContadores = true;
+                } else {
+                    throw new IllegalArgumentException("Argumento desconocido: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USO);
+            System.exit(2);
+        }
+        if (partida == null || salida == null || dias < 0) {
+            System.err.println(USO);
+            System.exit(2);
+        }
+        if (!new File("saves/" + partida + ".save").isFile()) {
+            System.err.println("El archivo " + partida + " no existe.");
+            System.exit(1);
+        }
+
+        Simulador simulador = new Simulador();
+        Simulador.instance = simulador;
+        try {
+            FileHelper.crearCarpetas(new String[] {"logs", "transcripciones"});
+            simulador.registro = new Registros(partida + "_lotes");
+            GestorEstado.load(simulador, partida);
+            if (simulador.estadisticas == null) {
+                simulador.estadisticas = new Estadisticas(simulador.getPecesImplementados());
+            }
+            if (semilla != null) {
+                Aleatorio.setSemilla(semilla);
+            }
+
+            JsonObject resumen = ejecutar(simulador, partida, dias);
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(salida), StandardCharsets.UTF_8)) {
+                new GsonBuilder().setPrettyPrinting().create().toJson(resumen, writer);
+            }
+        } catch (IOException e) {
+            simulador.registro.registroLogError("Error al escribir el resumen de la ejecución por lotes: " + e.getMessage());
+            System.err.println("No se pudo escribir el resumen: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            if (simulador.registro != null) {
+                simulador.registro.closeLogError();
+            }
+        }
+    }
+
+    /**
+     * Avanza los días indicados sin mostrar nada por consola y construye el resumen de la ejecución.
+     *
+     * @param simulador Simulador con la partida ya cargada.
+     * @param partida   Nombre de la partida.
+     * @param dias      Número de días a simular.
+     * @return el resumen de la ejecución.
+     */
+    static JsonObject ejecutar(Simulador simulador, String partida, int dias) {
+        int diaInicial = simulador.getDia();
+        int monedasIniciales = Simulador.monedas.getMonedas();
+        ResultadoDia acumulado = new ResultadoDia();
+        simulador.tiempos.reiniciar();
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < dias; i++) {
+            simulador.avanzarDia(false, acumulado);
+        }
+        long total = System.nanoTime() - inicio;
+
+        JsonObject resumen = new JsonObject();
+        resumen.addProperty("partida", partida);
+        resumen.addProperty("semilla", Aleatorio.getSemilla());
+        resumen.addProperty("almacenamiento", Tanque.modoAlmacenamiento.name());
+        resumen.addProperty("paralelo", Simulador.diaParalelo);
+        resumen.addProperty("diaInicial", diaInicial);
+        resumen.addProperty("diaFinal", simulador.getDia());
+        resumen.addProperty("monedasIniciales", monedasIniciales);
+        resumen.addProperty("monedasFinales", Simulador.monedas.getMonedas());
+        resumen.addProperty("pecesVendidos", acumulado.getPecesVendidos());
+        resumen.addProperty("monedasGanadas", acumulado.getMonedasGanadas());
+        resumen.addProperty("pecesMuertosRecogidos", acumulado.getPecesMuertos());
+        resumen.addProperty("tanquesSinCargar", GestorEstado.tanquesSinCargar(simulador));
+
+        Map<String, int[]> poblacion = new TreeMap<>();
+        for (Piscifactoria piscifactoria : simulador.getPiscifactorias()) {
+            for (Tanque tanque : piscifactoria.getTanques()) {
+                if (tanque.getEspecie() != null) {
+                    int[] totales = poblacion.computeIfAbsent(tanque.getEspecie().getNombre(), k -> new int[2]);
+                    totales[0] += tanque.getOcupacion();
+                    totales[1] += tanque.getVivos();
+                }
+            }
+        }
+        JsonObject poblacionObj = new JsonObject();
+        for (Map.Entry<String, int[]> especie : poblacion.entrySet()) {
+            JsonObject especieObj = new JsonObject();
+            especieObj.addProperty("peces", especie.getValue()[0]);
+            especieObj.addProperty("vivos", especie.getValue()[1]);
+            poblacionObj.add(especie.getKey(), especieObj);
+        }
+        resumen.add("poblacion", poblacionObj);
+
+        JsonObject ventasObj = new JsonObject();
+        for (Map.Entry<String, int[]> venta : new TreeMap<>(acumulado.getVentas()).entrySet()) {
+            JsonObject ventaObj = new JsonObject();
+            ventaObj.addProperty("cantidad", venta.getValue()[0]);
+            ventaObj.addProperty("monedas", venta.getValue()[0] * venta.getValue()[1]);
+            ventasObj.add(venta.getKey(), ventaObj);
+        }
+        resumen.add("ventas", ventasObj);
+
+        JsonObject nacimientosObj = new JsonObject();
+        for (Map.Entry<String, Integer> nacimiento : new TreeMap<>(acumulado.getNacimientos()).entrySet()) {
+            nacimientosObj.addProperty(nacimiento.getKey(), nacimiento.getValue());
+        }
+        resumen.add("nacimientos", nacimientosObj);
+
+        JsonObject tiemposObj = new JsonObject();
+        tiemposObj.addProperty("totalMs", total / 1e6);
+        tiemposObj.addProperty("diasPorSegundo", dias / Math.max(total / 1e9, 1e-9));
+        JsonObject fasesObj = new JsonObject();
+        for (FaseDia fase : FaseDia.values()) {
+            fasesObj.addProperty(fase.name().toLowerCase(), simulador.tiempos.getNanos(fase) / 1e6);
+        }
+        tiemposObj.add("fasesMs", fasesObj);
+        resumen.add("tiempos", tiemposObj);
+        return resumen;
+    }
+}
@@ -36,6 +36,15 @@ public class SistemaMonedas {
         return monedas;
     }
 
+    /**
+     * Establece la cantidad de monedas, por ejemplo antes de cargar una partida.
+     * 
+     * @param monedas La nueva cantidad de monedas.
+     */
+    public void setMonedas(int monedas) {
+        this.monedas = monedas;
+    }
+
     /**
      * Método para incrementar la cantidad de monedas.
      * 
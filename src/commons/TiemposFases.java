@@ -0,0 +1,110 @@
+package commons;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tiempo real dedicado a cada fase del día desde la última vez que se reinició.
+ * Cada fase guarda un histograma con una muestra por día, o por avance en las fases que se ejecutan una vez
+ * por avance, de modo que además del total se pueden consultar la media y los percentiles.
+ */
+public class TiemposFases {
+
+    /** Histograma de cada fase, indexado por el ordinal de la fase. */
+    private final HistogramaTiempos[] histogramas = new HistogramaTiempos[FaseDia.values().length];
+
+    /** Crea los histogramas vacíos de todas las fases. */
+    public TiemposFases() {
+        for (int i = 0; i < histogramas.length; i++) {
+            histogramas[i] = new HistogramaTiempos();
+        }
+    }
+
+    /**
+     * Registra el tiempo de una ejecución de una fase.
+     *
+     * @param fase      La fase ejecutada.
+     * @param duracion  Duración de la ejecución en nanosegundos.
+     */
+    public void registrar(FaseDia fase, long duracion) {
+        histogramas[fase.ordinal()].registrar(duracion);
+    }
+
+    /**
+     * Devuelve el tiempo acumulado en una fase.
+     *
+     * @param fase La fase a consultar.
+     * @return nanosegundos acumulados.
+     */
+    public long getNanos(FaseDia fase) {
+        return histogramas[fase.ordinal()].getSuma();
+    }
+
+    /**
+     * Devuelve el histograma de una fase.
+     *
+     * @param fase La fase a consultar.
+     * @return el histograma de la fase.
+     */
+    public HistogramaTiempos getHistograma(FaseDia fase) {
+        return histogramas[fase.ordinal()];
+    }
+
+    /**
+     * Indica si se ha registrado algún tiempo.
+     *
+     * @return true si alguna fase tiene muestras.
+     */
+    public boolean hayMuestras() {
+        for (HistogramaTiempos histograma : histogramas) {
+            if (histograma.getTotal() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Borra los tiempos de todas las fases. */
+    public void reiniciar() {
+        for (HistogramaTiempos histograma : histogramas) {
+            histograma.reiniciar();
+        }
+    }
+
+    /**
+     * Construye una tabla con las muestras, la media, los percentiles 50, 90 y 99, el máximo y el total
+     * de cada fase con muestras, con los tiempos en milisegundos.
+     *
+     * @return el informe como texto.
+     */
+    public String informe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-24s %9s %10s %10s %10s %10s %10s %12s%n",
+                "Fase", "Muestras", "Media", "p50", "p90", "p99", "Máx", "Total"));
+        for (FaseDia fase : FaseDia.values()) {
+            HistogramaTiempos h = histogramas[fase.ordinal()];
+            if (h.getTotal() > 0) {
+                sb.append(String.format("%-24s %9d %10.3f %10.3f %10.3f %10.3f %10.3f %12.3f%n",
+                        fase.getNombre(), h.getTotal(), h.getMedia() / 1e6, h.percentil(50) / 1e6,
+                        h.percentil(90) / 1e6, h.percentil(99) / 1e6, h.getMaximo() / 1e6, h.getSuma() / 1e6));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Escribe el informe en un archivo, sustituyendo su contenido.
+     *
+     * @param ruta Ruta del archivo.
+     * @throws IOException si no se puede escribir.
+     */
+    public void volcar(String ruta) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(ruta), StandardCharsets.UTF_8)) {
+            writer.write("Tiempos por fase en milisegundos\n");
+            writer.write(informe());
+        }
+    }
+}
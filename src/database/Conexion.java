@@ -36,7 +36,11 @@ public class Conexion {
             try {
                 connection = DriverManager.getConnection("jdbc:mysql://" + SERVER + ":" + PORT + "/" + DATABASE + "?rewriteBatchedStatements=true", USER, PASSWORD);
             } catch (SQLException e) {
-                Simulador.instance.registro.registroLogError("Error al conectar: " + e.getMessage());
+                if (Simulador.instance != null && Simulador.instance.registro != null) {
+                    Simulador.instance.registro.registroLogError("Error al conectar: " + e.getMessage());
+                } else {
+                    e.printStackTrace();
+                }
             }
         }
         return connection;
@@ -49,7 +53,11 @@ public class Conexion {
                 connection.close();
                 connection = null;
             } catch (SQLException e) {
-                Simulador.instance.registro.registroLogError("Error al cerrar conexión: " + e.getMessage());
+                if (Simulador.instance != null && Simulador.instance.registro != null) {
+                    Simulador.instance.registro.registroLogError("Error al cerrar conexión: " + e.getMessage());
+                } else {
+                    e.printStackTrace();
+                }
             }
         }
     }
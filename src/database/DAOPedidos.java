@@ -75,14 +75,20 @@ public class DAOPedidos {
     private static final String QUERY_RANDOM_PEZ =
         "SELECT id, nombre FROM Pez ORDER BY RAND() LIMIT 1";
     
+    /** Query para obtener los IDs de todos los clientes. */
+    private static final String QUERY_IDS_CLIENTES = "SELECT id FROM Cliente";
+
+    /** Query para obtener los IDs de todos los peces. */
+    private static final String QUERY_IDS_PECES = "SELECT id FROM Pez";
+
     /** Query para obtener el nombre de un cliente dado su ID. */
     private static final String QUERY_OBTENER_CLIENTE = "SELECT nombre FROM Cliente WHERE id = ?";
 
     /** Query para obtener el nombre de un pez dado su ID. */
     private static final String QUERY_OBTENER_PEZ = "SELECT nombre FROM Pez WHERE id = ?";
 
-    /** Conexión a la base de datos. */
-    private Connection connection = Conexion.getConnection();
+    /** Conexión a la base de datos, obtenida la primera vez que se necesita. */
+    private Connection connection;
 
     /** PreparedStatement para ejecutar la inserción de un pedido. */
     private PreparedStatement pstInsertPedido;
@@ -108,27 +114,50 @@ public class DAOPedidos {
     /** PreparedStatement para obtener un pez aleatorio. */
     private PreparedStatement pstRandomPez;
 
+    /** PreparedStatement para obtener los IDs de los clientes. */
+    private PreparedStatement pstIdsClientes;
+
+    /** PreparedStatement para obtener los IDs de los peces. */
+    private PreparedStatement pstIdsPeces;
+
     /** PreparedStatement para obtener el nombre de un cliente. */
     private PreparedStatement pstObtenerCliente;
 
     /** PreparedStatement para obtener el nombre de un pez. */
     private PreparedStatement pstObtenerPez;
 
-    /** Constructor DAOPedidos que prepara los statements. */
-    public DAOPedidos() {
+    /**
+     * Conecta con la base de datos y prepara los statements si aún no se ha hecho.
+     * Se llama al principio de cada operación, de modo que crear el DAO no necesita la base de datos.
+     *
+     * @return true si la conexión y los statements están listos, false si no hay conexión.
+     */
+    private boolean preparar() {
+        if (connection != null) {
+            return true;
+        }
+        Connection conexion = Conexion.getConnection();
+        if (conexion == null) {
+            return false;
+        }
         try {
-            pstInsertPedido = connection.prepareStatement(QUERY_INSERT_PEDIDO);
-            pstListarPedidosPendientes = connection.prepareStatement(QUERY_LISTAR_PEDIDOS_PENDIENTES);
-            pstListarPedidosCompletados = connection.prepareStatement(QUERY_LISTAR_PEDIDOS_COMPLETADOS);
-            pstSeleccionarPedidoPorReferencia = connection.prepareStatement(QUERY_SELECCIONAR_PEDIDO_POR_REFERENCIA);
-            pstActualizarPedido = connection.prepareStatement(QUERY_ACTUALIZAR_PEDIDO);
-            pstBorrarPedidos = connection.prepareStatement(QUERY_BORRAR_PEDIDOS);
-            pstRandomCliente = connection.prepareStatement(QUERY_RANDOM_CLIENTE);
-            pstRandomPez = connection.prepareStatement(QUERY_RANDOM_PEZ);
-            pstObtenerCliente = connection.prepareStatement(QUERY_OBTENER_CLIENTE);
-            pstObtenerPez = connection.prepareStatement(QUERY_OBTENER_PEZ);
+            pstInsertPedido = conexion.prepareStatement(QUERY_INSERT_PEDIDO);
+            pstListarPedidosPendientes = conexion.prepareStatement(QUERY_LISTAR_PEDIDOS_PENDIENTES);
+            pstListarPedidosCompletados = conexion.prepareStatement(QUERY_LISTAR_PEDIDOS_COMPLETADOS);
+            pstSeleccionarPedidoPorReferencia = conexion.prepareStatement(QUERY_SELECCIONAR_PEDIDO_POR_REFERENCIA);
+            pstActualizarPedido = conexion.prepareStatement(QUERY_ACTUALIZAR_PEDIDO);
+            pstBorrarPedidos = conexion.prepareStatement(QUERY_BORRAR_PEDIDOS);
+            pstRandomCliente = conexion.prepareStatement(QUERY_RANDOM_CLIENTE);
+            pstRandomPez = conexion.prepareStatement(QUERY_RANDOM_PEZ);
+            pstIdsClientes = conexion.prepareStatement(QUERY_IDS_CLIENTES);
+            pstIdsPeces = conexion.prepareStatement(QUERY_IDS_PECES);
+            pstObtenerCliente = conexion.prepareStatement(QUERY_OBTENER_CLIENTE);
+            pstObtenerPez = conexion.prepareStatement(QUERY_OBTENER_PEZ);
+            connection = conexion;
+            return true;
         } catch (SQLException e) {
             Simulador.instance.registro.registroLogError("Error al inicializar DAOPedidos: " + e.getMessage());
+            return false;
         }
     }
 
@@ -138,6 +167,9 @@ public class DAOPedidos {
      * @return Un objeto DTOPedido si se genera correctamente, o null si ocurre un error.
      */
     public DTOPedido generarPedidoAutomatico() {
+        if (!preparar()) {
+            return null;
+        }
         try {
             int idCliente = getRandomClienteId();
             int idPez = getRandomPezId();
@@ -169,12 +201,60 @@ public class DAOPedidos {
         return null;
     }
 
+    /**
+     * Genera de una vez varios pedidos automáticos con clientes y peces aleatorios.
+     * Lee una sola vez los IDs de clientes y peces e inserta todos los pedidos en un único lote dentro de una transacción.
+     *
+     * @param cantidad Número de pedidos a generar.
+     * @return Número de pedidos generados.
+     */
+    public int generarPedidosAutomaticos(int cantidad) {
+        if (cantidad <= 0 || !preparar()) {
+            return 0;
+        }
+        try {
+            List<Integer> clientes = obtenerIds(pstIdsClientes);
+            List<Integer> peces = obtenerIds(pstIdsPeces);
+            if (clientes.isEmpty() || peces.isEmpty()) {
+                return 0;
+            }
+
+            long marcaTiempo = System.currentTimeMillis();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                for (int i = 0; i < cantidad; i++) {
+                    pstInsertPedido.clearParameters();
+                    pstInsertPedido.setString(1, "PED-" + marcaTiempo + "-" + i);
+                    pstInsertPedido.setInt(2, clientes.get(random.nextInt(clientes.size())));
+                    pstInsertPedido.setInt(3, peces.get(random.nextInt(peces.size())));
+                    pstInsertPedido.setInt(4, 10 + random.nextInt(41));
+                    pstInsertPedido.addBatch();
+                }
+                pstInsertPedido.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return cantidad;
+        } catch (SQLException e) {
+            Simulador.instance.registro.registroLogError("Error al generar pedidos automáticos: " + e.getMessage());
+        }
+        return 0;
+    }
+
     /**
      * Lista los pedidos pendientes (donde la cantidad enviada es menor que la solicitada).
      *
      * @return Lista de DTOPedido pendientes.
      */
     public List<DTOPedido> listarPedidosPendientes() {
+        if (!preparar()) {
+            return new ArrayList<>();
+        }
         List<DTOPedido> pedidos = new ArrayList<>();
         try (ResultSet rs = pstListarPedidosPendientes.executeQuery()) {
             while (rs.next()) {
@@ -199,6 +279,9 @@ public class DAOPedidos {
      * @return Lista de DTOPedido completados.
      */
     public List<DTOPedido> listarPedidosCompletados() {
+        if (!preparar()) {
+            return new ArrayList<>();
+        }
         List<DTOPedido> pedidos = new ArrayList<>();
         try (ResultSet rs = pstListarPedidosCompletados.executeQuery()) {
             while (rs.next()) {
@@ -224,6 +307,9 @@ public class DAOPedidos {
      * @return Un objeto DTOPedido si se encuentra, o null si no existe o ocurre un error.
      */
     public DTOPedido obtenerPedidoPorReferencia(String numeroReferencia) {
+        if (!preparar()) {
+            return null;
+        }
         try {
             pstSeleccionarPedidoPorReferencia.clearParameters();
             pstSeleccionarPedidoPorReferencia.setString(1, numeroReferencia);
@@ -251,6 +337,9 @@ public class DAOPedidos {
      * @return true si la actualización fue exitosa, false si ocurrió un error.
      */
     public boolean actualizarPedido(DTOPedido pedido) {
+        if (!preparar()) {
+            return false;
+        }
         try {
             pstActualizarPedido.clearParameters();
             pstActualizarPedido.setInt(1, pedido.getCantidadEnviada());
@@ -300,6 +389,9 @@ public class DAOPedidos {
      * @return Número de pedidos borrados.
      */
     public int borrarPedidos() {
+        if (!preparar()) {
+            return 0;
+        }
         try {
             return pstBorrarPedidos.executeUpdate();
         } catch (SQLException e) {
@@ -346,6 +438,23 @@ public class DAOPedidos {
         return -1;
     }
 
+    /**
+     * Obtiene todos los IDs devueltos por una consulta.
+     *
+     * @param pst La consulta a ejecutar.
+     * @return Lista de IDs.
+     * @throws SQLException si falla la consulta.
+     */
+    private List<Integer> obtenerIds(PreparedStatement pst) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (ResultSet rs = pst.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt("id"));
+            }
+        }
+        return ids;
+    }
+
     /**
      * Obtiene el nombre de un cliente dado su ID.
      *
@@ -353,6 +462,9 @@ public class DAOPedidos {
      * @return Nombre del cliente o null.
      */
     public String obtenerNombreClientePorId(int id) {
+        if (!preparar()) {
+            return null;
+        }
         try {
             pstObtenerCliente.clearParameters();
             pstObtenerCliente.setInt(1, id);
@@ -374,6 +486,9 @@ public class DAOPedidos {
      * @return Nombre del pez o null.
      */
     public String obtenerNombrePezPorId(int id) {
+        if (!preparar()) {
+            return null;
+        }
         try {
             pstObtenerPez.clearParameters();
             pstObtenerPez.setInt(1, id);
@@ -399,6 +514,8 @@ public class DAOPedidos {
             if (pstBorrarPedidos != null) pstBorrarPedidos.close();
             if (pstRandomCliente != null) pstRandomCliente.close();
             if (pstRandomPez != null) pstRandomPez.close();
+            if (pstIdsClientes != null) pstIdsClientes.close();
+            if (pstIdsPeces != null) pstIdsPeces.close();
             if (pstObtenerCliente != null) pstObtenerCliente.close();
             if (pstObtenerPez != null) pstObtenerPez.close();
             if (connection != null) connection.close();
@@ -21,11 +21,26 @@ public class GeneradorBD {
             "SELECT ?, ? " +
             "WHERE NOT EXISTS (SELECT 1 FROM Pez WHERE nombre = ?)";
 
-    /** Conexión a la base de datos. */
-    private Connection connection = Conexion.getConnection();
+    /** Conexión a la base de datos, obtenida la primera vez que se necesita. */
+    private Connection connection;
+
+    /**
+     * Obtiene la conexión a la base de datos si aún no se ha hecho.
+     *
+     * @return true si hay conexión, false si no se pudo conectar.
+     */
+    private boolean conectar() {
+        if (connection == null) {
+            connection = Conexion.getConnection();
+        }
+        return connection != null;
+    }
 
     /** Crea la tabla Cliente si no existe. */
     public void crearTablaCliente() {
+        if (!conectar()) {
+            return;
+        }
         Statement stm = null;
         try {
             String query = "CREATE TABLE IF NOT EXISTS Cliente (" +
@@ -61,6 +76,9 @@ public class GeneradorBD {
 
     /** Crea la tabla Pez si no existe. */
     public void crearTablaPez() {
+        if (!conectar()) {
+            return;
+        }
         Statement stm = null;
         try {
             String query = "CREATE TABLE IF NOT EXISTS Pez (" +
@@ -95,6 +113,9 @@ public class GeneradorBD {
 
     /** Crea la tabla Pedido si no existe. */
     public void crearTablaPedido() {
+        if (!conectar()) {
+            return;
+        }
         Statement stm = null;
         try {
             String query = "CREATE TABLE IF NOT EXISTS Pedido (" +
@@ -133,6 +154,9 @@ public class GeneradorBD {
 
     /** Agrega clientes a la base de datos verificando si ya existen. */
     public void agregarClientes() {
+        if (!conectar()) {
+            return;
+        }
         try (PreparedStatement pstm = connection.prepareStatement(QUERY_AGREGAR_CLIENTES)) {
             String[] nombres = { "Juan Pérez", "María García", "Carlos López", "Ana Fernández", "Pedro Sánchez",
                     "Lucía Martínez", "José Ramírez", "Carmen Gómez", "David Herrera", "Laura Díaz" };
@@ -160,6 +184,9 @@ public class GeneradorBD {
 
     /** Agrega peces a la base de datos verificando si ya existen. */
     public void agregarPeces() {
+        if (!conectar()) {
+            return;
+        }
         try (PreparedStatement pstm = connection.prepareStatement(QUERY_AGREGAR_PEZ)) {
             for (String pez : Simulador.instance.pecesImplementados) {
                 pstm.setString(1, pez);
@@ -2,6 +2,7 @@ package edificios;
 
 import java.util.List;
 
+import commons.ReservaComida;
 import commons.Simulador;
 import piscifactoria.Piscifactoria;
 
@@ -11,11 +12,11 @@ public class AlmacenCentral {
     /** Capacidad total del almacén. */
     private int capacidadAlmacen;
 
-    /** Cantidad de comida animal almacenada. */
-    private int cantidadComidaAnimal;
+    /** Comida animal almacenada. */
+    private final ReservaComida comidaAnimal;
 
-    /** Cantidad de comida vegetal almacenada. */
-    private int cantidadComidaVegetal;
+    /** Comida vegetal almacenada. */
+    private final ReservaComida comidaVegetal;
 
     /** Costo de mejora fijo para el almacen central. */
     private final int COSTO_MEJORA = 200;
@@ -26,8 +27,8 @@ public class AlmacenCentral {
     /** Constructor del almacén central. */
     public AlmacenCentral() {
         this.capacidadAlmacen = 200;
-        this.cantidadComidaAnimal = 0;
-        this.cantidadComidaVegetal = 0;
+        this.comidaAnimal = new ReservaComida(0);
+        this.comidaVegetal = new ReservaComida(0);
     }
 
     /**
@@ -39,8 +40,8 @@ public class AlmacenCentral {
      */
     public AlmacenCentral(int capacidadAlmacen, int cantidadComidaAnimal, int cantidadComidaVegetal) {
         this.capacidadAlmacen = capacidadAlmacen;
-        this.cantidadComidaAnimal = cantidadComidaAnimal;
-        this.cantidadComidaVegetal = cantidadComidaVegetal;
+        this.comidaAnimal = new ReservaComida(cantidadComidaAnimal);
+        this.comidaVegetal = new ReservaComida(cantidadComidaVegetal);
     }
 
     /** Aumenta la capacidad del almacén central en 50 unidades si hay monedas suficientes. */
@@ -48,7 +49,7 @@ public class AlmacenCentral {
         if (Simulador.monedas.gastarMonedas(COSTO_MEJORA)) {
             capacidadAlmacen += INCREMENTO_MEJORA_ALMACEN;
             System.out.println("\nCapacidad del almacén central mejorada en 50 unidades hasta " + capacidadAlmacen);
-            Simulador.instance.registro.registroMejorarAlmacenCentral(INCREMENTO_MEJORA_ALMACEN, cantidadComidaAnimal, COSTO_MEJORA);
+            Simulador.instance.registro.registroMejorarAlmacenCentral(INCREMENTO_MEJORA_ALMACEN, comidaAnimal.getCantidad(), COSTO_MEJORA);
         } else {
             System.out.println("\nNecesitas " + COSTO_MEJORA + " monedas para aumentar la capacidad.");
         }
@@ -61,7 +62,17 @@ public class AlmacenCentral {
      * @param cantidad La cantidad de comida animal a añadir. Debe ser positiva.
      */
     public void añadirComidaAnimal(int cantidad) {
-        cantidadComidaAnimal = agregarComida(cantidadComidaAnimal, cantidad, "comida animal");
+        añadirComidaAnimal(cantidad, true);
+    }
+
+    /**
+     * Método para añadir comida animal al almacén, como añadirComidaAnimal, pudiendo no informar de la cantidad perdida.
+     * 
+     * @param cantidad La cantidad de comida animal a añadir. Debe ser positiva.
+     * @param mostrar  true para mostrar por consola la comida que no cabe.
+     */
+    public void añadirComidaAnimal(int cantidad, boolean mostrar) {
+        agregarComida(comidaAnimal, cantidad, "comida animal", mostrar);
     }
 
     /**
@@ -71,73 +82,74 @@ public class AlmacenCentral {
      * @param cantidad La cantidad de comida vegetal a añadir. Debe ser positiva.
      */
     public void añadirComidaVegetal(int cantidad) {
-        cantidadComidaVegetal = agregarComida(cantidadComidaVegetal, cantidad, "comida vegetal");
+        añadirComidaVegetal(cantidad, true);
+    }
+
+    /**
+     * Método para añadir comida vegetal al almacén, como añadirComidaVegetal, pudiendo no informar de la cantidad perdida.
+     * 
+     * @param cantidad La cantidad de comida vegetal a añadir. Debe ser positiva.
+     * @param mostrar  true para mostrar por consola la comida que no cabe.
+     */
+    public void añadirComidaVegetal(int cantidad, boolean mostrar) {
+        agregarComida(comidaVegetal, cantidad, "comida vegetal", mostrar);
     }
 
     /**
      * Método privado auxiliar para sumar la comida al almacén. Si la suma excede
      * la capacidad, se ajusta al máximo permitido y se informa de la cantidad perdida.
      *
-     * @param cantidadActual la cantidad actual de comida.
+     * @param reserva la comida almacenada del tipo a agregar.
      * @param cantidadAgregar la cantidad a agregar.
      * @param tipoComida una cadena que identifica el tipo de comida.
-     * @return la nueva cantidad de comida, ajustada a la capacidad.
+     * @param mostrar true para mostrar por consola la cantidad perdida.
      */
-    private int agregarComida(int cantidadActual, int cantidadAgregar, String tipoComida) {
+    private void agregarComida(ReservaComida reserva, int cantidadAgregar, String tipoComida, boolean mostrar) {
         if (cantidadAgregar > 0) {
-            int nuevaCantidad = cantidadActual + cantidadAgregar;
-            if (nuevaCantidad > capacidadAlmacen) {
-                int perdida = nuevaCantidad - capacidadAlmacen;
-                nuevaCantidad = capacidadAlmacen;
+            int perdida = cantidadAgregar - reserva.depositar(cantidadAgregar, capacidadAlmacen);
+            if (perdida > 0 && mostrar) {
                 System.out.println("\n[Almacén Central] Capacidad máxima alcanzada para " 
                         + tipoComida + ". " + perdida + " unidades no pudieron ser almacenadas.");
             }
-            return nuevaCantidad;
-        } else {
+        } else if (mostrar) {
             System.out.println("\nLa cantidad a añadir debe ser positiva para " + tipoComida + ".");
-            return cantidadActual;
         }
     }
 
     /**
      * Distribuye equitativamente la comida animal y vegetal entre las piscifactorías disponibles.
+     * Las piscifactorías con poco espacio se llenan y lo que no cabe en ellas se reparte entre las demás.
      * 
      * @param piscifactorias la lista de piscifactorías a las que se les distribuirá comida.
      */
     public void distribuirComida(List<Piscifactoria> piscifactorias) {
-        int necesitanComidaAnimal = 0, necesitanComidaVegetal = 0;
-
-        do {
-            for (Piscifactoria piscifactoria : piscifactorias) {
-                if (piscifactoria.getComidaAnimalActual() < piscifactoria.getCapacidadMaximaComida()) {
-                    necesitanComidaAnimal++;
-                }
-                if (piscifactoria.getComidaVegetalActual() < piscifactoria.getCapacidadMaximaComida()) {
-                    necesitanComidaVegetal++;
-                }
-            }
+        int animal = comidaAnimal.reservar(Integer.MAX_VALUE);
+        comidaAnimal.devolver(animal - RepartoComida.repartirAnimal(piscifactorias, animal));
+        int vegetal = comidaVegetal.reservar(Integer.MAX_VALUE);
+        comidaVegetal.devolver(vegetal - RepartoComida.repartirVegetal(piscifactorias, vegetal));
+    }
 
-            int comidaAnimalPorPiscifactoria = (necesitanComidaAnimal > 0) ? cantidadComidaAnimal / necesitanComidaAnimal : 0;
-            int comidaVegetalPorPiscifactoria = (necesitanComidaVegetal > 0) ? cantidadComidaVegetal / necesitanComidaVegetal : 0;
-
-            for (Piscifactoria piscifactoria : piscifactorias) {
-                if (piscifactoria.getComidaAnimalActual() < piscifactoria.getCapacidadMaximaComida()) {
-                    int espacioDisponibleAnimal = piscifactoria.getCapacidadMaximaComida() - piscifactoria.getComidaAnimalActual();
-                    int comidaMaxima = Math.min(espacioDisponibleAnimal, comidaAnimalPorPiscifactoria);
-                    piscifactoria.añadirComidaAnimal(comidaMaxima);
-                    cantidadComidaAnimal -= comidaMaxima;
-                    necesitanComidaAnimal--;
-                }
-
-                if (piscifactoria.getComidaVegetalActual() < piscifactoria.getCapacidadMaximaComida()) {
-                    int espacioDisponibleVegetal = piscifactoria.getCapacidadMaximaComida() - piscifactoria.getComidaVegetalActual();
-                    int comidaMaxima = Math.min(espacioDisponibleVegetal, comidaVegetalPorPiscifactoria);
-                    piscifactoria.añadirComidaVegetal(comidaMaxima);
-                    cantidadComidaVegetal -= comidaMaxima;
-                    necesitanComidaVegetal--;
-                }
-            }
-        } while (necesitanComidaAnimal != 0 && necesitanComidaVegetal != 0);
+    /**
+     * Traspasa a cada piscifactoría la comida que prevé que le falta hoy, antes de que coma ninguna.
+     * Si el almacén no cubre todas las faltas, cada tipo de comida se reparte por llenado de nivel
+     * con la falta de cada piscifactoría como hueco, así que lo que recibe cada una no depende
+     * de que después coman una tras otra o en paralelo.
+     *
+     * @param piscifactorias Piscifactorías que se aprovisionan.
+     */
+    public void aprovisionar(List<Piscifactoria> piscifactorias) {
+        int[] faltaAnimal = new int[piscifactorias.size()];
+        int[] faltaVegetal = new int[piscifactorias.size()];
+        for (int i = 0; i < faltaAnimal.length; i++) {
+            int[] falta = piscifactorias.get(i).preverTraspaso();
+            faltaAnimal[i] = falta[0];
+            faltaVegetal[i] = falta[1];
+        }
+        int[] animal = RepartoComida.calcular(faltaAnimal, comidaAnimal.getCantidad());
+        int[] vegetal = RepartoComida.calcular(faltaVegetal, comidaVegetal.getCantidad());
+        for (int i = 0; i < animal.length; i++) {
+            piscifactorias.get(i).recibirTraspaso(this, animal[i], vegetal[i]);
+        }
     }
 
     /**
@@ -168,7 +180,7 @@ public class AlmacenCentral {
      * @return Cantidad de comida animal.
      */
     public int getCantidadComidaAnimal() {
-        return cantidadComidaAnimal;
+        return comidaAnimal.getCantidad();
     }
 
     /**
@@ -178,7 +190,7 @@ public class AlmacenCentral {
      */
     public void setCantidadComidaAnimal(int cantidadComidaAnimal) {
         if (cantidadComidaAnimal >= 0 && cantidadComidaAnimal <= capacidadAlmacen) {
-            this.cantidadComidaAnimal = cantidadComidaAnimal;
+            comidaAnimal.setCantidad(cantidadComidaAnimal);
         } else {
             System.out.println("Cantidad de comida animal inválida: debe estar entre 0 y " + capacidadAlmacen);
         }
@@ -190,7 +202,7 @@ public class AlmacenCentral {
      * @return Cantidad de comida vegetal.
      */
     public int getCantidadComidaVegetal() {
-        return cantidadComidaVegetal;
+        return comidaVegetal.getCantidad();
     }
 
     /**
@@ -200,12 +212,30 @@ public class AlmacenCentral {
      */
     public void setCantidadComidaVegetal(int cantidadComidaVegetal) {
         if (cantidadComidaVegetal >= 0 && cantidadComidaVegetal <= capacidadAlmacen) {
-            this.cantidadComidaVegetal = cantidadComidaVegetal;
+            comidaVegetal.setCantidad(cantidadComidaVegetal);
         } else {
             System.out.println("Cantidad de comida vegetal inválida: debe estar entre 0 y " + capacidadAlmacen);
         }
     }
 
+    /**
+     * Obtiene las existencias de comida animal, para consumirlas de forma segura desde varios hilos.
+     * 
+     * @return Existencias de comida animal.
+     */
+    public ReservaComida getReservaAnimal() {
+        return comidaAnimal;
+    }
+
+    /**
+     * Obtiene las existencias de comida vegetal, para consumirlas de forma segura desde varios hilos.
+     * 
+     * @return Existencias de comida vegetal.
+     */
+    public ReservaComida getReservaVegetal() {
+        return comidaVegetal;
+    }
+
     /**
      * Devuelve una representacion en cadena del estado del almacen central.
      * 
@@ -213,6 +243,8 @@ public class AlmacenCentral {
      */
     @Override
     public String toString() {
+        int cantidadComidaAnimal = comidaAnimal.getCantidad();
+        int cantidadComidaVegetal = comidaVegetal.getCantidad();
         return "\nInformación del Almacén Central:" +
                 "\n  Capacidad Total          : " + capacidadAlmacen +
                 "\n  Comida Animal            : " + cantidadComidaAnimal + " (" + (cantidadComidaAnimal  > 0 ? ((cantidadComidaAnimal * 100.0) / capacidadAlmacen) : "0") + "% de la capacidad)" +
@@ -41,13 +41,16 @@ public class GranjaFitoplancton {
      * Actualiza el ciclo de producción de la granja y añade comida vegetal al almacén si se cumple el ciclo.
      * 
      * @param almacen Almacén central donde se almacena la producción de comida vegetal.
+     * @param mostrar true para mostrar por consola la producción del día.
      */
-    public void nextDay(AlmacenCentral almacen) {
+    public void nextDay(AlmacenCentral almacen, boolean mostrar) {
         ciclo++;
         if (ciclo > CICLO_DIAS) {
             int produccionFitoplancton = numeroTanques * PRODUCCION_POR_TANQUE;
-            System.out.println("\nGranja de Fitoplancton produce " + produccionFitoplancton + " de comida vegetal.");
-            almacen.añadirComidaVegetal(produccionFitoplancton);
+            if (mostrar) {
+                System.out.println("\nGranja de Fitoplancton produce " + produccionFitoplancton + " de comida vegetal.");
+            }
+            almacen.añadirComidaVegetal(produccionFitoplancton, mostrar);
             ciclo = 0;
         }
     }
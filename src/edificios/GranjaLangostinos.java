@@ -2,6 +2,9 @@ package edificios;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+
+import commons.Aleatorio;
 import commons.Simulador;
 
 /** Representa una granja de langostinos. */
@@ -34,10 +37,19 @@ public class GranjaLangostinos {
         this.tanques = tanques;
     }
 
-    /** Registra la muerte de un pez y suma una ración. */
-    public void agregarPezMuerto() {
-        racionesRetroalimentacion++;
-        System.out.println("Se ha agregado un pez muerto. Raciones disponibles: " + racionesRetroalimentacion);
+    /**
+     * Registra la muerte de varios peces y suma una ración por cada uno.
+     *
+     * @param cantidad Número de peces muertos.
+     * @param mostrar  true para mostrar por consola las raciones añadidas.
+     */
+    public void agregarPecesMuertos(int cantidad, boolean mostrar) {
+        if (cantidad > 0) {
+            racionesRetroalimentacion += cantidad;
+        }
+        if (cantidad > 0 && mostrar) {
+            System.out.println("Se han agregado " + cantidad + " peces muertos. Raciones disponibles: " + racionesRetroalimentacion);
+        }
     }
 
     /** Añade un tanque si hay suficientes monedas. */
@@ -66,17 +78,26 @@ public class GranjaLangostinos {
         }
     }
 
-    /** Recarga tanques y produce alimento según disponibilidad. */
-    public void nextDay(AlmacenCentral almacenCentral) {
+    /**
+     * Recarga tanques y produce alimento según disponibilidad.
+     *
+     * @param almacenCentral El almacén que recibe la producción y recarga los tanques.
+     * @param dia            Día de la simulación, del que se derivan los aleatorios de cada tanque.
+     * @param mostrar        true para mostrar por consola la producción del día.
+     */
+    public void nextDay(AlmacenCentral almacenCentral, int dia, boolean mostrar) {
         int produccion = 0;
+        SplittableRandom rand = Aleatorio.flujo("langostinos", dia);
     
         for (TanqueLangostinos tanque : tanques) {
-            int prodDia = tanque.simularDia();
+            int prodDia = tanque.simularDia(rand.split());
             produccion += prodDia;
         }
         if (produccion > 0) {
-            System.out.println("\nGranja de Langostinos produce " + produccion + " de comida animal.");
-            almacenCentral.añadirComidaAnimal(produccion);
+            if (mostrar) {
+                System.out.println("\nGranja de Langostinos produce " + produccion + " de comida animal.");
+            }
+            almacenCentral.añadirComidaAnimal(produccion, mostrar);
         }
         recargarTanques(almacenCentral);
     }
@@ -0,0 +1,107 @@
+package edificios;
+
+import java.util.Arrays;
+import java.util.List;
+
+import piscifactoria.Piscifactoria;
+
+/**
+ * Reparte una cantidad de comida entre piscifactorías por llenado de nivel.
+ * Cada piscifactoría recibe la misma cantidad salvo las que se llenan antes, cuyo sobrante pasa a las demás.
+ * El reparto final se calcula en una sola pasada tras ordenar las piscifactorías por el espacio libre,
+ * en lugar de repetir rondas de reparto equitativo hasta que no quede comida o espacio.
+ */
+public class RepartoComida {
+
+    /** Constructor privado, la clase solo tiene métodos estáticos. */
+    private RepartoComida() {
+    }
+
+    /**
+     * Calcula cuánto recibe cada hueco al repartir una cantidad por llenado de nivel.
+     * Los huecos más pequeños que la parte que les toca se llenan y el resto se divide entre los demás.
+     * Las unidades que sobran de la división entera se dan de una en una a los huecos con espacio,
+     * en el orden de la lista, de modo que solo queda comida sin repartir si todos los huecos están llenos.
+     *
+     * @param huecos   Espacio libre de cada destino, no negativo.
+     * @param cantidad Cantidad total a repartir.
+     * @return la cantidad asignada a cada destino, en el mismo orden que los huecos.
+     */
+    public static int[] calcular(int[] huecos, int cantidad) {
+        int n = huecos.length;
+        int[] asignado = new int[n];
+        if (n == 0 || cantidad <= 0) {
+            return asignado;
+        }
+
+        long[] orden = new long[n];
+        for (int i = 0; i < n; i++) {
+            orden[i] = ((long) Math.max(huecos[i], 0) << 32) | i;
+        }
+        Arrays.sort(orden);
+
+        long restante = cantidad;
+        for (int k = 0; k < n && restante > 0; k++) {
+            int i = (int) orden[k];
+            int hueco = (int) (orden[k] >>> 32);
+            long parte = Math.min(hueco, restante / (n - k));
+            asignado[i] = (int) parte;
+            restante -= parte;
+        }
+        for (int i = 0; i < n && restante > 0; i++) {
+            if (asignado[i] < huecos[i]) {
+                asignado[i]++;
+                restante--;
+            }
+        }
+        return asignado;
+    }
+
+    /**
+     * Reparte comida animal entre las piscifactorías según el espacio libre de cada una.
+     *
+     * @param piscifactorias Piscifactorías que reciben la comida.
+     * @param cantidad       Cantidad de comida animal disponible.
+     * @return la cantidad de comida que se ha repartido.
+     */
+    public static int repartirAnimal(List<Piscifactoria> piscifactorias, int cantidad) {
+        int[] huecos = new int[piscifactorias.size()];
+        for (int i = 0; i < huecos.length; i++) {
+            Piscifactoria piscifactoria = piscifactorias.get(i);
+            huecos[i] = piscifactoria.getCapacidadMaximaComida() - piscifactoria.getComidaAnimalActual();
+        }
+        int[] asignado = calcular(huecos, cantidad);
+        int total = 0;
+        for (int i = 0; i < asignado.length; i++) {
+            if (asignado[i] > 0) {
+                piscifactorias.get(i).añadirComidaAnimal(asignado[i]);
+                total += asignado[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Reparte comida vegetal entre las piscifactorías según el espacio libre de cada una.
+     *
+     * @param piscifactorias Piscifactorías que reciben la comida.
+     * @param cantidad       Cantidad de comida vegetal disponible.
+     * @return la cantidad de comida que se ha repartido.
+     */
+    public static int repartirVegetal(List<Piscifactoria> piscifactorias, int cantidad) {
+        int[] huecos = new int[piscifactorias.size()];
+        for (int i = 0; i < huecos.length; i++) {
+            Piscifactoria piscifactoria = piscifactorias.get(i);
+            huecos[i] = piscifactoria.getCapacidadMaximaComida() - piscifactoria.getComidaVegetalActual();
+        }
+        int[] asignado = calcular(huecos, cantidad);
+        int total = 0;
+        for (int i = 0; i < asignado.length; i++) {
+            if (asignado[i] > 0) {
+                piscifactorias.get(i).añadirComidaVegetal(asignado[i]);
+                total += asignado[i];
+            }
+        }
+        return total;
+    }
+}
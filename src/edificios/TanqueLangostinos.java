@@ -1,6 +1,6 @@
 package edificios;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Representa un tanque de langostinos.
@@ -14,9 +14,6 @@ public class TanqueLangostinos {
     /** Raciones disponibles en el tanque. */
     private int racionesLocal = 0;
 
-    /** Generador de números aleatorios. */
-    private Random random = new Random();
-
     /** Referencia a la granja para consumir raciones de retroalimentación. */
     private GranjaLangostinos granja;
 
@@ -42,9 +39,10 @@ public class TanqueLangostinos {
 
     /**
      * Simula un día en el tanque: consume alimento y produce si es posible.
+     * @param random Generador de aleatorios del tanque para este día.
      * @return la cantidad producida en el día o 0 si no produce.
      */
-    public int simularDia() {
+    public int simularDia(SplittableRandom random) {
         boolean alimentado = false;
         if (granja.consumirRacionRetroalimentacion()) {
             alimentado = true;
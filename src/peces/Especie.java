@@ -0,0 +1,373 @@
+package peces;
+
+import java.util.SplittableRandom;
+
+import commons.Aleatorio;
+import commons.PrevisionComida;
+import commons.ReservaComida;
+import propiedades.CriaTipo;
+import propiedades.PecesDatos;
+import propiedades.PecesProps;
+
+/**
+ * Especie de pez del registro de especies.
+ * Cada especie tiene un identificador entero consecutivo, con el que se compara y se indexan arrays
+ * en lugar de usar su nombre, el creador de sus peces si está implementada, su dieta
+ * y las constantes de su ciclo de vida copiadas de sus PecesDatos.
+ * La dieta decide cómo comen sus peces y cuánta comida se prevé para ellos.
+ */
+public final class Especie {
+
+    /** Tipo de alimentación de una especie, que corresponde a la clase de la que heredan sus peces. */
+    public enum Dieta {
+
+        /** Come solo comida animal. */
+        CARNIVORO,
+
+        /** Come solo comida animal y, por ser activo, a veces necesita más. */
+        CARNIVORO_ACTIVO,
+
+        /** Come solo comida vegetal. */
+        FILTRADOR,
+
+        /** Come comida vegetal o animal. */
+        OMNIVORO
+    }
+
+    /** Crea un pez nuevo de la especie. */
+    @FunctionalInterface
+    public interface CreadorNuevo {
+
+        /**
+         * Crea un pez nuevo de la especie.
+         *
+         * @param sexo true para macho, false para hembra.
+         * @return el pez creado.
+         */
+        Pez crear(boolean sexo);
+    }
+
+    /** Crea un pez de la especie con un estado guardado. */
+    @FunctionalInterface
+    public interface Creador {
+
+        /**
+         * Crea un pez de la especie con un estado guardado.
+         *
+         * @param sexo       true para macho, false para hembra.
+         * @param edad       Edad en días.
+         * @param vivo       Si está vivo.
+         * @param fertil     Si es fértil.
+         * @param ciclo      Ciclo reproductivo.
+         * @param alimentado Si ha sido alimentado.
+         * @return el pez creado.
+         */
+        Pez crear(boolean sexo, int edad, boolean vivo, boolean fertil, int ciclo, boolean alimentado);
+    }
+
+    /** Identificador de la especie, su posición en el registro. */
+    private final int id;
+
+    /** Datos de la especie. */
+    private final PecesDatos datos;
+
+    /** Nombre común de la especie. */
+    private final String nombre;
+
+    /** Nombre científico de la especie. */
+    private final String nombreCientifico;
+
+    /** Dieta de la especie. */
+    private final Dieta dieta;
+
+    /** Tipo de piscifactoría en que se cría la especie. */
+    private final CriaTipo cria;
+
+    /** Creador de peces nuevos, o null si la especie no está implementada. */
+    private final CreadorNuevo creadorNuevo;
+
+    /** Creador de peces con un estado guardado, o null si la especie no está implementada. */
+    private final Creador creador;
+
+    /** Coste de compra de un pez. */
+    private final int coste;
+
+    /** Monedas que se obtienen al vender un pez. */
+    private final int monedas;
+
+    /** Huevos por reproducción. */
+    private final int huevos;
+
+    /** Días del ciclo reproductivo. */
+    private final int ciclo;
+
+    /** Edad de madurez en días. */
+    private final int madurez;
+
+    /** Edad óptima de venta en días. */
+    private final int optimo;
+
+    /**
+     * Crea una especie del registro.
+     *
+     * @param id           Identificador de la especie.
+     * @param datos        Datos de la especie.
+     * @param creadorNuevo Creador de peces nuevos, o null si la especie no está implementada.
+     * @param creador      Creador de peces con un estado guardado, o null si la especie no está implementada.
+     */
+    Especie(int id, PecesDatos datos, CreadorNuevo creadorNuevo, Creador creador) {
+        this.id = id;
+        this.datos = datos;
+        this.nombre = datos.getNombre();
+        this.nombreCientifico = datos.getCientifico();
+        this.dieta = dieta(datos.getPropiedades());
+        this.cria = datos.getPiscifactoria();
+        this.creadorNuevo = creadorNuevo;
+        this.creador = creador;
+        this.coste = datos.getCoste();
+        this.monedas = datos.getMonedas();
+        this.huevos = datos.getHuevos();
+        this.ciclo = datos.getCiclo();
+        this.madurez = datos.getMadurez();
+        this.optimo = datos.getOptimo();
+    }
+
+    /**
+     * Obtiene la dieta a partir de las propiedades de la especie.
+     *
+     * @param propiedades Propiedades de la especie.
+     * @return la dieta de la especie.
+     */
+    private static Dieta dieta(PecesProps[] propiedades) {
+        Dieta dieta = Dieta.OMNIVORO;
+        boolean activo = false;
+        for (PecesProps propiedad : propiedades) {
+            switch (propiedad) {
+                case CARNIVORO -> dieta = Dieta.CARNIVORO;
+                case FILTRADOR -> dieta = Dieta.FILTRADOR;
+                case ACTIVO -> activo = true;
+                default -> {
+                }
+            }
+        }
+        return dieta == Dieta.CARNIVORO && activo ? Dieta.CARNIVORO_ACTIVO : dieta;
+    }
+
+    /**
+     * Crea un pez nuevo de la especie.
+     *
+     * @param sexo true para macho, false para hembra.
+     * @return el pez creado.
+     * @throws IllegalStateException si la especie no está implementada.
+     */
+    public Pez crear(boolean sexo) {
+        if (creadorNuevo == null) {
+            throw new IllegalStateException("La especie " + nombre + " no está implementada.");
+        }
+        return creadorNuevo.crear(sexo);
+    }
+
+    /**
+     * Crea un pez de la especie con un estado guardado.
+     *
+     * @param sexo       true para macho, false para hembra.
+     * @param edad       Edad en días.
+     * @param vivo       Si está vivo.
+     * @param fertil     Si es fértil.
+     * @param ciclo      Ciclo reproductivo.
+     * @param alimentado Si ha sido alimentado.
+     * @return el pez creado.
+     * @throws IllegalStateException si la especie no está implementada.
+     */
+    public Pez crear(boolean sexo, int edad, boolean vivo, boolean fertil, int ciclo, boolean alimentado) {
+        if (creador == null) {
+            throw new IllegalStateException("La especie " + nombre + " no está implementada.");
+        }
+        return creador.crear(sexo, edad, vivo, fertil, ciclo, alimentado);
+    }
+
+    /**
+     * Alimenta de una vez a varios peces vivos de la especie según su dieta.
+     * Sortea en conjunto cuántos necesitan comer y reserva la comida una sola vez:
+     * los carnívoros comen una ración de comida animal; los carnívoros activos, una o dos con la misma probabilidad,
+     * sirviendo primero las dobles; la mitad de los filtradores, una de comida vegetal;
+     * y tres de cada cuatro omnívoros, una del tipo de comida del que quede más.
+     * Solo usa la comida de la piscifactoría, a la que el almacén central ya ha traspasado lo previsto para el día.
+     *
+     * @param vivos         Número de peces vivos a alimentar.
+     * @param comidaAnimal  Comida animal de la piscifactoría, de la que se reserva lo consumido.
+     * @param comidaVegetal Comida vegetal de la piscifactoría, de la que se reserva lo consumido.
+     * @param rand          Generador de aleatorios del tanque.
+     * @return El número de peces que quedan alimentados.
+     */
+    public int alimentarVarios(int vivos, ReservaComida comidaAnimal, ReservaComida comidaVegetal, SplittableRandom rand) {
+        return switch (dieta) {
+            case CARNIVORO -> comidaAnimal.reservar(vivos);
+            case CARNIVORO_ACTIVO -> {
+                int dobles = Aleatorio.binomial(rand, vivos, 0.5);
+                int unidades = comidaAnimal.reservar(2 * dobles);
+                comidaAnimal.devolver(unidades % 2);
+                yield unidades / 2 + comidaAnimal.reservar(vivos - dobles);
+            }
+            case FILTRADOR -> {
+                int comen = Aleatorio.binomial(rand, vivos, 0.5);
+                yield vivos - comen + comidaVegetal.reservar(comen);
+            }
+            case OMNIVORO -> {
+                int comen = Aleatorio.binomial(rand, vivos, 0.75);
+                int[] reservadas = ReservaComida.reservarNivelando(comidaAnimal, comidaVegetal, comen);
+                yield vivos - comen + reservadas[0] + reservadas[1];
+            }
+        };
+    }
+
+    /**
+     * Suma a una previsión la comida que consumirán en un día varios peces vivos de la especie, según su dieta.
+     * Cada dieta suma la media y la varianza del consumo de alimentarVarios; la de los omnívoros
+     * se suma como comida de cualquiera de los dos tipos.
+     *
+     * @param vivos     Número de peces vivos.
+     * @param prevision Previsión a la que se suma el consumo.
+     */
+    public void preverDemanda(int vivos, PrevisionComida prevision) {
+        switch (dieta) {
+            case CARNIVORO -> prevision.sumarAnimal(vivos, 0);
+            case CARNIVORO_ACTIVO -> prevision.sumarAnimal(1.5 * vivos, 0.25 * vivos);
+            case FILTRADOR -> prevision.sumarVegetal(0.5 * vivos, 0.25 * vivos);
+            case OMNIVORO -> prevision.sumarIndistinta(0.75 * vivos, 0.1875 * vivos);
+        }
+    }
+
+    /**
+     * Indica si la especie está implementada, es decir, si se pueden crear sus peces.
+     *
+     * @return true si está implementada.
+     */
+    public boolean isImplementada() {
+        return creador != null;
+    }
+
+    /**
+     * Indica si la especie se puede criar en un tipo de piscifactoría.
+     *
+     * @param deRio true para una piscifactoría de río y false para una de mar.
+     * @return true si se puede criar en ella.
+     */
+    public boolean seCriaEn(boolean deRio) {
+        return cria == CriaTipo.DOBLE || cria == (deRio ? CriaTipo.RIO : CriaTipo.MAR);
+    }
+
+    /**
+     * Devuelve el identificador de la especie.
+     *
+     * @return identificador, entre 0 y el número de especies del registro.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Devuelve los datos de la especie.
+     *
+     * @return datos de la especie.
+     */
+    public PecesDatos getDatos() {
+        return datos;
+    }
+
+    /**
+     * Devuelve el nombre común de la especie.
+     *
+     * @return nombre de la especie.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Devuelve el nombre científico de la especie.
+     *
+     * @return nombre científico de la especie.
+     */
+    public String getNombreCientifico() {
+        return nombreCientifico;
+    }
+
+    /**
+     * Devuelve la dieta de la especie.
+     *
+     * @return dieta de la especie.
+     */
+    public Dieta getDieta() {
+        return dieta;
+    }
+
+    /**
+     * Devuelve el tipo de piscifactoría en que se cría la especie.
+     *
+     * @return tipo de cría.
+     */
+    public CriaTipo getCria() {
+        return cria;
+    }
+
+    /**
+     * Devuelve el coste de compra de un pez.
+     *
+     * @return coste en monedas.
+     */
+    public int getCoste() {
+        return coste;
+    }
+
+    /**
+     * Devuelve las monedas que se obtienen al vender un pez.
+     *
+     * @return monedas por pez.
+     */
+    public int getMonedas() {
+        return monedas;
+    }
+
+    /**
+     * Devuelve los huevos por reproducción.
+     *
+     * @return número de huevos.
+     */
+    public int getHuevos() {
+        return huevos;
+    }
+
+    /**
+     * Devuelve los días del ciclo reproductivo.
+     *
+     * @return días del ciclo.
+     */
+    public int getCiclo() {
+        return ciclo;
+    }
+
+    /**
+     * Devuelve la edad de madurez.
+     *
+     * @return edad de madurez en días.
+     */
+    public int getMadurez() {
+        return madurez;
+    }
+
+    /**
+     * Devuelve la edad óptima de venta.
+     *
+     * @return edad óptima en días.
+     */
+    public int getOptimo() {
+        return optimo;
+    }
+
+    /** Devuelve el nombre de la especie. */
+    @Override
+    public String toString() {
+        return nombre;
+    }
+}
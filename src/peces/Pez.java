@@ -1,41 +1,68 @@
 package peces;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import propiedades.PecesDatos;
 
-/** Clase padre de los peces. */
+/**
+ * Clase padre de los peces.
+ * Cada pez guarda todo su estado en un único int, porque puede haber millones en memoria:
+ * los indicadores, el número de su especie en el registro de especies, el ciclo y la edad.
+ * Con la cabecera del objeto ocupa 16 bytes; los nombres y constantes se leen de su especie.
+ */
 public abstract class Pez {
 
-    /** Nombre común del pez. */
-    private final String nombre;
+    /** Indicador de sexo: activo para macho, inactivo para hembra. */
+    private static final int SEXO = 1;
 
-    /** Nombre cientifico del pez. */
-    private final String nombreCientifico;
+    /** Indicador de fertilidad. */
+    private static final int FERTIL = 1 << 1;
 
-    /** Edad del pez en días. */
-    private int edad = 0;
+    /** Indicador de vida. */
+    private static final int VIVO = 1 << 2;
 
-    /** Sexo del pez: true para macho, false para hembra. */
-    private final boolean sexo;
+    /** Indicador de alimentación. */
+    private static final int ALIMENTADO = 1 << 3;
 
-    /** Estado de fertilidad del pez: true si es fértil, false si no lo es. */
-    private boolean fertil = false;
+    /** Indicador de madurez. */
+    private static final int MADURO = 1 << 4;
 
-    /** Estado de vida del pez: true si está vivo, false si está muerto. */
-    private boolean vivo = true;
+    /** Primer bit del número de la especie, tras los cinco indicadores. */
+    private static final int BIT_ESPECIE = 5;
 
-    /** Estado de alimentación del pez: true si ha sido alimentado, false si no. */
-    protected boolean alimentado = false;
+    /** Bits del número de la especie, que admiten hasta 64 especies en el registro. */
+    private static final int BITS_ESPECIE = 6;
 
-    /**  Estado de madurez del pez: true si el pez ha alcanzado la madurez, false si no. */
-    private boolean maduro = false;
+    /** Primer bit del ciclo, tras el número de la especie. */
+    private static final int BIT_CICLO = BIT_ESPECIE + BITS_ESPECIE;
 
-    /** Ciclo reproductivo del pez, decrementa hasta que el pez se vuelve fértil. */
-    protected int ciclo;
+    /** Bits del ciclo, que se guarda con signo. */
+    private static final int BITS_CICLO = 6;
 
-    /** Datos específicos del pez extraídos de PecesDatos. */
-    private PecesDatos datos;
+    /** Primer bit de la edad, que ocupa el resto del int. */
+    private static final int BIT_EDAD = BIT_CICLO + BITS_CICLO;
+
+    /** Ciclo más bajo que se puede guardar. El ciclo se reinicia al llegar a 0, así que nunca baja de -1. */
+    private static final int CICLO_MINIMO = -(1 << (BITS_CICLO - 1));
+
+    /** Ciclo más alto que se puede guardar, muy por encima del ciclo de cualquier especie. */
+    private static final int CICLO_MAXIMO = (1 << (BITS_CICLO - 1)) - 1;
+
+    /**
+     * Edad más alta que se puede guardar, unos 90 años. Los peces vivos se venden al llegar a la edad óptima,
+     * que es mucho menor, y las edades superiores se quedan en esta, que sigue por encima de cualquier umbral.
+     */
+    private static final int EDAD_MAXIMA = (1 << (Integer.SIZE - BIT_EDAD)) - 1;
+
+    static {
+        if (RegistroEspecies.total() > 1 << BITS_ESPECIE) {
+            throw new IllegalStateException("El registro tiene más especies de las que caben en un pez: "
+                    + RegistroEspecies.total());
+        }
+    }
+
+    /** Indicadores, número de la especie, ciclo y edad del pez, empaquetados de los bits bajos a los altos. */
+    private int estado;
 
     /**
      * Constructor que inicializa un Pez con su sexo y datos asociados.
@@ -44,11 +71,9 @@ public abstract class Pez {
      * @param datos Contiene las propiedades del pez.
      */
     public Pez(boolean sexo, PecesDatos datos) {
-        this.nombre = datos.getNombre();
-        this.nombreCientifico = datos.getCientifico();
-        this.sexo = sexo;
-        this.datos = datos;
-        this.ciclo = datos.getCiclo();
+        Especie especie = RegistroEspecies.de(datos);
+        this.estado = (sexo ? SEXO : 0) | VIVO | especie.getId() << BIT_ESPECIE;
+        setCiclo(especie.getCiclo());
     }
 
     /**
@@ -63,79 +88,107 @@ public abstract class Pez {
      * @param datos       Contiene las propiedades del pez.
      */
     public Pez(boolean sexo, int edad, boolean vivo, boolean fertil, int ciclo, boolean alimentado, PecesDatos datos) {
-        this.nombre = datos.getNombre();
-        this.nombreCientifico = datos.getCientifico();
-        this.sexo = sexo;
-        this.edad = edad;
-        this.vivo = vivo;
-        this.fertil = fertil;
-        this.ciclo = ciclo;
-        this.alimentado = alimentado;
-        this.datos = datos;
+        this.estado = (sexo ? SEXO : 0) | (vivo ? VIVO : 0) | (fertil ? FERTIL : 0) | (alimentado ? ALIMENTADO : 0)
+                | RegistroEspecies.de(datos).getId() << BIT_ESPECIE;
+        setEdad(edad);
+        setCiclo(ciclo);
+    }
+
+    /**
+     * Comprueba si un indicador está activo.
+     *
+     * @param indicador El indicador a comprobar.
+     * @return true si está activo.
+     */
+    private boolean tiene(int indicador) {
+        return (estado & indicador) != 0;
+    }
+
+    /**
+     * Activa o desactiva un indicador.
+     *
+     * @param indicador El indicador a cambiar.
+     * @param activo    true para activarlo, false para desactivarlo.
+     */
+    private void poner(int indicador, boolean activo) {
+        estado = activo ? estado | indicador : estado & ~indicador;
+    }
+
+    /**
+     * Sustituye un campo del estado.
+     *
+     * @param bit   Primer bit del campo.
+     * @param bits  Bits del campo.
+     * @param valor Nuevo valor, ya dentro del rango del campo.
+     */
+    private void fijar(int bit, int bits, int valor) {
+        int mascara = ((1 << bits) - 1) << bit;
+        estado = (estado & ~mascara) | ((valor << bit) & mascara);
     }
 
     /** Muestra el estado actual del pez. */
     public void showStatus() {
-        System.out.println("--------------- " + nombre + " ---------------");
-        System.out.println("Edad: " + edad + " días");
-        System.out.println("Sexo: " + (sexo ? "M" : "H"));
-        System.out.println("Vivo: " + (vivo ? "Si" : "No"));
-        System.out.println("Alimentado: " + (alimentado ? "Si" : "No"));
-        System.out.println("Adulto: " + (edad >= datos.getMadurez() ? "Si" : "No"));
-        System.out.println("Fértil: " + (fertil ? "Si" : "No"));
+        System.out.println("--------------- " + getNombre() + " ---------------");
+        System.out.println("Edad: " + getEdad() + " días");
+        System.out.println("Sexo: " + (isSexo() ? "M" : "H"));
+        System.out.println("Vivo: " + (isVivo() ? "Si" : "No"));
+        System.out.println("Alimentado: " + (isAlimentado() ? "Si" : "No"));
+        System.out.println("Adulto: " + (getEdad() >= getEspecie().getMadurez() ? "Si" : "No"));
+        System.out.println("Fértil: " + (isFertil() ? "Si" : "No"));
     }
 
-    /** Hace crecer un día el pez, realizando toda la lógica. */
-    public void grow() {
-        if (vivo) {
-            Random rand = new Random();
+    /**
+     * Hace crecer un día el pez, realizando toda la lógica.
+     *
+     * @param rand Generador de aleatorios del tanque para la mortalidad del día.
+     */
+    public void grow(SplittableRandom rand) {
+        if (isVivo()) {
 
-            if (!alimentado && rand.nextBoolean() == true) {
-                vivo = false;
-                alimentado = false;
-                fertil = false;
-                maduro = false;
+            if (!isAlimentado() && rand.nextBoolean() == true) {
+                morir();
             } else {
-                edad++;
-
-                if (!sexo) {
-                    if (edad >= datos.getMadurez() && !maduro) {
-                        fertil = true;
-                        maduro = true;
-                    } else if (edad >= datos.getMadurez()) {
-                        ciclo--;
+                Especie especie = getEspecie();
+                int edad = Math.min(getEdad() + 1, EDAD_MAXIMA);
+                setEdad(edad);
+
+                if (!isSexo()) {
+                    if (edad >= especie.getMadurez() && !isMaduro()) {
+                        poner(FERTIL, true);
+                        poner(MADURO, true);
+                    } else if (edad >= especie.getMadurez()) {
+                        int ciclo = getCiclo() - 1;
                         if (ciclo <= 0) {
-                            fertil = true;
-                            ciclo = datos.getCiclo();
+                            poner(FERTIL, true);
+                            ciclo = especie.getCiclo();
                         }
+                        setCiclo(ciclo);
                     } else {
-                        fertil = false;
+                        poner(FERTIL, false);
                     }
-                } else if (edad >= datos.getMadurez()) {
-                    fertil = true;
-                    maduro = true;
+                } else if (edad >= especie.getMadurez()) {
+                    poner(FERTIL, true);
+                    poner(MADURO, true);
                 }
 
-                if (edad < datos.getMadurez() && edad % 2 == 0) {
+                if (edad < especie.getMadurez() && edad % 2 == 0) {
                     if (rand.nextDouble() < 0.05) {
-                        vivo = false;
-                        alimentado = false;
-                        fertil = false;
-                        maduro = false;
+                        morir();
                     }
                 }
             }
         }
     }
 
+    /** Marca el pez como muerto, sin alimentar, no fértil y no maduro, conservando su sexo. */
+    private void morir() {
+        estado &= ~(FERTIL | VIVO | ALIMENTADO | MADURO);
+    }
+
     /** Reinicia el estado del pez a su condición inicial. */
     public void reset() {
-        edad = 0;
-        vivo = true;
-        fertil = false;
-        alimentado = false;
-        maduro = false;
-        ciclo = datos.getCiclo();
+        estado = (estado & (SEXO | ((1 << BITS_ESPECIE) - 1) << BIT_ESPECIE)) | VIVO;
+        setCiclo(getEspecie().getCiclo());
     }
 
     /**
@@ -146,92 +199,90 @@ public abstract class Pez {
      */
     public abstract Pez clonar(boolean nuevoSexo);
 
-    /**
-     * Método abstracto que alimenta al pez.
-     * 
-     * @param cantidadComidaAnimal Cantidad de comida animal disponible.
-     * @param cantidadComidaVegetal Cantidad de comida vegetal disponible.
-     * @return La cantidad de comida a consumir.
-     */
-    public abstract int alimentar(int cantidadComidaAnimal, int cantidadComidaVegetal);
-
     /**
      * @return el nombre común del pez.
      */
     public String getNombre() {
-        return nombre;
+        return getEspecie().getNombre();
     }
 
     /**
      * @return el nombre científico del pez.
      */
     public String getNombreCientifico() {
-        return nombreCientifico;
+        return getEspecie().getNombreCientifico();
     }
 
     /**
      * @return la edad actual del pez en días.
      */
     public int getEdad() {
-        return edad;
+        return estado >>> BIT_EDAD;
     }
 
     /**
      * @return true si el pez es macho, false si es hembra.
      */
     public boolean isSexo() {
-        return sexo;
+        return tiene(SEXO);
     }
 
     /**
      * @return true si el pez es fértil, false si no lo es.
      */
     public boolean isFertil() {
-        return fertil;
+        return tiene(FERTIL);
     }
 
     /**
      * @return true si el pez está vivo, false si está muerto.
      */
     public boolean isVivo() {
-        return vivo;
+        return tiene(VIVO);
     }
 
     /**
      * @return true si el pez ha sido alimentado, false si no.
      */
     public boolean isAlimentado() {
-        return alimentado;
+        return tiene(ALIMENTADO);
     }
 
     /**
      * @return true si el pez es maduro, false si no.
      */
     public boolean isMaduro() {
-        return maduro;
+        return tiene(MADURO);
     }
 
     /**
      * @return el ciclo reproductivo del pez.
      */
     public int getCiclo() {
-        return ciclo;
+        return estado << (Integer.SIZE - BIT_EDAD) >> (Integer.SIZE - BITS_CICLO);
     }
 
     /**
      * @return el objeto PecesDatos asociado con este pez.
      */
     public PecesDatos getDatos() {
-        return datos;
+        return getEspecie().getDatos();
+    }
+
+    /**
+     * @return la especie del pez en el registro de especies.
+     */
+    public Especie getEspecie() {
+        return RegistroEspecies.get((estado >>> BIT_ESPECIE) & ((1 << BITS_ESPECIE) - 1));
     }
 
     /**
-     * Establece la edad del pez.
+     * Establece la edad del pez, acotada entre 0 y EDAD_MAXIMA.
      * 
      * @param edad la nueva edad del pez.
      */
     public void setEdad(int edad) {
-        this.edad = edad;
+        fijar(BIT_EDAD, Integer.SIZE - BIT_EDAD, Math.max(0, Math.min(EDAD_MAXIMA, edad)));
     }
 
     /**
@@ -240,7 +291,7 @@ public abstract class Pez {
      * @param fertil true si el pez es fértil, false si no lo es.
      */
     public void setFertil(boolean fertil) {
-        this.fertil = fertil;
+        poner(FERTIL, fertil);
     }
 
     /**
@@ -249,7 +300,7 @@ public abstract class Pez {
      * @param vivo true si el pez está vivo, false si está muerto.
      */
     public void setVivo(boolean vivo) {
-        this.vivo = vivo;
+        poner(VIVO, vivo);
     }
 
     /**
@@ -258,7 +309,7 @@ public abstract class Pez {
      * @param alimentado true si el pez ha sido alimentado, false si no.
      */
     public void setAlimentado(boolean alimentado) {
-        this.alimentado = alimentado;
+        poner(ALIMENTADO, alimentado);
     }
 
     /**
@@ -267,16 +318,16 @@ public abstract class Pez {
      * @param alimentado true si el pez es maduro, false si no.
      */
     public void setMaduro(boolean maduro) {
-        this.maduro = maduro;
+        poner(MADURO, maduro);
     }
 
     /**
-     * Establece el ciclo reproductivo del pez.
+     * Establece el ciclo reproductivo del pez, acotado entre CICLO_MINIMO y CICLO_MAXIMO.
      * 
      * @param ciclo el nuevo ciclo reproductivo.
      */
     public void setCiclo(int ciclo) {
-        this.ciclo = ciclo;
+        fijar(BIT_CICLO, BITS_CICLO, Math.max(CICLO_MINIMO, Math.min(CICLO_MAXIMO, ciclo)));
     }
 
     /**
@@ -287,14 +338,14 @@ public abstract class Pez {
     @Override
     public String toString() {
         return "\nInformación del Pez:" +
-                "\n  Nombre Común       : " + nombre +
-                "\n  Nombre Científico  : " + nombreCientifico +
-                "\n  Edad               : " + edad + " días" +
-                "\n  Sexo               : " + (sexo ? "Macho" : "Hembra") +
-                "\n  Vivo               : " + (vivo ? "Sí" : "No") +
-                "\n  Alimentado         : " + (alimentado ? "Sí" : "No") +
-                "\n  Adulto             : " + (maduro ? "Sí" : "No") +
-                "\n  Fértil             : " + (fertil ? "Sí" : "No") +
-                "\n  Ciclo              : " + ciclo;
+                "\n  Nombre Común       : " + getNombre() +
+                "\n  Nombre Científico  : " + getNombreCientifico() +
+                "\n  Edad               : " + getEdad() + " días" +
+                "\n  Sexo               : " + (isSexo() ? "Macho" : "Hembra") +
+                "\n  Vivo               : " + (isVivo() ? "Sí" : "No") +
+                "\n  Alimentado         : " + (isAlimentado() ? "Sí" : "No") +
+                "\n  Adulto             : " + (isMaduro() ? "Sí" : "No") +
+                "\n  Fértil             : " + (isFertil() ? "Sí" : "No") +
+                "\n  Ciclo              : " + getCiclo();
     }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package peces;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import peces.tipos.doble.Dorada;
+import peces.tipos.doble.SalmonAtlantico;
+import peces.tipos.doble.TruchaArcoiris;
+import peces.tipos.mar.ArenqueDelAtlantico;
+import peces.tipos.mar.Besugo;
+import peces.tipos.mar.LenguadoEuropeo;
+import peces.tipos.mar.LubinaRayada;
+import peces.tipos.mar.Robalo;
+import peces.tipos.rio.CarpaPlateada;
+import peces.tipos.rio.Pejerrey;
+import peces.tipos.rio.PercaEuropea;
+import peces.tipos.rio.SalmonChinook;
+import peces.tipos.rio.TilapiaDelNilo;
+import propiedades.AlmacenPropiedades;
+import propiedades.PecesDatos;
+
+/**
+ * Registro con todas las especies de AlmacenPropiedades, cada una con un identificador entero consecutivo.
+ * Las especies implementadas van primero, en el orden en que las muestra el simulador, y después el resto.
+ * Las búsquedas por nombre o por datos se resuelven una sola vez, al cargar o comprar, y a partir de ahí
+ * las especies se comparan por identificador y sus contadores se guardan en arrays indexados por él.
+ */
+public final class RegistroEspecies {
+
+    /** Especies por identificador. */
+    private static final Especie[] ESPECIES;
+
+    /** Especies por nombre común. */
+    private static final Map<String, Especie> POR_NOMBRE = new HashMap<>();
+
+    /** Especies por sus datos. */
+    private static final Map<PecesDatos, Especie> POR_DATOS = new IdentityHashMap<>();
+
+    /** Especies implementadas, en el orden del registro. */
+    private static final List<Especie> IMPLEMENTADAS;
+
+    static {
+        List<Especie> especies = new ArrayList<>();
+
+        // Especies implementadas
+        añadir(especies, AlmacenPropiedades.DORADA, Dorada::new, Dorada::new);
+        añadir(especies, AlmacenPropiedades.SALMON_ATLANTICO, SalmonAtlantico::new, SalmonAtlantico::new);
+        añadir(especies, AlmacenPropiedades.TRUCHA_ARCOIRIS, TruchaArcoiris::new, TruchaArcoiris::new);
+        añadir(especies, AlmacenPropiedades.ARENQUE_ATLANTICO, ArenqueDelAtlantico::new, ArenqueDelAtlantico::new);
+        añadir(especies, AlmacenPropiedades.BESUGO, Besugo::new, Besugo::new);
+        añadir(especies, AlmacenPropiedades.LENGUADO_EUROPEO, LenguadoEuropeo::new, LenguadoEuropeo::new);
+        añadir(especies, AlmacenPropiedades.LUBINA_RAYADA, LubinaRayada::new, LubinaRayada::new);
+        añadir(especies, AlmacenPropiedades.ROBALO, Robalo::new, Robalo::new);
+        añadir(especies, AlmacenPropiedades.CARPA_PLATEADA, CarpaPlateada::new, CarpaPlateada::new);
+        añadir(especies, AlmacenPropiedades.PEJERREY, Pejerrey::new, Pejerrey::new);
+        añadir(especies, AlmacenPropiedades.PERCA_EUROPEA, PercaEuropea::new, PercaEuropea::new);
+        añadir(especies, AlmacenPropiedades.SALMON_CHINOOK, SalmonChinook::new, SalmonChinook::new);
+        añadir(especies, AlmacenPropiedades.TILAPIA_NILO, TilapiaDelNilo::new, TilapiaDelNilo::new);
+        IMPLEMENTADAS = Collections.unmodifiableList(new ArrayList<>(especies));
+
+        // Especies sin implementar
+        PecesDatos[] resto = {
+            AlmacenPropiedades.CARPA, AlmacenPropiedades.KOI, AlmacenPropiedades.SILURO_EUROPEO,
+            AlmacenPropiedades.LUCIO_NORTE, AlmacenPropiedades.CARPIN_TRES_ESPINAS, AlmacenPropiedades.RODABALLO,
+            AlmacenPropiedades.CORVINA, AlmacenPropiedades.SARGO, AlmacenPropiedades.CABALLA,
+            AlmacenPropiedades.ABADEJO, AlmacenPropiedades.COBIA, AlmacenPropiedades.LUBINA_EUROPEA,
+            AlmacenPropiedades.BAGRE_CANAL
+        };
+        for (PecesDatos datos : resto) {
+            añadir(especies, datos, null, null);
+        }
+        ESPECIES = especies.toArray(new Especie[0]);
+    }
+
+    /** Constructor privado, la clase solo tiene métodos estáticos. */
+    private RegistroEspecies() {
+    }
+
+    /**
+     * Añade una especie al registro con el siguiente identificador.
+     *
+     * @param especies     Especies registradas hasta ahora.
+     * @param datos        Datos de la especie.
+     * @param creadorNuevo Creador de peces nuevos, o null si la especie no está implementada.
+     * @param creador      Creador de peces con un estado guardado, o null si la especie no está implementada.
+     */
+    private static void añadir(List<Especie> especies, PecesDatos datos, Especie.CreadorNuevo creadorNuevo,
+            Especie.Creador creador) {
+        Especie especie = new Especie(especies.size(), datos, creadorNuevo, creador);
+        especies.add(especie);
+        POR_NOMBRE.put(especie.getNombre(), especie);
+        POR_DATOS.put(datos, especie);
+    }
+
+    /**
+     * Devuelve la especie con un identificador.
+     *
+     * @param id Identificador de la especie.
+     * @return la especie.
+     */
+    public static Especie get(int id) {
+        return ESPECIES[id];
+    }
+
+    /**
+     * Devuelve el número de especies del registro, que es el tamaño de los arrays indexados por especie.
+     *
+     * @return número de especies.
+     */
+    public static int total() {
+        return ESPECIES.length;
+    }
+
+    /**
+     * Busca una especie por su nombre común.
+     *
+     * @param nombre Nombre de la especie.
+     * @return la especie, o null si no hay ninguna con ese nombre.
+     */
+    public static Especie porNombre(String nombre) {
+        return nombre != null ? POR_NOMBRE.get(nombre) : null;
+    }
+
+    /**
+     * Devuelve la especie que corresponde a unos datos de AlmacenPropiedades.
+     *
+     * @param datos Datos de la especie.
+     * @return la especie.
+     * @throws IllegalArgumentException si los datos no son de ninguna especie del registro.
+     */
+    public static Especie de(PecesDatos datos) {
+        Especie especie = POR_DATOS.get(datos);
+        if (especie == null) {
+            throw new IllegalArgumentException("Especie desconocida: " + (datos != null ? datos.getNombre() : null));
+        }
+        return especie;
+    }
+
+    /**
+     * Devuelve las especies implementadas.
+     *
+     * @return lista de solo lectura con las especies implementadas, en el orden del registro.
+     */
+    public static List<Especie> implementadas() {
+        return IMPLEMENTADAS;
+    }
+
+    /**
+     * Devuelve las especies implementadas que se pueden criar en un tipo de piscifactoría.
+     *
+     * @param deRio true para una piscifactoría de río y false para una de mar.
+     * @return las especies, en el orden del registro.
+     */
+    public static List<Especie> criables(boolean deRio) {
+        List<Especie> criables = new ArrayList<>();
+        for (Especie especie : IMPLEMENTADAS) {
+            if (especie.seCriaEn(deRio)) {
+                criables.add(especie);
+            }
+        }
+        return criables;
+    }
+}
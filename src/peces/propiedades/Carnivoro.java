@@ -2,7 +2,6 @@ package peces.propiedades;
 
 import peces.Pez;
 import propiedades.PecesDatos;
-import commons.Simulador;
 
 /** Clase abstracta que representa a un pez Carnívoro. */
 public abstract class Carnivoro extends Pez {
@@ -31,29 +30,4 @@ public abstract class Carnivoro extends Pez {
     public Carnivoro(boolean sexo, int edad, boolean vivo, boolean fertil, int ciclo, boolean alimentado, PecesDatos datos) {
         super(sexo, edad, vivo, fertil, ciclo, alimentado, datos);
     }
-
-    /**
-     * Alimenta al pez usando comida animal local o del almacén central.
-     *
-     * @param cantidadComidaAnimal Cantidad local de comida animal disponible.
-     * @param cantidadComidaVegetal Cantidad local de comida vegetal (no usada).
-     * @return El número de unidades de comida animal a consumir.
-     */
-    @Override
-    public int alimentar(int cantidadComidaAnimal, int cantidadComidaVegetal) {
-
-        if (cantidadComidaAnimal > 0) {
-            alimentado = true;
-            return 1;
-
-        } else if (Simulador.instance.almacenCentral != null && Simulador.instance.almacenCentral.getCantidadComidaAnimal() > 0) {
-            Simulador.instance.almacenCentral.setCantidadComidaAnimal(Simulador.instance.almacenCentral.getCantidadComidaAnimal() - 1);
-            alimentado = true;
-            return 0;
-
-        } else {
-            alimentado = false;
-            return 0;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -1,17 +1,11 @@
 package peces.propiedades;
 
-import java.util.Random;
-
 import peces.Pez;
 import propiedades.PecesDatos;
-import commons.Simulador;
 
 /** Clase abstracta que representa a un pez Activo. */
 public abstract class CarnivoroActivo extends Pez {
 
-    /** Generador de aleatorios. */
-    Random rand = new Random();
-    
     /**
      * Constructor de la clase CarnivoroActivo.
      *
@@ -36,45 +30,4 @@ public abstract class CarnivoroActivo extends Pez {
     public CarnivoroActivo(boolean sexo, int edad, boolean vivo, boolean fertil, int ciclo, boolean alimentado, PecesDatos datos) {
         super(sexo, edad, vivo, fertil, ciclo, alimentado, datos);
     }
-
-    /**
-     * Alimenta al pez, consumiendo más comida si es activo.
-     *
-     * @param cantidadComidaAnimal Cantidad local de comida animal disponible.
-     * @param cantidadComidaVegetal Cantidad local de comida vegetal (no usada).
-     * @return El número de unidades de comida animal a consumir.
-     */
-    @Override
-    public int alimentar(int cantidadComidaAnimal, int cantidadComidaVegetal) {
-
-        if (rand.nextDouble() < 0.5) {
-            if (cantidadComidaAnimal > 1) {
-                alimentado = true;
-                return 2;
-                
-            } else if (Simulador.instance.almacenCentral != null && Simulador.instance.almacenCentral.getCantidadComidaAnimal() > 1) {
-                Simulador.instance.almacenCentral.setCantidadComidaAnimal(Simulador.instance.almacenCentral.getCantidadComidaAnimal() - 2);
-                alimentado = true;
-                return 0;
-
-            } else {
-                alimentado = false;
-                return 0;
-            }
-        } else {
-            if (cantidadComidaAnimal > 0) {
-                alimentado = true;
-                return 1;
-                
-            } else if (Simulador.instance.almacenCentral != null && Simulador.instance.almacenCentral.getCantidadComidaAnimal() > 0) {
-                Simulador.instance.almacenCentral.setCantidadComidaAnimal(Simulador.instance.almacenCentral.getCantidadComidaAnimal() - 1);
-                alimentado = true;
-                return 0;
-
-            } else {
-                alimentado = false;
-                return 0;
-            }
-        }
-    }
-}
\ No newline at end of file
+}
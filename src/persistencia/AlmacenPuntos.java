@@ -0,0 +1,414 @@
+package persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+import commons.Simulador;
+import piscifactoria.Piscifactoria;
+import tanque.Tanque;
+
+/**
+ * Almacén de puntos de control de una partida, para volver a cualquier día guardado.
+ * Cada punto se divide en bloques, uno para los edificios, uno por piscifactoría y uno por tanque,
+ * codificados igual que las secciones de DiarioPartida. Cada bloque se guarda una sola vez
+ * en un archivo cuyo nombre es su resumen SHA-256, así que los tanques que no cambian de un día a otro
+ * no vuelven a ocupar espacio. Cada punto es un pequeño índice con la cabecera de la partida
+ * y los resúmenes de sus bloques, en la carpeta saves/puntos/NOMBRE, con un archivo por día.
+ * Los bloques se escriben antes que el índice y la recogida borra los índices antes que los bloques,
+ * de modo que un punto nunca apunta a un bloque que no se haya terminado de escribir.
+ */
+public class AlmacenPuntos {
+
+    /** Firma con la que empiezan los índices de los puntos, "PSCP" en ASCII. */
+    private static final int FIRMA = 0x50534350;
+
+    /** Versión del formato de los índices. */
+    private static final int VERSION = 1;
+
+    /** Extensión de los índices de los puntos. */
+    private static final String EXTENSION = ".punto";
+
+    /** Longitud en bytes de los resúmenes de los bloques. */
+    private static final int LONGITUD_RESUMEN = 32;
+
+    /** Texto de ayuda con los argumentos admitidos. */
+    private static final String USO = "Uso: AlmacenPuntos --partida=NOMBRE [--conservar=N]";
+
+    /** Carpeta del almacén. */
+    private final File carpeta;
+
+    /** Carpeta con los bloques. */
+    private final File bloques;
+
+    /**
+     * Crea el almacén de puntos de control en una carpeta.
+     *
+     * @param carpeta Carpeta del almacén.
+     */
+    public AlmacenPuntos(File carpeta) {
+        this.carpeta = carpeta;
+        this.bloques = new File(carpeta, "bloques");
+    }
+
+    /**
+     * Devuelve el almacén de puntos de control de una partida, en saves/puntos.
+     *
+     * @param partida Nombre de la partida.
+     * @return el almacén de la partida.
+     */
+    public static AlmacenPuntos de(String partida) {
+        return new AlmacenPuntos(new File("saves" + File.separator + "puntos" + File.separator + partida));
+    }
+
+    /**
+     * Punto de entrada del almacén: lista los puntos de control de una partida y, si se indica, recoge los antiguos.
+     * Termina con código 0 si todo va bien, 1 si falla la operación y 2 si los argumentos no son válidos.
+     *
+     * @param args Argumentos de línea de comandos. Admite:
+     *             "--partida=NOMBRE" con el nombre de la partida y
+     *             "--conservar=N" para borrar todos los puntos salvo los N más recientes y los bloques que ya no se usan.
+     */
+    public static void main(String[] args) {
+        String partida = null;
+        int conservar = 0;
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--partida=")) {
+                    partida = arg.substring("--partida=".length());
+                } else if (arg.startsWith("--conservar=")) {
+                    conservar = Integer.parseInt(arg.substring("--conservar=".length()));
+                } else {
+                    throw new IllegalArgumentException("Argumento desconocido: " + arg);
+                }
+            }
+            if (partida == null) {
+                throw new IllegalArgumentException("Falta el nombre de la partida.");
+            }
+            if (conservar < 0) {
+                throw new IllegalArgumentException("El número de puntos a conservar no puede ser negativo.");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USO);
+            System.exit(2);
+        }
+
+        try {
+            AlmacenPuntos almacen = de(partida);
+            if (conservar > 0) {
+                System.out.println("Bloques borrados: " + almacen.recoger(conservar));
+            }
+            for (int dia : almacen.listar()) {
+                System.out.println(partida + "@" + dia);
+            }
+        } catch (IOException e) {
+            System.err.println("No se pudo consultar el almacén de puntos: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Guarda un punto de control con el estado actual del simulador, sustituyendo al del mismo día si existe.
+     * Solo se escriben los bloques que no estén ya en el almacén.
+     * Debe llamarse desde el hilo que modifica el modelo.
+     *
+     * @param simulador El simulador a guardar.
+     * @return el número de bloques nuevos escritos.
+     * @throws IOException si falla la escritura.
+     */
+    public int guardar(Simulador simulador) throws IOException {
+        bloques.mkdirs();
+        int nuevos = 0;
+        ByteArrayOutputStream indiceBytes = new ByteArrayOutputStream();
+        DataOutputStream indice = new DataOutputStream(indiceBytes);
+        indice.writeInt(FIRMA);
+        indice.writeByte(VERSION);
+
+        // 1. Cabecera, que cambia cada día y se guarda en el propio índice
+        ByteArrayOutputStream cabecera = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(cabecera);
+        SnapshotBinario.escribirCabecera(out, simulador);
+        out.flush();
+        SnapshotBinario.escribirVarint(indice, cabecera.size());
+        cabecera.writeTo(indice);
+
+        // 2. Edificios
+        nuevos += escribirBloque(indice, DiarioPartida.codificarEdificios(simulador));
+
+        // 3. Piscifactorías y tanques
+        List<Piscifactoria> piscifactorias = new ArrayList<>();
+        if (simulador.getPiscifactorias() != null) {
+            for (Piscifactoria pisc : simulador.getPiscifactorias()) {
+                if (pisc != null) {
+                    piscifactorias.add(pisc);
+                }
+            }
+        }
+        SnapshotBinario.escribirVarint(indice, piscifactorias.size());
+        for (Piscifactoria pisc : piscifactorias) {
+            nuevos += escribirBloque(indice, DiarioPartida.codificarPiscifactoria(pisc));
+            List<Tanque> tanques = SnapshotBinario.tanques(pisc);
+            SnapshotBinario.escribirVarint(indice, tanques.size());
+            for (Tanque tanque : tanques) {
+                nuevos += escribirBloque(indice, DiarioPartida.codificarTanque(tanque));
+            }
+        }
+        indice.flush();
+
+        escribirArchivo(archivoPunto(simulador.getDia()), indiceBytes.toByteArray());
+        return nuevos;
+    }
+
+    /**
+     * Devuelve los días de los que hay un punto de control.
+     *
+     * @return los días, de menor a mayor.
+     */
+    public List<Integer> listar() {
+        List<Integer> dias = new ArrayList<>();
+        File[] archivos = carpeta.listFiles((dir, nombre) -> nombre.endsWith(EXTENSION));
+        if (archivos != null) {
+            for (File archivo : archivos) {
+                String nombre = archivo.getName();
+                try {
+                    dias.add(Integer.parseInt(nombre.substring(0, nombre.length() - EXTENSION.length())));
+                } catch (NumberFormatException e) {
+                    // No es un punto de control
+                }
+            }
+        }
+        Collections.sort(dias);
+        return dias;
+    }
+
+    /**
+     * Restaura el simulador al estado de un punto de control.
+     * Las piscifactorías actuales se sustituyen por las del punto y las monedas se fijan a las guardadas.
+     *
+     * @param simulador El simulador al que se aplicarán los datos.
+     * @param dia       Día del punto de control.
+     * @throws IOException si el punto no existe, le falta algún bloque o algún bloque está dañado.
+     */
+    public void restaurar(Simulador simulador, int dia) throws IOException {
+        File archivo = archivoPunto(dia);
+        if (!archivo.isFile()) {
+            throw new IOException("No hay punto de control del día " + dia + ".");
+        }
+
+        // El punto se recompone como una entrada del diario con todas las secciones y se aplica sobre una partida vacía
+        ByteArrayOutputStream entradaBytes = new ByteArrayOutputStream();
+        DataOutputStream entrada = new DataOutputStream(entradaBytes);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(archivo)))) {
+            if (in.readInt() != FIRMA) {
+                throw new IOException("El archivo no es un punto de control.");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Versión de punto de control no admitida: " + version);
+            }
+
+            byte[] cabecera = new byte[SnapshotBinario.leerVarint(in)];
+            in.readFully(cabecera);
+            entrada.writeByte(DiarioPartida.CABECERA);
+            entrada.write(cabecera);
+
+            entrada.writeByte(DiarioPartida.EDIFICIOS);
+            entrada.write(leerBloque(in));
+
+            int numPiscifactorias = SnapshotBinario.leerVarint(in);
+            for (int i = 0; i < numPiscifactorias; i++) {
+                byte[] pisc = leerBloque(in);
+                int numTanques = SnapshotBinario.leerVarint(in);
+                entrada.writeByte(DiarioPartida.PISCIFACTORIA);
+                SnapshotBinario.escribirVarint(entrada, i);
+                entrada.write(pisc);
+                SnapshotBinario.escribirVarint(entrada, numTanques);
+                for (int j = 0; j < numTanques; j++) {
+                    entrada.writeByte(DiarioPartida.TANQUE);
+                    SnapshotBinario.escribirVarint(entrada, i);
+                    SnapshotBinario.escribirVarint(entrada, j);
+                    entrada.write(leerBloque(in));
+                }
+            }
+        }
+        entrada.flush();
+
+        simulador.getPiscifactorias().clear();
+        DiarioPartida.aplicar(new DataInputStream(new ByteArrayInputStream(entradaBytes.toByteArray())), simulador);
+    }
+
+    /**
+     * Borra todos los puntos de control salvo los más recientes y después los bloques que ya no usa ninguno.
+     * Si no sobra ningún punto no se borra nada.
+     *
+     * @param conservar Número de puntos de control a conservar.
+     * @return el número de bloques borrados.
+     * @throws IOException si falla la lectura de algún punto o el borrado.
+     */
+    public int recoger(int conservar) throws IOException {
+        List<Integer> dias = listar();
+        if (dias.size() <= conservar) {
+            return 0;
+        }
+        for (int i = 0; i < dias.size() - conservar; i++) {
+            Files.deleteIfExists(archivoPunto(dias.get(i)).toPath());
+        }
+
+        // Se marcan los bloques de los puntos que quedan y se borran los demás
+        Set<String> usados = new HashSet<>();
+        for (int dia : listar()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(archivoPunto(dia))))) {
+                in.readInt();
+                in.readUnsignedByte();
+                in.skipNBytes(SnapshotBinario.leerVarint(in));
+                usados.add(leerResumen(in));
+                int numPiscifactorias = SnapshotBinario.leerVarint(in);
+                for (int i = 0; i < numPiscifactorias; i++) {
+                    usados.add(leerResumen(in));
+                    int numTanques = SnapshotBinario.leerVarint(in);
+                    for (int j = 0; j < numTanques; j++) {
+                        usados.add(leerResumen(in));
+                    }
+                }
+            }
+        }
+        int borrados = 0;
+        File[] grupos = bloques.listFiles(File::isDirectory);
+        if (grupos != null) {
+            for (File grupo : grupos) {
+                File[] archivos = grupo.listFiles();
+                if (archivos != null) {
+                    for (File archivo : archivos) {
+                        if (!usados.contains(archivo.getName()) && archivo.delete()) {
+                            borrados++;
+                        }
+                    }
+                }
+            }
+        }
+        return borrados;
+    }
+
+    /**
+     * Escribe el resumen de un bloque en el índice y el bloque en el almacén si todavía no está.
+     *
+     * @param indice Índice del punto de control.
+     * @param bloque Contenido del bloque.
+     * @return 1 si el bloque se ha escrito y 0 si ya estaba en el almacén.
+     * @throws IOException si falla la escritura.
+     */
+    private int escribirBloque(DataOutputStream indice, byte[] bloque) throws IOException {
+        byte[] resumen = resumen(bloque);
+        indice.write(resumen);
+        File archivo = archivoBloque(HexFormat.of().formatHex(resumen));
+        if (archivo.isFile()) {
+            return 0;
+        }
+        archivo.getParentFile().mkdirs();
+        escribirArchivo(archivo, bloque);
+        return 1;
+    }
+
+    /**
+     * Lee el resumen de un bloque del índice y devuelve el bloque, comprobando que no está dañado.
+     *
+     * @param in Índice del punto de control.
+     * @return el contenido del bloque.
+     * @throws IOException si falta el bloque o su contenido no corresponde a su resumen.
+     */
+    private byte[] leerBloque(DataInputStream in) throws IOException {
+        String resumen = leerResumen(in);
+        File archivo = archivoBloque(resumen);
+        if (!archivo.isFile()) {
+            throw new IOException("Falta el bloque " + resumen + " del punto de control.");
+        }
+        byte[] bloque = Files.readAllBytes(archivo.toPath());
+        if (!HexFormat.of().formatHex(resumen(bloque)).equals(resumen)) {
+            throw new IOException("El bloque " + resumen + " del punto de control está dañado.");
+        }
+        return bloque;
+    }
+
+    /**
+     * Lee el resumen de un bloque del índice.
+     *
+     * @param in Índice del punto de control.
+     * @return el resumen en hexadecimal, que es el nombre del archivo del bloque.
+     * @throws IOException si falla la lectura.
+     */
+    private static String leerResumen(DataInputStream in) throws IOException {
+        byte[] resumen = new byte[LONGITUD_RESUMEN];
+        in.readFully(resumen);
+        return HexFormat.of().formatHex(resumen);
+    }
+
+    /**
+     * Calcula el resumen SHA-256 de un bloque.
+     *
+     * @param bloque Contenido del bloque.
+     * @return el resumen.
+     */
+    private static byte[] resumen(byte[] bloque) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bloque);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible.", e);
+        }
+    }
+
+    /**
+     * Escribe un archivo completo en uno temporal y lo mueve a su sitio, para que nunca quede a medio escribir.
+     *
+     * @param archivo Archivo de destino.
+     * @param datos   Contenido del archivo.
+     * @throws IOException si falla la escritura.
+     */
+    private static void escribirArchivo(File archivo, byte[] datos) throws IOException {
+        Path destino = archivo.toPath();
+        Path temporal = destino.resolveSibling(archivo.getName() + ".tmp");
+        Files.write(temporal, datos);
+        try {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Devuelve el archivo del índice del punto de control de un día.
+     *
+     * @param dia Día del punto de control.
+     * @return el archivo del índice.
+     */
+    private File archivoPunto(int dia) {
+        return new File(carpeta, dia + EXTENSION);
+    }
+
+    /**
+     * Devuelve el archivo de un bloque, en una subcarpeta con los dos primeros caracteres de su resumen.
+     *
+     * @param resumen Resumen del bloque en hexadecimal.
+     * @return el archivo del bloque.
+     */
+    private File archivoBloque(String resumen) {
+        return new File(new File(bloques, resumen.substring(0, 2)), resumen);
+    }
+}
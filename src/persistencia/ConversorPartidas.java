@@ -0,0 +1,99 @@
+package persistencia;
+
+import java.io.File;
+import java.io.IOException;
+
+import commons.Simulador;
+import estadisticas.Estadisticas;
+
+/**
+ * Convierte partidas guardadas entre el formato JSON y el binario.
+ * El formato de entrada se detecta por el contenido del archivo y, si no se indica otro, se escribe el contrario.
+ */
+public class ConversorPartidas {
+
+    /** Texto de ayuda con los argumentos admitidos. */
+    private static final String USO = "Uso: ConversorPartidas --entrada=RUTA --salida=RUTA [--formato=JSON|BINARIO]"
+            + " [--diario=RUTA] [--guardado-compacto]";
+
+    /** Constructor privado, la clase solo tiene métodos estáticos. */
+    private ConversorPartidas() {
+    }
+
+    /**
+     * Punto de entrada del conversor.
+     * Termina con código 0 si se escribe la partida, 1 si falla la conversión y 2 si los argumentos no son válidos.
+     *
+     * @param args Argumentos de línea de comandos. Admite:
+     *             "--entrada=RUTA" con el archivo de la partida a convertir,
+     *             "--salida=RUTA" con el archivo donde se escribe la partida convertida,
+     *             "--formato=JSON|BINARIO" con el formato de salida, por defecto el contrario al de la entrada,
+     *             "--diario=RUTA" con el diario de la partida, cuyas entradas se aplican antes de convertirla, y
+     *             "--guardado-compacto" para escribir el JSON sin sangrías ni saltos de línea.
+     */
+    public static void main(String[] args) {
+        String entrada = null;
+        String salida = null;
+        String formato = null;
+        String diario = null;
+        for (String arg : args) {
+            if (arg.startsWith("--entrada=")) {
+                entrada = arg.substring("--entrada=".length());
+            } else if (arg.startsWith("--salida=")) {
+                salida = arg.substring("--salida=".length());
+            } else if (arg.startsWith("--formato=")) {
+                formato = arg.substring("--formato=".length()).toUpperCase();
+            } else if (arg.startsWith("--diario=")) {
+                diario = arg.substring("--diario=".length());
+            } else if (arg.equals("--guardado-compacto")) {
+                GestorEstado.guardadoCompacto = true;
+            } else {
+                System.err.println("Argumento desconocido: " + arg);
+                System.err.println(USO);
+                System.exit(2);
+            }
+        }
+        if (entrada == null || salida == null || (formato != null && !formato.equals("JSON") && !formato.equals("BINARIO"))) {
+            System.err.println(USO);
+            System.exit(2);
+        }
+        File archivoEntrada = new File(entrada);
+        if (!archivoEntrada.isFile()) {
+            System.err.println("El archivo " + entrada + " no existe.");
+            System.exit(1);
+        }
+
+        try {
+            boolean binario = formato != null ? formato.equals("BINARIO") : !SnapshotBinario.esBinario(archivoEntrada);
+            convertir(archivoEntrada, diario != null ? new File(diario) : null, new File(salida), binario);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("No se pudo convertir la partida: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Carga una partida en un simulador nuevo y la escribe en el formato indicado.
+     *
+     * @param entrada Archivo de la partida, en cualquiera de los dos formatos.
+     * @param diario  Diario de la partida que se aplica tras cargarla, o null si no tiene.
+     * @param salida  Archivo de destino.
+     * @param binario true para escribir en formato binario y false para JSON.
+     * @throws IOException si falla la lectura o la escritura.
+     */
+    public static void convertir(File entrada, File diario, File salida, boolean binario) throws IOException {
+        Simulador simulador = new Simulador();
+        GestorEstado.cargarArchivo(simulador, entrada);
+        if (diario != null) {
+            DiarioPartida.reproducir(simulador, diario);
+        }
+        if (simulador.estadisticas == null) {
+            simulador.estadisticas = new Estadisticas(simulador.getPecesImplementados());
+        }
+
+        if (salida.getParentFile() != null) {
+            salida.getParentFile().mkdirs();
+        }
+        GestorEstado.escribirCompleta(InstantaneaPartida.tomar(simulador), salida, binario, GestorEstado.guardadoCompacto);
+    }
+}
@@ -0,0 +1,735 @@
+package persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import commons.Simulador;
+import peces.Especie;
+import peces.Pez;
+import piscifactoria.Piscifactoria;
+import tanque.Tanque;
+
+/**
+ * Diario de una partida: guarda cada día solo lo que ha cambiado desde el último guardado.
+ * Cada entrada añade al final del diario la cabecera de la partida y las secciones cuyo contenido ha cambiado:
+ * los edificios y los datos de cada piscifactoría, con la misma codificación que SnapshotBinario, y los peces de cada tanque.
+ * De los tanques solo se anotan los peces que cambian: los demás se copian de los del último guardado,
+ * que se comparan por su día de nacimiento y no por su edad, para que envejecer no cuente como cambio.
+ * Cada cierto número de días, o cuando el diario supera un tamaño máximo, se escribe la partida completa
+ * y se vacía el diario. Al cargar, las entradas se aplican en orden sobre la última partida completa.
+ * Los guardados se preparan en el hilo de la simulación y se escriben después con GuardadoAsincrono.
+ * Las entradas llevan su longitud y una suma de comprobación, así que una entrada a medio escribir se descarta.
+ */
+public class DiarioPartida {
+
+    /** Firma con la que empiezan los diarios, "PSCD" en ASCII. */
+    private static final int FIRMA = 0x50534344;
+
+    /** Versión del formato del diario. */
+    private static final int VERSION = 2;
+
+    /** Versión del formato que reescribía enteros los tanques con algún cambio y no adelantaba la edad de los demás. */
+    private static final int VERSION_SIN_CAMBIOS = 1;
+
+    /** Tamaño en bytes a partir del cual se escribe la partida completa aunque no toque por días. */
+    private static final long TAMAÑO_MAXIMO = 4L << 20;
+
+    /** Sección con la empresa, el día, las monedas, las estadísticas y la semilla. */
+    static final int CABECERA = 1;
+
+    /** Sección con los edificios. */
+    static final int EDIFICIOS = 2;
+
+    /** Sección con los datos de una piscifactoría y su número de tanques. */
+    static final int PISCIFACTORIA = 3;
+
+    /** Sección con la especie y los peces de un tanque. */
+    static final int TANQUE = 4;
+
+    /** Sección con los peces de un tanque, copiados de los del último guardado o escritos si han cambiado. */
+    static final int CAMBIOS_TANQUE = 5;
+
+    /** Archivo de la partida completa. */
+    private final File archivoPartida;
+
+    /** Día en que se escribió la última partida completa. */
+    private int diaCompleto;
+
+    /** Si ya se ha escrito una partida completa con este diario, de modo que se conoce lo guardado. */
+    private boolean iniciado = false;
+
+    /** Tamaño que tendrá el diario cuando se escriban las entradas preparadas. */
+    private long tamaño;
+
+    /** Contenido guardado de los edificios. */
+    private byte[] edificios;
+
+    /** Contenido guardado de cada piscifactoría. */
+    private final List<byte[]> piscifactorias = new ArrayList<>();
+
+    /** Peces guardados de cada tanque, por piscifactoría. */
+    private final List<List<TanqueGuardado>> tanques = new ArrayList<>();
+
+    /**
+     * Crea el diario de una partida.
+     *
+     * @param archivoPartida Archivo de la partida completa.
+     */
+    public DiarioPartida(File archivoPartida) {
+        this.archivoPartida = archivoPartida;
+    }
+
+    /**
+     * Devuelve el archivo de diario que corresponde a una partida, en la carpeta diarios.
+     *
+     * @param archivoPartida Archivo de la partida completa.
+     * @return el archivo del diario.
+     */
+    public static File archivoDiario(File archivoPartida) {
+        String nombre = archivoPartida.getName();
+        int punto = nombre.lastIndexOf('.');
+        return new File("diarios", (punto > 0 ? nombre.substring(0, punto) : nombre) + ".journal");
+    }
+
+    /**
+     * Devuelve el archivo de la partida completa.
+     *
+     * @return archivo de la partida completa.
+     */
+    public File getArchivoPartida() {
+        return archivoPartida;
+    }
+
+    /**
+     * Prepara el guardado de la partida: una entrada del diario o, si toca, la partida completa.
+     * La primera vez siempre se guarda la partida completa, porque no se sabe qué hay guardado.
+     * Debe llamarse desde el hilo que modifica el modelo; la escritura se hace después con el guardado devuelto.
+     *
+     * @param simulador          El simulador a guardar.
+     * @param diasEntreCompletas Número de días entre partidas completas.
+     * @param binario            Si la partida completa se escribe en binario.
+     * @param compacto           Si el JSON de la partida completa se escribe sin sangrías.
+     * @return el guardado a realizar.
+     * @throws IOException si falla la codificación.
+     */
+    public GuardadoAsincrono.Tarea preparar(Simulador simulador, int diasEntreCompletas, boolean binario, boolean compacto)
+            throws IOException {
+        if (!iniciado || simulador.getDia() - diaCompleto >= diasEntreCompletas || tamaño >= TAMAÑO_MAXIMO) {
+            return prepararCompleta(simulador, binario, compacto);
+        }
+        GuardadoAsincrono.Tarea tarea = new GuardadoAsincrono.Tarea(archivoPartida, null, binario, compacto, true);
+        byte[] entrada = anotar(simulador);
+        tarea.anotar(entrada);
+        tamaño += entrada.length;
+        return tarea;
+    }
+
+    /**
+     * Prepara el guardado de la partida completa y toma lo guardado como referencia para las siguientes entradas.
+     *
+     * @param simulador El simulador a guardar.
+     * @param binario   Si la partida completa se escribe en binario.
+     * @param compacto  Si el JSON de la partida completa se escribe sin sangrías.
+     * @return el guardado a realizar.
+     * @throws IOException si falla la codificación.
+     */
+    private GuardadoAsincrono.Tarea prepararCompleta(Simulador simulador, boolean binario, boolean compacto) throws IOException {
+        GuardadoAsincrono.Tarea tarea = new GuardadoAsincrono.Tarea(archivoPartida, InstantaneaPartida.tomar(simulador),
+                binario, compacto, true);
+
+        edificios = codificarEdificios(simulador);
+        piscifactorias.clear();
+        tanques.clear();
+        List<Piscifactoria> lista = piscifactorias(simulador);
+        for (int i = 0; i < lista.size(); i++) {
+            piscifactorias.add(codificarPiscifactoria(lista.get(i)));
+            List<TanqueGuardado> guardados = new ArrayList<>();
+            for (Tanque tanque : SnapshotBinario.tanques(lista.get(i))) {
+                guardados.add(guardar(tanque, simulador.getDia()));
+            }
+            tanques.add(guardados);
+        }
+        diaCompleto = simulador.getDia();
+        tamaño = 0;
+        iniciado = true;
+        return tarea;
+    }
+
+    /**
+     * Codifica una entrada del diario con la cabecera y las secciones que han cambiado desde el último guardado.
+     *
+     * @param simulador El simulador a guardar.
+     * @return la entrada codificada, con su longitud y su suma de comprobación.
+     * @throws IOException si falla la codificación.
+     */
+    private byte[] anotar(Simulador simulador) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeByte(CABECERA);
+        SnapshotBinario.escribirCabecera(out, simulador);
+
+        byte[] nuevosEdificios = codificarEdificios(simulador);
+        if (!Arrays.equals(nuevosEdificios, edificios)) {
+            out.writeByte(EDIFICIOS);
+            out.write(nuevosEdificios);
+            edificios = nuevosEdificios;
+        }
+
+        List<Piscifactoria> lista = piscifactorias(simulador);
+        for (int i = 0; i < lista.size(); i++) {
+            List<Tanque> tanquesPisc = SnapshotBinario.tanques(lista.get(i));
+            if (i == piscifactorias.size()) {
+                piscifactorias.add(null);
+                tanques.add(new ArrayList<>());
+            }
+
+            byte[] nuevaPisc = codificarPiscifactoria(lista.get(i));
+            List<TanqueGuardado> guardados = tanques.get(i);
+            if (!Arrays.equals(nuevaPisc, piscifactorias.get(i)) || tanquesPisc.size() != guardados.size()) {
+                out.writeByte(PISCIFACTORIA);
+                SnapshotBinario.escribirVarint(out, i);
+                out.write(nuevaPisc);
+                SnapshotBinario.escribirVarint(out, tanquesPisc.size());
+                piscifactorias.set(i, nuevaPisc);
+            }
+
+            for (int j = 0; j < tanquesPisc.size(); j++) {
+                TanqueGuardado nuevoTanque = guardar(tanquesPisc.get(j), simulador.getDia());
+                if (j == guardados.size()) {
+                    guardados.add(null);
+                }
+                TanqueGuardado anterior = guardados.get(j);
+                if (anterior == null || !anterior.especie().equals(nuevoTanque.especie())
+                        || anterior.numero() != nuevoTanque.numero()) {
+                    out.writeByte(TANQUE);
+                    SnapshotBinario.escribirVarint(out, i);
+                    SnapshotBinario.escribirVarint(out, j);
+                    out.write(codificarTanque(tanquesPisc.get(j)));
+                } else if (!anterior.mismosPeces(nuevoTanque)) {
+                    out.writeByte(CAMBIOS_TANQUE);
+                    SnapshotBinario.escribirVarint(out, i);
+                    SnapshotBinario.escribirVarint(out, j);
+                    escribirCambios(out, anterior, nuevoTanque, simulador.getDia());
+                }
+                guardados.set(j, nuevoTanque);
+            }
+            while (guardados.size() > tanquesPisc.size()) {
+                guardados.remove(guardados.size() - 1);
+            }
+        }
+        out.flush();
+
+        byte[] entrada = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(entrada);
+        ByteArrayOutputStream registro = new ByteArrayOutputStream(entrada.length + 9);
+        DataOutputStream reg = new DataOutputStream(registro);
+        SnapshotBinario.escribirVarint(reg, entrada.length);
+        reg.write(entrada);
+        reg.writeInt((int) crc.getValue());
+        reg.flush();
+        return registro.toByteArray();
+    }
+
+    /**
+     * Crea un diario vacío, o vacía el que exista.
+     *
+     * @param archivoDiario Archivo del diario.
+     * @throws IOException si falla la escritura.
+     */
+    static void iniciar(File archivoDiario) throws IOException {
+        archivoDiario.getParentFile().mkdirs();
+        try (FileOutputStream diario = new FileOutputStream(archivoDiario);
+                DataOutputStream out = new DataOutputStream(diario)) {
+            out.writeInt(FIRMA);
+            out.writeByte(VERSION);
+            out.flush();
+            diario.getFD().sync();
+        }
+    }
+
+    /**
+     * Añade entradas ya codificadas al final del diario y espera a que lleguen al disco.
+     *
+     * @param archivoDiario Archivo del diario.
+     * @param entradas      Entradas codificadas.
+     * @throws IOException si falla la escritura.
+     */
+    static void añadir(File archivoDiario, byte[] entradas) throws IOException {
+        if (!archivoDiario.isFile()) {
+            iniciar(archivoDiario);
+        }
+        try (FileOutputStream diario = new FileOutputStream(archivoDiario, true)) {
+            diario.write(entradas);
+            diario.getFD().sync();
+        }
+    }
+
+    /**
+     * Aplica sobre el simulador las entradas de un diario, en orden, hasta la primera incompleta o dañada.
+     *
+     * @param simulador     El simulador con la partida completa ya cargada.
+     * @param archivoDiario Archivo del diario.
+     * @return el número de entradas aplicadas.
+     * @throws IOException si falla la lectura o el diario no es válido.
+     */
+    public static int reproducir(Simulador simulador, File archivoDiario) throws IOException {
+        if (!archivoDiario.isFile() || archivoDiario.length() == 0) {
+            return 0;
+        }
+        int aplicadas = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(archivoDiario)))) {
+            if (in.readInt() != FIRMA) {
+                throw new IOException("El archivo no es un diario de partida.");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION && version != VERSION_SIN_CAMBIOS) {
+                throw new IOException("Versión de diario no admitida: " + version);
+            }
+            while (true) {
+                byte[] entrada;
+                try {
+                    entrada = new byte[SnapshotBinario.leerVarint(in)];
+                    in.readFully(entrada);
+                    CRC32 crc = new CRC32();
+                    crc.update(entrada);
+                    if (in.readInt() != (int) crc.getValue()) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                aplicar(new DataInputStream(new ByteArrayInputStream(entrada)), simulador, version == VERSION);
+                aplicadas++;
+            }
+        }
+        return aplicadas;
+    }
+
+    /**
+     * Aplica una entrada del diario.
+     * Los peces vivos de los tanques que no aparecen en la entrada envejecen los días que haya avanzado la partida.
+     *
+     * @param in        Flujo con el contenido de la entrada.
+     * @param simulador El simulador al que se aplican los cambios.
+     * @throws IOException si la entrada no es válida.
+     */
+    static void aplicar(DataInputStream in, Simulador simulador) throws IOException {
+        aplicar(in, simulador, true);
+    }
+
+    /**
+     * Aplica una entrada del diario.
+     *
+     * @param in          Flujo con el contenido de la entrada.
+     * @param simulador   El simulador al que se aplican los cambios.
+     * @param envejecer   Si los peces vivos de los tanques que no aparecen en la entrada envejecen
+     *                    los días que haya avanzado la partida, lo que no hacían los diarios de la versión 1.
+     * @throws IOException si la entrada no es válida.
+     */
+    private static void aplicar(DataInputStream in, Simulador simulador, boolean envejecer) throws IOException {
+        List<Piscifactoria> lista = simulador.getPiscifactorias();
+        int diaAnterior = simulador.getDia();
+        Set<Tanque> anotados = Collections.newSetFromMap(new IdentityHashMap<>());
+        int seccion;
+        while ((seccion = in.read()) != -1) {
+            switch (seccion) {
+                case CABECERA -> SnapshotBinario.leerCabecera(in, simulador);
+                case EDIFICIOS -> SnapshotBinario.leerEdificios(in, simulador);
+                case PISCIFACTORIA -> {
+                    int i = SnapshotBinario.leerVarint(in);
+                    Piscifactoria leida = SnapshotBinario.leerPiscifactoria(in);
+                    int numTanques = SnapshotBinario.leerVarint(in);
+                    if (i < lista.size()) {
+                        Piscifactoria pisc = lista.get(i);
+                        pisc.setCapacidadMaximaComida(leida.getCapacidadMaximaComida());
+                        pisc.setCantidadComidaVegetal(leida.getComidaVegetalActual());
+                        pisc.setCantidadComidaAnimal(leida.getComidaAnimalActual());
+                    } else if (i == lista.size()) {
+                        lista.add(leida);
+                    } else {
+                        throw new IOException("Piscifactoría fuera de orden en el diario: " + i);
+                    }
+                    List<Tanque> tanquesPisc = lista.get(i).getTanques();
+                    while (tanquesPisc.size() > numTanques) {
+                        tanquesPisc.remove(tanquesPisc.size() - 1);
+                    }
+                }
+                case TANQUE -> {
+                    int i = SnapshotBinario.leerVarint(in);
+                    int j = SnapshotBinario.leerVarint(in);
+                    if (i >= lista.size()) {
+                        throw new IOException("Tanque de una piscifactoría desconocida en el diario: " + i);
+                    }
+                    Piscifactoria pisc = lista.get(i);
+                    String especie = SnapshotBinario.leerTexto(in);
+                    Tanque tanque = new Tanque(SnapshotBinario.leerVarint(in), SnapshotBinario.capacidadTanque(pisc));
+                    SnapshotBinario.leerPeces(in, tanque.getPeces(), especie.isEmpty() ? null : GestorEstado.especiePez(especie));
+                    if (j < pisc.getTanques().size()) {
+                        pisc.getTanques().set(j, tanque);
+                    } else if (j == pisc.getTanques().size()) {
+                        pisc.getTanques().add(tanque);
+                    } else {
+                        throw new IOException("Tanque fuera de orden en el diario: " + j);
+                    }
+                    anotados.add(tanque);
+                }
+                case CAMBIOS_TANQUE -> {
+                    int i = SnapshotBinario.leerVarint(in);
+                    int j = SnapshotBinario.leerVarint(in);
+                    if (i >= lista.size() || j >= lista.get(i).getTanques().size()) {
+                        throw new IOException("Cambios de un tanque desconocido en el diario: " + i + ", " + j);
+                    }
+                    Piscifactoria pisc = lista.get(i);
+                    Tanque tanque = leerCambios(in, pisc.getTanques().get(j), SnapshotBinario.capacidadTanque(pisc),
+                            simulador.getDia() - diaAnterior);
+                    pisc.getTanques().set(j, tanque);
+                    anotados.add(tanque);
+                }
+                default -> throw new IOException("Sección desconocida en el diario: " + seccion);
+            }
+        }
+
+        int dias = simulador.getDia() - diaAnterior;
+        if (envejecer && dias != 0) {
+            for (Piscifactoria pisc : lista) {
+                List<Tanque> tanquesPisc = pisc.getTanques();
+                for (int j = 0; j < tanquesPisc.size(); j++) {
+                    Tanque tanque = tanquesPisc.get(j);
+                    // Los tanques sin peces vivos no cambian, y así los que siguen sin cargar no se cargan
+                    if (tanque != null && !anotados.contains(tanque) && tanque.getVivos() > 0) {
+                        tanquesPisc.set(j, envejecer(tanque, SnapshotBinario.capacidadTanque(pisc), dias));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe los peces de un tanque como cambios sobre los del último guardado.
+     * Los peces se escriben en tramos: cada tramo copia varios peces seguidos de los guardados,
+     * que el lector envejece los días transcurridos, o escribe enteros los que no estaban.
+     * Cada tramo empieza por su longitud multiplicada por 2, más 1 si sus peces van escritos;
+     * los tramos copiados llevan después la posición del primero entre los guardados.
+     *
+     * @param out      Flujo de destino.
+     * @param anterior Peces del tanque en el último guardado.
+     * @param nuevo    Peces actuales del tanque.
+     * @param dia      Día de la partida.
+     * @throws IOException si falla la escritura.
+     */
+    private static void escribirCambios(DataOutputStream out, TanqueGuardado anterior, TanqueGuardado nuevo, int dia)
+            throws IOException {
+        int guardados = anterior.edades().length;
+        int total = nuevo.edades().length;
+        Map<Long, Integer> posiciones = new HashMap<>();
+        for (int k = guardados - 1; k >= 0; k--) {
+            posiciones.put(anterior.clave(k), k);
+        }
+
+        // Se busca para cada pez uno igual entre los guardados, preferiblemente el que sigue al del pez anterior
+        int[] origen = new int[total];
+        int siguiente = 0;
+        for (int k = 0; k < total; k++) {
+            Integer posicion = siguiente < guardados && anterior.mismoPez(siguiente, nuevo, k) ? Integer.valueOf(siguiente)
+                    : posiciones.get(nuevo.clave(k));
+            origen[k] = posicion != null && anterior.mismoPez(posicion, nuevo, k) ? posicion : -1;
+            siguiente = (origen[k] >= 0 ? origen[k] : siguiente) + 1;
+        }
+
+        SnapshotBinario.escribirVarint(out, total);
+        int k = 0;
+        while (k < total) {
+            int longitud = 1;
+            if (origen[k] >= 0) {
+                while (k + longitud < total && origen[k + longitud] == origen[k] + longitud) {
+                    longitud++;
+                }
+                SnapshotBinario.escribirVarint(out, longitud << 1);
+                SnapshotBinario.escribirVarint(out, origen[k]);
+            } else {
+                while (k + longitud < total && origen[k + longitud] < 0) {
+                    longitud++;
+                }
+                SnapshotBinario.escribirVarint(out, (longitud << 1) | 1);
+                for (int p = k; p < k + longitud; p++) {
+                    int indicadores = nuevo.indicadores()[p];
+                    SnapshotBinario.escribirPez(out, edadRelativa(nuevo.edades()[p], indicadores, dia),
+                            nuevo.ciclos()[p] - (descuentaCiclo(indicadores) ? dia : 0), indicadores);
+                }
+            }
+            k += longitud;
+        }
+    }
+
+    /**
+     * Lee los peces de un tanque escritos con escribirCambios y crea con ellos el tanque.
+     *
+     * @param in        Flujo de origen.
+     * @param anterior  El tanque con los peces del último guardado.
+     * @param capacidad Capacidad del tanque.
+     * @param dias      Días que ha avanzado la partida desde el último guardado.
+     * @return el tanque con los peces actuales.
+     * @throws IOException si la sección no es válida.
+     */
+    private static Tanque leerCambios(DataInputStream in, Tanque anterior, int capacidad, int dias) throws IOException {
+        Especie especie = anterior.getEspecie();
+        List<Pez> guardados = new ArrayList<>();
+        for (Pez pez : anterior.getPeces()) {
+            if (pez != null) {
+                guardados.add(pez);
+            }
+        }
+        Tanque tanque = new Tanque(anterior.getNumeroTanque(), capacidad);
+        int total = SnapshotBinario.leerVarint(in);
+        int leidos = 0;
+        while (leidos < total) {
+            int codigo = SnapshotBinario.leerVarint(in);
+            int longitud = codigo >>> 1;
+            if (longitud == 0 || longitud > total - leidos) {
+                throw new IOException("Tramo de peces no válido en el diario: " + longitud);
+            }
+            if ((codigo & 1) == 0) {
+                int origen = SnapshotBinario.leerVarint(in);
+                if (origen > guardados.size() - longitud) {
+                    throw new IOException("Tramo de peces fuera del tanque en el diario: " + origen);
+                }
+                for (int p = origen; p < origen + longitud; p++) {
+                    tanque.getPeces().add(envejecer(guardados.get(p), dias));
+                }
+            } else {
+                for (int p = 0; p < longitud; p++) {
+                    Pez pez = SnapshotBinario.leerPez(in, especie);
+                    if (pez != null) {
+                        tanque.getPeces().add(pez);
+                    }
+                }
+            }
+            leidos += longitud;
+        }
+        return tanque;
+    }
+
+    /**
+     * Crea una copia de un tanque con sus peces vivos envejecidos unos días.
+     *
+     * @param anterior  El tanque a copiar.
+     * @param capacidad Capacidad del tanque.
+     * @param dias      Días que envejecen los peces.
+     * @return el tanque con los peces envejecidos.
+     */
+    private static Tanque envejecer(Tanque anterior, int capacidad, int dias) {
+        Tanque tanque = new Tanque(anterior.getNumeroTanque(), capacidad);
+        for (Pez pez : anterior.getPeces()) {
+            if (pez != null) {
+                tanque.getPeces().add(envejecer(pez, dias));
+            }
+        }
+        return tanque;
+    }
+
+    /**
+     * Crea una copia de un pez envejecida unos días, como si hubiera pasado esos días sin ningún otro cambio.
+     * Los peces muertos no cambian.
+     *
+     * @param pez  El pez a copiar.
+     * @param dias Días que envejece el pez.
+     * @return el pez envejecido.
+     */
+    private static Pez envejecer(Pez pez, int dias) {
+        int indicadores = SnapshotBinario.indicadores(pez);
+        int edad = pez.getEdad() + ((indicadores & SnapshotBinario.VIVO) != 0 ? dias : 0);
+        int ciclo = pez.getCiclo() - (descuentaCiclo(indicadores) ? dias : 0);
+        return SnapshotBinario.crearPez(pez.getEspecie(), edad, ciclo, indicadores);
+    }
+
+    /**
+     * Guarda los peces de un tanque con la edad y el ciclo relativos al día, sin cargar los que siguen sin cargar.
+     *
+     * @param tanque El tanque a guardar.
+     * @param dia    Día de la partida.
+     * @return los peces guardados.
+     */
+    private static TanqueGuardado guardar(Tanque tanque, int dia) {
+        String especie = SnapshotBinario.especie(tanque);
+        List<Pez> peces = new ArrayList<>();
+        if (especie != null) {
+            if (tanque.isCargado()) {
+                for (Pez pez : tanque.getPeces()) {
+                    if (pez != null) {
+                        peces.add(pez);
+                    }
+                }
+            } else {
+                tanque.getCargaDiferida().cargar(peces);
+            }
+        }
+        int[] edades = new int[peces.size()];
+        int[] ciclos = new int[peces.size()];
+        byte[] indicadores = new byte[peces.size()];
+        for (int k = 0; k < peces.size(); k++) {
+            Pez pez = peces.get(k);
+            int estado = SnapshotBinario.indicadores(pez);
+            edades[k] = edadRelativa(pez.getEdad(), estado, dia);
+            ciclos[k] = pez.getCiclo() + (descuentaCiclo(estado) ? dia : 0);
+            indicadores[k] = (byte) estado;
+        }
+        return new TanqueGuardado(especie != null ? especie : "", tanque.getNumeroTanque(), edades, ciclos, indicadores);
+    }
+
+    /**
+     * Pasa la edad de un pez a su día de nacimiento si está vivo, o al revés. Los peces muertos ya no envejecen
+     * y guardan la edad.
+     *
+     * @param edad        Edad del pez, o su día de nacimiento.
+     * @param indicadores Indicadores del pez.
+     * @param dia         Día de la partida.
+     * @return el día de nacimiento del pez, o su edad.
+     */
+    private static int edadRelativa(int edad, int indicadores, int dia) {
+        return (indicadores & SnapshotBinario.VIVO) != 0 ? dia - edad : edad;
+    }
+
+    /**
+     * Indica si el ciclo de un pez se descuenta cada día, lo que solo les pasa a las hembras vivas maduras.
+     *
+     * @param indicadores Indicadores del pez.
+     * @return true si el ciclo del pez baja un día cada día.
+     */
+    private static boolean descuentaCiclo(int indicadores) {
+        return (indicadores & (SnapshotBinario.VIVO | SnapshotBinario.SEXO | SnapshotBinario.MADURO))
+                == (SnapshotBinario.VIVO | SnapshotBinario.MADURO);
+    }
+
+    /**
+     * Codifica los edificios.
+     *
+     * @param simulador El simulador a guardar.
+     * @return los edificios codificados.
+     * @throws IOException si falla la codificación.
+     */
+    static byte[] codificarEdificios(Simulador simulador) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        SnapshotBinario.escribirEdificios(out, simulador);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Codifica los datos de una piscifactoría, sin sus tanques.
+     *
+     * @param pisc La piscifactoría a guardar.
+     * @return la piscifactoría codificada.
+     * @throws IOException si falla la codificación.
+     */
+    static byte[] codificarPiscifactoria(Piscifactoria pisc) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        SnapshotBinario.escribirPiscifactoria(out, pisc);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Codifica la especie, el número y los peces de un tanque.
+     *
+     * @param tanque El tanque a guardar.
+     * @return el tanque codificado.
+     * @throws IOException si falla la codificación.
+     */
+    static byte[] codificarTanque(Tanque tanque) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        String especie = SnapshotBinario.especie(tanque);
+        SnapshotBinario.escribirTexto(out, especie != null ? especie : "");
+        SnapshotBinario.escribirVarint(out, tanque.getNumeroTanque());
+        SnapshotBinario.escribirPeces(out, tanque);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Devuelve las piscifactorías del simulador, sin las nulas.
+     *
+     * @param simulador El simulador a consultar.
+     * @return lista con las piscifactorías.
+     */
+    private static List<Piscifactoria> piscifactorias(Simulador simulador) {
+        List<Piscifactoria> lista = new ArrayList<>();
+        if (simulador.getPiscifactorias() != null) {
+            for (Piscifactoria pisc : simulador.getPiscifactorias()) {
+                if (pisc != null) {
+                    lista.add(pisc);
+                }
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * Peces de un tanque tal como se guardaron, con la edad y el ciclo relativos al día del guardado:
+     * los peces vivos guardan su día de nacimiento y las hembras vivas maduras el ciclo más el día,
+     * de modo que un pez que solo ha envejecido se guarda igual que el día anterior.
+     *
+     * @param especie     Nombre de la especie del tanque, vacío si no tiene.
+     * @param numero      Número del tanque.
+     * @param edades      Día de nacimiento de cada pez vivo, o edad de cada pez muerto.
+     * @param ciclos      Ciclo de cada pez, más el día en las hembras vivas maduras.
+     * @param indicadores Indicadores de cada pez, como en SnapshotBinario.
+     */
+    private record TanqueGuardado(String especie, int numero, int[] edades, int[] ciclos, byte[] indicadores) {
+
+        /**
+         * Indica si otro guardado tiene los mismos peces en el mismo orden.
+         *
+         * @param otro El otro guardado.
+         * @return true si los peces coinciden.
+         */
+        boolean mismosPeces(TanqueGuardado otro) {
+            return Arrays.equals(edades, otro.edades) && Arrays.equals(ciclos, otro.ciclos)
+                    && Arrays.equals(indicadores, otro.indicadores);
+        }
+
+        /**
+         * Indica si un pez de este guardado es igual a uno de otro.
+         *
+         * @param k    Posición del pez en este guardado.
+         * @param otro El otro guardado.
+         * @param m    Posición del pez en el otro guardado.
+         * @return true si los dos peces coinciden.
+         */
+        boolean mismoPez(int k, TanqueGuardado otro, int m) {
+            return edades[k] == otro.edades[m] && ciclos[k] == otro.ciclos[m] && indicadores[k] == otro.indicadores[m];
+        }
+
+        /**
+         * Devuelve una clave con el estado de un pez, para buscar los peces iguales.
+         * Dos peces distintos pueden compartir clave, así que hay que confirmarlo con mismoPez.
+         *
+         * @param k Posición del pez.
+         * @return la clave del pez.
+         */
+        long clave(int k) {
+            return ((long) edades[k] << 32) ^ ((long) ciclos[k] << 8) ^ indicadores[k];
+        }
+    }
+}
@@ -1,391 +1,811 @@
 package persistencia;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
+import commons.Aleatorio;
 import commons.Simulador;
 import estadisticas.Estadisticas;
 import edificios.AlmacenCentral;
 import edificios.GranjaFitoplancton;
 import edificios.GranjaLangostinos;
 import edificios.TanqueLangostinos;
+import peces.Especie;
 import peces.Pez;
-import peces.tipos.doble.Dorada;
-import peces.tipos.doble.SalmonAtlantico;
-import peces.tipos.doble.TruchaArcoiris;
-import peces.tipos.mar.ArenqueDelAtlantico;
-import peces.tipos.mar.Besugo;
-import peces.tipos.mar.LenguadoEuropeo;
-import peces.tipos.mar.LubinaRayada;
-import peces.tipos.mar.Robalo;
-import peces.tipos.rio.CarpaPlateada;
-import peces.tipos.rio.Pejerrey;
-import peces.tipos.rio.PercaEuropea;
-import peces.tipos.rio.SalmonChinook;
-import peces.tipos.rio.TilapiaDelNilo;
+import peces.RegistroEspecies;
 import piscifactoria.Piscifactoria;
 import piscifactoria.PiscifactoriaDeMar;
 import piscifactoria.PiscifactoriaDeRio;
+import propiedades.PecesDatos;
 import tanque.Tanque;
 
 public class GestorEstado {
 
-    /** Guarda el estado actual del simulador en un archivo JSON utilizando JsonObject. */
+    /** Tamaño en caracteres del buffer de lectura y escritura de las partidas. */
+    private static final int TAMAÑO_BUFFER = 1 << 16;
+
+    /** Si es true, la partida se guarda sin sangrías ni saltos de línea, ocupando menos espacio. */
+    public static boolean guardadoCompacto = false;
+
+    /** Si es true, la partida se guarda en el formato binario de SnapshotBinario en lugar de en JSON. */
+    public static boolean guardadoBinario = false;
+
+    /** Si es mayor que 0, la partida se guarda con un diario y se escribe completa cada tantos días. */
+    public static int diasEntreCompletas = 0;
+
+    /** Si es mayor que 0, cada guardado deja también un punto de control y se conservan los últimos tantos. */
+    public static int puntosControl = 0;
+
+    /** Diario de la partida que se está guardando, si se guarda con diario. */
+    private static DiarioPartida diario;
+
+    /** Escritura de las partidas en segundo plano. */
+    private static final GuardadoAsincrono guardado = new GuardadoAsincrono();
+
+    /** Número de tanques de la última partida cargada cuyos peces se dejaron pendientes de cargar. */
+    private static int tanquesDiferidos;
+
+    /**
+     * Guarda el estado actual del simulador en la carpeta saves.
+     * Se guarda en JSON salvo que esté activado el guardado binario y, si se guarda con diario,
+     * la mayoría de los días solo se anota en el diario lo que ha cambiado.
+     * Aquí solo se toma una copia del estado; el archivo se escribe en segundo plano y la simulación sigue sin esperar.
+     * Si se guardan puntos de control, el del día se escribe aquí mismo, aunque solo con los bloques que hayan cambiado.
+     *
+     * @param simulador El simulador a guardar.
+     */
     public static void guardarEstado(Simulador simulador) {
-        JsonObject root = new JsonObject();
+        String nombreArchivo = "saves" + File.separator 
+                + (simulador.getNombreEntidad() != null ? simulador.getNombreEntidad() : "default") + ".save";
+        File archivo = new File(nombreArchivo);
+        archivo.getParentFile().mkdirs();
 
-        // 1. Implementados
-        JsonArray implementadosArray = new JsonArray();
-        if (simulador.getPecesImplementados() != null) {
-            for (String pez : simulador.getPecesImplementados()) {
-                if (pez != null) {
-                    implementadosArray.add(pez);
+        comprobarErrorGuardado();
+        try {
+            GuardadoAsincrono.Tarea tarea;
+            if (diasEntreCompletas > 0) {
+                if (diario == null || !diario.getArchivoPartida().equals(archivo)) {
+                    diario = new DiarioPartida(archivo);
+                }
+                tarea = diario.preparar(simulador, diasEntreCompletas, guardadoBinario, guardadoCompacto);
+            } else {
+                tarea = new GuardadoAsincrono.Tarea(archivo, InstantaneaPartida.tomar(simulador), guardadoBinario,
+                        guardadoCompacto, false);
+            }
+            guardado.enviar(tarea);
+            if (puntosControl > 0) {
+                AlmacenPuntos puntos = AlmacenPuntos.de(simulador.getNombreEntidad() != null ? simulador.getNombreEntidad() : "default");
+                puntos.guardar(simulador);
+                puntos.recoger(puntosControl);
+            }
+            Simulador.instance.registro.registroGuardarSistema();
+        } catch (IOException e) {
+            Simulador.instance.registro.registroLogError("Error al guardar la partida: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Espera a que se terminen de escribir los guardados en segundo plano.
+     * Debe llamarse antes de salir del programa para no perder el último guardado.
+     */
+    public static void esperarGuardados() {
+        try {
+            guardado.esperar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        comprobarErrorGuardado();
+    }
+
+    /** Registra el error del último guardado en segundo plano, si lo ha habido. */
+    private static void comprobarErrorGuardado() {
+        String error = guardado.tomarError();
+        if (error != null) {
+            Simulador.instance.registro.registroLogError("Error al guardar la partida: " + error);
+        }
+    }
+
+    /**
+     * Escribe una partida completa sin dejar nunca el archivo a medias.
+     * Se escribe en un archivo temporal junto al de destino, se fuerza su paso a disco y después se renombra
+     * sobre el de destino, de modo que tras un fallo queda la partida anterior o la nueva, pero no una mezcla.
+     *
+     * @param instantanea Instantánea de la partida.
+     * @param archivo     Archivo de destino.
+     * @param binario     true para escribir en formato binario y false para JSON.
+     * @param compacto    true para escribir el JSON sin sangrías ni saltos de línea.
+     * @throws IOException si falla la escritura.
+     */
+    static void escribirCompleta(InstantaneaPartida instantanea, File archivo, boolean binario, boolean compacto) throws IOException {
+        Path destino = archivo.toPath();
+        Path temporal = destino.resolveSibling(archivo.getName() + ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                if (binario) {
+                    OutputStream out = new BufferedOutputStream(Channels.newOutputStream(canal), TAMAÑO_BUFFER);
+                    instantanea.escribirBinario(out);
+                    out.flush();
+                } else {
+                    JsonWriter writer = new JsonWriter(new BufferedWriter(Channels.newWriter(canal, StandardCharsets.UTF_8), TAMAÑO_BUFFER));
+                    writer.setHtmlSafe(true);
+                    if (!compacto) {
+                        writer.setIndent("  ");
+                    }
+                    escribirPartida(writer, instantanea);
+                    writer.flush();
                 }
+                canal.force(true);
             }
+            try {
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Escribe el documento completo de la partida a partir de una instantánea.
+     * El documento se escribe con un JsonWriter a medida que se leen las piscifactorías, tanques y peces,
+     * sin construir antes el árbol JSON ni el texto completo en memoria.
+     *
+     * @param writer      Escritor JSON de destino.
+     * @param instantanea Instantánea de la partida.
+     * @throws IOException si falla la escritura.
+     */
+    private static void escribirPartida(JsonWriter writer, InstantaneaPartida instantanea) throws IOException {
+        DataInputStream in = instantanea.abrir();
+        in.readInt();
+        in.readUnsignedByte();
+        int inicioSecciones = in.readInt();
+        int inicioPeces = in.readInt();
+
+        writer.beginObject();
+
+        // 1. Implementados
+        writer.name("implementados").beginArray();
+        for (String pez : instantanea.getImplementados()) {
+            writer.value(pez);
         }
-        root.add("implementados", implementadosArray);
+        writer.endArray();
 
         // 2. Datos generales
-        root.addProperty("empresa", simulador.getNombreEntidad() != null ? simulador.getNombreEntidad() : "");
-        root.addProperty("dia", simulador.getDia());
-        root.addProperty("monedas", Simulador.monedas != null ? Simulador.monedas.getMonedas() : 0);
-        root.addProperty("orca", simulador.estadisticas.exportarDatos(simulador.getPecesImplementados()));
+        writer.name("empresa").value(SnapshotBinario.leerTexto(in));
+        writer.name("dia").value(SnapshotBinario.leerVarint(in));
+        writer.name("monedas").value(SnapshotBinario.leerVarint(in));
+        writer.name("orca").value(SnapshotBinario.leerTexto(in));
+        writer.name("semilla").value(in.readLong());
 
         // 3. Edificios
-        JsonObject edificiosObj = new JsonObject();
+        writer.name("edificios");
+        escribirEdificios(writer, in);
 
-        // 3.1. ALMACÉN
-        JsonObject almacenObj = new JsonObject();
-        AlmacenCentral almacen = simulador.almacenCentral;
-        if (almacen != null) {
-            almacenObj.addProperty("disponible", true);
-            almacenObj.addProperty("capacidad", almacen.getCapacidadAlmacen());
-            JsonObject comidaAlmacen = new JsonObject();
-            comidaAlmacen.addProperty("vegetal", almacen.getCantidadComidaVegetal());
-            comidaAlmacen.addProperty("animal", almacen.getCantidadComidaAnimal());
-            almacenObj.add("comida", comidaAlmacen);
-        } else {
-            almacenObj.addProperty("disponible", false);
-            almacenObj.addProperty("capacidad", 0);
-            JsonObject comidaAlmacen = new JsonObject();
-            comidaAlmacen.addProperty("vegetal", 0);
-            comidaAlmacen.addProperty("animal", 0);
-            almacenObj.add("comida", comidaAlmacen);
+        // 4. Piscifactorías
+        String[] especies = new String[SnapshotBinario.leerVarint(in) + 1];
+        especies[0] = "";
+        for (int i = 1; i < especies.length; i++) {
+            especies[i] = SnapshotBinario.leerTexto(in);
+        }
+        writer.name("piscifactorias").beginArray();
+        int numPiscifactorias = SnapshotBinario.leerVarint(in);
+        int[] desplazamientos = new int[numPiscifactorias];
+        int[] longitudes = new int[numPiscifactorias];
+        for (int i = 0; i < numPiscifactorias; i++) {
+            desplazamientos[i] = SnapshotBinario.leerVarint(in);
+            longitudes[i] = SnapshotBinario.leerVarint(in);
         }
-        edificiosObj.add("almacen", almacenObj);
+        for (int i = 0; i < numPiscifactorias; i++) {
+            DataInputStream seccion = instantanea.abrir(inicioSecciones + desplazamientos[i], longitudes[i]);
+            escribirPiscifactoria(writer, seccion, especies, instantanea, inicioPeces);
+        }
+        writer.endArray();
+
+        writer.endObject();
+    }
+
+    /**
+     * Escribe el almacén central y las granjas de fitoplancton y langostinos.
+     *
+     * @param writer Escritor JSON de destino.
+     * @param in     Instantánea situada al comienzo de los edificios.
+     * @throws IOException si falla la escritura.
+     */
+    private static void escribirEdificios(JsonWriter writer, DataInputStream in) throws IOException {
+        writer.beginObject();
+
+        // 3.1. ALMACÉN
+        boolean almacen = in.readBoolean();
+        writer.name("almacen").beginObject();
+        writer.name("disponible").value(almacen);
+        writer.name("capacidad").value(almacen ? SnapshotBinario.leerVarint(in) : 0);
+        writer.name("comida").beginObject();
+        writer.name("vegetal").value(almacen ? SnapshotBinario.leerVarint(in) : 0);
+        writer.name("animal").value(almacen ? SnapshotBinario.leerVarint(in) : 0);
+        writer.endObject();
+        writer.endObject();
 
         // 3.2. FITOPLANCTON
-        JsonObject fitoplanctonObj = new JsonObject();
-        GranjaFitoplancton fitoplancton = simulador.granjaFitoplancton;
-        if (fitoplancton != null) {
-            fitoplanctonObj.addProperty("disponible", true);
-            fitoplanctonObj.addProperty("tanques", fitoplancton.getNumeroTanques());
-            fitoplanctonObj.addProperty("ciclo", fitoplancton.getCiclo());
-        } else {
-            fitoplanctonObj.addProperty("disponible", false);
-            fitoplanctonObj.addProperty("tanques", 0);
-            fitoplanctonObj.addProperty("ciclo", 0);
-        }
-        edificiosObj.add("fitoplancton", fitoplanctonObj);
+        boolean fitoplancton = in.readBoolean();
+        writer.name("fitoplancton").beginObject();
+        writer.name("disponible").value(fitoplancton);
+        writer.name("tanques").value(fitoplancton ? SnapshotBinario.leerVarint(in) : 0);
+        writer.name("ciclo").value(fitoplancton ? SnapshotBinario.leerVarint(in) : 0);
+        writer.endObject();
 
         // 3.3. LANGOSTINOS
-        JsonObject langostinosObj = new JsonObject();
-        GranjaLangostinos langostinos = simulador.granjaLangostinos;
-        if (langostinos != null) {
-            langostinosObj.addProperty("disponible", true);
-            langostinosObj.addProperty("muertos", langostinos.getRacionesRetroalimentacion());
-            JsonArray tanquesLangostinosArray = new JsonArray();
-            if (langostinos.getTanques() != null) {
-                // Se recorre la lista de tanques externos
-                for (TanqueLangostinos tanque : langostinos.getTanques()) {
-                    if (tanque != null) {
-                        JsonObject tanqueJson = new JsonObject();
-                        tanqueJson.addProperty("comida", tanque.getRacionesLocal());
-                        tanqueJson.addProperty("descanso", tanque.getDiasPenalizacion());
-                        tanquesLangostinosArray.add(tanqueJson);
-                    }
-                }
-            }
-            langostinosObj.add("tanques", tanquesLangostinosArray);
-        } else {
-            langostinosObj.addProperty("disponible", false);
-            langostinosObj.addProperty("muertos", 0);
-            langostinosObj.add("tanques", new JsonArray());
+        boolean langostinos = in.readBoolean();
+        writer.name("langostinos").beginObject();
+        writer.name("disponible").value(langostinos);
+        writer.name("muertos").value(langostinos ? SnapshotBinario.leerVarint(in) : 0);
+        writer.name("tanques").beginArray();
+        int numTanques = langostinos ? SnapshotBinario.leerVarint(in) : 0;
+        for (int i = 0; i < numTanques; i++) {
+            writer.beginObject();
+            writer.name("comida").value(SnapshotBinario.leerVarint(in));
+            writer.name("descanso").value(SnapshotBinario.leerVarint(in));
+            writer.endObject();
         }
-        edificiosObj.add("langostinos", langostinosObj);
+        writer.endArray();
+        writer.endObject();
 
-        root.add("edificios", edificiosObj);
+        writer.endObject();
+    }
 
-        // 4. Piscifactorías
-        JsonArray piscifactoriasArray = new JsonArray();
-        if (simulador.getPiscifactorias() != null) {
-            for (Piscifactoria pisc : simulador.getPiscifactorias()) {
-                if (pisc != null) {
-                    JsonObject piscObj = new JsonObject();
-                    piscObj.addProperty("nombre", pisc.getNombre());
-                    // Usamos 0 para Río y 1 para Mar
-                    piscObj.addProperty("tipo", pisc instanceof PiscifactoriaDeRio ? 0 : 1);
-                    piscObj.addProperty("capacidad", pisc.getCapacidadMaximaComida());
-                    
-                    // Comida de la piscifactoría
-                    JsonObject comidaPisc = new JsonObject();
-                    comidaPisc.addProperty("vegetal", pisc.getComidaVegetalActual());
-                    comidaPisc.addProperty("animal", pisc.getComidaAnimalActual());
-                    piscObj.add("comida", comidaPisc);
-                    
-                    // Tanques de la piscifactoría
-                    JsonArray tanquesArray = new JsonArray();
-                    if (pisc.getTanques() != null) {
-                        for (Tanque tanque : pisc.getTanques()) {
-                            if (tanque != null) {
-                                JsonObject tanqueObj = new JsonObject();
-                                // Guardamos el identificador real del tanque
-                                tanqueObj.addProperty("num", tanque.getNumeroTanque());
-                                
-                                // Guardamos el tipo de pez (suponiendo que el primer pez define el tipo)
-                                String pezNombre = "";
-                                if (tanque.getPeces() != null && !tanque.getPeces().isEmpty()) {
-                                    Pez primerPez = tanque.getPeces().get(0);
-                                    if (primerPez != null && primerPez.getDatos() != null) {
-                                        pezNombre = primerPez.getDatos().getNombre();
-                                    }
-                                }
-                                tanqueObj.addProperty("pez", pezNombre);
-                                
-                                // Datos del tanque
-                                JsonObject datosObj = new JsonObject();
-                                datosObj.addProperty("vivos", tanque.getPeces() != null ? tanque.getVivos() : 0);
-                                datosObj.addProperty("maduros", tanque.getPeces() != null ? tanque.getMaduros() : 0);
-                                datosObj.addProperty("fertiles", tanque.getPeces() != null ? tanque.getFertiles() : 0);
-                                tanqueObj.add("datos", datosObj);
-                                
-                                // Lista de peces
-                                JsonArray pecesArray = new JsonArray();
-                                if (tanque.getPeces() != null) {
-                                    for (Pez pez : tanque.getPeces()) {
-                                        if (pez != null) {
-                                            JsonObject pezObj = new JsonObject();
-                                            pezObj.addProperty("edad", pez.getEdad());
-                                            pezObj.addProperty("sexo", pez.isSexo());
-                                            pezObj.addProperty("vivo", pez.isVivo());
-                                            pezObj.addProperty("maduro", pez.isMaduro());
-                                            pezObj.addProperty("fertil", pez.isFertil());
-                                            pezObj.addProperty("ciclo", pez.getCiclo());
-                                            pezObj.addProperty("alimentado", pez.isAlimentado());
-                                            pecesArray.add(pezObj);
-                                        }
-                                    }
-                                }
-                                tanqueObj.add("peces", pecesArray);
-                                tanquesArray.add(tanqueObj);
-                            }
-                        }
-                    }
-                    piscObj.add("tanques", tanquesArray);
-                    piscifactoriasArray.add(piscObj);
-                }
+    /**
+     * Escribe una piscifactoría con su comida y sus tanques.
+     *
+     * @param writer   Escritor JSON de destino.
+     * @param in          Instantánea situada al comienzo de la piscifactoría.
+     * @param especies    Nombres de las especies de la instantánea, con "" para los tanques vacíos.
+     * @param instantanea Instantánea de la partida, de la que se leen los peces de cada tanque.
+     * @param inicioPeces Posición de los peces de los tanques en la instantánea.
+     * @throws IOException si falla la escritura.
+     */
+    private static void escribirPiscifactoria(JsonWriter writer, DataInputStream in, String[] especies,
+            InstantaneaPartida instantanea, int inicioPeces) throws IOException {
+        writer.beginObject();
+        writer.name("nombre").value(SnapshotBinario.leerTexto(in));
+        // Usamos 0 para Río y 1 para Mar
+        writer.name("tipo").value(in.readUnsignedByte());
+        writer.name("capacidad").value(SnapshotBinario.leerVarint(in));
+
+        // Comida de la piscifactoría
+        writer.name("comida").beginObject();
+        writer.name("vegetal").value(SnapshotBinario.leerVarint(in));
+        writer.name("animal").value(SnapshotBinario.leerVarint(in));
+        writer.endObject();
+
+        // Tanques de la piscifactoría
+        writer.name("tanques").beginArray();
+        int numTanques = SnapshotBinario.leerVarint(in);
+        for (int i = 0; i < numTanques; i++) {
+            escribirTanque(writer, in, especies, instantanea, inicioPeces);
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    /**
+     * Escribe un tanque con sus recuentos y sus peces.
+     *
+     * @param writer   Escritor JSON de destino.
+     * @param in          Índice de la instantánea situado al comienzo del tanque.
+     * @param especies    Nombres de las especies de la instantánea, con "" para los tanques vacíos.
+     * @param instantanea Instantánea de la partida, de la que se leen los peces del tanque.
+     * @param inicioPeces Posición de los peces de los tanques en la instantánea.
+     * @throws IOException si falla la escritura.
+     */
+    private static void escribirTanque(JsonWriter writer, DataInputStream in, String[] especies,
+            InstantaneaPartida instantanea, int inicioPeces) throws IOException {
+        writer.beginObject();
+        // Guardamos el identificador real del tanque
+        writer.name("num").value(SnapshotBinario.leerVarint(in));
+
+        // Guardamos el tipo de pez, que es el de todos los peces del tanque
+        writer.name("pez").value(especies[SnapshotBinario.leerVarint(in)]);
+
+        // Los datos del tanque se cuentan en los indicadores de los peces, que hay que leer igualmente
+        for (int i = 0; i < SnapshotBinario.RECUENTOS; i++) {
+            SnapshotBinario.leerVarint(in);
+        }
+        int desplazamiento = SnapshotBinario.leerVarint(in);
+        DataInputStream peces = instantanea.abrir(inicioPeces + desplazamiento, SnapshotBinario.leerVarint(in));
+        // Los peces seguidos con el mismo estado se agrupan en una sola entrada, así que se conserva su orden
+        List<EstadoPez> estados = new ArrayList<>();
+        List<Integer> cantidades = new ArrayList<>();
+        int numPeces = SnapshotBinario.leerVarint(peces);
+        int vivos = 0, maduros = 0, fertiles = 0;
+        for (int i = 0; i < numPeces; i++) {
+            int edad = SnapshotBinario.leerVarint(peces);
+            int ciclo = SnapshotBinario.leerVarint(peces);
+            int indicadores = peces.readUnsignedByte();
+            EstadoPez estado = new EstadoPez(edad, ciclo, indicadores);
+            int ultimo = estados.size() - 1;
+            if (ultimo >= 0 && estados.get(ultimo).equals(estado)) {
+                cantidades.set(ultimo, cantidades.get(ultimo) + 1);
+            } else {
+                estados.add(estado);
+                cantidades.add(1);
             }
+            vivos += (indicadores & SnapshotBinario.VIVO) != 0 ? 1 : 0;
+            maduros += (indicadores & SnapshotBinario.MADURO) != 0 ? 1 : 0;
+            fertiles += (indicadores & SnapshotBinario.FERTIL) != 0 ? 1 : 0;
         }
-        root.add("piscifactorias", piscifactoriasArray);
 
-        // 5. Guardar el JSON en un archivo
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        String json = gson.toJson(root);
-        String nombreArchivo = "saves" + File.separator 
-                + (simulador.getNombreEntidad() != null ? simulador.getNombreEntidad() : "default") + ".save";
-        File archivo = new File(nombreArchivo);
-        archivo.getParentFile().mkdirs();
-        
-        try (FileWriter writer = new FileWriter(archivo)) {
-            writer.write(json);
-            Simulador.instance.registro.registroGuardarSistema();
-        } catch (IOException e) {
-            Simulador.instance.registro.registroLogError("Error al guardar la partida: " + e.getMessage());
+        // Datos del tanque
+        writer.name("datos").beginObject();
+        writer.name("vivos").value(vivos);
+        writer.name("maduros").value(maduros);
+        writer.name("fertiles").value(fertiles);
+        writer.endObject();
+
+        // Lista de peces, con una entrada por grupo y su cantidad si tiene más de un pez
+        writer.name("peces").beginArray();
+        for (int g = 0; g < estados.size(); g++) {
+            EstadoPez estado = estados.get(g);
+            writer.beginObject();
+            if (cantidades.get(g) > 1) {
+                writer.name("cantidad").value(cantidades.get(g));
+            }
+            writer.name("edad").value(estado.edad());
+            writer.name("sexo").value((estado.indicadores() & SnapshotBinario.SEXO) != 0);
+            writer.name("vivo").value((estado.indicadores() & SnapshotBinario.VIVO) != 0);
+            writer.name("maduro").value((estado.indicadores() & SnapshotBinario.MADURO) != 0);
+            writer.name("fertil").value((estado.indicadores() & SnapshotBinario.FERTIL) != 0);
+            writer.name("ciclo").value(estado.ciclo());
+            writer.name("alimentado").value((estado.indicadores() & SnapshotBinario.ALIMENTADO) != 0);
+            writer.endObject();
         }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    /**
+     * Estado guardado de un pez, que comparten todos los peces seguidos de un mismo grupo de la lista de peces.
+     *
+     * @param edad        Edad del pez.
+     * @param ciclo       Ciclo reproductivo del pez.
+     * @param indicadores Indicadores de estado del pez, con los bits de SnapshotBinario.
+     */
+    private record EstadoPez(int edad, int ciclo, int indicadores) {
     }
 
     /**
-     * Carga el estado del simulador desde un archivo JSON utilizando JsonObject.
-     * Se comprueba la existencia de cada sección y se aplican los datos mediante los métodos de asignación.
+     * Carga el estado del simulador desde un archivo de la carpeta saves.
+     * El formato, JSON o binario, se detecta por el contenido del archivo y no por su nombre.
+     * Si la partida tiene diario, sus entradas se aplican después sobre la partida completa.
+     * Un nombre de la forma "partida@dia" carga el punto de control de ese día en lugar de la partida.
      *
      * @param simulador      El simulador al que se aplicarán los datos.
      * @param archivoPartida El nombre del archivo de la partida (incluido el .save o sin él, según convenga).
      */
     public static void load(Simulador simulador, String archivoPartida) {
+        int separador = archivoPartida.lastIndexOf('@');
+        if (separador > 0) {
+            cargarPunto(simulador, archivoPartida.substring(0, separador), archivoPartida.substring(separador + 1));
+            return;
+        }
         File file = new File("saves/" + archivoPartida + ".save");
         if (file.exists()) {
-            try (JsonReader reader = new JsonReader(new BufferedReader(new FileReader(file)))) {
-                JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
-    
-                // 1. Datos generales
-                if (root.has("empresa")) {
-                    simulador.setNombreEntidad(root.get("empresa").getAsString());
-                }
-                simulador.setDia(root.has("dia") ? root.get("dia").getAsInt() : 0);
-                int monedas = root.has("monedas") ? root.get("monedas").getAsInt() : 0;
-                if (Simulador.monedas != null) {
-                    Simulador.monedas.ganarMonedas(monedas);
-                }
-                if (root.has("orca")) {
-                    String orca = root.get("orca").getAsString();
-                    simulador.setEstadisticas(new Estadisticas(simulador.getPecesImplementados(), orca));
+            try {
+                cargarArchivo(simulador, file);
+                DiarioPartida.reproducir(simulador, DiarioPartida.archivoDiario(file));
+                Simulador.instance.registro.registroCargarSistema();
+            } catch (IOException e) {
+                Simulador.instance.registro.registroLogError("Error al cargar la partida: " + e.getMessage());
+            } catch (Exception e) {
+                Simulador.instance.registro.registroLogError("Error al cargar la partida: " + e.getMessage());
+            }
+        } else {
+            System.err.println("El archivo " + archivoPartida + " no existe.");
+        }
+    }
+
+    /**
+     * Carga el estado del simulador desde un punto de control de la partida.
+     *
+     * @param simulador El simulador al que se aplicarán los datos.
+     * @param partida   Nombre de la partida.
+     * @param dia       Día del punto de control.
+     */
+    private static void cargarPunto(Simulador simulador, String partida, String dia) {
+        try {
+            AlmacenPuntos.de(partida).restaurar(simulador, Integer.parseInt(dia));
+            tanquesDiferidos = 0;
+            Simulador.instance.registro.registroCargarSistema();
+        } catch (IOException e) {
+            Simulador.instance.registro.registroLogError("Error al cargar el punto de control: " + e.getMessage());
+        } catch (NumberFormatException e) {
+            System.err.println("El día " + dia + " del punto de control no es válido.");
+        }
+    }
+
+    /**
+     * Carga el estado del simulador desde un archivo en cualquiera de los dos formatos.
+     *
+     * @param simulador El simulador al que se aplicarán los datos.
+     * @param archivo   Archivo de la partida.
+     * @throws IOException si falla la lectura o el archivo no es válido.
+     */
+    static void cargarArchivo(Simulador simulador, File archivo) throws IOException {
+        if (SnapshotBinario.esBinario(archivo)) {
+            tanquesDiferidos = SnapshotBinario.cargar(simulador, archivo);
+        } else {
+            cargarJson(simulador, archivo);
+            tanquesDiferidos = 0;
+        }
+    }
+
+    /**
+     * Indica cuántos de los tanques cargados bajo demanda en la última carga siguen sin cargar.
+     *
+     * @param simulador El simulador con la partida cargada.
+     * @return el texto con los tanques sin cargar, o null si la última carga no dejó ninguno pendiente.
+     */
+    public static String informeCargaDiferida(Simulador simulador) {
+        if (tanquesDiferidos == 0) {
+            return null;
+        }
+        return "Tanques cargados bajo demanda: " + tanquesSinCargar(simulador) + " de " + tanquesDiferidos + " siguen sin cargar.";
+    }
+
+    /**
+     * Cuenta los tanques cuyos peces aún no se han cargado.
+     *
+     * @param simulador El simulador con la partida cargada.
+     * @return número de tanques sin cargar.
+     */
+    public static int tanquesSinCargar(Simulador simulador) {
+        int sinCargar = 0;
+        if (simulador.getPiscifactorias() != null) {
+            for (Piscifactoria pisc : simulador.getPiscifactorias()) {
+                if (pisc != null) {
+                    for (Tanque tanque : pisc.getTanques()) {
+                        if (tanque != null && !tanque.isCargado()) {
+                            sinCargar++;
+                        }
+                    }
                 }
-    
-                // 2. Edificios-
-                if (root.has("edificios")) {
-                    JsonObject edificiosObj = root.getAsJsonObject("edificios");
-    
-                    // 2.1. ALMACÉN
-                    if (edificiosObj.has("almacen")) {
-                        JsonObject almacenObj = edificiosObj.getAsJsonObject("almacen");
-                        boolean disponible = almacenObj.get("disponible").getAsBoolean();
-                        int capacidad = almacenObj.get("capacidad").getAsInt();
-                        JsonObject comidaObj = almacenObj.getAsJsonObject("comida");
-                        int vegetal = comidaObj.get("vegetal").getAsInt();
-                        int animal = comidaObj.get("animal").getAsInt();
-                        if (disponible) {
-                            simulador.almacenCentral = new AlmacenCentral(capacidad, animal, vegetal);
-                        } else {
-                            simulador.almacenCentral = null;
+            }
+        }
+        return sinCargar;
+    }
+
+    /**
+     * Carga el estado del simulador desde un archivo JSON.
+     * El documento se recorre token a token y las piscifactorías, tanques y peces se crean según se leen,
+     * sin construir antes el árbol JSON, así que la memoria necesaria es la del propio modelo.
+     * Las secciones que falten se dejan como estaban y las claves desconocidas se ignoran.
+     * Dentro de cada piscifactoría y cada tanque las claves se leen en el orden en que las escribe guardarEstado.
+     *
+     * @param simulador El simulador al que se aplicarán los datos.
+     * @param archivo   Archivo JSON de la partida.
+     * @throws IOException si falla la lectura.
+     */
+    static void cargarJson(Simulador simulador, File archivo) throws IOException {
+        try (JsonReader reader = new JsonReader(new BufferedReader(
+                new InputStreamReader(new FileInputStream(archivo), StandardCharsets.UTF_8), TAMAÑO_BUFFER))) {
+            boolean hayDia = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    // 1. Datos generales
+                    case "empresa" -> simulador.setNombreEntidad(reader.nextString());
+                    case "dia" -> {
+                        simulador.setDia(reader.nextInt());
+                        hayDia = true;
+                    }
+                    case "monedas" -> restaurarMonedas(reader.nextInt());
+                    case "orca" -> simulador.setEstadisticas(new Estadisticas(simulador.getPecesImplementados(), reader.nextString()));
+                    case "semilla" -> Aleatorio.setSemilla(reader.nextLong());
+
+                    // 2. Edificios
+                    case "edificios" -> leerEdificios(reader, simulador);
+
+                    // 3. Piscifactorías
+                    case "piscifactorias" -> {
+                        simulador.getPiscifactorias().clear();
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            simulador.getPiscifactorias().add(leerPiscifactoria(reader));
                         }
+                        reader.endArray();
                     }
-    
-                    // 2.2. FITOPLANCTON
-                    if (edificiosObj.has("fitoplancton")) {
-                        JsonObject fitoplanctonObj = edificiosObj.getAsJsonObject("fitoplancton");
-                        boolean disponible = fitoplanctonObj.get("disponible").getAsBoolean();
-                        int tanques = fitoplanctonObj.get("tanques").getAsInt();
-                        int ciclo = fitoplanctonObj.get("ciclo").getAsInt();
-                        if (disponible) {
-                            simulador.granjaFitoplancton = new GranjaFitoplancton(tanques, ciclo);
-                        } else {
-                            simulador.granjaFitoplancton = null;
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (!hayDia) {
+                simulador.setDia(0);
+            }
+        }
+    }
+
+    /**
+     * Fija las monedas del simulador a las guardadas en la partida.
+     * Todas las cargas, desde JSON, desde binario o desde el diario, restauran las monedas por aquí,
+     * así que una partida queda con las mismas monedas la cargue quien la cargue.
+     *
+     * @param monedas Monedas guardadas en la partida.
+     */
+    static void restaurarMonedas(int monedas) {
+        if (Simulador.monedas != null) {
+            Simulador.monedas.setMonedas(monedas);
+        }
+    }
+
+    /**
+     * Lee los edificios y los asigna al simulador.
+     *
+     * @param reader    Lector JSON situado al comienzo del objeto de edificios.
+     * @param simulador El simulador al que se asignan los edificios.
+     * @throws IOException si falla la lectura.
+     */
+    private static void leerEdificios(JsonReader reader, Simulador simulador) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String edificio = reader.nextName();
+            boolean disponible = false;
+            int capacidad = 0, vegetal = 0, animal = 0, tanques = 0, ciclo = 0, muertos = 0;
+            List<TanqueLangostinos> tanquesLangostinos = new ArrayList<>();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "disponible" -> disponible = reader.nextBoolean();
+                    case "capacidad" -> capacidad = reader.nextInt();
+                    case "ciclo" -> ciclo = reader.nextInt();
+                    case "muertos" -> muertos = reader.nextInt();
+                    case "comida" -> {
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            switch (reader.nextName()) {
+                                case "vegetal" -> vegetal = reader.nextInt();
+                                case "animal" -> animal = reader.nextInt();
+                                default -> reader.skipValue();
+                            }
                         }
+                        reader.endObject();
                     }
-    
-                    // 2.3. LANGOSTINOS
-                    if (edificiosObj.has("langostinos")) {
-                        JsonObject langostinosObj = edificiosObj.getAsJsonObject("langostinos");
-                        boolean disponible = langostinosObj.get("disponible").getAsBoolean();
-                        int muertos = langostinosObj.get("muertos").getAsInt();
-                        if (disponible) {
-                            JsonArray tanquesArray = langostinosObj.getAsJsonArray("tanques");
-                            List<TanqueLangostinos> tanquesList = new ArrayList<>();
-                            for (JsonElement elem : tanquesArray) {
-                                JsonObject tanqueObj = elem.getAsJsonObject();
-                                int comida = tanqueObj.get("comida").getAsInt();
-                                int descanso = tanqueObj.get("descanso").getAsInt();
+                    case "tanques" -> {
+                        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                            reader.beginArray();
+                            while (reader.hasNext()) {
+                                int comida = 0, descanso = 0;
+                                reader.beginObject();
+                                while (reader.hasNext()) {
+                                    switch (reader.nextName()) {
+                                        case "comida" -> comida = reader.nextInt();
+                                        case "descanso" -> descanso = reader.nextInt();
+                                        default -> reader.skipValue();
+                                    }
+                                }
+                                reader.endObject();
                                 // Creamos el tanque sin referencia a la granja (se asignará posteriormente)
-                                TanqueLangostinos tanque = new TanqueLangostinos(comida, descanso);
-                                tanquesList.add(tanque);
-                            }
-                            // Se crea la granja usando el constructor que ya tienes
-                            GranjaLangostinos granjaLangostinos = new GranjaLangostinos(muertos, tanquesList);
-                            // Aseguramos que cada tanque tenga asignada la referencia a su granja
-                            for (TanqueLangostinos tanque : tanquesList) {
-                                tanque.setGranja(granjaLangostinos);
+                                tanquesLangostinos.add(new TanqueLangostinos(comida, descanso));
                             }
-                            simulador.granjaLangostinos = granjaLangostinos;
+                            reader.endArray();
                         } else {
-                            simulador.granjaLangostinos = null;
+                            tanques = reader.nextInt();
                         }
                     }
+                    default -> reader.skipValue();
                 }
-    
-                // 3. Piscifactorías
-                if (root.has("piscifactorias")) {
-                    JsonArray piscifactoriasArray = root.getAsJsonArray("piscifactorias");
-                    simulador.getPiscifactorias().clear();
-                    for (JsonElement piscElem : piscifactoriasArray) {
-                        JsonObject piscObj = piscElem.getAsJsonObject();
-                        String nombre = piscObj.get("nombre").getAsString();
-                        int tipo = piscObj.get("tipo").getAsInt();
-                        int capacidad = piscObj.get("capacidad").getAsInt();
-                        
-                        int comidaVegetal = 0, comidaAnimal = 0;
-                        if (piscObj.has("comida")) {
-                            JsonObject comidaPisc = piscObj.getAsJsonObject("comida");
-                            comidaVegetal = comidaPisc.get("vegetal").getAsInt();
-                            comidaAnimal = comidaPisc.get("animal").getAsInt();
-                        }
-                        
-                        Piscifactoria pisc;
-                        if (tipo == 0) {
-                            pisc = new PiscifactoriaDeRio(nombre, capacidad, comidaVegetal, comidaAnimal);
-                        } else {
-                            pisc = new PiscifactoriaDeMar(nombre, capacidad, comidaVegetal, comidaAnimal);
+            }
+            reader.endObject();
+
+            switch (edificio) {
+                // 2.1. ALMACÉN
+                case "almacen" -> simulador.almacenCentral = disponible ? new AlmacenCentral(capacidad, animal, vegetal) : null;
+
+                // 2.2. FITOPLANCTON
+                case "fitoplancton" -> simulador.granjaFitoplancton = disponible ? new GranjaFitoplancton(tanques, ciclo) : null;
+
+                // 2.3. LANGOSTINOS
+                case "langostinos" -> {
+                    if (disponible) {
+                        GranjaLangostinos granjaLangostinos = new GranjaLangostinos(muertos, tanquesLangostinos);
+                        // Aseguramos que cada tanque tenga asignada la referencia a su granja
+                        for (TanqueLangostinos tanque : tanquesLangostinos) {
+                            tanque.setGranja(granjaLangostinos);
                         }
-                        
-                        pisc.getTanques().clear();
-                        JsonArray tanquesArray = piscObj.getAsJsonArray("tanques");
-                        for (JsonElement tanqueElem : tanquesArray) {
-                            JsonObject tanqueJson = tanqueElem.getAsJsonObject();
-    
-                            Tanque tanque = new Tanque(
-                                    tanqueJson.get("num").getAsInt(),
-                                    pisc instanceof PiscifactoriaDeRio ? 25 : 100);
-                            
-                            if (tanqueJson.has("peces") && !tanqueJson.get("peces").isJsonNull()) {
-                                JsonArray pecesArray = tanqueJson.getAsJsonArray("peces");
-                                for (JsonElement pezElement : pecesArray) {
-                                    JsonObject pezJson = pezElement.getAsJsonObject();
-                                    // Recuperar el tipo de pez desde la propiedad "pez" del tanque
-                                    String tipoPez = tanqueJson.has("pez") ? tanqueJson.get("pez").getAsString() : "Desconocido";
-                                    boolean sexo = pezJson.get("sexo").getAsBoolean();
-                                    int edad = pezJson.get("edad").getAsInt();
-                                    boolean vivo = pezJson.get("vivo").getAsBoolean();
-                                    boolean fertil = pezJson.get("fertil").getAsBoolean();
-                                    int ciclo = pezJson.get("ciclo").getAsInt();
-                                    boolean alimentado = pezJson.get("alimentado").getAsBoolean();
-                                    
-                                    Pez pez = switch (tipoPez) {
-                                        case "Dorada" -> new Dorada(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        case "Salmón atlántico" -> new SalmonAtlantico(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        case "Trucha arcoíris" -> new TruchaArcoiris(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        case "Carpa plateada" -> new CarpaPlateada(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        case "Pejerrey" -> new Pejerrey(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        case "Perca europea" -> new PercaEuropea(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        case "Salmón chinook" -> new SalmonChinook(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        case "Tilapia del Nilo" -> new TilapiaDelNilo(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        case "Arenque del Atlántico" -> new ArenqueDelAtlantico(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        case "Besugo" -> new Besugo(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        case "Lenguado Europeo" -> new LenguadoEuropeo(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        case "Lubina Rayada" -> new LubinaRayada(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        case "Róbalo" -> new Robalo(sexo, edad, vivo, fertil, ciclo, alimentado);
-                                        default -> null;
-                                    };
-    
-                                    if (pez != null) {
-                                        tanque.getPeces().add(pez);
-                                    }
-                                }
-                            }
-                            pisc.getTanques().add(tanque);
+                        simulador.granjaLangostinos = granjaLangostinos;
+                    } else {
+                        simulador.granjaLangostinos = null;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Lee una piscifactoría con sus tanques.
+     *
+     * @param reader Lector JSON situado al comienzo del objeto de la piscifactoría.
+     * @return la piscifactoría leída.
+     * @throws IOException si falla la lectura.
+     */
+    private static Piscifactoria leerPiscifactoria(JsonReader reader) throws IOException {
+        String nombre = "";
+        int tipo = 0, capacidad = 0, comidaVegetal = 0, comidaAnimal = 0;
+        List<Tanque> tanques = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "nombre" -> nombre = reader.nextString();
+                case "tipo" -> tipo = reader.nextInt();
+                case "capacidad" -> capacidad = reader.nextInt();
+                case "comida" -> {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "vegetal" -> comidaVegetal = reader.nextInt();
+                            case "animal" -> comidaAnimal = reader.nextInt();
+                            default -> reader.skipValue();
                         }
-                        simulador.getPiscifactorias().add(pisc);
                     }
+                    reader.endObject();
                 }
-                
-                Simulador.instance.registro.registroCargarSistema();
-            } catch (IOException e) {
-                Simulador.instance.registro.registroLogError("Error al cargar la partida: " + e.getMessage());
-            } catch (Exception e) {
-                Simulador.instance.registro.registroLogError("Error al cargar la partida: " + e.getMessage());
+                case "tanques" -> {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        tanques.add(leerTanque(reader, capacidadTanque(tipo)));
+                    }
+                    reader.endArray();
+                }
+                default -> reader.skipValue();
             }
+        }
+        reader.endObject();
+
+        return crearPiscifactoria(nombre, tipo, capacidad, comidaVegetal, comidaAnimal, tanques);
+    }
+
+    /**
+     * Crea una piscifactoría cargada con su comida y sus tanques.
+     *
+     * @param nombre        Nombre de la piscifactoría.
+     * @param tipo          0 para río y 1 para mar.
+     * @param capacidad     Capacidad máxima de comida.
+     * @param comidaVegetal Comida vegetal disponible.
+     * @param comidaAnimal  Comida animal disponible.
+     * @param tanques       Tanques de la piscifactoría.
+     * @return la piscifactoría creada.
+     */
+    static Piscifactoria crearPiscifactoria(String nombre, int tipo, int capacidad, int comidaVegetal, int comidaAnimal,
+            List<Tanque> tanques) {
+        Piscifactoria pisc;
+        if (tipo == 0) {
+            pisc = new PiscifactoriaDeRio(nombre, capacidad, comidaAnimal, comidaVegetal);
         } else {
-            System.err.println("El archivo " + archivoPartida + " no existe.");
+            pisc = new PiscifactoriaDeMar(nombre, capacidad, comidaAnimal, comidaVegetal);
         }
+        pisc.getTanques().clear();
+        pisc.getTanques().addAll(tanques);
+        return pisc;
+    }
+
+    /**
+     * Devuelve la capacidad de los tanques de un tipo de piscifactoría.
+     *
+     * @param tipo 0 para río y 1 para mar.
+     * @return la capacidad máxima de peces de cada tanque.
+     */
+    static int capacidadTanque(int tipo) {
+        return tipo == 0 ? 25 : 100;
+    }
+
+    /**
+     * Lee un tanque y crea sus peces según se leen, con la especie resuelta una sola vez para todo el tanque.
+     *
+     * @param reader    Lector JSON situado al comienzo del objeto del tanque.
+     * @param capacidad Capacidad máxima del tanque.
+     * @return el tanque leído.
+     * @throws IOException si falla la lectura.
+     */
+    private static Tanque leerTanque(JsonReader reader, int capacidad) throws IOException {
+        int num = 0;
+        Especie especie = null;
+        Tanque tanque = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "num" -> num = reader.nextInt();
+                // Recuperar el tipo de pez desde la propiedad "pez" del tanque
+                case "pez" -> especie = especiePez(reader.nextString());
+                case "peces" -> {
+                    tanque = new Tanque(num, capacidad);
+                    if (reader.peek() == JsonToken.NULL) {
+                        reader.nextNull();
+                    } else {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            leerPeces(reader, especie, tanque.getPeces());
+                        }
+                        reader.endArray();
+                    }
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return tanque != null ? tanque : new Tanque(num, capacidad);
+    }
+
+    /**
+     * Lee una entrada de la lista de peces y crea sus peces de la especie del tanque.
+     * Cada entrada es un pez, o un grupo de peces con el mismo estado si indica su "cantidad",
+     * que se añaden seguidos.
+     *
+     * @param reader  Lector JSON situado al comienzo del objeto de la entrada.
+     * @param especie Especie del tanque, o null si es desconocida y los peces se descartan.
+     * @param destino Lista a la que se añaden los peces.
+     * @throws IOException si falla la lectura.
+     */
+    private static void leerPeces(JsonReader reader, Especie especie, List<Pez> destino) throws IOException {
+        boolean sexo = false, vivo = false, fertil = false, alimentado = false, maduro = false;
+        int cantidad = 1, edad = 0, ciclo = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "cantidad" -> cantidad = reader.nextInt();
+                case "edad" -> edad = reader.nextInt();
+                case "sexo" -> sexo = reader.nextBoolean();
+                case "vivo" -> vivo = reader.nextBoolean();
+                case "maduro" -> maduro = reader.nextBoolean();
+                case "fertil" -> fertil = reader.nextBoolean();
+                case "ciclo" -> ciclo = reader.nextInt();
+                case "alimentado" -> alimentado = reader.nextBoolean();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (especie != null) {
+            for (int i = 0; i < cantidad; i++) {
+                Pez pez = especie.crear(sexo, edad, vivo, fertil, ciclo, alimentado);
+                pez.setMaduro(maduro);
+                destino.add(pez);
+            }
+        }
+    }
+
+    /**
+     * Devuelve la especie implementada con el nombre indicado.
+     *
+     * @param tipoPez Nombre de la especie guardado en el tanque.
+     * @return la especie, o null si es desconocida o no está implementada.
+     */
+    static Especie especiePez(String tipoPez) {
+        Especie especie = RegistroEspecies.porNombre(tipoPez);
+        return especie != null && especie.isImplementada() ? especie : null;
     }
-}
\ No newline at end of file
+}
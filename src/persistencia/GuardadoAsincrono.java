@@ -0,0 +1,177 @@
+package persistencia;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Escribe las partidas en un hilo en segundo plano para que la simulación no espere al disco.
+ * Como mucho hay un guardado en curso y otro pendiente: si llega otro mientras hay uno pendiente,
+ * se fusionan y solo se escribe el estado más reciente, sin perder las entradas del diario de ninguno.
+ * Los errores de escritura se guardan para comunicarlos desde el hilo de la simulación.
+ */
+public class GuardadoAsincrono {
+
+    /** Guardado que se está escribiendo, o null si no hay ninguno. */
+    private Tarea enCurso;
+
+    /** Guardado que espera a que termine el que está en curso, o null si no hay ninguno. */
+    private Tarea pendiente;
+
+    /** Mensaje del último error de escritura que aún no se ha comunicado, o null. */
+    private String error;
+
+    /**
+     * Encarga un guardado. Si no hay ninguno en curso, empieza a escribirse en un hilo nuevo;
+     * si lo hay, queda pendiente, fusionado con el pendiente anterior si existe.
+     *
+     * @param tarea El guardado a realizar.
+     */
+    public synchronized void enviar(Tarea tarea) {
+        if (enCurso == null) {
+            enCurso = tarea;
+            Thread hilo = new Thread(this::escribir, "guardado-partida");
+            hilo.setDaemon(true);
+            hilo.start();
+        } else {
+            pendiente = pendiente == null ? tarea : pendiente.fusionar(tarea);
+        }
+    }
+
+    /**
+     * Escribe el guardado en curso y después los que queden pendientes, hasta que no quede ninguno.
+     */
+    private void escribir() {
+        Tarea tarea;
+        synchronized (this) {
+            tarea = enCurso;
+        }
+        while (tarea != null) {
+            try {
+                tarea.ejecutar();
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    error = e.getMessage();
+                }
+            }
+            synchronized (this) {
+                enCurso = pendiente;
+                pendiente = null;
+                tarea = enCurso;
+                if (tarea == null) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Espera a que terminen el guardado en curso y el pendiente.
+     *
+     * @throws InterruptedException si se interrumpe la espera.
+     */
+    public synchronized void esperar() throws InterruptedException {
+        while (enCurso != null) {
+            wait();
+        }
+    }
+
+    /**
+     * Devuelve y olvida el último error de escritura.
+     *
+     * @return el mensaje del error, o null si no ha habido ninguno desde la última consulta.
+     */
+    public synchronized String tomarError() {
+        String ultimo = error;
+        error = null;
+        return ultimo;
+    }
+
+    /**
+     * Un guardado: una partida completa, entradas del diario o ambas cosas.
+     * La partida completa, si la hay, se escribe antes que las entradas del diario.
+     */
+    public static class Tarea {
+
+        /** Archivo de la partida completa. */
+        private final File archivoPartida;
+
+        /** Instantánea de la partida completa, o null si solo hay entradas del diario. */
+        private final InstantaneaPartida instantanea;
+
+        /** Si la partida completa se escribe en binario. */
+        private final boolean binario;
+
+        /** Si el JSON de la partida completa se escribe sin sangrías. */
+        private final boolean compacto;
+
+        /** Si la partida se guarda con diario, que se vacía al escribir la partida completa; si no, se borra. */
+        private final boolean conDiario;
+
+        /** Entradas a añadir al diario, ya codificadas. */
+        private final ByteArrayOutputStream anotaciones = new ByteArrayOutputStream();
+
+        /**
+         * Crea un guardado.
+         *
+         * @param archivoPartida Archivo de la partida completa.
+         * @param instantanea    Instantánea de la partida completa, o null si solo hay entradas del diario.
+         * @param binario        Si la partida completa se escribe en binario.
+         * @param compacto       Si el JSON se escribe sin sangrías.
+         * @param conDiario      Si la partida se guarda con diario.
+         */
+        public Tarea(File archivoPartida, InstantaneaPartida instantanea, boolean binario, boolean compacto, boolean conDiario) {
+            this.archivoPartida = archivoPartida;
+            this.instantanea = instantanea;
+            this.binario = binario;
+            this.compacto = compacto;
+            this.conDiario = conDiario;
+        }
+
+        /**
+         * Añade una entrada del diario a este guardado.
+         *
+         * @param entrada La entrada codificada.
+         */
+        public void anotar(byte[] entrada) {
+            anotaciones.write(entrada, 0, entrada.length);
+        }
+
+        /**
+         * Fusiona este guardado pendiente con otro posterior.
+         * Una partida completa posterior sustituye a todo lo anterior; unas entradas del diario se añaden a las de este.
+         *
+         * @param siguiente El guardado posterior.
+         * @return el guardado que resulta de la fusión.
+         */
+        Tarea fusionar(Tarea siguiente) {
+            if (siguiente.instantanea != null || !siguiente.archivoPartida.equals(archivoPartida)) {
+                return siguiente;
+            }
+            anotar(siguiente.anotaciones.toByteArray());
+            return this;
+        }
+
+        /**
+         * Escribe el guardado.
+         *
+         * @throws IOException si falla la escritura.
+         */
+        void ejecutar() throws IOException {
+            File archivoDiario = DiarioPartida.archivoDiario(archivoPartida);
+            if (instantanea != null) {
+                // El diario se vacía antes, para que nunca se aplique sobre una partida completa más reciente que sus entradas
+                if (conDiario) {
+                    DiarioPartida.iniciar(archivoDiario);
+                } else {
+                    Files.deleteIfExists(archivoDiario.toPath());
+                }
+                GestorEstado.escribirCompleta(instantanea, archivoPartida, binario, compacto);
+            }
+            if (anotaciones.size() > 0) {
+                DiarioPartida.añadir(archivoDiario, anotaciones.toByteArray());
+            }
+        }
+    }
+}
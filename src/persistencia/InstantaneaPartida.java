@@ -0,0 +1,112 @@
+package persistencia;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import commons.Simulador;
+
+/**
+ * Copia inmutable del estado de una partida en un instante, para guardarla sin bloquear la simulación.
+ * El estado se codifica en memoria con el formato de SnapshotBinario, que es rápido de generar y ocupa poco,
+ * y a partir de esa copia se escribe después el archivo en binario o en JSON desde otro hilo,
+ * mientras la simulación sigue modificando el modelo.
+ */
+public class InstantaneaPartida {
+
+    /** Partida codificada en el formato de SnapshotBinario. */
+    private final byte[] datos;
+
+    /** Nombres de los peces implementados, que el JSON guarda además de la partida. */
+    private final List<String> implementados;
+
+    /**
+     * Crea una instantánea a partir de sus datos ya codificados.
+     *
+     * @param datos         Partida codificada.
+     * @param implementados Nombres de los peces implementados.
+     */
+    private InstantaneaPartida(byte[] datos, List<String> implementados) {
+        this.datos = datos;
+        this.implementados = implementados;
+    }
+
+    /**
+     * Toma una instantánea del estado actual del simulador.
+     * Debe llamarse desde el hilo que modifica el modelo, para que la copia sea coherente.
+     *
+     * @param simulador El simulador a copiar.
+     * @return la instantánea de la partida.
+     * @throws IOException si falla la codificación.
+     */
+    public static InstantaneaPartida tomar(Simulador simulador) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        SnapshotBinario.escribir(out, simulador);
+        out.flush();
+
+        List<String> implementados = new ArrayList<>();
+        if (simulador.getPecesImplementados() != null) {
+            for (String pez : simulador.getPecesImplementados()) {
+                if (pez != null) {
+                    implementados.add(pez);
+                }
+            }
+        }
+        return new InstantaneaPartida(bytes.toByteArray(), Collections.unmodifiableList(implementados));
+    }
+
+    /**
+     * Escribe la instantánea en formato binario.
+     *
+     * @param out Flujo de destino.
+     * @throws IOException si falla la escritura.
+     */
+    public void escribirBinario(OutputStream out) throws IOException {
+        out.write(datos);
+    }
+
+    /**
+     * Abre la instantánea para leerla con el formato de SnapshotBinario.
+     *
+     * @return flujo de lectura sobre la partida codificada.
+     */
+    public DataInputStream abrir() {
+        return new DataInputStream(new ByteArrayInputStream(datos));
+    }
+
+    /**
+     * Abre una parte de la instantánea, como los peces de un tanque, para leerla con el formato de SnapshotBinario.
+     *
+     * @param desde    Posición del primer byte.
+     * @param longitud Número de bytes.
+     * @return flujo de lectura sobre esa parte de la partida codificada.
+     */
+    public DataInputStream abrir(int desde, int longitud) {
+        return new DataInputStream(new ByteArrayInputStream(datos, desde, longitud));
+    }
+
+    /**
+     * Devuelve los nombres de los peces implementados.
+     *
+     * @return lista de solo lectura con los nombres.
+     */
+    public List<String> getImplementados() {
+        return implementados;
+    }
+
+    /**
+     * Devuelve el tamaño de la partida codificada.
+     *
+     * @return tamaño en bytes.
+     */
+    public int getTamaño() {
+        return datos.length;
+    }
+}
@@ -0,0 +1,969 @@
+package persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import commons.Aleatorio;
+import commons.Simulador;
+import edificios.AlmacenCentral;
+import edificios.GranjaFitoplancton;
+import edificios.GranjaLangostinos;
+import edificios.TanqueLangostinos;
+import estadisticas.Estadisticas;
+import peces.Especie;
+import peces.Pez;
+import piscifactoria.Piscifactoria;
+import piscifactoria.PiscifactoriaDeRio;
+import propiedades.PecesDatos;
+import tanque.CargaDiferida;
+import tanque.Tanque;
+
+/**
+ * Formato binario de las partidas, alternativo al JSON.
+ * Guarda la misma información que el JSON sin repetir los nombres de los campos en cada pez:
+ * una cabecera con la empresa, el día, las monedas, las estadísticas y la semilla, los edificios,
+ * una tabla con las especies usadas y, por cada tanque, el índice de su especie y un registro por pez
+ * con la edad y el ciclo en enteros de longitud variable y el resto del estado en un byte de indicadores.
+ * Los archivos empiezan por una firma y un número de versión, de modo que load los reconoce por su contenido.
+ * Los tanques forman un índice, con sus recuentos y la posición de sus peces, separado de los peces,
+ * de modo que al cargar la partida se proyecta en memoria y cada tanque solo lee sus peces cuando los necesita.
+ * Cada piscifactoría va en su propia sección, cuya posición guarda la cabecera, para poder leerlas a la vez.
+ */
+public class SnapshotBinario {
+
+    /** Firma con la que empiezan los archivos binarios, "PSCB" en ASCII. */
+    static final int FIRMA = 0x50534342;
+
+    /** Versión del formato que escribe esta clase, con el índice de piscifactorías y el de tanques. */
+    static final int VERSION = 4;
+
+    /** Versión anterior del formato, con el índice de piscifactorías pero sin los maduros entre los recuentos, que se sigue pudiendo leer. */
+    static final int VERSION_SIN_MADUROS = 3;
+
+    /** Segunda versión del formato, con el índice de tanques pero sin el de piscifactorías, que se sigue pudiendo leer. */
+    static final int VERSION_SIN_SECCIONES = 2;
+
+    /** Primera versión del formato, sin índices, que se sigue pudiendo leer. */
+    static final int VERSION_SIN_INDICE = 1;
+
+    /** Tamaño en bytes del buffer de lectura y escritura. */
+    private static final int TAMAÑO_BUFFER = 1 << 16;
+
+    /** Número de recuentos que guarda el índice por tanque: peces, machos, hembras, fértiles, vivos, alimentados y maduros. */
+    static final int RECUENTOS = 7;
+
+    /** Número de recuentos que guardaban por tanque los índices de las versiones anteriores, sin los maduros. */
+    static final int RECUENTOS_SIN_MADUROS = 6;
+
+    /** Indicador de pez macho. */
+    static final int SEXO = 1;
+
+    /** Indicador de pez vivo. */
+    static final int VIVO = 1 << 1;
+
+    /** Indicador de pez fértil. */
+    static final int FERTIL = 1 << 2;
+
+    /** Indicador de pez alimentado. */
+    static final int ALIMENTADO = 1 << 3;
+
+    /** Indicador de pez maduro. */
+    static final int MADURO = 1 << 4;
+
+    /** Constructor privado, la clase solo tiene métodos estáticos. */
+    private SnapshotBinario() {
+    }
+
+    /**
+     * Comprueba si un archivo está en formato binario mirando su firma.
+     *
+     * @param archivo El archivo a comprobar.
+     * @return true si el archivo empieza por la firma del formato binario.
+     * @throws IOException si falla la lectura.
+     */
+    public static boolean esBinario(File archivo) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(archivo))) {
+            return in.readInt() == FIRMA;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Carga el estado del simulador desde un archivo binario.
+     * Los archivos con índice de tanques se proyectan en memoria y los peces de cada tanque se dejan
+     * pendientes de cargar hasta que se necesitan por primera vez; los de la primera versión se leen enteros.
+     * Si el día se avanza en paralelo y el archivo tiene índice de piscifactorías, cada piscifactoría
+     * se lee en un hilo del ForkJoinPool común con todos sus peces, y se añaden al simulador en su orden original.
+     *
+     * @param simulador El simulador al que se aplicarán los datos.
+     * @param archivo   Archivo de la partida.
+     * @return el número de tanques cuyos peces se han dejado pendientes de cargar.
+     * @throws IOException si falla la lectura o el archivo no es válido.
+     */
+    public static int cargar(Simulador simulador, File archivo) throws IOException {
+        int version;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(archivo))) {
+            if (in.readInt() != FIRMA) {
+                throw new IOException("El archivo no es una partida binaria.");
+            }
+            version = in.readUnsignedByte();
+        }
+        if (version == VERSION_SIN_INDICE) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(archivo), TAMAÑO_BUFFER))) {
+                leerSinIndice(in, simulador);
+            }
+            return 0;
+        }
+        if (version != VERSION && version != VERSION_SIN_MADUROS && version != VERSION_SIN_SECCIONES) {
+            throw new IOException("Versión de partida binaria no admitida: " + version);
+        }
+        MappedByteBuffer mapa;
+        try (FileChannel canal = FileChannel.open(archivo.toPath(), StandardOpenOption.READ)) {
+            mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        if (version == VERSION_SIN_SECCIONES) {
+            return leerIndexado(mapa, simulador);
+        }
+        return leerSecciones(mapa, simulador, version == VERSION ? RECUENTOS : RECUENTOS_SIN_MADUROS);
+    }
+
+    /**
+     * Escribe la partida completa.
+     * Primero va la cabecera, con los datos de la partida y la posición de la sección de cada piscifactoría;
+     * después las secciones, con los datos de cada piscifactoría y de sus tanques y la posición de sus peces;
+     * y al final los peces de todos los tanques. Así se puede leer cada piscifactoría sin leer las demás
+     * y los peces de un tanque sin leer los de los demás.
+     *
+     * @param out       Flujo de destino.
+     * @param simulador El simulador a guardar.
+     * @throws IOException si falla la escritura.
+     */
+    static void escribir(DataOutputStream out, Simulador simulador) throws IOException {
+        ByteArrayOutputStream cabeceraBytes = new ByteArrayOutputStream();
+        DataOutputStream cabecera = new DataOutputStream(cabeceraBytes);
+        ByteArrayOutputStream seccionesBytes = new ByteArrayOutputStream();
+        DataOutputStream secciones = new DataOutputStream(seccionesBytes);
+        ByteArrayOutputStream pecesBytes = new ByteArrayOutputStream();
+        DataOutputStream peces = new DataOutputStream(pecesBytes);
+
+        // 1. Cabecera
+        escribirCabecera(cabecera, simulador);
+
+        // 2. Edificios
+        escribirEdificios(cabecera, simulador);
+
+        // 3. Tabla de especies, numeradas desde 1 por orden de aparición; el 0 indica un tanque vacío
+        List<Piscifactoria> piscifactorias = new ArrayList<>();
+        Map<String, Integer> especies = new LinkedHashMap<>();
+        if (simulador.getPiscifactorias() != null) {
+            for (Piscifactoria pisc : simulador.getPiscifactorias()) {
+                if (pisc != null) {
+                    piscifactorias.add(pisc);
+                    for (Tanque tanque : pisc.getTanques()) {
+                        String especie = especie(tanque);
+                        if (especie != null) {
+                            especies.putIfAbsent(especie, especies.size() + 1);
+                        }
+                    }
+                }
+            }
+        }
+        escribirVarint(cabecera, especies.size());
+        for (String especie : especies.keySet()) {
+            escribirTexto(cabecera, especie);
+        }
+
+        // 4. Piscifactorías, cada una en su sección, con los recuentos de cada tanque y la posición de sus peces
+        escribirVarint(cabecera, piscifactorias.size());
+        for (Piscifactoria pisc : piscifactorias) {
+            int inicioSeccion = seccionesBytes.size();
+            escribirPiscifactoria(secciones, pisc);
+            List<Tanque> tanques = tanques(pisc);
+            escribirVarint(secciones, tanques.size());
+            for (Tanque tanque : tanques) {
+                String especie = especie(tanque);
+                escribirVarint(secciones, tanque.getNumeroTanque());
+                escribirVarint(secciones, especie != null ? especies.get(especie) : 0);
+                if (especie != null) {
+                    escribirVarint(secciones, tanque.getOcupacion());
+                    escribirVarint(secciones, tanque.getMachos());
+                    escribirVarint(secciones, tanque.getHembras());
+                    escribirVarint(secciones, tanque.getFertiles());
+                    escribirVarint(secciones, tanque.getVivos());
+                    escribirVarint(secciones, tanque.getAlimentados());
+                    escribirVarint(secciones, tanque.getMaduros());
+                } else {
+                    for (int i = 0; i < RECUENTOS; i++) {
+                        escribirVarint(secciones, 0);
+                    }
+                }
+                int desplazamiento = pecesBytes.size();
+                escribirPeces(peces, tanque);
+                escribirVarint(secciones, desplazamiento);
+                escribirVarint(secciones, pecesBytes.size() - desplazamiento);
+            }
+            escribirVarint(cabecera, inicioSeccion);
+            escribirVarint(cabecera, seccionesBytes.size() - inicioSeccion);
+        }
+
+        // 5. Archivo: firma, versión, posición de las secciones y de los peces, cabecera, secciones y peces
+        int inicioSecciones = Integer.BYTES + 1 + 2 * Integer.BYTES + cabeceraBytes.size();
+        out.writeInt(FIRMA);
+        out.writeByte(VERSION);
+        out.writeInt(inicioSecciones);
+        out.writeInt(inicioSecciones + seccionesBytes.size());
+        cabeceraBytes.writeTo(out);
+        seccionesBytes.writeTo(out);
+        pecesBytes.writeTo(out);
+    }
+
+    /**
+     * Lee una partida con índice de piscifactorías proyectada en memoria.
+     * Si el día se avanza en paralelo, las piscifactorías se leen a la vez, con sus peces;
+     * si no, una tras otra y con los peces de cada tanque pendientes de cargar.
+     *
+     * @param mapa      Archivo de la partida proyectado en memoria.
+     * @param simulador El simulador al que se aplicarán los datos.
+     * @param recuentos Número de recuentos por tanque en el índice, según la versión del archivo.
+     * @return el número de tanques cuyos peces se han dejado pendientes de cargar.
+     * @throws IOException si el archivo no es válido.
+     */
+    private static int leerSecciones(ByteBuffer mapa, Simulador simulador, int recuentos) throws IOException {
+        int inicioSecciones = mapa.getInt(Integer.BYTES + 1);
+        int inicioPeces = mapa.getInt(Integer.BYTES + 1 + Integer.BYTES);
+        int inicioCabecera = Integer.BYTES + 1 + 2 * Integer.BYTES;
+        DataInputStream in = new DataInputStream(new EntradaBuffer(mapa.slice(inicioCabecera, inicioSecciones - inicioCabecera)));
+
+        // 1. Cabecera
+        leerCabecera(in, simulador);
+
+        // 2. Edificios
+        leerEdificios(in, simulador);
+
+        // 3. Tabla de especies, resueltas una sola vez para todo el archivo
+        TablaEspecies especies = leerEspecies(in);
+
+        // 4. Piscifactorías, leídas a partir de la posición de su sección
+        int numPiscifactorias = leerVarint(in);
+        ByteBuffer[] secciones = new ByteBuffer[numPiscifactorias];
+        for (int p = 0; p < numPiscifactorias; p++) {
+            int desplazamiento = leerVarint(in);
+            secciones[p] = mapa.slice(inicioSecciones + desplazamiento, leerVarint(in));
+        }
+        boolean cargarPeces = Simulador.diaParalelo;
+        IntStream indices = IntStream.range(0, numPiscifactorias);
+        if (cargarPeces) {
+            indices = indices.parallel();
+        }
+        List<Piscifactoria> leidas;
+        try {
+            leidas = indices.mapToObj(p -> {
+                try {
+                    return leerPiscifactoriaConTanques(new DataInputStream(new EntradaBuffer(secciones[p])),
+                            mapa, inicioPeces, especies, recuentos, cargarPeces);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        int diferidos = 0;
+        simulador.getPiscifactorias().clear();
+        for (Piscifactoria pisc : leidas) {
+            for (Tanque tanque : pisc.getTanques()) {
+                diferidos += tanque.isCargado() ? 0 : 1;
+            }
+            simulador.getPiscifactorias().add(pisc);
+        }
+        return diferidos;
+    }
+
+    /**
+     * Lee una partida con índice de tanques pero sin índice de piscifactorías, de la versión anterior,
+     * y deja los peces de cada tanque pendientes de cargar.
+     *
+     * @param mapa      Archivo de la partida proyectado en memoria.
+     * @param simulador El simulador al que se aplicarán los datos.
+     * @return el número de tanques cuyos peces se han dejado pendientes de cargar.
+     * @throws IOException si el archivo no es válido.
+     */
+    private static int leerIndexado(ByteBuffer mapa, Simulador simulador) throws IOException {
+        int inicioPeces = mapa.getInt(Integer.BYTES + 1);
+        DataInputStream in = new DataInputStream(new EntradaBuffer(mapa.slice(Integer.BYTES + 1 + Integer.BYTES,
+                inicioPeces - Integer.BYTES - 1 - Integer.BYTES)));
+
+        // 1. Cabecera
+        leerCabecera(in, simulador);
+
+        // 2. Edificios
+        leerEdificios(in, simulador);
+
+        // 3. Tabla de especies, resueltas una sola vez para todo el archivo
+        TablaEspecies especies = leerEspecies(in);
+
+        // 4. Piscifactorías, con los peces de cada tanque pendientes de cargar
+        int diferidos = 0;
+        simulador.getPiscifactorias().clear();
+        int numPiscifactorias = leerVarint(in);
+        for (int p = 0; p < numPiscifactorias; p++) {
+            Piscifactoria pisc = leerPiscifactoriaConTanques(in, mapa, inicioPeces, especies, RECUENTOS_SIN_MADUROS, false);
+            for (Tanque tanque : pisc.getTanques()) {
+                diferidos += tanque.isCargado() ? 0 : 1;
+            }
+            simulador.getPiscifactorias().add(pisc);
+        }
+        return diferidos;
+    }
+
+    /**
+     * Lee la tabla de especies y resuelve cada una en el registro de especies.
+     *
+     * @param in Flujo de origen.
+     * @return la tabla de especies.
+     * @throws IOException si falla la lectura.
+     */
+    private static TablaEspecies leerEspecies(DataInputStream in) throws IOException {
+        int numEspecies = leerVarint(in);
+        String[] nombres = new String[numEspecies + 1];
+        Especie[] registradas = new Especie[numEspecies + 1];
+        for (int i = 1; i <= numEspecies; i++) {
+            nombres[i] = leerTexto(in);
+            registradas[i] = GestorEstado.especiePez(nombres[i]);
+        }
+        return new TablaEspecies(nombres, registradas);
+    }
+
+    /**
+     * Lee una piscifactoría con sus tanques, según el índice de tanques.
+     *
+     * @param in          Flujo situado al comienzo de la piscifactoría.
+     * @param mapa        Archivo de la partida proyectado en memoria.
+     * @param inicioPeces Posición de los peces de los tanques en el archivo.
+     * @param especies    Tabla de especies del archivo.
+     * @param numRecuentos Número de recuentos por tanque en el índice, según la versión del archivo.
+     * @param cargarPeces true para leer ya los peces de cada tanque y false para dejarlos pendientes de cargar.
+     * @return la piscifactoría leída.
+     * @throws IOException si el archivo no es válido.
+     */
+    private static Piscifactoria leerPiscifactoriaConTanques(DataInputStream in, ByteBuffer mapa, int inicioPeces,
+            TablaEspecies especies, int numRecuentos, boolean cargarPeces) throws IOException {
+        Piscifactoria pisc = leerPiscifactoria(in);
+        int numTanques = leerVarint(in);
+        for (int t = 0; t < numTanques; t++) {
+            Tanque tanque = new Tanque(leerVarint(in), capacidadTanque(pisc));
+            int especie = leerVarint(in);
+            if (especie >= especies.nombres().length) {
+                throw new IOException("Especie desconocida en el tanque " + tanque.getNumeroTanque() + ": " + especie);
+            }
+            // Los índices anteriores no guardan los maduros, que se cuentan en el bloque de peces si se piden
+            int[] recuentos = new int[RECUENTOS];
+            recuentos[RECUENTOS - 1] = -1;
+            for (int i = 0; i < numRecuentos; i++) {
+                recuentos[i] = leerVarint(in);
+            }
+            int desplazamiento = leerVarint(in);
+            int longitud = leerVarint(in);
+            Especie registrada = especies.registradas()[especie];
+            if (recuentos[0] > 0 && registrada != null) {
+                ByteBuffer bloque = mapa.slice(inicioPeces + desplazamiento, longitud);
+                if (cargarPeces) {
+                    leerPeces(new DataInputStream(new EntradaBuffer(bloque)), tanque.getPeces(), registrada);
+                } else {
+                    tanque.cargarDespues(new TanqueMapeado(bloque, especies.nombres()[especie], registrada, recuentos));
+                }
+            }
+            pisc.getTanques().add(tanque);
+        }
+        return pisc;
+    }
+
+    /**
+     * Lee una partida de la versión sin índice y la aplica al simulador, igual que la carga desde JSON.
+     *
+     * @param in        Flujo de origen.
+     * @param simulador El simulador al que se aplicarán los datos.
+     * @throws IOException si falla la lectura o el archivo no es válido.
+     */
+    private static void leerSinIndice(DataInputStream in, Simulador simulador) throws IOException {
+        // 1. Cabecera
+        in.readInt();
+        in.readUnsignedByte();
+        leerCabecera(in, simulador);
+
+        // 2. Edificios
+        leerEdificios(in, simulador);
+
+        // 3. Tabla de especies, resueltas una sola vez para todo el archivo
+        int numEspecies = leerVarint(in);
+        Especie[] registradas = new Especie[numEspecies + 1];
+        for (int i = 1; i <= numEspecies; i++) {
+            registradas[i] = GestorEstado.especiePez(leerTexto(in));
+        }
+
+        // 4. Piscifactorías
+        simulador.getPiscifactorias().clear();
+        int numPiscifactorias = leerVarint(in);
+        for (int p = 0; p < numPiscifactorias; p++) {
+            Piscifactoria pisc = leerPiscifactoria(in);
+            int numTanques = leerVarint(in);
+            for (int t = 0; t < numTanques; t++) {
+                Tanque tanque = new Tanque(leerVarint(in), capacidadTanque(pisc));
+                int especie = leerVarint(in);
+                if (especie > numEspecies) {
+                    throw new IOException("Especie desconocida en el tanque " + tanque.getNumeroTanque() + ": " + especie);
+                }
+                leerPeces(in, tanque.getPeces(), registradas[especie]);
+                pisc.getTanques().add(tanque);
+            }
+            simulador.getPiscifactorias().add(pisc);
+        }
+    }
+
+    /**
+     * Escribe la empresa, el día, las monedas, las estadísticas y la semilla.
+     *
+     * @param out       Flujo de destino.
+     * @param simulador El simulador a guardar.
+     * @throws IOException si falla la escritura.
+     */
+    static void escribirCabecera(DataOutputStream out, Simulador simulador) throws IOException {
+        escribirTexto(out, simulador.getNombreEntidad() != null ? simulador.getNombreEntidad() : "");
+        escribirVarint(out, simulador.getDia());
+        escribirVarint(out, Simulador.monedas != null ? Simulador.monedas.getMonedas() : 0);
+        escribirTexto(out, simulador.estadisticas.exportarDatos(simulador.getPecesImplementados()));
+        out.writeLong(Aleatorio.getSemilla());
+    }
+
+    /**
+     * Lee la empresa, el día, las monedas, las estadísticas y la semilla.
+     *
+     * @param in        Flujo de origen.
+     * @param simulador El simulador al que se aplicarán los datos.
+     * @throws IOException si falla la lectura.
+     */
+    static void leerCabecera(DataInputStream in, Simulador simulador) throws IOException {
+        simulador.setNombreEntidad(leerTexto(in));
+        simulador.setDia(leerVarint(in));
+        GestorEstado.restaurarMonedas(leerVarint(in));
+        simulador.setEstadisticas(new Estadisticas(simulador.getPecesImplementados(), leerTexto(in)));
+        Aleatorio.setSemilla(in.readLong());
+    }
+
+    /**
+     * Escribe el almacén central y las granjas de fitoplancton y langostinos.
+     *
+     * @param out       Flujo de destino.
+     * @param simulador El simulador a guardar.
+     * @throws IOException si falla la escritura.
+     */
+    static void escribirEdificios(DataOutputStream out, Simulador simulador) throws IOException {
+        AlmacenCentral almacen = simulador.almacenCentral;
+        out.writeBoolean(almacen != null);
+        if (almacen != null) {
+            escribirVarint(out, almacen.getCapacidadAlmacen());
+            escribirVarint(out, almacen.getCantidadComidaVegetal());
+            escribirVarint(out, almacen.getCantidadComidaAnimal());
+        }
+
+        GranjaFitoplancton fitoplancton = simulador.granjaFitoplancton;
+        out.writeBoolean(fitoplancton != null);
+        if (fitoplancton != null) {
+            escribirVarint(out, fitoplancton.getNumeroTanques());
+            escribirVarint(out, fitoplancton.getCiclo());
+        }
+
+        GranjaLangostinos langostinos = simulador.granjaLangostinos;
+        out.writeBoolean(langostinos != null);
+        if (langostinos != null) {
+            escribirVarint(out, langostinos.getRacionesRetroalimentacion());
+            List<TanqueLangostinos> tanques = new ArrayList<>();
+            if (langostinos.getTanques() != null) {
+                for (TanqueLangostinos tanque : langostinos.getTanques()) {
+                    if (tanque != null) {
+                        tanques.add(tanque);
+                    }
+                }
+            }
+            escribirVarint(out, tanques.size());
+            for (TanqueLangostinos tanque : tanques) {
+                escribirVarint(out, tanque.getRacionesLocal());
+                escribirVarint(out, tanque.getDiasPenalizacion());
+            }
+        }
+    }
+
+    /**
+     * Lee el almacén central y las granjas de fitoplancton y langostinos y los asigna al simulador.
+     *
+     * @param in        Flujo de origen.
+     * @param simulador El simulador al que se asignan los edificios.
+     * @throws IOException si falla la lectura.
+     */
+    static void leerEdificios(DataInputStream in, Simulador simulador) throws IOException {
+        if (in.readBoolean()) {
+            int capacidad = leerVarint(in);
+            int vegetal = leerVarint(in);
+            int animal = leerVarint(in);
+            simulador.almacenCentral = new AlmacenCentral(capacidad, animal, vegetal);
+        } else {
+            simulador.almacenCentral = null;
+        }
+
+        if (in.readBoolean()) {
+            int tanques = leerVarint(in);
+            int ciclo = leerVarint(in);
+            simulador.granjaFitoplancton = new GranjaFitoplancton(tanques, ciclo);
+        } else {
+            simulador.granjaFitoplancton = null;
+        }
+
+        if (in.readBoolean()) {
+            int muertos = leerVarint(in);
+            int numTanques = leerVarint(in);
+            List<TanqueLangostinos> tanques = new ArrayList<>(numTanques);
+            for (int i = 0; i < numTanques; i++) {
+                int comida = leerVarint(in);
+                int descanso = leerVarint(in);
+                tanques.add(new TanqueLangostinos(comida, descanso));
+            }
+            GranjaLangostinos granjaLangostinos = new GranjaLangostinos(muertos, tanques);
+            for (TanqueLangostinos tanque : tanques) {
+                tanque.setGranja(granjaLangostinos);
+            }
+            simulador.granjaLangostinos = granjaLangostinos;
+        } else {
+            simulador.granjaLangostinos = null;
+        }
+    }
+
+    /**
+     * Escribe el nombre, el tipo, la capacidad y la comida de una piscifactoría, sin sus tanques.
+     *
+     * @param out  Flujo de destino.
+     * @param pisc La piscifactoría a guardar.
+     * @throws IOException si falla la escritura.
+     */
+    static void escribirPiscifactoria(DataOutputStream out, Piscifactoria pisc) throws IOException {
+        escribirTexto(out, pisc.getNombre());
+        out.writeByte(pisc instanceof PiscifactoriaDeRio ? 0 : 1);
+        escribirVarint(out, pisc.getCapacidadMaximaComida());
+        escribirVarint(out, pisc.getComidaVegetalActual());
+        escribirVarint(out, pisc.getComidaAnimalActual());
+    }
+
+    /**
+     * Lee una piscifactoría escrita con escribirPiscifactoria.
+     *
+     * @param in Flujo de origen.
+     * @return la piscifactoría leída, todavía sin tanques.
+     * @throws IOException si falla la lectura.
+     */
+    static Piscifactoria leerPiscifactoria(DataInputStream in) throws IOException {
+        String nombre = leerTexto(in);
+        int tipo = in.readUnsignedByte();
+        int capacidad = leerVarint(in);
+        int comidaVegetal = leerVarint(in);
+        int comidaAnimal = leerVarint(in);
+        return GestorEstado.crearPiscifactoria(nombre, tipo, capacidad, comidaVegetal, comidaAnimal, new ArrayList<>());
+    }
+
+    /**
+     * Escribe los peces de un tanque: su número y un registro compacto por pez.
+     * Los tanques sin especie se escriben sin peces.
+     *
+     * @param out    Flujo de destino.
+     * @param tanque El tanque cuyos peces se guardan.
+     * @throws IOException si falla la escritura.
+     */
+    static void escribirPeces(DataOutputStream out, Tanque tanque) throws IOException {
+        // Los peces que siguen sin cargar se copian tal cual del archivo del que iban a cargarse
+        if (tanque.getCargaDiferida() instanceof TanqueMapeado mapeado) {
+            byte[] bloque = new byte[mapeado.bloque.remaining()];
+            mapeado.bloque.duplicate().get(bloque);
+            out.write(bloque);
+            return;
+        }
+        List<Pez> peces = tanque.getPeces();
+        int total = 0;
+        if (especie(tanque) != null) {
+            for (Pez pez : peces) {
+                if (pez != null) {
+                    total++;
+                }
+            }
+        }
+        escribirVarint(out, total);
+        if (total > 0) {
+            for (Pez pez : peces) {
+                if (pez != null) {
+                    escribirPez(out, pez.getEdad(), pez.getCiclo(), indicadores(pez));
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe el registro de un pez: la edad, el ciclo y el byte de indicadores.
+     *
+     * @param out         Flujo de destino.
+     * @param edad        Edad del pez.
+     * @param ciclo       Ciclo del pez.
+     * @param indicadores Indicadores del pez.
+     * @throws IOException si falla la escritura.
+     */
+    static void escribirPez(DataOutputStream out, int edad, int ciclo, int indicadores) throws IOException {
+        escribirVarint(out, edad);
+        escribirVarint(out, ciclo);
+        out.writeByte(indicadores);
+    }
+
+    /**
+     * Devuelve el byte de indicadores con que se guarda el estado de un pez.
+     *
+     * @param pez El pez a guardar.
+     * @return los indicadores del pez.
+     */
+    static int indicadores(Pez pez) {
+        return (pez.isSexo() ? SEXO : 0) | (pez.isVivo() ? VIVO : 0) | (pez.isFertil() ? FERTIL : 0)
+                | (pez.isAlimentado() ? ALIMENTADO : 0) | (pez.isMaduro() ? MADURO : 0);
+    }
+
+    /**
+     * Lee los peces escritos con escribirPeces y los añade a una lista.
+     *
+     * @param in      Flujo de origen.
+     * @param destino Lista a la que se añaden los peces, normalmente la de un tanque.
+     * @param especie Especie del tanque, o null si es desconocida y los peces se descartan.
+     * @throws IOException si falla la lectura.
+     */
+    static void leerPeces(DataInputStream in, List<Pez> destino, Especie especie) throws IOException {
+        int numPeces = leerVarint(in);
+        for (int i = 0; i < numPeces; i++) {
+            Pez pez = leerPez(in, especie);
+            if (pez != null) {
+                destino.add(pez);
+            }
+        }
+    }
+
+    /**
+     * Lee el registro de un pez escrito con escribirPez.
+     *
+     * @param in      Flujo de origen.
+     * @param especie Especie del pez, o null si es desconocida y el pez se descarta.
+     * @return el pez leído, o null si la especie es desconocida.
+     * @throws IOException si falla la lectura.
+     */
+    static Pez leerPez(DataInputStream in, Especie especie) throws IOException {
+        int edad = leerVarint(in);
+        int ciclo = leerVarint(in);
+        int indicadores = in.readUnsignedByte();
+        return especie != null ? crearPez(especie, edad, ciclo, indicadores) : null;
+    }
+
+    /**
+     * Crea un pez a partir de su registro.
+     *
+     * @param especie     Especie del pez.
+     * @param edad        Edad del pez.
+     * @param ciclo       Ciclo del pez.
+     * @param indicadores Indicadores del pez.
+     * @return el pez creado.
+     */
+    static Pez crearPez(Especie especie, int edad, int ciclo, int indicadores) {
+        Pez pez = especie.crear((indicadores & SEXO) != 0, edad, (indicadores & VIVO) != 0,
+                (indicadores & FERTIL) != 0, ciclo, (indicadores & ALIMENTADO) != 0);
+        pez.setMaduro((indicadores & MADURO) != 0);
+        return pez;
+    }
+
+    /**
+     * Devuelve los tanques de una piscifactoría, sin los nulos.
+     *
+     * @param pisc La piscifactoría a consultar.
+     * @return lista con los tanques de la piscifactoría.
+     */
+    static List<Tanque> tanques(Piscifactoria pisc) {
+        List<Tanque> tanques = new ArrayList<>();
+        for (Tanque tanque : pisc.getTanques()) {
+            if (tanque != null) {
+                tanques.add(tanque);
+            }
+        }
+        return tanques;
+    }
+
+    /**
+     * Devuelve la capacidad de los tanques de una piscifactoría.
+     *
+     * @param pisc La piscifactoría a consultar.
+     * @return la capacidad máxima de peces de cada tanque.
+     */
+    static int capacidadTanque(Piscifactoria pisc) {
+        return GestorEstado.capacidadTanque(pisc instanceof PiscifactoriaDeRio ? 0 : 1);
+    }
+
+    /**
+     * Devuelve el nombre de la especie de un tanque, o null si está vacío.
+     *
+     * @param tanque El tanque a consultar.
+     * @return el nombre de la especie del tanque.
+     */
+    static String especie(Tanque tanque) {
+        if (tanque != null && tanque.getCargaDiferida() instanceof TanqueMapeado mapeado) {
+            return mapeado.especie;
+        }
+        if (tanque == null || tanque.getPeces() == null || tanque.getPeces().isEmpty()) {
+            return null;
+        }
+        PecesDatos datos = tanque.getDatos();
+        return datos != null ? datos.getNombre() : null;
+    }
+
+    /**
+     * Escribe un entero en 1 a 5 bytes, con 7 bits por byte y el bit alto indicando que siguen más bytes.
+     * Los valores pequeños, que son la mayoría, ocupan un solo byte.
+     *
+     * @param out   Flujo de destino.
+     * @param valor El valor a escribir, tratado como entero sin signo.
+     * @throws IOException si falla la escritura.
+     */
+    static void escribirVarint(DataOutputStream out, int valor) throws IOException {
+        while ((valor & ~0x7F) != 0) {
+            out.writeByte((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        out.writeByte(valor);
+    }
+
+    /**
+     * Lee un entero escrito con escribirVarint.
+     *
+     * @param in Flujo de origen.
+     * @return el valor leído.
+     * @throws IOException si falla la lectura o el entero ocupa más de 5 bytes.
+     */
+    static int leerVarint(DataInputStream in) throws IOException {
+        int valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 35; desplazamiento += 7) {
+            int b = in.readUnsignedByte();
+            valor |= (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Entero de longitud variable mal formado.");
+    }
+
+    /**
+     * Escribe un texto en UTF-8 precedido de su longitud en bytes.
+     *
+     * @param out   Flujo de destino.
+     * @param texto El texto a escribir.
+     * @throws IOException si falla la escritura.
+     */
+    static void escribirTexto(DataOutputStream out, String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escribirVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Lee un texto escrito con escribirTexto.
+     *
+     * @param in Flujo de origen.
+     * @return el texto leído.
+     * @throws IOException si falla la lectura.
+     */
+    static String leerTexto(DataInputStream in) throws IOException {
+        int longitud = leerVarint(in);
+        if (longitud < 0) {
+            throw new IOException("Longitud de texto no válida: " + longitud);
+        }
+        byte[] bytes = new byte[longitud];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Especies de una partida, con su nombre y su especie del registro, indexadas por su número en la partida.
+     *
+     * @param nombres     Nombres de las especies, con null en la posición 0 de los tanques vacíos.
+     * @param registradas Especies del registro, con null en la posición 0 y en las especies desconocidas.
+     */
+    private record TablaEspecies(String[] nombres, Especie[] registradas) {
+    }
+
+    /** Peces de un tanque pendientes de cargar desde una partida proyectada en memoria. */
+    static class TanqueMapeado implements CargaDiferida {
+
+        /** Peces del tanque, codificados como en escribirPeces. */
+        private final ByteBuffer bloque;
+
+        /** Nombre de la especie del tanque. */
+        private final String especie;
+
+        /** Especie del tanque en el registro de especies. */
+        private final Especie registrada;
+
+        /** Recuentos del tanque guardados en el índice. */
+        private final int[] recuentos;
+
+        /**
+         * Crea la carga pendiente de un tanque.
+         *
+         * @param bloque     Peces del tanque.
+         * @param especie    Nombre de la especie del tanque.
+         * @param registrada Especie del tanque en el registro de especies.
+         * @param recuentos  Recuentos del tanque guardados en el índice.
+         */
+        TanqueMapeado(ByteBuffer bloque, String especie, Especie registrada, int[] recuentos) {
+            this.bloque = bloque;
+            this.especie = especie;
+            this.registrada = registrada;
+            this.recuentos = recuentos;
+        }
+
+        /** Crea los peces a partir de su registro en la partida proyectada en memoria. */
+        @Override
+        public void cargar(List<Pez> destino) {
+            try {
+                leerPeces(new DataInputStream(new EntradaBuffer(bloque.duplicate())), destino, registrada);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error al cargar los peces de un tanque: " + e.getMessage(), e);
+            }
+        }
+
+        /** Devuelve la especie del tanque en el registro de especies. */
+        @Override
+        public Especie getEspecie() {
+            return registrada;
+        }
+
+        /** Devuelve el número de peces guardado en el índice. */
+        @Override
+        public int getPeces() {
+            return recuentos[0];
+        }
+
+        /** Devuelve el número de machos guardado en el índice. */
+        @Override
+        public int getMachos() {
+            return recuentos[1];
+        }
+
+        /** Devuelve el número de hembras guardado en el índice. */
+        @Override
+        public int getHembras() {
+            return recuentos[2];
+        }
+
+        /** Devuelve el número de peces fértiles guardado en el índice. */
+        @Override
+        public int getFertiles() {
+            return recuentos[3];
+        }
+
+        /** Devuelve el número de peces vivos guardado en el índice. */
+        @Override
+        public int getVivos() {
+            return recuentos[4];
+        }
+
+        /** Devuelve el número de peces alimentados guardado en el índice. */
+        @Override
+        public int getAlimentados() {
+            return recuentos[5];
+        }
+
+        /**
+         * Devuelve el número de peces maduros guardado en el índice.
+         * Los archivos de versiones anteriores no lo guardan, y se cuenta una vez en los indicadores del bloque de peces.
+         */
+        @Override
+        public int getMaduros() {
+            if (recuentos[6] < 0) {
+                recuentos[6] = contarMaduros();
+            }
+            return recuentos[6];
+        }
+
+        /**
+         * Cuenta los peces maduros leyendo solo sus indicadores, sin crear los peces.
+         *
+         * @return número de peces maduros del bloque.
+         */
+        private int contarMaduros() {
+            try {
+                DataInputStream in = new DataInputStream(new EntradaBuffer(bloque.duplicate()));
+                int numPeces = leerVarint(in);
+                int maduros = 0;
+                for (int i = 0; i < numPeces; i++) {
+                    leerVarint(in);
+                    leerVarint(in);
+                    maduros += (in.readUnsignedByte() & MADURO) != 0 ? 1 : 0;
+                }
+                return maduros;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error al contar los peces maduros de un tanque: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /** Flujo de entrada que lee de un ByteBuffer, para usar los mismos métodos de lectura sobre un archivo proyectado. */
+    private static class EntradaBuffer extends InputStream {
+
+        /** Buffer del que se lee. */
+        private final ByteBuffer buffer;
+
+        /**
+         * Crea el flujo sobre un buffer, desde su posición actual.
+         *
+         * @param buffer Buffer del que se lee.
+         */
+        EntradaBuffer(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /** Lee un byte del buffer. */
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        /** Lee varios bytes del buffer. */
+        @Override
+        public int read(byte[] destino, int desde, int longitud) {
+            if (longitud == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int leidos = Math.min(longitud, buffer.remaining());
+            buffer.get(destino, desde, leidos);
+            return leidos;
+        }
+    }
+}
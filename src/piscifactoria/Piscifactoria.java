@@ -1,17 +1,18 @@
 package piscifactoria;
 
 import java.util.List;
+import java.util.SplittableRandom;
 
+import commons.Aleatorio;
+import commons.PrevisionComida;
+import commons.ReservaComida;
 import commons.Simulador;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 
-import peces.propiedades.Omnivoro;
-import peces.propiedades.Filtrador;
-import peces.propiedades.Carnivoro;
-import peces.propiedades.CarnivoroActivo;
-
+import edificios.AlmacenCentral;
+import peces.Especie;
 import peces.Pez;
 import tanque.Tanque;
 
@@ -27,15 +28,21 @@ public abstract class Piscifactoria {
     /** Número máximo de tanques permitidos en la piscifactoría. */
     protected final int numeroMaximoTanques = 10;
     
-    /** Cantidad actual de comida animal. */
-    private int cantidadComidaAnimal;
+    /** Comida animal disponible. */
+    private final ReservaComida comidaAnimal = new ReservaComida(0);
 
-    /** Cantidad actual de comida vegetal. */
-    private int cantidadComidaVegetal;
+    /** Comida vegetal disponible. */
+    private final ReservaComida comidaVegetal = new ReservaComida(0);
 
     /** Capacidad máxima para ambos tipos de comida. */
     protected int capacidadMaximaComida;
 
+    /** Comida animal y vegetal que había antes del traspaso del almacén central del día. */
+    private final int[] comidaPropia = new int[2];
+
+    /** Comida animal y vegetal traspasada hoy desde el almacén central y aún no liquidada. */
+    private final int[] comidaTraspasada = new int[2];
+
     /**
      * Constructor para crear una nueva piscifactoría.
      *
@@ -56,8 +63,8 @@ public abstract class Piscifactoria {
     public Piscifactoria(String nombre, int capacidadMaximaComida, int cantidadComidaAnimal, int cantidadComidaVegetal) {
         this.nombre = nombre;
         this.capacidadMaximaComida = capacidadMaximaComida;
-        this.cantidadComidaAnimal = cantidadComidaAnimal;
-        this.cantidadComidaVegetal = cantidadComidaVegetal;
+        this.comidaAnimal.setCantidad(cantidadComidaAnimal);
+        this.comidaVegetal.setCantidad(cantidadComidaVegetal);
     }
 
     /** Muestra toda la información de la piscifactoría. */
@@ -117,6 +124,8 @@ public abstract class Piscifactoria {
     /** Muestra el estado actual del depósito de comida de la piscifactoría. */
     public void showFood() {
         System.out.println("Depósito de comida de la piscifactoría " + nombre + ":");
+        int cantidadComidaVegetal = comidaVegetal.getCantidad();
+        int cantidadComidaAnimal = comidaAnimal.getCantidad();
 
         System.out.println("Comida vegetal al " + (cantidadComidaVegetal * 100 / capacidadMaximaComida)
                 + "% de su capacidad. [" + cantidadComidaVegetal + "/" + capacidadMaximaComida + "]");
@@ -125,22 +134,138 @@ public abstract class Piscifactoria {
     }
 
     /**
-     * Hace avanzar el ciclo de vida en la piscifactoría, alimentando a los peces y actualizando sus estados.
+     * Prevé la comida que consumirán hoy los peces y calcula lo que falta en el depósito para cubrirla,
+     * sin pasar de su capacidad, y anota lo que hay en el depósito para liquidar después el traspaso.
+     * El almacén central reparte lo que tiene entre las faltas de todas las piscifactorías
+     * y traspasa a cada una su parte con recibirTraspaso.
+     * Los omnívoros comen después que los demás y toman cada ración del tipo del que quede más,
+     * así que su consumo se cuenta una sola vez y se reparte entre los dos tipos nivelando lo que dejan libre los demás.
+     *
+     * @return Un arreglo con la comida animal y vegetal que falta en el depósito.
+     */
+    public int[] preverTraspaso() {
+        PrevisionComida prevision = new PrevisionComida();
+        for (Tanque tanque : tanques) {
+            tanque.preverDemanda(prevision);
+        }
+        int animal = comidaAnimal.getCantidad();
+        int vegetal = comidaVegetal.getCantidad();
+        comidaPropia[0] = animal;
+        comidaPropia[1] = vegetal;
+
+        // Lo que dejan libre los carnívoros y los filtradores se reparte entre los omnívoros como en alimentarVarios
+        long animalFijo = prevision.getAnimal();
+        long vegetalFijo = prevision.getVegetal();
+        int indistinta = prevision.getIndistinta();
+        int indistintaAnimal = ReservaComida.nivelarPrimera((int) Math.max(animal - animalFijo, 0),
+                (int) Math.max(vegetal - vegetalFijo, 0), indistinta);
+        long necesidadAnimal = animalFijo + indistintaAnimal;
+        long necesidadVegetal = vegetalFijo + indistinta - indistintaAnimal;
+
+        int faltaAnimal = (int) Math.max(Math.min(necesidadAnimal - animal, capacidadMaximaComida - animal), 0);
+        int faltaVegetal = (int) Math.max(Math.min(necesidadVegetal - vegetal, capacidadMaximaComida - vegetal), 0);
+        return new int[] { faltaAnimal, faltaVegetal };
+    }
+
+    /**
+     * Traspasa del almacén central la parte que le toca a la piscifactoría de cada tipo de comida,
+     * en una sola operación por tipo. Lo que no se consuma vuelve al almacén al liquidar el traspaso.
+     *
+     * @param almacenCentral El almacén central del que se traspasa la comida.
+     * @param animal         Comida animal a traspasar.
+     * @param vegetal        Comida vegetal a traspasar.
+     */
+    public void recibirTraspaso(AlmacenCentral almacenCentral, int animal, int vegetal) {
+        comidaTraspasada[0] = traspasar(almacenCentral.getReservaAnimal(), comidaAnimal, animal);
+        comidaTraspasada[1] = traspasar(almacenCentral.getReservaVegetal(), comidaVegetal, vegetal);
+    }
+
+    /**
+     * Traspasa comida del almacén central al depósito sin pasar de su capacidad.
+     *
+     * @param origen   Comida del almacén central de ese tipo.
+     * @param destino  Comida del depósito de ese tipo.
+     * @param cantidad Cantidad que se quiere traspasar.
+     * @return la cantidad traspasada.
+     */
+    private int traspasar(ReservaComida origen, ReservaComida destino, int cantidad) {
+        int reservada = origen.reservar(cantidad);
+        int depositada = destino.depositar(reservada, capacidadMaximaComida);
+        origen.devolver(reservada - depositada);
+        return depositada;
+    }
+
+    /**
+     * Devuelve al almacén central la parte del traspaso del día que no se ha consumido.
+     * Se considera que los peces consumen primero la comida propia del depósito y después la traspasada,
+     * así que el depósito nunca queda por encima de lo que tenía antes del traspaso.
+     *
+     * @param almacenCentral El almacén central al que se devuelve la comida.
+     */
+    public void liquidarTraspaso(AlmacenCentral almacenCentral) {
+        almacenCentral.getReservaAnimal().devolver(comidaAnimal.reservar(sobranteTraspaso(comidaAnimal, 0)));
+        almacenCentral.getReservaVegetal().devolver(comidaVegetal.reservar(sobranteTraspaso(comidaVegetal, 1)));
+        comidaTraspasada[0] = 0;
+        comidaTraspasada[1] = 0;
+    }
+
+    /**
+     * Calcula la parte no consumida del traspaso de un tipo de comida.
+     *
+     * @param reserva La comida del depósito de ese tipo.
+     * @param tipo    0 para la comida animal y 1 para la vegetal.
+     * @return unidades del traspaso que no se han consumido.
+     */
+    private int sobranteTraspaso(ReservaComida reserva, int tipo) {
+        int consumida = comidaPropia[tipo] + comidaTraspasada[tipo] - reserva.getCantidad();
+        return comidaTraspasada[tipo] - Math.max(consumida - comidaPropia[tipo], 0);
+    }
+
+    /**
+     * Alimenta a los peces de todos los tanques con la comida de la piscifactoría.
+     * Primero comen los tanques de carnívoros y filtradores y después los de omnívoros, que toman lo que quede
+     * de cualquiera de los dos tipos, como se prevé al aprovisionar. Cada tanque usa el mismo flujo de aleatorios
+     * que le toca por su posición, coma cuando coma.
+     * Solo usa el propio depósito, al que ya se ha traspasado lo previsto del almacén central,
+     * así que varias piscifactorías pueden alimentarse a la vez.
+     *
+     * @param indice Posición de la piscifactoría en el simulador, que identifica su flujo de aleatorios
+     *               aunque haya otra con el mismo nombre.
+     * @param dia    Día de la simulación, del que se derivan los aleatorios de cada tanque.
+     */
+    public void alimentar(int indice, int dia) {
+        SplittableRandom rand = Aleatorio.flujo("piscifactoria/" + indice + "/alimentacion", dia);
+        SplittableRandom[] flujos = new SplittableRandom[tanques.size()];
+        for (int i = 0; i < flujos.length; i++) {
+            flujos[i] = rand.split();
+        }
+        for (boolean omnivoros : new boolean[] { false, true }) {
+            for (int i = 0; i < flujos.length; i++) {
+                Especie especie = tanques.get(i).getEspecie();
+                if ((especie != null && especie.getDieta() == Especie.Dieta.OMNIVORO) == omnivoros) {
+                    alimentarPeces(tanques.get(i), flujos[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hace avanzar el ciclo de vida en la piscifactoría, actualizando el estado de los peces ya alimentados.
+     * Solo modifica la propia piscifactoría, así que varias pueden avanzar el día a la vez.
      * 
-     * @return Un arreglo con el número de peces vendidos y las monedas ganadas durante el día.
+     * @param indice Posición de la piscifactoría en el simulador, que identifica su flujo de aleatorios.
+     * @param dia    Día de la simulación, del que se derivan los aleatorios de cada tanque.
+     * @return El resultado del día con las ventas, nacimientos y peces muertos de todos los tanques.
      */
-    public int[] nextDay() {
-        int pecesVendidos = 0;
-        int monedasGanadas = 0;
+    public ResultadoDia nextDay(int indice, int dia) {
+        ResultadoDia resultado = new ResultadoDia();
+        SplittableRandom rand = Aleatorio.flujo("piscifactoria/" + indice + "/crecimiento", dia);
     
         for (Tanque tanque : tanques) {
-            alimentarPeces(tanque);
-            int[] resultadoTanque = tanque.nextDay();
-            pecesVendidos += resultadoTanque[0];
-            monedasGanadas += resultadoTanque[1];
+            tanque.nextDay(resultado, rand.split());
         }
     
-        return new int[]{pecesVendidos, monedasGanadas};
+        return resultado;
     }
     
     /** Mejora el almacén de comida aumentando su capacidad máxima. */
@@ -153,26 +278,10 @@ public abstract class Piscifactoria {
      * Alimenta a los peces en un tanque específico.
      *
      * @param tanque El tanque del que se alimentarán los peces.
+     * @param rand   Generador de aleatorios del tanque.
      */
-    private void alimentarPeces(Tanque tanque) {
-
-        for (Pez pez : tanque.getPeces()) {
-            if (pez.isVivo()) {
-                if (pez instanceof Omnivoro) {
-                    if (this.cantidadComidaAnimal >= this.cantidadComidaVegetal) {
-                        this.cantidadComidaAnimal -= pez.alimentar(this.cantidadComidaAnimal, this.cantidadComidaVegetal);
-                    } else {
-                        this.cantidadComidaVegetal -= pez.alimentar(this.cantidadComidaAnimal, this.cantidadComidaVegetal);
-                    }
-                } else if (pez instanceof Filtrador) {
-                    this.cantidadComidaVegetal -= pez.alimentar(this.cantidadComidaAnimal, this.cantidadComidaVegetal);
-                } else if (pez instanceof Carnivoro) {
-                    this.cantidadComidaAnimal -= pez.alimentar(this.cantidadComidaAnimal, this.cantidadComidaVegetal);
-                } else if (pez instanceof CarnivoroActivo) {
-                    this.cantidadComidaAnimal -= pez.alimentar(this.cantidadComidaAnimal, this.cantidadComidaVegetal);
-                }
-            }
-        }
+    private void alimentarPeces(Tanque tanque, SplittableRandom rand) {
+        tanque.alimentar(comidaAnimal, comidaVegetal, rand);
     }
 
     /**
@@ -190,11 +299,11 @@ public abstract class Piscifactoria {
             while (iterator.hasNext()) {
                 Pez pez = iterator.next();
     
-                if (pez.getEdad() >= pez.getDatos().getMadurez() && pez.isVivo()) {
-                    Simulador.monedas.ganarMonedas(pez.getDatos().getMonedas());
-                    Simulador.instance.estadisticas.registrarVenta(pez.getNombre(), pez.getDatos().getMonedas());
+                if (pez.getEdad() >= pez.getEspecie().getMadurez() && pez.isVivo()) {
+                    Simulador.monedas.ganarMonedas(pez.getEspecie().getMonedas());
+                    Simulador.instance.estadisticas.registrarVenta(pez.getNombre(), pez.getEspecie().getMonedas());
     
-                    totalDinero += (pez.getDatos().getMonedas() / 2);
+                    totalDinero += (pez.getEspecie().getMonedas() / 2);
                     pecesVendidos++;
     
                     iterator.remove();
@@ -215,9 +324,7 @@ public abstract class Piscifactoria {
      * @return true si se añadió la comida, false si no se pudo añadir.
      */
     public boolean añadirComidaAnimal(int cantidad) {
-        int nuevaCantidad = cantidadComidaAnimal + cantidad;
-        if (cantidad >= 0 && nuevaCantidad <= capacidadMaximaComida) {
-            cantidadComidaAnimal = nuevaCantidad;
+        if (cantidad >= 0 && comidaAnimal.depositarExacta(cantidad, capacidadMaximaComida)) {
             return true;
         } else {
             System.out.println("\nNo se puede añadir la cantidad de comida animal: excede la capacidad.");
@@ -232,9 +339,7 @@ public abstract class Piscifactoria {
      * @return true si se añadió la comida, false si no se pudo añadir.
      */
     public boolean añadirComidaVegetal(int cantidad) {
-        int nuevaCantidad = cantidadComidaVegetal + cantidad;
-        if (cantidad >= 0 && nuevaCantidad <= capacidadMaximaComida) {
-            cantidadComidaVegetal = nuevaCantidad;          
+        if (cantidad >= 0 && comidaVegetal.depositarExacta(cantidad, capacidadMaximaComida)) {
             return true;
         } else {
             System.out.println("\nNo se puede añadir la cantidad de comida vegetal: excede la capacidad.");
@@ -294,7 +399,7 @@ public abstract class Piscifactoria {
      * @return La cantidad actual de comida vegetal.
      */
     public int getComidaVegetalActual() {
-        return cantidadComidaVegetal;
+        return comidaVegetal.getCantidad();
     }
 
     /**
@@ -303,11 +408,7 @@ public abstract class Piscifactoria {
      * @param cantidadComidaVegetal la cantidad de comida vegetal a asignar.
      */
     public void setCantidadComidaVegetal(int cantidadComidaVegetal) {
-        if (cantidadComidaVegetal > capacidadMaximaComida) {
-            this.cantidadComidaVegetal = capacidadMaximaComida;
-        } else {
-            this.cantidadComidaVegetal = cantidadComidaVegetal;
-        }
+        comidaVegetal.setCantidad(Math.min(cantidadComidaVegetal, capacidadMaximaComida));
     }
 
     /**
@@ -316,7 +417,7 @@ public abstract class Piscifactoria {
      * @return La cantidad actual de comida animal.
      */
     public int getComidaAnimalActual() {
-        return cantidadComidaAnimal;
+        return comidaAnimal.getCantidad();
     }
 
     /**
@@ -325,11 +426,7 @@ public abstract class Piscifactoria {
      * @param cantidadComidaAnimal la cantidad de comida animal a asignar.
      */
     public void setCantidadComidaAnimal(int cantidadComidaAnimal) {
-        if (cantidadComidaAnimal > capacidadMaximaComida) {
-            this.cantidadComidaVegetal = capacidadMaximaComida;
-        } else {
-            this.cantidadComidaAnimal = cantidadComidaAnimal;
-        }
+        comidaAnimal.setCantidad(Math.min(cantidadComidaAnimal, capacidadMaximaComida));
     }
 
     /**
@@ -340,7 +437,7 @@ public abstract class Piscifactoria {
     public int getTotalPeces() {
         int totalPeces = 0;
         for (Tanque tanque : tanques) {
-            totalPeces += tanque.getPeces().size();
+            totalPeces += tanque.getOcupacion();
         }
         return totalPeces;
     }
@@ -0,0 +1,216 @@
+package piscifactoria;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import commons.FaseDia;
+import commons.SistemaMonedas;
+import edificios.GranjaLangostinos;
+import estadisticas.Estadisticas;
+import peces.Especie;
+import peces.RegistroEspecies;
+
+/**
+ * Resultado del día de una piscifactoría.
+ * Acumula las ventas, nacimientos, peces muertos recogidos y avisos de sus tanques sin tocar el estado compartido,
+ * de modo que varias piscifactorías pueden avanzar el día a la vez y después aplicar sus resultados en orden.
+ */
+public class ResultadoDia {
+
+    /** Número de peces vendidos. */
+    private int pecesVendidos = 0;
+
+    /** Monedas ganadas con las ventas. */
+    private int monedasGanadas = 0;
+
+    /** Peces muertos recogidos para la granja de langostinos. */
+    private int pecesMuertos = 0;
+
+    /** Peces vendidos por especie, indexados por el identificador de la especie. */
+    private final int[] ventas = new int[RegistroEspecies.total()];
+
+    /** Peces nacidos por especie, indexados por el identificador de la especie. */
+    private final int[] nacimientos = new int[RegistroEspecies.total()];
+
+    /** Mensajes a mostrar al aplicar el resultado, en el orden en que se produjeron. */
+    private final List<String> avisos = new ArrayList<>();
+
+    /** Nanosegundos dedicados a cada fase del día en los tanques, indexados por el ordinal de la fase. */
+    private final long[] nanosFase = new long[FaseDia.values().length];
+
+    /**
+     * Registra la venta de varios peces de una especie.
+     *
+     * @param especie  Especie de los peces.
+     * @param cantidad Número de peces vendidos.
+     */
+    public void registrarVentas(Especie especie, int cantidad) {
+        if (cantidad > 0) {
+            ventas[especie.getId()] += cantidad;
+            pecesVendidos += cantidad;
+            monedasGanadas += especie.getMonedas() * cantidad;
+        }
+    }
+
+    /**
+     * Registra el nacimiento de varios peces de una especie.
+     *
+     * @param especie  Especie de los peces.
+     * @param cantidad Número de peces nacidos.
+     */
+    public void registrarNacimientos(Especie especie, int cantidad) {
+        if (cantidad > 0) {
+            nacimientos[especie.getId()] += cantidad;
+        }
+    }
+
+    /**
+     * Registra peces muertos recogidos para la granja de langostinos.
+     *
+     * @param cantidad Número de peces muertos.
+     */
+    public void registrarMuertos(int cantidad) {
+        pecesMuertos += cantidad;
+    }
+
+    /**
+     * Guarda un mensaje para mostrarlo al aplicar el resultado.
+     *
+     * @param mensaje El mensaje a mostrar.
+     */
+    public void avisar(String mensaje) {
+        avisos.add(mensaje);
+    }
+
+    /**
+     * Suma a una fase el tiempo transcurrido desde un instante.
+     *
+     * @param fase   La fase que acaba de terminar.
+     * @param inicio Instante en que empezó la fase, en nanosegundos.
+     * @return Instante actual, en que empieza la siguiente fase.
+     */
+    public long medir(FaseDia fase, long inicio) {
+        long fin = System.nanoTime();
+        nanosFase[fase.ordinal()] += fin - inicio;
+        return fin;
+    }
+
+    /**
+     * Suma a este resultado las ventas, nacimientos, peces muertos y tiempos de otro, sin sus avisos.
+     *
+     * @param otro El resultado a sumar.
+     */
+    public void sumar(ResultadoDia otro) {
+        for (int id = 0; id < ventas.length; id++) {
+            registrarVentas(RegistroEspecies.get(id), otro.ventas[id]);
+            registrarNacimientos(RegistroEspecies.get(id), otro.nacimientos[id]);
+        }
+        registrarMuertos(otro.pecesMuertos);
+        for (int i = 0; i < nanosFase.length; i++) {
+            nanosFase[i] += otro.nanosFase[i];
+        }
+    }
+
+    /**
+     * Aplica el resultado al estado compartido: muestra los avisos, entrega los peces muertos a la granja de langostinos,
+     * suma las monedas y registra nacimientos y ventas en las estadísticas.
+     *
+     * @param monedas          Sistema de monedas donde se suman las ganancias.
+     * @param estadisticas     Estadísticas donde se registran nacimientos y ventas.
+     * @param granjaLangostinos Granja que recibe los peces muertos, o null si no existe.
+     * @param mostrar          true para mostrar por consola los avisos y los peces muertos entregados.
+     */
+    public void aplicar(SistemaMonedas monedas, Estadisticas estadisticas, GranjaLangostinos granjaLangostinos, boolean mostrar) {
+        if (mostrar) {
+            for (String aviso : avisos) {
+                System.out.println(aviso);
+            }
+        }
+        if (granjaLangostinos != null) {
+            granjaLangostinos.agregarPecesMuertos(pecesMuertos, mostrar);
+        }
+        monedas.ganarMonedas(monedasGanadas);
+
+        // Las estadísticas son de una librería externa que identifica las especies por nombre
+        for (int id = 0; id < nacimientos.length; id++) {
+            Especie especie = RegistroEspecies.get(id);
+            for (int i = 0; i < nacimientos[id]; i++) {
+                estadisticas.registrarNacimiento(especie.getNombre());
+            }
+            for (int i = 0; i < ventas[id]; i++) {
+                estadisticas.registrarVenta(especie.getNombre(), especie.getMonedas());
+            }
+        }
+    }
+
+    /**
+     * Devuelve el número de peces vendidos.
+     *
+     * @return número de peces vendidos.
+     */
+    public int getPecesVendidos() {
+        return pecesVendidos;
+    }
+
+    /**
+     * Devuelve las monedas ganadas con las ventas.
+     *
+     * @return monedas ganadas.
+     */
+    public int getMonedasGanadas() {
+        return monedasGanadas;
+    }
+
+    /**
+     * Devuelve los peces vendidos por especie, junto a las monedas que vale cada uno.
+     *
+     * @return mapa de solo lectura con la cantidad vendida y las monedas por pez de cada especie con ventas.
+     */
+    public Map<String, int[]> getVentas() {
+        Map<String, int[]> mapa = new LinkedHashMap<>();
+        for (int id = 0; id < ventas.length; id++) {
+            if (ventas[id] > 0) {
+                Especie especie = RegistroEspecies.get(id);
+                mapa.put(especie.getNombre(), new int[] { ventas[id], especie.getMonedas() });
+            }
+        }
+        return Collections.unmodifiableMap(mapa);
+    }
+
+    /**
+     * Devuelve los peces nacidos por especie.
+     *
+     * @return mapa de solo lectura con los nacimientos de cada especie con nacimientos.
+     */
+    public Map<String, Integer> getNacimientos() {
+        Map<String, Integer> mapa = new LinkedHashMap<>();
+        for (int id = 0; id < nacimientos.length; id++) {
+            if (nacimientos[id] > 0) {
+                mapa.put(RegistroEspecies.get(id).getNombre(), nacimientos[id]);
+            }
+        }
+        return Collections.unmodifiableMap(mapa);
+    }
+
+    /**
+     * Devuelve el tiempo dedicado a una fase del día en los tanques.
+     *
+     * @param fase La fase a consultar.
+     * @return nanosegundos dedicados a la fase.
+     */
+    public long getNanos(FaseDia fase) {
+        return nanosFase[fase.ordinal()];
+    }
+
+    /**
+     * Devuelve el número de peces muertos recogidos.
+     *
+     * @return número de peces muertos.
+     */
+    public int getPecesMuertos() {
+        return pecesMuertos;
+    }
+}
@@ -220,6 +220,16 @@ class Logger {
         log("Fin del día " + dia + ".");
     }
 
+    /**
+     * Registra un avance rápido de varios días en la simulación.
+     * @param diaInicial Último día finalizado antes del avance.
+     * @param diaFinal Último día finalizado tras el avance.
+     * @param pedidosGenerados Pedidos automáticos generados durante el avance.
+     */
+    void logAvanceRapido(int diaInicial, int diaFinal, int pedidosGenerados) {
+        log("Avance rápido del día " + (diaInicial + 1) + " al día " + diaFinal + ", generados " + pedidosGenerados + " pedidos.");
+    }
+
     /**
      * Registra la adición de peces mediante una opción oculta.
      * @param nombrePiscifactoria Nombre de la piscifactoría afectada.
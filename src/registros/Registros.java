@@ -160,6 +160,24 @@ public class Registros {
         transcriptor.transcribirFinDelDia(dia, pecesDeRio, pecesDeMar, totalMonedasGanadas, monedasActuales);
     }
 
+    /**
+     * Registra y transcribe un único resumen para un avance rápido de varios días.
+     * @param diaInicial Último día finalizado antes del avance.
+     * @param diaFinal Último día finalizado tras el avance.
+     * @param pecesDeRio Cantidad de peces de río al terminar.
+     * @param pecesDeMar Cantidad de peces de mar al terminar.
+     * @param pecesVendidos Peces vendidos durante el avance.
+     * @param totalMonedasGanadas Total de monedas ganadas durante el avance.
+     * @param monedasActuales Monedas actuales tras el avance.
+     * @param pedidosGenerados Pedidos automáticos generados durante el avance.
+     */
+    public void registroAvanceRapido(int diaInicial, int diaFinal, int pecesDeRio, int pecesDeMar, int pecesVendidos,
+            int totalMonedasGanadas, int monedasActuales, int pedidosGenerados) {
+        logger.logAvanceRapido(diaInicial, diaFinal, pedidosGenerados);
+        transcriptor.transcribirAvanceRapido(diaInicial, diaFinal, pecesDeRio, pecesDeMar, pecesVendidos,
+                totalMonedasGanadas, monedasActuales, pedidosGenerados);
+    }
+
     /**
      * Registra y transcribe la adición de peces mediante una opción oculta.
      * @param nombrePiscifactoria Nombre de la piscifactoría afectada.
@@ -205,6 +205,26 @@ class Transcriptor {
         transcribir("-------------------------" + "\n>>> Inicio del día " + (dia + 1) + ".");
     }
 
+    /**
+     * Transcribe el resumen de un avance rápido de varios días.
+     * @param diaInicial Último día finalizado antes del avance.
+     * @param diaFinal Último día finalizado tras el avance.
+     * @param pecesDeRio Cantidad de peces de río al terminar.
+     * @param pecesDeMar Cantidad de peces de mar al terminar.
+     * @param pecesVendidos Peces vendidos durante el avance.
+     * @param totalMonedasGanadas Total de monedas ganadas durante el avance.
+     * @param monedasActuales Monedas actuales tras el avance.
+     * @param pedidosGenerados Pedidos automáticos generados durante el avance.
+     */
+    void transcribirAvanceRapido(int diaInicial, int diaFinal, int pecesDeRio, int pecesDeMar, int pecesVendidos,
+            int totalMonedasGanadas, int monedasActuales, int pedidosGenerados) {
+        transcribir("Avance rápido del día " + (diaInicial + 1) + " al día " + diaFinal + ".");
+        transcribir("Peces actuales: " + pecesDeRio + " de río y " + pecesDeMar + " de mar.");
+        transcribir(pecesVendidos + " peces vendidos, " + totalMonedasGanadas + " monedas ganadas por un total de " + monedasActuales + ".");
+        transcribir(pedidosGenerados + " pedidos generados.");
+        transcribir("-------------------------" + "\n>>> Inicio del día " + (diaFinal + 1) + ".");
+    }
+
     /**
      * Transcribe la adición de peces mediante una opción oculta.
      * @param nombrePiscifactoria Nombre de la piscifactoría afectada.
@@ -0,0 +1,506 @@
+package rendimiento;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import commons.Aleatorio;
+import commons.Simulador;
+import edificios.AlmacenCentral;
+import estadisticas.Estadisticas;
+import helpers.FileHelper;
+import peces.Pez;
+import peces.tipos.doble.Dorada;
+import peces.tipos.rio.PercaEuropea;
+import peces.tipos.rio.TilapiaDelNilo;
+import persistencia.GestorEstado;
+import piscifactoria.Piscifactoria;
+import piscifactoria.PiscifactoriaDeRio;
+import piscifactoria.ResultadoDia;
+import propiedades.PecesDatos;
+import registros.Registros;
+import tanque.ModoAlmacenamiento;
+import tanque.Tanque;
+
+/**
+ * Banco de pruebas de rendimiento de las partes más costosas de la simulación.
+ * Construye piscifactorías sintéticas con el número de peces indicado y mide, tras unas iteraciones de calentamiento,
+ * el rendimiento y los bytes reservados por operación de:
+ * el día de los tanques, el día completo de las piscifactorías con su alimentación, el reparto del almacén central,
+ * el guardado y la carga de la partida y los registros.
+ * Los resultados se escriben en un archivo JSON y se comparan con un archivo de referencia, si existe,
+ * marcando las pruebas cuyo rendimiento ha empeorado más de un 10 %.
+ * Escribe partidas y registros en las carpetas saves y logs del directorio de trabajo,
+ * así que conviene ejecutarlo desde un directorio aparte.
+ */
+public class BancoRendimiento {
+
+    /** Texto de ayuda con los argumentos admitidos. */
+    private static final String USO = "Uso: BancoRendimiento [--peces=1000,10000,...] [--iteraciones=N] [--calentamiento=N]"
+            + " [--almacenamiento=LISTA|COLUMNAR|COHORTES] [--resultados=RUTA] [--referencia=RUTA] [--guardar-referencia]";
+
+    /** Peces de cada tanque sintético. */
+    private static final int PECES_POR_TANQUE = 1000;
+
+    /** Tanques de cada piscifactoría sintética. */
+    private static final int TANQUES_POR_PISCIFACTORIA = 100;
+
+    /** Comida de cada piscifactoría sintética, suficiente para que no falte durante las pruebas. */
+    private static final int COMIDA_PISCIFACTORIA = 1_000_000_000;
+
+    /** Semilla con la que empieza cada iteración. */
+    private static final long SEMILLA = 1;
+
+    /** Monedas con las que empieza cada iteración. */
+    private static final int MONEDAS = 100;
+
+    /** Día que avanzan las pruebas del día, el primero de la partida. */
+    private static final int DIA = 1;
+
+    /** Empeoramiento del rendimiento respecto a la referencia a partir del que se marca una regresión. */
+    private static final double UMBRAL_REGRESION = 0.10;
+
+    /** Iteraciones medidas de cada prueba. */
+    private static int iteraciones = 10;
+
+    /** Iteraciones de calentamiento de cada prueba, que no se miden. */
+    private static int calentamiento = 3;
+
+    /** Resultados de las pruebas ejecutadas. */
+    private static final List<Resultado> resultados = new ArrayList<>();
+
+    /** Constructor privado, la clase solo tiene métodos estáticos. */
+    private BancoRendimiento() {
+    }
+
+    /** Operación que se mide, ejecutada una vez por iteración. */
+    @FunctionalInterface
+    private interface Operacion {
+
+        /**
+         * Ejecuta la operación medida.
+         *
+         * @throws Exception si la operación falla.
+         */
+        void ejecutar() throws Exception;
+    }
+
+    /** Operación que devuelve los nanosegundos de la parte que se quiere medir, para excluir lo que espera al terminar. */
+    @FunctionalInterface
+    private interface OperacionCronometrada {
+
+        /**
+         * Ejecuta la operación.
+         *
+         * @return nanosegundos de la parte medida.
+         * @throws Exception si la operación falla.
+         */
+        long ejecutar() throws Exception;
+    }
+
+    /**
+     * Resultado de una prueba.
+     *
+     * @param prueba       Nombre de la prueba.
+     * @param peces        Peces de las piscifactorías sintéticas.
+     * @param opsPorSegundo Operaciones por segundo.
+     * @param bytesPorOp   Bytes reservados por operación en el hilo de la prueba.
+     */
+    private record Resultado(String prueba, int peces, double opsPorSegundo, double bytesPorOp) {
+    }
+
+    /**
+     * Punto de entrada del banco de pruebas.
+     *
+     * @param args Argumentos de línea de comandos. Admite:
+     *             "--peces=" con los números de peces separados por comas (por defecto 1000,10000,100000),
+     *             "--iteraciones=N" y "--calentamiento=N" con las iteraciones de cada prueba,
+     *             "--almacenamiento=" con el modo de almacenamiento de los tanques,
+     *             "--resultados=RUTA" con el archivo de resultados (por defecto rendimiento/resultados.json),
+     *             "--referencia=RUTA" con el archivo de referencia (por defecto rendimiento/referencia.json) y
+     *             "--guardar-referencia" para guardar también los resultados como nueva referencia.
+     */
+    public static void main(String[] args) {
+        int[] tamaños = { 1_000, 10_000, 100_000 };
+        String rutaResultados = "rendimiento/resultados.json";
+        String rutaReferencia = "rendimiento/referencia.json";
+        boolean guardarReferencia = false;
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--peces=")) {
+                    String[] partes = arg.substring("--peces=".length()).split(",");
+                    tamaños = new int[partes.length];
+                    for (int i = 0; i < partes.length; i++) {
+                        tamaños[i] = Integer.parseInt(partes[i].trim());
+                    }
+                } else if (arg.startsWith("--iteraciones=")) {
+                    iteraciones = Integer.parseInt(arg.substring("--iteraciones=".length()));
+                } else if (arg.startsWith("--calentamiento=")) {
+                    calentamiento = Integer.parseInt(arg.substring("--calentamiento=".length()));
+                } else if (arg.startsWith("--almacenamiento=")) {
+                    Tanque.modoAlmacenamiento = ModoAlmacenamiento.valueOf(arg.substring("--almacenamiento=".length()).toUpperCase());
+                } else if (arg.startsWith("--resultados=")) {
+                    rutaResultados = arg.substring("--resultados=".length());
+                } else if (arg.startsWith("--referencia=")) {
+                    rutaReferencia = arg.substring("--referencia=".length());
+                } else if (arg.equals("--guardar-referencia")) {
+                    guardarReferencia = true;
+                } else {
+                    throw new IllegalArgumentException("Argumento desconocido: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USO);
+            System.exit(2);
+        }
+
+        Simulador simulador = new Simulador();
+        Simulador.instance = simulador;
+        FileHelper.crearCarpetas(new String[] {"logs", "saves", "transcripciones"});
+        simulador.registro = new Registros("rendimiento");
+        simulador.estadisticas = new Estadisticas(simulador.getPecesImplementados());
+
+        System.out.printf("%-34s %12s %16s %14s %16s%n", "Prueba", "Peces", "Ops/s", "ms/op", "Bytes/op");
+        try {
+            for (int peces : tamaños) {
+                probarSimulacion(simulador, peces);
+            }
+            probarRegistros(simulador);
+
+            JsonArray json = aJson();
+            escribir(json, rutaResultados);
+            if (guardarReferencia) {
+                escribir(json, rutaReferencia);
+            } else {
+                comparar(rutaReferencia);
+            }
+        } catch (Exception e) {
+            simulador.registro.registroLogError("Error en el banco de rendimiento: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            simulador.registro.closeLogError();
+        }
+    }
+
+    /**
+     * Ejecuta las pruebas que dependen del número de peces sobre piscifactorías sintéticas.
+     * Antes de cada iteración, también las de calentamiento, se vuelven a crear las piscifactorías y el estado
+     * del simulador, así que todas las iteraciones de todas las pruebas miden el mismo trabajo.
+     *
+     * @param simulador Simulador donde se montan las piscifactorías.
+     * @param peces     Número total de peces.
+     * @throws Exception si falla alguna prueba.
+     */
+    private static void probarSimulacion(Simulador simulador, int peces) throws Exception {
+        simulador.setNombreEntidad("rendimiento_" + peces);
+
+        medir("Tanque.nextDay", peces, () -> {
+            restablecer(simulador, peces);
+            List<Piscifactoria> piscifactorias = simulador.getPiscifactorias();
+            for (int i = 0; i < piscifactorias.size(); i++) {
+                piscifactorias.get(i).alimentar(i, DIA);
+            }
+        }, () -> {
+            SplittableRandom rand = Aleatorio.flujo("rendimiento", DIA);
+            ResultadoDia resultado = new ResultadoDia();
+            for (Piscifactoria piscifactoria : simulador.getPiscifactorias()) {
+                for (Tanque tanque : piscifactoria.getTanques()) {
+                    tanque.nextDay(resultado, rand.split());
+                }
+            }
+        });
+
+        medir("Piscifactoria.nextDay", peces, () -> restablecer(simulador, peces), () -> {
+            List<Piscifactoria> piscifactorias = simulador.getPiscifactorias();
+            for (int i = 0; i < piscifactorias.size(); i++) {
+                piscifactorias.get(i).alimentar(i, DIA);
+                piscifactorias.get(i).nextDay(i, DIA);
+            }
+        });
+
+        medir("AlmacenCentral.distribuirComida", peces, () -> {
+            restablecer(simulador, peces);
+            for (Piscifactoria piscifactoria : simulador.getPiscifactorias()) {
+                piscifactoria.setCantidadComidaAnimal(piscifactoria.getCapacidadMaximaComida() / 2);
+                piscifactoria.setCantidadComidaVegetal(piscifactoria.getCapacidadMaximaComida() / 2);
+            }
+            simulador.almacenCentral = new AlmacenCentral(Integer.MAX_VALUE, COMIDA_PISCIFACTORIA, COMIDA_PISCIFACTORIA);
+        }, () -> simulador.almacenCentral.distribuirComida(simulador.getPiscifactorias()));
+
+        // El guardado se escribe en segundo plano: se mide lo que espera la simulación y el guardado completo
+        medir("GestorEstado.guardarEstado", peces, () -> restablecer(simulador, peces), () -> {
+            long inicio = System.nanoTime();
+            GestorEstado.guardarEstado(simulador);
+            long nanos = System.nanoTime() - inicio;
+            GestorEstado.esperarGuardados();
+            return nanos;
+        });
+        medir("GestorEstado.guardarEstado+escritura", peces, () -> restablecer(simulador, peces), () -> {
+            GestorEstado.guardarEstado(simulador);
+            GestorEstado.esperarGuardados();
+        });
+
+        // Todas las iteraciones cargan la misma partida, guardada con las piscifactorías recién creadas
+        restablecer(simulador, peces);
+        GestorEstado.guardarEstado(simulador);
+        GestorEstado.esperarGuardados();
+        medir("GestorEstado.load", peces, () -> restablecer(simulador, peces),
+                () -> GestorEstado.load(simulador, simulador.getNombreEntidad()));
+
+        new File("saves/" + simulador.getNombreEntidad() + ".save").delete();
+        simulador.getPiscifactorias().clear();
+    }
+
+    /**
+     * Mide el coste de los registros de la partida, que no depende del número de peces.
+     *
+     * @param simulador Simulador con los registros.
+     * @throws Exception si falla la prueba.
+     */
+    private static void probarRegistros(Simulador simulador) throws Exception {
+        Registros registro = simulador.registro;
+        medir("Registros (1000 entradas)", 0, () -> {
+            for (int i = 0; i < 500; i++) {
+                registro.registroVenderPeces(i, "Banco", i * 10);
+                registro.registroFinDelDia(i, i, i, i * 10, i * 100);
+            }
+        });
+    }
+
+    /**
+     * Devuelve el simulador y el estado global al comienzo de una iteración: la misma semilla, las mismas monedas,
+     * el primer día sin edificios ni estadísticas y piscifactorías sintéticas recién creadas.
+     *
+     * @param simulador Simulador donde se montan las piscifactorías.
+     * @param peces     Número total de peces.
+     */
+    private static void restablecer(Simulador simulador, int peces) {
+        Aleatorio.setSemilla(SEMILLA);
+        Simulador.monedas.setMonedas(MONEDAS);
+        simulador.setDia(DIA - 1);
+        simulador.almacenCentral = null;
+        simulador.granjaFitoplancton = null;
+        simulador.granjaLangostinos = null;
+        simulador.estadisticas = new Estadisticas(simulador.getPecesImplementados());
+        simulador.getPiscifactorias().clear();
+        simulador.getPiscifactorias().addAll(crearPiscifactorias(peces));
+    }
+
+    /**
+     * Crea piscifactorías de río con tanques llenos de peces de edades repartidas.
+     *
+     * @param peces Número total de peces.
+     * @return las piscifactorías creadas.
+     */
+    private static List<Piscifactoria> crearPiscifactorias(int peces) {
+        List<Piscifactoria> piscifactorias = new ArrayList<>();
+        SplittableRandom rand = new SplittableRandom(peces);
+        int tanques = Math.max(1, peces / PECES_POR_TANQUE);
+        Piscifactoria piscifactoria = null;
+        for (int t = 0; t < tanques; t++) {
+            if (t % TANQUES_POR_PISCIFACTORIA == 0) {
+                piscifactoria = new PiscifactoriaDeRio("Banco " + piscifactorias.size(), COMIDA_PISCIFACTORIA,
+                        COMIDA_PISCIFACTORIA, COMIDA_PISCIFACTORIA);
+                piscifactoria.getTanques().clear();
+                piscifactorias.add(piscifactoria);
+            }
+            int enTanque = Math.min(PECES_POR_TANQUE, peces - t * PECES_POR_TANQUE);
+            Tanque tanque = new Tanque(piscifactoria.getTanques().size() + 1, PECES_POR_TANQUE);
+            for (int i = 0; i < Math.max(enTanque, 0); i++) {
+                tanque.getPeces().add(crearPez(t % 3, i % 2 == 0, rand));
+            }
+            piscifactoria.getTanques().add(tanque);
+        }
+        return piscifactorias;
+    }
+
+    /**
+     * Crea un pez de una de las especies de prueba con una edad aleatoria anterior a la óptima.
+     *
+     * @param especie Índice de la especie: 0 filtrador, 1 carnívoro activo, 2 omnívoro.
+     * @param sexo    true para macho, false para hembra.
+     * @param rand    Generador de aleatorios.
+     * @return el pez creado.
+     */
+    private static Pez crearPez(int especie, boolean sexo, SplittableRandom rand) {
+        Pez pez = switch (especie) {
+            case 0 -> new TilapiaDelNilo(sexo);
+            case 1 -> new PercaEuropea(sexo);
+            default -> new Dorada(sexo);
+        };
+        PecesDatos datos = pez.getDatos();
+        pez.setEdad(rand.nextInt(datos.getOptimo()));
+        pez.setCiclo(1 + rand.nextInt(datos.getCiclo()));
+        return pez;
+    }
+
+    /**
+     * Mide una operación cuya duración completa se cuenta.
+     *
+     * @param prueba    Nombre de la prueba.
+     * @param peces     Peces de la prueba.
+     * @param preparar  Preparación de cada iteración, que no se mide.
+     * @param operacion Operación a medir.
+     * @throws Exception si falla la operación.
+     */
+    private static void medir(String prueba, int peces, Operacion preparar, Operacion operacion) throws Exception {
+        medir(prueba, peces, preparar, () -> {
+            long inicio = System.nanoTime();
+            operacion.ejecutar();
+            return System.nanoTime() - inicio;
+        });
+    }
+
+    /**
+     * Mide una operación sin preparación, cuya duración completa se cuenta.
+     *
+     * @param prueba    Nombre de la prueba.
+     * @param peces     Peces de la prueba.
+     * @param operacion Operación a medir.
+     * @throws Exception si falla la operación.
+     */
+    private static void medir(String prueba, int peces, Operacion operacion) throws Exception {
+        medir(prueba, peces, () -> {
+        }, operacion);
+    }
+
+    /**
+     * Calienta y mide una operación, muestra su resultado y lo guarda.
+     * La preparación se ejecuta antes de cada iteración, también las de calentamiento,
+     * y ni su tiempo ni los bytes que reserva cuentan en el resultado.
+     *
+     * @param prueba    Nombre de la prueba.
+     * @param peces     Peces de la prueba.
+     * @param preparar  Preparación de cada iteración, que no se mide.
+     * @param operacion Operación a medir.
+     * @throws Exception si falla la operación.
+     */
+    private static void medir(String prueba, int peces, Operacion preparar, OperacionCronometrada operacion) throws Exception {
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < calentamiento; i++) {
+            preparar.ejecutar();
+            operacion.ejecutar();
+        }
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < iteraciones; i++) {
+            preparar.ejecutar();
+            long reservadosAntes = hilos.getCurrentThreadAllocatedBytes();
+            nanos += operacion.ejecutar();
+            bytes += hilos.getCurrentThreadAllocatedBytes() - reservadosAntes;
+        }
+
+        Resultado resultado = new Resultado(prueba, peces, iteraciones / Math.max(nanos / 1e9, 1e-9),
+                (double) bytes / Math.max(iteraciones, 1));
+        resultados.add(resultado);
+        System.out.printf("%-34s %12d %16.2f %14.3f %16.0f%n", prueba, peces, resultado.opsPorSegundo(),
+                1000.0 / resultado.opsPorSegundo(), resultado.bytesPorOp());
+    }
+
+    /**
+     * Convierte los resultados a JSON.
+     *
+     * @return un array JSON con un objeto por resultado.
+     */
+    private static JsonArray aJson() {
+        JsonArray json = new JsonArray();
+        for (Resultado resultado : resultados) {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("prueba", resultado.prueba());
+            obj.addProperty("peces", resultado.peces());
+            obj.addProperty("almacenamiento", Tanque.modoAlmacenamiento.name());
+            obj.addProperty("opsPorSegundo", resultado.opsPorSegundo());
+            obj.addProperty("bytesPorOp", resultado.bytesPorOp());
+            json.add(obj);
+        }
+        return json;
+    }
+
+    /**
+     * Escribe los resultados en un archivo, creando su carpeta si no existe.
+     *
+     * @param json Resultados a escribir.
+     * @param ruta Ruta del archivo.
+     * @throws IOException si no se puede escribir.
+     */
+    private static void escribir(JsonArray json, String ruta) throws IOException {
+        File archivo = new File(ruta);
+        if (archivo.getParentFile() != null) {
+            archivo.getParentFile().mkdirs();
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(archivo), StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(json, writer);
+        }
+        System.out.println("\nResultados guardados en " + ruta);
+    }
+
+    /**
+     * Compara los resultados con los de un archivo de referencia y muestra la variación de cada prueba.
+     *
+     * @param ruta Ruta del archivo de referencia.
+     * @throws IOException si no se puede leer la referencia.
+     */
+    private static void comparar(String ruta) throws IOException {
+        File archivo = new File(ruta);
+        if (!archivo.isFile()) {
+            System.out.println("No hay referencia en " + ruta + ", usa --guardar-referencia para crearla.");
+            return;
+        }
+        Map<String, Double> referencia = new HashMap<>();
+        try (Reader reader = new FileReader(archivo, StandardCharsets.UTF_8)) {
+            for (JsonElement elemento : JsonParser.parseReader(reader).getAsJsonArray()) {
+                JsonObject obj = elemento.getAsJsonObject();
+                referencia.put(clave(obj.get("prueba").getAsString(), obj.get("peces").getAsInt(),
+                        obj.get("almacenamiento").getAsString()), obj.get("opsPorSegundo").getAsDouble());
+            }
+        }
+
+        int regresiones = 0;
+        System.out.println("\nComparación con " + ruta + ":");
+        for (Resultado resultado : resultados) {
+            Double anterior = referencia.get(clave(resultado.prueba(), resultado.peces(), Tanque.modoAlmacenamiento.name()));
+            if (anterior == null) {
+                continue;
+            }
+            double variacion = resultado.opsPorSegundo() / anterior - 1;
+            boolean regresion = variacion < -UMBRAL_REGRESION;
+            if (regresion) {
+                regresiones++;
+            }
+            System.out.printf("%-34s %12d %+8.1f %%%s%n", resultado.prueba(), resultado.peces(), variacion * 100,
+                    regresion ? "  REGRESIÓN" : "");
+        }
+        System.out.println(regresiones == 0 ? "Sin regresiones." : regresiones + " regresiones.");
+    }
+
+    /**
+     * Construye la clave con la que se identifica un resultado al compararlo con la referencia.
+     *
+     * @param prueba         Nombre de la prueba.
+     * @param peces          Peces de la prueba.
+     * @param almacenamiento Modo de almacenamiento de los tanques.
+     * @return la clave del resultado.
+     */
+    private static String clave(String prueba, int peces, String almacenamiento) {
+        return prueba + "|" + peces + "|" + almacenamiento;
+    }
+}
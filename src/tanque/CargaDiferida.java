@@ -0,0 +1,76 @@
+package tanque;
+
+import java.util.List;
+
+import peces.Especie;
+import peces.Pez;
+
+/**
+ * Peces de un tanque que todavía no se han cargado en memoria.
+ * El tanque los carga la primera vez que se necesitan y, mientras tanto, responde a la especie y a los recuentos con los de la carga.
+ */
+public interface CargaDiferida {
+
+    /**
+     * Crea los peces y los añade a la lista de peces del tanque.
+     *
+     * @param destino Lista de peces del tanque.
+     */
+    void cargar(List<Pez> destino);
+
+    /**
+     * Devuelve la especie de los peces.
+     *
+     * @return la especie de los peces.
+     */
+    Especie getEspecie();
+
+    /**
+     * Devuelve el número de peces.
+     *
+     * @return número de peces.
+     */
+    int getPeces();
+
+    /**
+     * Devuelve el número de machos.
+     *
+     * @return número de machos.
+     */
+    int getMachos();
+
+    /**
+     * Devuelve el número de hembras.
+     *
+     * @return número de hembras.
+     */
+    int getHembras();
+
+    /**
+     * Devuelve el número de peces fértiles.
+     *
+     * @return número de peces fértiles.
+     */
+    int getFertiles();
+
+    /**
+     * Devuelve el número de peces vivos.
+     *
+     * @return número de peces vivos.
+     */
+    int getVivos();
+
+    /**
+     * Devuelve el número de peces alimentados.
+     *
+     * @return número de peces alimentados.
+     */
+    int getAlimentados();
+
+    /**
+     * Devuelve el número de peces maduros.
+     *
+     * @return número de peces maduros.
+     */
+    int getMaduros();
+}
@@ -0,0 +1,135 @@
+package tanque;
+
+import peces.Pez;
+
+/** Recuentos de los peces de una población según su estado, actualizados en cada cambio de estado. */
+public class Contadores {
+
+    /** Número de machos. */
+    private int machos;
+
+    /** Número de hembras. */
+    private int hembras;
+
+    /** Número de peces fértiles. */
+    private int fertiles;
+
+    /** Número de peces vivos. */
+    private int vivos;
+
+    /** Número de peces alimentados. */
+    private int alimentados;
+
+    /** Número de peces maduros. */
+    private int maduros;
+
+    /**
+     * Suma un pez a los recuentos.
+     *
+     * @param pez el pez a sumar.
+     */
+    public void sumar(Pez pez) {
+        actualizar(pez.isSexo(), pez.isVivo(), pez.isFertil(), pez.isMaduro(), pez.isAlimentado(), 1);
+    }
+
+    /**
+     * Resta un pez de los recuentos.
+     *
+     * @param pez el pez a restar.
+     */
+    public void restar(Pez pez) {
+        actualizar(pez.isSexo(), pez.isVivo(), pez.isFertil(), pez.isMaduro(), pez.isAlimentado(), -1);
+    }
+
+    /**
+     * Suma o resta a los recuentos un pez con el estado indicado.
+     *
+     * @param sexo       true si es macho, false si es hembra.
+     * @param vivo       true si está vivo.
+     * @param fertil     true si es fértil.
+     * @param maduro     true si es maduro.
+     * @param alimentado true si ha sido alimentado.
+     * @param cantidad   número de peces a sumar, negativo para restar.
+     */
+    public void actualizar(boolean sexo, boolean vivo, boolean fertil, boolean maduro, boolean alimentado, int cantidad) {
+        if (sexo) {
+            machos += cantidad;
+        } else {
+            hembras += cantidad;
+        }
+        if (vivo) {
+            vivos += cantidad;
+        }
+        if (fertil) {
+            fertiles += cantidad;
+        }
+        if (maduro) {
+            maduros += cantidad;
+        }
+        if (alimentado) {
+            alimentados += cantidad;
+        }
+    }
+
+    /** Pone todos los recuentos a cero. */
+    public void reiniciar() {
+        machos = 0;
+        hembras = 0;
+        fertiles = 0;
+        vivos = 0;
+        alimentados = 0;
+        maduros = 0;
+    }
+
+    /**
+     * Comprueba si los recuentos coinciden con los de otro bloque de contadores.
+     *
+     * @param otro los contadores con los que comparar.
+     * @return true si todos los recuentos son iguales.
+     */
+    public boolean coincide(Contadores otro) {
+        return machos == otro.machos && hembras == otro.hembras && fertiles == otro.fertiles
+                && vivos == otro.vivos && alimentados == otro.alimentados && maduros == otro.maduros;
+    }
+
+    /** @return número de machos. */
+    public int getMachos() {
+        return machos;
+    }
+
+    /** @return número de hembras. */
+    public int getHembras() {
+        return hembras;
+    }
+
+    /** @return número de peces fértiles. */
+    public int getFertiles() {
+        return fertiles;
+    }
+
+    /** @return número de peces vivos. */
+    public int getVivos() {
+        return vivos;
+    }
+
+    /** @return número de peces alimentados. */
+    public int getAlimentados() {
+        return alimentados;
+    }
+
+    /** @return número de peces maduros. */
+    public int getMaduros() {
+        return maduros;
+    }
+
+    /**
+     * Devuelve una representación en cadena de los recuentos.
+     *
+     * @return una cadena con todos los recuentos.
+     */
+    @Override
+    public String toString() {
+        return "[machos=" + machos + ", hembras=" + hembras + ", fertiles=" + fertiles + ", vivos=" + vivos
+                + ", alimentados=" + alimentados + ", maduros=" + maduros + "]";
+    }
+}
@@ -0,0 +1,14 @@
+package tanque;
+
+/** Formas disponibles de almacenar en memoria los peces de un tanque. */
+public enum ModoAlmacenamiento {
+
+    /** Una lista de objetos Pez, uno por cada pez del tanque. */
+    LISTA,
+
+    /** Arrays paralelos de tipos primitivos con el estado de cada pez. */
+    COLUMNAR,
+
+    /** Grupos de peces con el mismo estado, guardados como estado y número de peces. */
+    COHORTES
+}
@@ -0,0 +1,206 @@
+package tanque;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import commons.PrevisionComida;
+import commons.ReservaComida;
+import peces.Especie;
+import peces.Pez;
+import piscifactoria.ResultadoDia;
+import propiedades.PecesDatos;
+
+/**
+ * Almacenamiento de los peces de un tanque.
+ * Cada implementación decide cómo se guardan los peces en memoria y ejecuta
+ * sobre esa representación las fases del día que recorren a toda la población.
+ * Los recuentos por estado se mantienen al día en cada crecimiento, alimentación,
+ * nacimiento, venta, muerte o retirada, de modo que consultarlos no recorre los peces.
+ */
+public abstract class Poblacion {
+
+    /** Si es true, cada consulta de los contadores se contrasta con un recuento completo de la población. */
+    public static boolean verificarContadores = false;
+
+    /** Recuentos por estado, actualizados en cada cambio de estado de los peces. */
+    protected final Contadores contadores = new Contadores();
+
+    /**
+     * Devuelve el número de peces almacenados, vivos o muertos.
+     *
+     * @return número de peces almacenados.
+     */
+    public abstract int size();
+
+    /**
+     * Devuelve los peces como una lista de objetos Pez.
+     * Los cambios de estado de un pez deben hacerse a través del tanque,
+     * la lista solo garantiza añadir, consultar y eliminar peces.
+     *
+     * @return lista de peces.
+     */
+    public abstract List<Pez> getPeces();
+
+    /**
+     * Devuelve la especie almacenada.
+     *
+     * @return la especie, o null si no hay peces.
+     */
+    public abstract Especie getEspecie();
+
+    /**
+     * Devuelve los datos de la especie almacenada.
+     *
+     * @return datos de la especie, o null si no hay peces.
+     */
+    public PecesDatos getDatos() {
+        Especie especie = getEspecie();
+        return especie != null ? especie.getDatos() : null;
+    }
+
+    /**
+     * Hace crecer un día a todos los peces vivos.
+     *
+     * @param rand Generador de aleatorios del tanque para la mortalidad del día.
+     */
+    public abstract void crecer(SplittableRandom rand);
+
+    /**
+     * Alimenta a los peces vivos con la comida disponible de la piscifactoría.
+     *
+     * @param comidaAnimal  Comida animal de la piscifactoría, de la que se descuenta lo consumido.
+     * @param comidaVegetal Comida vegetal de la piscifactoría, de la que se descuenta lo consumido.
+     * @param rand          Generador de aleatorios del tanque.
+     */
+    public abstract void alimentar(ReservaComida comidaAnimal, ReservaComida comidaVegetal, SplittableRandom rand);
+
+    /**
+     * Suma a una previsión la comida que consumirán en un día los peces vivos.
+     *
+     * @param prevision Previsión a la que se suma el consumo.
+     */
+    public void preverDemanda(PrevisionComida prevision) {
+        int vivos = contadores.getVivos();
+        if (vivos > 0) {
+            getEspecie().preverDemanda(vivos, prevision);
+        }
+    }
+
+    /**
+     * Elimina los peces muertos.
+     *
+     * @return número de peces eliminados.
+     */
+    public abstract int retirarMuertos();
+
+    /**
+     * Reproduce a las hembras fértiles si hay algún macho fértil, sin superar la capacidad dada.
+     *
+     * @param capacidadMaxima número máximo de peces que puede haber tras la reproducción.
+     * @param resultado       resultado del día donde se avisa si se alcanza la capacidad.
+     * @return número de peces nacidos.
+     */
+    public abstract int reproducir(int capacidadMaxima, ResultadoDia resultado);
+
+    /**
+     * Elimina los peces vivos que han alcanzado la edad óptima de venta.
+     *
+     * @return número de peces eliminados.
+     */
+    public abstract int retirarOptimos();
+
+    /**
+     * Recuenta el estado de todos los peces recorriendo la población completa.
+     *
+     * @return contadores calculados desde cero.
+     */
+    protected abstract Contadores recontar();
+
+    /**
+     * Si la verificación está activada, comprueba que los contadores mantenidos coinciden con un recuento completo.
+     *
+     * @throws IllegalStateException si los contadores no coinciden.
+     */
+    public void comprobarContadores() {
+        if (verificarContadores) {
+            Contadores recuento = recontar();
+            if (!recuento.coincide(contadores)) {
+                throw new IllegalStateException("Contadores de la población desincronizados: mantenidos "
+                        + contadores + ", recontados " + recuento);
+            }
+        }
+    }
+
+    /**
+     * Devuelve el número de machos.
+     *
+     * @return número de machos.
+     */
+    public int getMachos() {
+        comprobarContadores();
+        return contadores.getMachos();
+    }
+
+    /**
+     * Devuelve el número de hembras.
+     *
+     * @return número de hembras.
+     */
+    public int getHembras() {
+        comprobarContadores();
+        return contadores.getHembras();
+    }
+
+    /**
+     * Devuelve el número de peces fértiles.
+     *
+     * @return número de peces fértiles.
+     */
+    public int getFertiles() {
+        comprobarContadores();
+        return contadores.getFertiles();
+    }
+
+    /**
+     * Devuelve el número de peces vivos.
+     *
+     * @return número de peces vivos.
+     */
+    public int getVivos() {
+        comprobarContadores();
+        return contadores.getVivos();
+    }
+
+    /**
+     * Devuelve el número de peces alimentados.
+     *
+     * @return número de peces alimentados.
+     */
+    public int getAlimentados() {
+        comprobarContadores();
+        return contadores.getAlimentados();
+    }
+
+    /**
+     * Devuelve el número de peces maduros.
+     *
+     * @return número de peces maduros.
+     */
+    public int getMaduros() {
+        comprobarContadores();
+        return contadores.getMaduros();
+    }
+
+    /**
+     * Decide al recorrer los peces vivos si el actual se queda sin comer, eligiendo al azar y sin repetición
+     * a los hambrientos entre los que quedan por recorrer.
+     *
+     * @param restantes   Peces vivos que quedan por recorrer, incluido el actual.
+     * @param hambrientos Peces que aún hay que dejar sin comer.
+     * @param rand        Generador de aleatorios del tanque.
+     * @return true si el pez actual se queda sin comer.
+     */
+    protected static boolean quedaHambriento(int restantes, int hambrientos, SplittableRandom rand) {
+        return hambrientos > 0 && (hambrientos >= restantes || rand.nextInt(restantes) < hambrientos);
+    }
+}
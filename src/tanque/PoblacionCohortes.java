@@ -0,0 +1,592 @@
+package tanque;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import commons.ReservaComida;
+import peces.Especie;
+import peces.Pez;
+import piscifactoria.ResultadoDia;
+
+/**
+ * Población que agrupa en cohortes a los peces con exactamente el mismo estado.
+ * Cada cohorte guarda una edad, un ciclo y los indicadores de estado junto al número de peces que los comparten,
+ * de modo que el crecimiento, la mortalidad y la reproducción cuestan en función del número de cohortes
+ * y no del número de peces. La mortalidad de cada cohorte se obtiene con un único muestreo binomial.
+ * Todos los peces de la población son de la misma especie, la del pez que sirve de prototipo.
+ */
+public class PoblacionCohortes extends Poblacion {
+
+    /** Bit que indica que los peces están vivos. */
+    private static final byte VIVO = 1;
+
+    /** Bit que indica que los peces son fértiles. */
+    private static final byte FERTIL = 2;
+
+    /** Bit que indica que los peces son maduros. */
+    private static final byte MADURO = 4;
+
+    /** Bit que indica que los peces han sido alimentados. */
+    private static final byte ALIMENTADO = 8;
+
+    /** Bit que indica que los peces son machos. */
+    private static final byte SEXO = 16;
+
+    /** Por debajo de esta media el muestreo binomial se hace por inversión, por encima con la aproximación normal. */
+    private static final double LIMITE_INVERSION = 30;
+
+    /** Edad en días de los peces de cada cohorte. */
+    private int[] edad;
+
+    /** Ciclo reproductivo de los peces de cada cohorte. */
+    private int[] ciclo;
+
+    /** Indicadores de estado de cada cohorte empaquetados en un byte. */
+    private byte[] estado;
+
+    /** Número de peces de cada cohorte. */
+    private int[] cantidad;
+
+    /** Número de cohortes almacenadas, incluidas las que se han quedado sin peces. */
+    private int cohortes = 0;
+
+    /** Número total de peces. */
+    private int total = 0;
+
+    /** Posición de cada estado en los arrays, para sumar peces a la cohorte que ya lo tiene. */
+    private final Map<Long, Integer> indice = new HashMap<>();
+
+    /** Pez de la especie almacenada, usado para crear las vistas y alimentar, o null si no hay peces. */
+    private Pez prototipo;
+
+    /** Vista de los peces como objetos Pez. */
+    private final List<Pez> vista = new VistaPeces();
+
+    /** Última cohorte localizada por la vista, para recorrer la lista en orden sin volver a empezar. */
+    private int cursorCohorte = 0;
+
+    /** Posición en la vista del primer pez de la cohorte del cursor. */
+    private int cursorInicio = 0;
+
+    /** Crea una población vacía. */
+    public PoblacionCohortes() {
+        edad = new int[8];
+        ciclo = new int[8];
+        estado = new byte[8];
+        cantidad = new int[8];
+    }
+
+    /** Devuelve el número total de peces. */
+    @Override
+    public int size() {
+        return total;
+    }
+
+    /** Devuelve una vista que crea un objeto Pez con el estado de su cohorte al consultarlo. */
+    @Override
+    public List<Pez> getPeces() {
+        return vista;
+    }
+
+    /** Devuelve la especie del prototipo. */
+    @Override
+    public Especie getEspecie() {
+        return prototipo != null ? prototipo.getEspecie() : null;
+    }
+
+    /**
+     * Aplica las reglas de crecimiento de Pez.grow() a cada cohorte.
+     * Los peces que mueren de hambre o por la mortalidad juvenil se separan en una cohorte nueva.
+     */
+    @Override
+    public void crecer(SplittableRandom rand) {
+        if (total == 0) {
+            return;
+        }
+        int madurez = prototipo.getEspecie().getMadurez();
+        int cicloBase = prototipo.getEspecie().getCiclo();
+        int existentes = cohortes;
+
+        for (int c = 0; c < existentes; c++) {
+            byte e = estado[c];
+            int n = cantidad[c];
+            if ((e & VIVO) == 0 || n == 0) {
+                continue;
+            }
+            contar(e, -n);
+            if ((e & ALIMENTADO) == 0) {
+                int muertos = binomial(n, 0.5, rand);
+                if (muertos > 0) {
+                    anexar(edad[c], ciclo[c], (byte) (e & SEXO), muertos);
+                    n -= muertos;
+                }
+            }
+            if (n == 0) {
+                cantidad[c] = 0;
+                continue;
+            }
+
+            int ed = edad[c] + 1;
+            int ci = ciclo[c];
+            if ((e & SEXO) == 0) {
+                if (ed >= madurez && (e & MADURO) == 0) {
+                    e |= FERTIL | MADURO;
+                } else if (ed >= madurez) {
+                    if (--ci <= 0) {
+                        e |= FERTIL;
+                        ci = cicloBase;
+                    }
+                } else {
+                    e &= ~FERTIL;
+                }
+            } else if (ed >= madurez) {
+                e |= FERTIL | MADURO;
+            }
+
+            if (ed < madurez && ed % 2 == 0) {
+                int muertos = binomial(n, 0.05, rand);
+                if (muertos > 0) {
+                    anexar(ed, ci, (byte) (e & SEXO), muertos);
+                    n -= muertos;
+                }
+            }
+            edad[c] = ed;
+            ciclo[c] = ci;
+            estado[c] = e;
+            cantidad[c] = n;
+            contar(e, n);
+        }
+        reagrupar();
+    }
+
+    /**
+     * Alimenta de una vez a los peces vivos con la lógica de la especie y reparte al azar entre las cohortes
+     * a los que se quedan sin comer, que pasan a otra cohorte.
+     */
+    @Override
+    public void alimentar(ReservaComida comidaAnimal, ReservaComida comidaVegetal, SplittableRandom rand) {
+        int vivos = contadores.getVivos();
+        if (vivos == 0) {
+            return;
+        }
+        int hambrientos = vivos - getEspecie().alimentarVarios(vivos, comidaAnimal, comidaVegetal, rand);
+        int existentes = cohortes;
+
+        for (int c = 0; c < existentes; c++) {
+            byte e = estado[c];
+            int n = cantidad[c];
+            if ((e & VIVO) == 0 || n == 0) {
+                continue;
+            }
+            int sinComer = 0;
+            for (int i = 0; i < n && hambrientos > 0; i++) {
+                if (quedaHambriento(vivos - i, hambrientos, rand)) {
+                    hambrientos--;
+                    sinComer++;
+                }
+            }
+            vivos -= n;
+            contar(e, -n);
+            estado[c] = (byte) (e | ALIMENTADO);
+            cantidad[c] = n - sinComer;
+            contar(estado[c], n - sinComer);
+            if (sinComer > 0) {
+                anexar(edad[c], ciclo[c], (byte) (e & ~ALIMENTADO), sinComer);
+            }
+        }
+        reagrupar();
+    }
+
+    /** Elimina las cohortes de peces muertos. */
+    @Override
+    public int retirarMuertos() {
+        int retirados = 0;
+        for (int c = 0; c < cohortes; c++) {
+            if ((estado[c] & VIVO) == 0) {
+                retirados += vaciar(c);
+            }
+        }
+        total -= retirados;
+        reagrupar();
+        return retirados;
+    }
+
+    /**
+     * Hace nacer de golpe las crías de cada cohorte de hembras fértiles, repartiendo los sexos
+     * igual que si nacieran una a una, y avisa una sola vez si se alcanza la capacidad.
+     */
+    @Override
+    public int reproducir(int capacidadMaxima, ResultadoDia resultado) {
+        boolean hayMachoFertil = false;
+        for (int c = 0; c < cohortes && contadores.getFertiles() > 0; c++) {
+            if (cantidad[c] > 0 && (estado[c] & (SEXO | FERTIL)) == (SEXO | FERTIL)) {
+                hayMachoFertil = true;
+                break;
+            }
+        }
+        if (!hayMachoFertil) {
+            return 0;
+        }
+
+        long huevos = prototipo.getEspecie().getHuevos();
+        int existentes = cohortes;
+        int nacidos = 0;
+        boolean llena = false;
+
+        for (int c = 0; c < existentes; c++) {
+            int n = cantidad[c];
+            if (n > 0 && (estado[c] & (SEXO | FERTIL | VIVO)) == (FERTIL | VIVO)) {
+                long posibles = n * huevos;
+                int crias = (int) Math.min(posibles, Math.max(capacidadMaxima - total, 0));
+                if (crias < posibles) {
+                    llena = true;
+                }
+                nacer(crias);
+                nacidos += crias;
+
+                contar(estado[c], -n);
+                estado[c] &= ~FERTIL;
+                contar(estado[c], n);
+            }
+        }
+        if (llena) {
+            resultado.avisar("No hay espacio para añadir más peces. Capacidad máxima alcanzada.");
+        }
+        reagrupar();
+        return nacidos;
+    }
+
+    /** Elimina las cohortes de peces vivos en edad óptima de venta. */
+    @Override
+    public int retirarOptimos() {
+        if (total == 0) {
+            return 0;
+        }
+        int optimo = prototipo.getEspecie().getOptimo();
+        int retirados = 0;
+        for (int c = 0; c < cohortes; c++) {
+            if ((estado[c] & VIVO) != 0 && edad[c] >= optimo) {
+                retirados += vaciar(c);
+            }
+        }
+        total -= retirados;
+        reagrupar();
+        return retirados;
+    }
+
+    /** Recuenta el estado de los peces recorriendo las cohortes. */
+    @Override
+    protected Contadores recontar() {
+        Contadores recuento = new Contadores();
+        for (int c = 0; c < cohortes; c++) {
+            byte e = estado[c];
+            recuento.actualizar((e & SEXO) != 0, (e & VIVO) != 0, (e & FERTIL) != 0, (e & MADURO) != 0,
+                    (e & ALIMENTADO) != 0, cantidad[c]);
+        }
+        return recuento;
+    }
+
+    /**
+     * Suma o resta de los contadores varios peces con los indicadores dados.
+     *
+     * @param e        indicadores de estado de los peces.
+     * @param cantidad número de peces, negativo para restar.
+     */
+    private void contar(byte e, int cantidad) {
+        contadores.actualizar((e & SEXO) != 0, (e & VIVO) != 0, (e & FERTIL) != 0, (e & MADURO) != 0,
+                (e & ALIMENTADO) != 0, cantidad);
+    }
+
+    /**
+     * Añade las crías indicadas en dos cohortes nuevas de machos y hembras.
+     * Cada cría es macho solo si hay más hembras que machos, así que primero se igualan los sexos
+     * y después se alternan empezando por una hembra.
+     *
+     * @param crias número de crías.
+     */
+    private void nacer(int crias) {
+        if (crias <= 0) {
+            return;
+        }
+        int diferencia = contadores.getHembras() - contadores.getMachos();
+        int machos = diferencia > 0 ? Math.min(diferencia, crias) : 0;
+        int hembras = diferencia < 0 ? Math.min(-diferencia, crias) : 0;
+        int resto = crias - machos - hembras;
+        hembras += (resto + 1) / 2;
+        machos += resto / 2;
+
+        int cicloBase = prototipo.getEspecie().getCiclo();
+        if (machos > 0) {
+            anexar(0, cicloBase, (byte) (VIVO | SEXO), machos);
+        }
+        if (hembras > 0) {
+            anexar(0, cicloBase, VIVO, hembras);
+        }
+        total += crias;
+    }
+
+    /**
+     * Vacía una cohorte y resta sus peces de los contadores.
+     *
+     * @param c índice de la cohorte.
+     * @return número de peces que tenía la cohorte.
+     */
+    private int vaciar(int c) {
+        int n = cantidad[c];
+        contar(estado[c], -n);
+        cantidad[c] = 0;
+        return n;
+    }
+
+    /**
+     * Añade una cohorte al final de los arrays y suma sus peces a los contadores.
+     * No actualiza el total ni el índice, que se reconstruye en {@link #reagrupar()}.
+     *
+     * @param ed edad de los peces.
+     * @param ci ciclo de los peces.
+     * @param e  indicadores de estado de los peces.
+     * @param n  número de peces.
+     * @return índice de la nueva cohorte.
+     */
+    private int anexar(int ed, int ci, byte e, int n) {
+        if (cohortes == estado.length) {
+            int nuevaCapacidad = estado.length * 2;
+            edad = Arrays.copyOf(edad, nuevaCapacidad);
+            ciclo = Arrays.copyOf(ciclo, nuevaCapacidad);
+            estado = Arrays.copyOf(estado, nuevaCapacidad);
+            cantidad = Arrays.copyOf(cantidad, nuevaCapacidad);
+        }
+        edad[cohortes] = ed;
+        ciclo[cohortes] = ci;
+        estado[cohortes] = e;
+        cantidad[cohortes] = n;
+        contar(e, n);
+        return cohortes++;
+    }
+
+    /** Une las cohortes con el mismo estado, descarta las vacías y reconstruye el índice. */
+    private void reagrupar() {
+        indice.clear();
+        int destino = 0;
+        for (int c = 0; c < cohortes; c++) {
+            if (cantidad[c] == 0) {
+                continue;
+            }
+            Integer existente = indice.putIfAbsent(clave(edad[c], ciclo[c], estado[c]), destino);
+            if (existente != null) {
+                cantidad[existente] += cantidad[c];
+            } else {
+                edad[destino] = edad[c];
+                ciclo[destino] = ciclo[c];
+                estado[destino] = estado[c];
+                cantidad[destino] = cantidad[c];
+                destino++;
+            }
+        }
+        cohortes = destino;
+        if (total == 0) {
+            prototipo = null;
+        }
+        cursorCohorte = 0;
+        cursorInicio = 0;
+    }
+
+    /**
+     * Calcula la clave que identifica un estado dentro del índice.
+     * El ciclo ocupa 24 bits, suficiente para los ciclos reproductivos de todas las especies.
+     *
+     * @param ed edad de los peces.
+     * @param ci ciclo de los peces.
+     * @param e  indicadores de estado de los peces.
+     * @return la clave del estado.
+     */
+    private static long clave(int ed, int ci, byte e) {
+        return ((long) ed << 32) | ((ci & 0xFFFFFFL) << 8) | (e & 0xFF);
+    }
+
+    /**
+     * Obtiene el número de éxitos de n ensayos independientes con probabilidad p.
+     * Con pocos éxitos esperados se invierte la función de distribución con un único aleatorio,
+     * y con muchos se usa la aproximación normal.
+     *
+     * @param n    número de ensayos.
+     * @param p    probabilidad de éxito de cada ensayo.
+     * @param rand generador de aleatorios del tanque.
+     * @return número de éxitos, entre 0 y n.
+     */
+    private static int binomial(int n, double p, SplittableRandom rand) {
+        if (n <= 0) {
+            return 0;
+        }
+        double q = Math.min(p, 1 - p);
+        int exitos;
+        if (n * q < LIMITE_INVERSION) {
+            double razon = q / (1 - q);
+            double probabilidad = Math.pow(1 - q, n);
+            double u = rand.nextDouble();
+            exitos = 0;
+            while (u > probabilidad && exitos < n) {
+                u -= probabilidad;
+                exitos++;
+                probabilidad *= razon * (n - exitos + 1) / exitos;
+            }
+        } else {
+            double media = n * q;
+            double desviacion = Math.sqrt(media * (1 - q));
+            exitos = (int) Math.round(media + desviacion * rand.nextGaussian());
+            exitos = Math.max(0, Math.min(n, exitos));
+        }
+        return q == p ? exitos : n - exitos;
+    }
+
+    /**
+     * Comprueba que un pez es de la especie almacenada, y si no hay peces la adopta como prototipo.
+     *
+     * @param pez el pez a comprobar.
+     * @throws IllegalArgumentException si el pez es de otra especie.
+     */
+    private void comprobarEspecie(Pez pez) {
+        if (prototipo == null) {
+            prototipo = pez.clonar(false);
+        } else if (pez.getEspecie().getId() != prototipo.getEspecie().getId()) {
+            throw new IllegalArgumentException("Tipo de pez incompatible. Solo se pueden agregar peces de tipo: "
+                    + prototipo.getNombre());
+        }
+    }
+
+    /**
+     * Crea un objeto Pez con el estado de una cohorte.
+     *
+     * @param c índice de la cohorte.
+     * @return un pez nuevo con el estado de la cohorte.
+     */
+    private Pez materializar(int c) {
+        byte e = estado[c];
+        Pez pez = prototipo.clonar((e & SEXO) != 0);
+        pez.setEdad(edad[c]);
+        pez.setCiclo(ciclo[c]);
+        pez.setVivo((e & VIVO) != 0);
+        pez.setFertil((e & FERTIL) != 0);
+        pez.setMaduro((e & MADURO) != 0);
+        pez.setAlimentado((e & ALIMENTADO) != 0);
+        return pez;
+    }
+
+    /**
+     * Lista de objetos Pez respaldada por las cohortes.
+     * Los peces de una misma cohorte ocupan posiciones consecutivas, por lo que al añadir un pez
+     * se suma a la cohorte con su mismo estado y la posición indicada no se respeta.
+     */
+    private class VistaPeces extends AbstractList<Pez> {
+
+        /** Devuelve un pez nuevo con el estado de la cohorte que ocupa la posición indicada. */
+        @Override
+        public Pez get(int index) {
+            return materializar(localizar(index));
+        }
+
+        /** Devuelve el número total de peces. */
+        @Override
+        public int size() {
+            return total;
+        }
+
+        /** Sustituye el pez en la posición indicada por otro de la misma especie. */
+        @Override
+        public Pez set(int index, Pez pez) {
+            comprobarEspecie(pez);
+            Pez anterior = remove(index);
+            add(pez);
+            return anterior;
+        }
+
+        /** Suma el pez a la cohorte con su mismo estado, o crea una cohorte nueva si no existe. */
+        @Override
+        public void add(int index, Pez pez) {
+            if (index < 0 || index > total) {
+                throw new IndexOutOfBoundsException("Índice: " + index + ", tamaño: " + total);
+            }
+            comprobarEspecie(pez);
+            byte e = 0;
+            if (pez.isVivo()) {
+                e |= VIVO;
+            }
+            if (pez.isFertil()) {
+                e |= FERTIL;
+            }
+            if (pez.isMaduro()) {
+                e |= MADURO;
+            }
+            if (pez.isAlimentado()) {
+                e |= ALIMENTADO;
+            }
+            if (pez.isSexo()) {
+                e |= SEXO;
+            }
+            long clave = clave(pez.getEdad(), pez.getCiclo(), e);
+            Integer c = indice.get(clave);
+            if (c != null) {
+                cantidad[c]++;
+                contar(e, 1);
+                if (c < cursorCohorte) {
+                    cursorCohorte = 0;
+                    cursorInicio = 0;
+                }
+            } else {
+                indice.put(clave, anexar(pez.getEdad(), pez.getCiclo(), e, 1));
+            }
+            total++;
+            modCount++;
+        }
+
+        /** Quita un pez de la cohorte que ocupa la posición indicada y lo devuelve. */
+        @Override
+        public Pez remove(int index) {
+            int c = localizar(index);
+            Pez eliminado = materializar(c);
+            cantidad[c]--;
+            contar(estado[c], -1);
+            total--;
+            if (total == 0) {
+                reagrupar();
+            }
+            modCount++;
+            return eliminado;
+        }
+
+        /** Elimina todas las cohortes y pone los contadores a cero. */
+        @Override
+        public void clear() {
+            cohortes = 0;
+            total = 0;
+            reagrupar();
+            contadores.reiniciar();
+            modCount++;
+        }
+
+        /**
+         * Busca la cohorte que ocupa una posición de la lista, avanzando desde la última localizada.
+         *
+         * @param index posición en la lista.
+         * @return índice de la cohorte.
+         */
+        private int localizar(int index) {
+            if (index < 0 || index >= total) {
+                throw new IndexOutOfBoundsException("Índice: " + index + ", tamaño: " + total);
+            }
+            if (index < cursorInicio) {
+                cursorCohorte = 0;
+                cursorInicio = 0;
+            }
+            while (cursorInicio + cantidad[cursorCohorte] <= index) {
+                cursorInicio += cantidad[cursorCohorte];
+                cursorCohorte++;
+            }
+            return cursorCohorte;
+        }
+    }
+}
@@ -0,0 +1,713 @@
+package tanque;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import commons.ReservaComida;
+import peces.Especie;
+import peces.Pez;
+import piscifactoria.ResultadoDia;
+
+/**
+ * Población que guarda el estado de los peces en arrays paralelos de tipos primitivos.
+ * La edad y el ciclo ocupan un int cada uno y los cinco indicadores de estado se empaquetan en un byte,
+ * de forma que las fases del día recorren memoria contigua sin crear objetos Pez.
+ * Todos los peces de la población son de la misma especie, la del pez que sirve de prototipo.
+ * <p>
+ * Las transiciones deterministas de Pez.grow() (alcanzar la madurez, el fin del ciclo de las hembras
+ * y la edad óptima de venta) se programan en una rueda de eventos al añadir cada pez, así que cada día
+ * solo se tocan los peces con un evento pendiente, además de una pasada por todos los vivos para la mortalidad.
+ * Los peces vivos guardan su día de nacimiento en el reloj del tanque en lugar de su edad y las hembras maduras
+ * el día en que vence su ciclo, de modo que la edad y el ciclo avanzan sin escribir en los arrays.
+ * Cada fila tiene un identificador estable para que los eventos sigan apuntando al pez aunque se eliminen otras filas.
+ */
+public class PoblacionColumnar extends Poblacion {
+
+    /** Bit que indica que el pez está vivo. */
+    private static final byte VIVO = 1;
+
+    /** Bit que indica que el pez es fértil. */
+    private static final byte FERTIL = 2;
+
+    /** Bit que indica que el pez es maduro. */
+    private static final byte MADURO = 4;
+
+    /** Bit que indica que el pez ha sido alimentado. */
+    private static final byte ALIMENTADO = 8;
+
+    /** Bit que indica que el pez es macho. */
+    private static final byte SEXO = 16;
+
+    /** Evento en el que el pez alcanza la madurez. */
+    private static final int EVENTO_MADUREZ = 0;
+
+    /** Evento en el que vence el ciclo reproductivo de una hembra madura. */
+    private static final int EVENTO_CICLO = 1;
+
+    /** Evento en el que el pez alcanza la edad óptima de venta. */
+    private static final int EVENTO_OPTIMO = 2;
+
+    /** Día de nacimiento de cada pez vivo en el reloj del tanque, o edad en días de cada pez muerto. */
+    private int[] edad;
+
+    /** Día en que vence el ciclo de cada hembra madura viva, o ciclo reproductivo del resto de peces. */
+    private int[] ciclo;
+
+    /** Indicadores de estado de cada pez empaquetados en un byte. */
+    private byte[] estado;
+
+    /** Identificador estable del pez de cada fila. */
+    private int[] id;
+
+    /** Fila de cada identificador, o -1 si el identificador está libre. */
+    private int[] fila = new int[0];
+
+    /** Generación de cada identificador, aumenta al liberarlo o reescribirlo para invalidar sus eventos. */
+    private int[] generacion = new int[0];
+
+    /** Identificadores libres para reutilizar. */
+    private final ListaEnteros libres = new ListaEnteros();
+
+    /** Hembras que se han vuelto fértiles, como pares de identificador y generación. */
+    private final ListaEnteros hembrasFertiles = new ListaEnteros();
+
+    /** Peces que han alcanzado la edad óptima de venta, como pares de identificador y generación. */
+    private final ListaEnteros optimos = new ListaEnteros();
+
+    /** Peces muertos pendientes de retirar, como pares de identificador y generación. */
+    private final ListaEnteros muertos = new ListaEnteros();
+
+    /** Número de machos fértiles, para saber sin recorrer los peces si puede haber reproducción. */
+    private int machosFertiles = 0;
+
+    /** Día actual en el reloj del tanque, aumenta en cada crecimiento. */
+    private int hoy = 0;
+
+    /** Número de peces almacenados. */
+    private int size = 0;
+
+    /** Pez de la especie almacenada, usado para crear las vistas y alimentar, o null si no hay peces. */
+    private Pez prototipo;
+
+    /** Rueda con las transiciones programadas de los peces, creada con el horizonte de la especie del prototipo. */
+    private RuedaEventos rueda;
+
+    /** Vista de los peces como objetos Pez. */
+    private final List<Pez> vista = new VistaPeces();
+
+    /**
+     * Crea una población vacía con espacio reservado para el número de peces indicado.
+     *
+     * @param capacidadInicial número de peces para los que se reserva espacio.
+     */
+    public PoblacionColumnar(int capacidadInicial) {
+        int capacidad = Math.max(capacidadInicial, 1);
+        edad = new int[capacidad];
+        ciclo = new int[capacidad];
+        estado = new byte[capacidad];
+        id = new int[capacidad];
+    }
+
+    /** Devuelve el número de peces almacenados. */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Devuelve una vista que crea un objeto Pez con el estado de cada fila al consultarla. */
+    @Override
+    public List<Pez> getPeces() {
+        return vista;
+    }
+
+    /** Devuelve la especie del prototipo. */
+    @Override
+    public Especie getEspecie() {
+        return prototipo != null ? prototipo.getEspecie() : null;
+    }
+
+    /**
+     * Aplica las reglas de crecimiento de Pez.grow(): una pasada por los vivos decide quién muere de hambre
+     * o por la mortalidad de los jóvenes y después se ejecutan los eventos programados para el nuevo día.
+     */
+    @Override
+    public void crecer(SplittableRandom rand) {
+        if (size == 0) {
+            hoy++;
+            return;
+        }
+        int madurez = prototipo.getEspecie().getMadurez();
+
+        for (int i = 0; i < size; i++) {
+            byte e = estado[i];
+            if ((e & VIVO) == 0) {
+                continue;
+            }
+            if ((e & ALIMENTADO) == 0 && rand.nextBoolean()) {
+                morir(i, hoy - edad[i]);
+                continue;
+            }
+            int ed = hoy + 1 - edad[i];
+            if (ed < madurez) {
+                if ((e & (SEXO | FERTIL)) == FERTIL) {
+                    cambiar(i, (byte) (e & ~FERTIL));
+                }
+                if (ed % 2 == 0 && rand.nextDouble() < 0.05) {
+                    morir(i, ed);
+                }
+            }
+        }
+
+        hoy++;
+        rueda.vencer(hoy, this::ejecutarEvento);
+    }
+
+    /** Alimenta de una vez a las filas vivas con la lógica de la especie y elige al azar a las que se quedan sin comer. */
+    @Override
+    public void alimentar(ReservaComida comidaAnimal, ReservaComida comidaVegetal, SplittableRandom rand) {
+        int vivos = contadores.getVivos();
+        if (vivos == 0) {
+            return;
+        }
+        int hambrientos = vivos - getEspecie().alimentarVarios(vivos, comidaAnimal, comidaVegetal, rand);
+
+        for (int i = 0; i < size; i++) {
+            if ((estado[i] & VIVO) != 0) {
+                byte antes = estado[i];
+                if (quedaHambriento(vivos--, hambrientos, rand)) {
+                    hambrientos--;
+                    estado[i] &= ~ALIMENTADO;
+                } else {
+                    estado[i] |= ALIMENTADO;
+                }
+                if (antes != estado[i]) {
+                    contar(antes, -1);
+                    contar(estado[i], 1);
+                }
+            }
+        }
+    }
+
+    /** Elimina las filas de los peces muertos apuntados al morir, sin recorrer el resto. */
+    @Override
+    public int retirarMuertos() {
+        return eliminarApuntados(muertos, false);
+    }
+
+    /** Clona a las hembras que se han vuelto fértiles eligiendo el sexo de cada cría según los contadores. */
+    @Override
+    public int reproducir(int capacidadMaxima, ResultadoDia resultado) {
+        if (machosFertiles == 0 || hembrasFertiles.size == 0) {
+            return 0;
+        }
+
+        int huevos = prototipo.getEspecie().getHuevos();
+        int nacidos = 0;
+        int[] madres = Arrays.copyOf(hembrasFertiles.datos, hembrasFertiles.size);
+        hembrasFertiles.limpiar();
+
+        for (int k = 0; k < madres.length; k += 2) {
+            int i = filaVigente(madres[k], madres[k + 1]);
+            if (i < 0 || (estado[i] & (SEXO | FERTIL | VIVO)) != (FERTIL | VIVO)) {
+                continue;
+            }
+            for (int h = 0; h < huevos; h++) {
+                if (size < capacidadMaxima) {
+                    nacer(contadores.getHembras() > contadores.getMachos());
+                    nacidos++;
+                } else {
+                    resultado.avisar("No hay espacio para añadir más peces. Capacidad máxima alcanzada.");
+                    break;
+                }
+            }
+            cambiar(i, (byte) (estado[i] & ~FERTIL));
+        }
+        return nacidos;
+    }
+
+    /** Elimina las filas de los peces cuyo evento de edad óptima ya ha vencido, sin recorrer el resto. */
+    @Override
+    public int retirarOptimos() {
+        return eliminarApuntados(optimos, true);
+    }
+
+    /** Recuenta el estado de los peces recorriendo los indicadores. */
+    @Override
+    protected Contadores recontar() {
+        Contadores recuento = new Contadores();
+        for (int i = 0; i < size; i++) {
+            byte e = estado[i];
+            recuento.actualizar((e & SEXO) != 0, (e & VIVO) != 0, (e & FERTIL) != 0, (e & MADURO) != 0,
+                    (e & ALIMENTADO) != 0, 1);
+        }
+        return recuento;
+    }
+
+    /**
+     * Ejecuta un evento vencido de la rueda si el pez sigue siendo el mismo y está vivo.
+     *
+     * @param idPez identificador del pez.
+     * @param gen   generación del identificador al programar el evento.
+     * @param tipo  tipo del evento.
+     */
+    private void ejecutarEvento(int idPez, int gen, int tipo) {
+        int i = filaVigente(idPez, gen);
+        if (i < 0 || (estado[i] & VIVO) == 0) {
+            return;
+        }
+        byte e = estado[i];
+        switch (tipo) {
+            case EVENTO_MADUREZ:
+                if ((e & (SEXO | MADURO)) == MADURO) {
+                    programar(hoy + Math.max(ciclo[i] - hoy, 1), i, EVENTO_CICLO);
+                    break;
+                }
+                if ((e & SEXO) == 0) {
+                    int restante = ciclo[i];
+                    ciclo[i] = hoy + restante;
+                    programar(hoy + Math.max(restante, 1), i, EVENTO_CICLO);
+                }
+                cambiar(i, (byte) (e | FERTIL | MADURO));
+                break;
+            case EVENTO_CICLO:
+                if (ciclo[i] <= hoy) {
+                    int cicloBase = prototipo.getEspecie().getCiclo();
+                    ciclo[i] = hoy + cicloBase;
+                    programar(hoy + Math.max(cicloBase, 1), i, EVENTO_CICLO);
+                    cambiar(i, (byte) (e | FERTIL));
+                } else {
+                    programar(ciclo[i], i, EVENTO_CICLO);
+                }
+                break;
+            case EVENTO_OPTIMO:
+                optimos.añadir(idPez, gen);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Programa los eventos pendientes de una fila según su estado actual y la apunta en las listas que correspondan.
+     *
+     * @param i índice de la fila.
+     */
+    private void programarFila(int i) {
+        byte e = estado[i];
+        if ((e & VIVO) == 0) {
+            muertos.añadir(id[i], generacion[id[i]]);
+            return;
+        }
+        Especie especie = prototipo.getEspecie();
+        int ed = hoy - edad[i];
+        boolean macho = (e & SEXO) != 0;
+
+        if (ed < especie.getMadurez()) {
+            programar(hoy + especie.getMadurez() - ed, i, EVENTO_MADUREZ);
+        } else if ((e & MADURO) == 0 || (macho && (e & FERTIL) == 0)) {
+            programar(hoy + 1, i, EVENTO_MADUREZ);
+        } else if (!macho) {
+            programar(hoy + Math.max(ciclo[i] - hoy, 1), i, EVENTO_CICLO);
+        }
+
+        if (ed < especie.getOptimo()) {
+            programar(hoy + especie.getOptimo() - ed, i, EVENTO_OPTIMO);
+        } else {
+            optimos.añadir(id[i], generacion[id[i]]);
+        }
+    }
+
+    /**
+     * Programa un evento para el pez de una fila.
+     *
+     * @param dia  día del reloj del tanque en que vence el evento.
+     * @param i    índice de la fila.
+     * @param tipo tipo del evento.
+     */
+    private void programar(int dia, int i, int tipo) {
+        rueda.programar(dia, id[i], generacion[id[i]], tipo);
+    }
+
+    /**
+     * Devuelve la fila de un identificador si la generación sigue siendo la indicada.
+     *
+     * @param idPez identificador del pez.
+     * @param gen   generación esperada.
+     * @return índice de la fila, o -1 si el pez ya no está o ha cambiado.
+     */
+    private int filaVigente(int idPez, int gen) {
+        return generacion[idPez] == gen ? fila[idPez] : -1;
+    }
+
+    /**
+     * Mata al pez de una fila, guardando su edad y su ciclo como valores fijos.
+     *
+     * @param i            índice de la fila.
+     * @param edadAlMorir  edad del pez al morir.
+     */
+    private void morir(int i, int edadAlMorir) {
+        if (cuentaCiclo(estado[i])) {
+            ciclo[i] -= hoy;
+        }
+        edad[i] = edadAlMorir;
+        cambiar(i, (byte) (estado[i] & SEXO));
+        muertos.añadir(id[i], generacion[id[i]]);
+        if (muertos.size > 4 * Math.max(size, 16)) {
+            depurarMuertos();
+        }
+    }
+
+    /**
+     * Quita de la lista de muertos los peces que ya no están en la población,
+     * para que no crezca sin límite en tanques donde nadie retira los muertos.
+     */
+    private void depurarMuertos() {
+        int n = 0;
+        for (int k = 0; k < muertos.size; k += 2) {
+            if (filaVigente(muertos.datos[k], muertos.datos[k + 1]) >= 0) {
+                muertos.datos[n++] = muertos.datos[k];
+                muertos.datos[n++] = muertos.datos[k + 1];
+            }
+        }
+        muertos.size = n;
+    }
+
+    /**
+     * Cambia los indicadores de una fila actualizando los contadores.
+     *
+     * @param i     índice de la fila.
+     * @param nuevo nuevos indicadores de estado.
+     */
+    private void cambiar(int i, byte nuevo) {
+        byte antes = estado[i];
+        if (antes != nuevo) {
+            contar(antes, -1);
+            estado[i] = nuevo;
+            contar(nuevo, 1);
+            if ((nuevo & (SEXO | FERTIL)) == FERTIL && (antes & FERTIL) == 0) {
+                hembrasFertiles.añadir(id[i], generacion[id[i]]);
+            }
+        }
+    }
+
+    /**
+     * Suma o resta de los contadores un pez con los indicadores dados.
+     *
+     * @param e        indicadores de estado del pez.
+     * @param cantidad 1 para sumar, -1 para restar.
+     */
+    private void contar(byte e, int cantidad) {
+        contadores.actualizar((e & SEXO) != 0, (e & VIVO) != 0, (e & FERTIL) != 0, (e & MADURO) != 0,
+                (e & ALIMENTADO) != 0, cantidad);
+        if ((e & (SEXO | FERTIL)) == (SEXO | FERTIL)) {
+            machosFertiles += cantidad;
+        }
+    }
+
+    /**
+     * Indica si una fila con los indicadores dados guarda en el ciclo el día en que vence en lugar del ciclo.
+     *
+     * @param e indicadores de estado del pez.
+     * @return true para las hembras maduras vivas.
+     */
+    private static boolean cuentaCiclo(byte e) {
+        return (e & (VIVO | MADURO | SEXO)) == (VIVO | MADURO);
+    }
+
+    /**
+     * Añade al final un pez recién nacido de la especie del prototipo.
+     *
+     * @param sexo true para macho, false para hembra.
+     */
+    private void nacer(boolean sexo) {
+        int i = nuevaFila();
+        edad[i] = hoy;
+        ciclo[i] = prototipo.getEspecie().getCiclo();
+        estado[i] = sexo ? (byte) (VIVO | SEXO) : VIVO;
+        contar(estado[i], 1);
+        programarFila(i);
+    }
+
+    /**
+     * Reserva una fila al final con un identificador libre.
+     *
+     * @return índice de la nueva fila.
+     */
+    private int nuevaFila() {
+        if (size == estado.length) {
+            int nuevaCapacidad = estado.length * 2;
+            edad = Arrays.copyOf(edad, nuevaCapacidad);
+            ciclo = Arrays.copyOf(ciclo, nuevaCapacidad);
+            estado = Arrays.copyOf(estado, nuevaCapacidad);
+            id = Arrays.copyOf(id, nuevaCapacidad);
+        }
+        int nuevoId;
+        if (libres.size > 0) {
+            nuevoId = libres.datos[--libres.size];
+        } else {
+            nuevoId = fila.length;
+            fila = Arrays.copyOf(fila, Math.max(nuevoId * 2, estado.length));
+            generacion = Arrays.copyOf(generacion, fila.length);
+            for (int k = fila.length - 1; k > nuevoId; k--) {
+                libres.añadir(k);
+            }
+        }
+        int i = size++;
+        id[i] = nuevoId;
+        fila[nuevoId] = i;
+        return i;
+    }
+
+    /**
+     * Elimina las filas vigentes de los peces apuntados en una lista que estén vivos o muertos, según se indique,
+     * y vacía la lista. Las filas se eliminan de la última a la primera, de modo que el orden en que quedan
+     * los peces no depende del orden en que se apuntaron, que tras cargar la partida es otro.
+     *
+     * @param apuntados lista de pares de identificador y generación.
+     * @param vivos     true para eliminar solo los vivos y false para eliminar solo los muertos.
+     * @return número de filas eliminadas.
+     */
+    private int eliminarApuntados(ListaEnteros apuntados, boolean vivos) {
+        int[] filas = new int[apuntados.size / 2];
+        int n = 0;
+        for (int k = 0; k < apuntados.size; k += 2) {
+            int i = filaVigente(apuntados.datos[k], apuntados.datos[k + 1]);
+            if (i >= 0 && ((estado[i] & VIVO) != 0) == vivos) {
+                filas[n++] = i;
+            }
+        }
+        apuntados.limpiar();
+        Arrays.sort(filas, 0, n);
+        int eliminadas = 0;
+        for (int k = n - 1; k >= 0; k--) {
+            if (k < n - 1 && filas[k] == filas[k + 1]) {
+                continue;
+            }
+            contar(estado[filas[k]], -1);
+            eliminar(filas[k]);
+            eliminadas++;
+        }
+        return eliminadas;
+    }
+
+    /**
+     * Elimina una fila moviendo la última a su lugar y libera su identificador.
+     * Los contadores deben actualizarse antes de llamar a este método.
+     *
+     * @param i índice de la fila.
+     */
+    private void eliminar(int i) {
+        int idPez = id[i];
+        int ultima = size - 1;
+        if (i != ultima) {
+            edad[i] = edad[ultima];
+            ciclo[i] = ciclo[ultima];
+            estado[i] = estado[ultima];
+            id[i] = id[ultima];
+            fila[id[i]] = i;
+        }
+        fila[idPez] = -1;
+        generacion[idPez]++;
+        libres.añadir(idPez);
+        size--;
+        if (size == 0) {
+            vaciar();
+        }
+    }
+
+    /** Olvida la especie, los eventos pendientes y las listas de peces apuntados. */
+    private void vaciar() {
+        size = 0;
+        prototipo = null;
+        rueda = null;
+        hembrasFertiles.limpiar();
+        optimos.limpiar();
+        muertos.limpiar();
+        machosFertiles = 0;
+    }
+
+    /**
+     * Comprueba que un pez es de la especie almacenada, adoptándola si la población está vacía.
+     *
+     * @param pez el pez a comprobar.
+     */
+    private void comprobarEspecie(Pez pez) {
+        if (prototipo == null) {
+            prototipo = pez.clonar(false);
+            Especie especie = pez.getEspecie();
+            rueda = new RuedaEventos(Math.max(Math.max(especie.getMadurez(), especie.getOptimo()), especie.getCiclo()) + 2);
+        } else if (pez.getEspecie().getId() != prototipo.getEspecie().getId()) {
+            throw new IllegalArgumentException("Tipo de pez incompatible. Solo se pueden agregar peces de tipo: "
+                    + prototipo.getNombre());
+        }
+    }
+
+    /**
+     * Crea un objeto Pez con el estado de una fila.
+     *
+     * @param i índice de la fila.
+     * @return un pez nuevo con el estado de la fila.
+     */
+    private Pez materializar(int i) {
+        byte e = estado[i];
+        Pez pez = prototipo.clonar((e & SEXO) != 0);
+        pez.setEdad((e & VIVO) != 0 ? hoy - edad[i] : edad[i]);
+        pez.setCiclo(cuentaCiclo(e) ? ciclo[i] - hoy : ciclo[i]);
+        pez.setVivo((e & VIVO) != 0);
+        pez.setFertil((e & FERTIL) != 0);
+        pez.setMaduro((e & MADURO) != 0);
+        pez.setAlimentado((e & ALIMENTADO) != 0);
+        return pez;
+    }
+
+    /**
+     * Guarda el estado de un pez en una fila, que debe tener ya un identificador.
+     *
+     * @param i   índice de la fila.
+     * @param pez el pez cuyo estado se guarda.
+     */
+    private void escribir(int i, Pez pez) {
+        byte e = 0;
+        if (pez.isVivo()) {
+            e |= VIVO;
+        }
+        if (pez.isFertil()) {
+            e |= FERTIL;
+        }
+        if (pez.isMaduro()) {
+            e |= MADURO;
+        }
+        if (pez.isAlimentado()) {
+            e |= ALIMENTADO;
+        }
+        if (pez.isSexo()) {
+            e |= SEXO;
+        }
+        estado[i] = e;
+        edad[i] = (e & VIVO) != 0 ? hoy - pez.getEdad() : pez.getEdad();
+        ciclo[i] = cuentaCiclo(e) ? hoy + pez.getCiclo() : pez.getCiclo();
+        contar(e, 1);
+        if ((e & (SEXO | FERTIL | VIVO)) == (FERTIL | VIVO)) {
+            hembrasFertiles.añadir(id[i], generacion[id[i]]);
+        }
+        programarFila(i);
+    }
+
+    /** Lista de enteros ampliable, usada para los identificadores libres y los peces apuntados. */
+    private static class ListaEnteros {
+
+        /** Enteros almacenados. */
+        int[] datos = new int[16];
+
+        /** Número de enteros almacenados. */
+        int size = 0;
+
+        /**
+         * Añade un entero al final.
+         *
+         * @param valor el entero a añadir.
+         */
+        void añadir(int valor) {
+            if (size == datos.length) {
+                datos = Arrays.copyOf(datos, size * 2);
+            }
+            datos[size++] = valor;
+        }
+
+        /**
+         * Añade dos enteros al final.
+         *
+         * @param a primer entero.
+         * @param b segundo entero.
+         */
+        void añadir(int a, int b) {
+            añadir(a);
+            añadir(b);
+        }
+
+        /** Vacía la lista. */
+        void limpiar() {
+            size = 0;
+        }
+    }
+
+    /**
+     * Lista de objetos Pez respaldada por los arrays de la población.
+     * Los peces se añaden siempre al final y al eliminar uno la última fila ocupa su lugar,
+     * así que el orden de la lista no se conserva.
+     */
+    private class VistaPeces extends AbstractList<Pez> {
+
+        /** Devuelve un pez nuevo con el estado de la fila indicada. */
+        @Override
+        public Pez get(int index) {
+            comprobarIndice(index, size);
+            return materializar(index);
+        }
+
+        /** Devuelve el número de peces almacenados. */
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /** Guarda el estado del pez en la fila indicada, reprogramando sus eventos, y devuelve el pez que había. */
+        @Override
+        public Pez set(int index, Pez pez) {
+            comprobarIndice(index, size);
+            comprobarEspecie(pez);
+            Pez anterior = materializar(index);
+            contar(estado[index], -1);
+            generacion[id[index]]++;
+            escribir(index, pez);
+            return anterior;
+        }
+
+        /** Añade una fila con el estado del pez al final, sea cual sea la posición indicada. */
+        @Override
+        public void add(int index, Pez pez) {
+            comprobarIndice(index, size + 1);
+            comprobarEspecie(pez);
+            escribir(nuevaFila(), pez);
+            modCount++;
+        }
+
+        /** Elimina la fila indicada, que pasa a ocupar la última, y devuelve el pez que contenía. */
+        @Override
+        public Pez remove(int index) {
+            comprobarIndice(index, size);
+            Pez eliminado = materializar(index);
+            contar(estado[index], -1);
+            eliminar(index);
+            modCount++;
+            return eliminado;
+        }
+
+        /** Elimina todas las filas y pone los contadores a cero. */
+        @Override
+        public void clear() {
+            for (int i = 0; i < size; i++) {
+                fila[id[i]] = -1;
+                generacion[id[i]]++;
+                libres.añadir(id[i]);
+            }
+            vaciar();
+            contadores.reiniciar();
+            modCount++;
+        }
+
+        /**
+         * Comprueba que un índice está dentro del rango permitido.
+         *
+         * @param index  índice a comprobar.
+         * @param limite límite superior exclusivo.
+         */
+        private void comprobarIndice(int index, int limite) {
+            if (index < 0 || index >= limite) {
+                throw new IndexOutOfBoundsException("Índice: " + index + ", tamaño: " + size);
+            }
+        }
+    }
+}
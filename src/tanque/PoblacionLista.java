@@ -0,0 +1,209 @@
+package tanque;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import commons.ReservaComida;
+import peces.Especie;
+import peces.Pez;
+import piscifactoria.ResultadoDia;
+
+/** Población que guarda cada pez como un objeto Pez dentro de una lista. */
+public class PoblacionLista extends Poblacion {
+
+    /** Lista para almacenar los peces, mantiene los contadores al añadir o eliminar. */
+    private final List<Pez> peces = new ListaContada();
+
+    /** Devuelve el número de peces de la lista. */
+    @Override
+    public int size() {
+        return peces.size();
+    }
+
+    /** Devuelve la lista de peces. */
+    @Override
+    public List<Pez> getPeces() {
+        return peces;
+    }
+
+    /** Devuelve la especie del primer pez de la lista, o null si está vacía. */
+    @Override
+    public Especie getEspecie() {
+        return peces.isEmpty() ? null : peces.get(0).getEspecie();
+    }
+
+    /** Hace crecer a cada pez de la lista. */
+    @Override
+    public void crecer(SplittableRandom rand) {
+        for (Pez pez : peces) {
+            contadores.restar(pez);
+            pez.grow(rand);
+            contadores.sumar(pez);
+        }
+    }
+
+    /** Alimenta de una vez a los peces vivos de la lista y elige al azar a los que se quedan sin comer. */
+    @Override
+    public void alimentar(ReservaComida comidaAnimal, ReservaComida comidaVegetal, SplittableRandom rand) {
+        int vivos = contadores.getVivos();
+        if (vivos == 0) {
+            return;
+        }
+        int hambrientos = vivos - getEspecie().alimentarVarios(vivos, comidaAnimal, comidaVegetal, rand);
+
+        for (Pez pez : peces) {
+            if (pez.isVivo()) {
+                boolean alimentado = !quedaHambriento(vivos--, hambrientos, rand);
+                if (!alimentado) {
+                    hambrientos--;
+                }
+                if (pez.isAlimentado() != alimentado) {
+                    contadores.restar(pez);
+                    pez.setAlimentado(alimentado);
+                    contadores.sumar(pez);
+                }
+            }
+        }
+    }
+
+    /** Elimina de la lista los peces muertos. */
+    @Override
+    public int retirarMuertos() {
+        int retirados = 0;
+        Iterator<Pez> iterator = peces.iterator();
+
+        while (iterator.hasNext()) {
+            Pez pez = iterator.next();
+            if (!pez.isVivo()) {
+                iterator.remove();
+                retirados++;
+            }
+        }
+        return retirados;
+    }
+
+    /** Clona a las hembras fértiles mientras quede espacio. */
+    @Override
+    public int reproducir(int capacidadMaxima, ResultadoDia resultado) {
+        int nacidos = 0;
+        boolean hayMachoFertil = false;
+
+        if (contadores.getFertiles() > 0) {
+            for (Pez pez : peces) {
+                if (pez.isSexo() && pez.isFertil()) {
+                    hayMachoFertil = true;
+                    break;
+                }
+            }
+        }
+
+        if (hayMachoFertil) {
+            List<Pez> hembrasFertiles = new ArrayList<>();
+
+            for (Pez pez : peces) {
+                if (pez.isFertil() && pez.isVivo() && !pez.isSexo()) {
+                    hembrasFertiles.add(pez);
+                }
+            }
+
+            for (Pez hembra : hembrasFertiles) {
+                for (int i = 0; i < hembra.getEspecie().getHuevos(); i++) {
+                    if (peces.size() < capacidadMaxima) {
+                        boolean nuevoSexo = (contadores.getHembras() <= contadores.getMachos()) ? false : true;
+                        peces.add(hembra.clonar(nuevoSexo));
+                        nacidos++;
+                    } else {
+                        resultado.avisar("No hay espacio para añadir más peces. Capacidad máxima alcanzada.");
+                        break;
+                    }
+                }
+                contadores.restar(hembra);
+                hembra.setFertil(false);
+                contadores.sumar(hembra);
+            }
+        }
+        return nacidos;
+    }
+
+    /** Elimina de la lista los peces vivos en edad óptima de venta. */
+    @Override
+    public int retirarOptimos() {
+        int retirados = 0;
+        Iterator<Pez> iterator = peces.iterator();
+
+        while (iterator.hasNext()) {
+            Pez pez = iterator.next();
+            if (pez.getEdad() >= pez.getEspecie().getOptimo() && pez.isVivo()) {
+                iterator.remove();
+                retirados++;
+            }
+        }
+        return retirados;
+    }
+
+    /** Recuenta el estado de los peces recorriendo la lista. */
+    @Override
+    protected Contadores recontar() {
+        Contadores recuento = new Contadores();
+        for (Pez pez : peces) {
+            recuento.sumar(pez);
+        }
+        return recuento;
+    }
+
+    /** Lista de peces que actualiza los contadores de la población al añadir o eliminar peces. */
+    private class ListaContada extends AbstractList<Pez> {
+
+        /** Peces almacenados. */
+        private final List<Pez> elementos = new ArrayList<>();
+
+        /** Devuelve el pez en la posición indicada. */
+        @Override
+        public Pez get(int index) {
+            return elementos.get(index);
+        }
+
+        /** Devuelve el número de peces almacenados. */
+        @Override
+        public int size() {
+            return elementos.size();
+        }
+
+        /** Sustituye el pez en la posición indicada y actualiza los contadores. */
+        @Override
+        public Pez set(int index, Pez pez) {
+            Pez anterior = elementos.set(index, pez);
+            contadores.restar(anterior);
+            contadores.sumar(pez);
+            return anterior;
+        }
+
+        /** Inserta un pez en la posición indicada y lo suma a los contadores. */
+        @Override
+        public void add(int index, Pez pez) {
+            elementos.add(index, pez);
+            contadores.sumar(pez);
+            modCount++;
+        }
+
+        /** Elimina el pez en la posición indicada y lo resta de los contadores. */
+        @Override
+        public Pez remove(int index) {
+            Pez pez = elementos.remove(index);
+            contadores.restar(pez);
+            modCount++;
+            return pez;
+        }
+
+        /** Elimina todos los peces y pone los contadores a cero. */
+        @Override
+        public void clear() {
+            elementos.clear();
+            contadores.reiniciar();
+            modCount++;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package tanque;
+
+import java.util.Arrays;
+
+/**
+ * Rueda de tiempo que guarda eventos programados para un día concreto.
+ * Cada día ocupa un cubo de un anillo cuyo tamaño es potencia de dos, de modo que programar un evento
+ * y recoger los de un día cuesta en función de los eventos de ese cubo y no del número total de eventos.
+ * Los eventos más lejanos que el tamaño del anillo comparten cubo con otros días y se conservan
+ * hasta que llega su día.
+ */
+public class RuedaEventos {
+
+    /** Enteros que ocupa cada evento dentro de un cubo: día, identificador, generación y tipo. */
+    private static final int CAMPOS = 4;
+
+    /** Eventos pendientes de cada cubo. */
+    private int[][] cubos;
+
+    /** Número de enteros ocupados en cada cubo. */
+    private int[] ocupados;
+
+    /** Máscara para obtener el cubo de un día. */
+    private final int mascara;
+
+    /** Acción a ejecutar por cada evento vencido. */
+    @FunctionalInterface
+    public interface Accion {
+
+        /**
+         * Ejecuta un evento vencido.
+         *
+         * @param id         identificador del elemento al que se refiere el evento.
+         * @param generacion generación del elemento cuando se programó el evento.
+         * @param tipo       tipo del evento.
+         */
+        void ejecutar(int id, int generacion, int tipo);
+    }
+
+    /**
+     * Crea una rueda con cubos suficientes para programar sin repetir cubo hasta el horizonte indicado.
+     *
+     * @param horizonte número de días hacia delante que se suelen programar.
+     */
+    public RuedaEventos(int horizonte) {
+        int tamaño = Integer.highestOneBit(Math.max(horizonte, 1) * 2 - 1);
+        cubos = new int[tamaño][];
+        ocupados = new int[tamaño];
+        mascara = tamaño - 1;
+    }
+
+    /**
+     * Programa un evento para un día.
+     *
+     * @param dia        día en el que vence el evento.
+     * @param id         identificador del elemento al que se refiere el evento.
+     * @param generacion generación del elemento, para descartar el evento si el elemento cambia antes.
+     * @param tipo       tipo del evento.
+     */
+    public void programar(int dia, int id, int generacion, int tipo) {
+        int c = dia & mascara;
+        int[] cubo = cubos[c];
+        int n = ocupados[c];
+        if (cubo == null) {
+            cubo = new int[CAMPOS * 4];
+            cubos[c] = cubo;
+        } else if (n + CAMPOS > cubo.length) {
+            cubo = Arrays.copyOf(cubo, cubo.length * 2);
+            cubos[c] = cubo;
+        }
+        cubo[n] = dia;
+        cubo[n + 1] = id;
+        cubo[n + 2] = generacion;
+        cubo[n + 3] = tipo;
+        ocupados[c] = n + CAMPOS;
+    }
+
+    /**
+     * Ejecuta y retira los eventos que vencen en un día.
+     * Los eventos que la acción programe mientras tanto se guardan aparte y no se ejecutan en esta llamada.
+     *
+     * @param dia    día cuyos eventos se ejecutan.
+     * @param accion acción a ejecutar por cada evento.
+     */
+    public void vencer(int dia, Accion accion) {
+        int c = dia & mascara;
+        int[] cubo = cubos[c];
+        int n = ocupados[c];
+        if (n == 0) {
+            return;
+        }
+        cubos[c] = null;
+        ocupados[c] = 0;
+
+        for (int i = 0; i < n; i += CAMPOS) {
+            if (cubo[i] == dia) {
+                accion.ejecutar(cubo[i + 1], cubo[i + 2], cubo[i + 3]);
+            } else {
+                programar(cubo[i], cubo[i + 1], cubo[i + 2], cubo[i + 3]);
+            }
+        }
+    }
+
+    /** Elimina todos los eventos programados. */
+    public void limpiar() {
+        Arrays.fill(cubos, null);
+        Arrays.fill(ocupados, 0);
+    }
+}
@@ -1,20 +1,28 @@
 package tanque;
 
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.SplittableRandom;
 
+import commons.FaseDia;
+import commons.PrevisionComida;
+import commons.ReservaComida;
 import commons.Simulador;
 
 import piscifactoria.Piscifactoria;
+import piscifactoria.ResultadoDia;
 
+import peces.Especie;
 import peces.Pez;
+import propiedades.PecesDatos;
 
 /** Representa un tanque para almacenar peces con capacidades de gestión y reproducción. */
 public class Tanque {
 
-    /** Lista para almacenar los peces en el tanque. */
-    private List<Pez> peces = new ArrayList<>();
+    /** Modo de almacenamiento usado por los tanques que se crean a partir de ahora. */
+    public static ModoAlmacenamiento modoAlmacenamiento = ModoAlmacenamiento.LISTA;
+
+    /** Peces del tanque. */
+    private final Poblacion poblacion;
 
     /** Número del tanque. */
     private final int numeroTanque;
@@ -22,6 +30,9 @@ public class Tanque {
     /** Capacidad máxima del tanque. */
     private final int capacidadMaxima;
 
+    /** Peces que aún no se han cargado en memoria, o null si ya están cargados. */
+    private CargaDiferida cargaDiferida;
+
     /**
      * Crea un tanque con el número y capacidad especificados.
      * 
@@ -31,13 +42,66 @@ public class Tanque {
     public Tanque(int numeroTanque, int capacidadMaxima) {
         this.numeroTanque = numeroTanque;
         this.capacidadMaxima = capacidadMaxima;
+        switch (modoAlmacenamiento) {
+            case COLUMNAR:
+                this.poblacion = new PoblacionColumnar(capacidadMaxima);
+                break;
+            case COHORTES:
+                this.poblacion = new PoblacionCohortes();
+                break;
+            default:
+                this.poblacion = new PoblacionLista();
+                break;
+        }
+    }
+
+    /**
+     * Deja los peces del tanque pendientes de cargar hasta que se necesiten por primera vez.
+     * Mientras tanto, los recuentos del tanque se responden con los de la carga.
+     *
+     * @param carga Peces pendientes de cargar.
+     */
+    public void cargarDespues(CargaDiferida carga) {
+        this.cargaDiferida = carga;
+    }
+
+    /**
+     * Indica si los peces del tanque están cargados en memoria.
+     *
+     * @return true si están cargados, false si siguen pendientes de cargar.
+     */
+    public boolean isCargado() {
+        return cargaDiferida == null;
+    }
+
+    /**
+     * Devuelve los peces pendientes de cargar.
+     *
+     * @return la carga pendiente, o null si los peces ya están cargados.
+     */
+    public CargaDiferida getCargaDiferida() {
+        return cargaDiferida;
+    }
+
+    /**
+     * Devuelve la población del tanque, cargando antes sus peces si estaban pendientes.
+     *
+     * @return la población del tanque.
+     */
+    private Poblacion poblacion() {
+        if (cargaDiferida != null) {
+            CargaDiferida carga = cargaDiferida;
+            cargaDiferida = null;
+            carga.cargar(poblacion.getPeces());
+        }
+        return poblacion;
     }
 
     /** Muestra el estado actual del tanque. */
     public void showStatus() {
         System.out.println("\n=============== Tanque " + numeroTanque + " ===============");
 
-        int ocupacion = peces.size();
+        int ocupacion = getOcupacion();
         int vivos = getVivos();
         int alimentados = getAlimentados();
         int adultos = getMaduros();
@@ -61,10 +125,10 @@ public class Tanque {
     /** Muestra el estado de todos los peces del tanque. */
     public void showFishStatus() {
         System.out.println("--------------- Peces en el Tanque " + numeroTanque + " ---------------");
-        if (peces.isEmpty()) {
+        if (poblacion().size() == 0) {
             System.out.println("El tanque está vacío.");
         } else {
-            peces.forEach(Pez::showStatus);
+            poblacion().getPeces().forEach(Pez::showStatus);
         }
     }
 
@@ -74,73 +138,66 @@ public class Tanque {
      * @param piscifactoria la piscifactoría a la que pertenece el tanque.
      */
     public void showCapacity(Piscifactoria piscifactoria) {
-        int porcentajeCapacidad = (peces.size() * 100) / capacidadMaxima;
+        int porcentajeCapacidad = (getOcupacion() * 100) / capacidadMaxima;
         String mensaje = String.format(
                 "Tanque %d de la %s al %d%% de capacidad. [%d/%d]",
-                numeroTanque, piscifactoria.getNombre(), porcentajeCapacidad, peces.size(), capacidadMaxima);
+                numeroTanque, piscifactoria.getNombre(), porcentajeCapacidad, getOcupacion(), capacidadMaxima);
         System.out.println(mensaje);
     }
 
     /**
      * Avanza un día en el tanque, haciendo crecer los peces y ejecutando la reproducción.
+     * Las ventas, nacimientos, peces muertos y el tiempo de cada fase se acumulan en el resultado
+     * sin modificar el estado compartido.
      * 
-     * @return Un arreglo con el número de peces vendidos y las monedas ganadas.
+     * @param resultado Resultado del día de la piscifactoría del tanque.
+     * @param rand      Generador de aleatorios del tanque para este día.
      */
-    public int[] nextDay() {
-        for (Pez pez : peces) {
-            pez.grow();
-        }
+    public void nextDay(ResultadoDia resultado, SplittableRandom rand) {
+        long inicio = System.nanoTime();
+        poblacion().crecer(rand);
+        inicio = resultado.medir(FaseDia.CRECIMIENTO, inicio);
         if (Simulador.instance.granjaLangostinos != null) {
-            retroalimentacionMuertos();
+            retroalimentacionMuertos(resultado);
+            inicio = resultado.medir(FaseDia.MUERTOS, inicio);
         }
-        reproduccion();
-        return sellFish();
+        reproduccion(resultado);
+        inicio = resultado.medir(FaseDia.REPRODUCCION, inicio);
+        sellFish(resultado);
+        resultado.medir(FaseDia.VENTA, inicio);
     }
 
-    /** Método que maneja la reproducción de los peces en el tanque. */
-    public void reproduccion() {
-        boolean hayMachoFertil = false;
-
-        for (Pez pez : peces) {
-            if (pez.isSexo() && pez.isFertil()) {
-                hayMachoFertil = true;
-                break;
-            }
-        }
+    /**
+     * Alimenta a los peces vivos del tanque con la comida de su piscifactoría.
+     *
+     * @param comidaAnimal  Comida animal de la piscifactoría, de la que se descuenta lo consumido.
+     * @param comidaVegetal Comida vegetal de la piscifactoría, de la que se descuenta lo consumido.
+     * @param rand          Generador de aleatorios del tanque para este día.
+     */
+    public void alimentar(ReservaComida comidaAnimal, ReservaComida comidaVegetal, SplittableRandom rand) {
+        poblacion().alimentar(comidaAnimal, comidaVegetal, rand);
+    }
 
-        if (hayMachoFertil) {
-            List<Pez> hembrasFertiles = new ArrayList<>();
+    /**
+     * Suma a una previsión la comida que consumirán en un día los peces vivos del tanque.
+     *
+     * @param prevision Previsión a la que se suma el consumo.
+     */
+    public void preverDemanda(PrevisionComida prevision) {
+        poblacion().preverDemanda(prevision);
+    }
 
-            for (Pez pez : peces) {
-                if (pez.isFertil() && pez.isVivo()) {
-                    if (!pez.isSexo()) {
-                        hembrasFertiles.add(pez);
-                    }
-                }
-            }
+    /**
+     * Método que maneja la reproducción de los peces en el tanque.
+     *
+     * @param resultado Resultado del día donde se registran los nacimientos.
+     */
+    public void reproduccion(ResultadoDia resultado) {
+        Especie especie = poblacion().getEspecie();
+        int nacidos = poblacion().reproducir(capacidadMaxima, resultado);
 
-            if (!hembrasFertiles.isEmpty()) {
-                for (Pez hembra : hembrasFertiles) {
-                    for (int i = 0; i < hembra.getDatos().getHuevos(); i++) {
-                        if (peces.size() < capacidadMaxima) {
-                            boolean nuevoSexo = (getHembras() <= getMachos()) ? false : true;
-
-                            Pez nuevoPez = (Pez) hembra.clonar(nuevoSexo);
-                            peces.add(nuevoPez);
-
-                            if (nuevoSexo) {
-                                Simulador.instance.estadisticas.registrarNacimiento(hembra.getDatos().getNombre());
-                            } else {
-                                Simulador.instance.estadisticas.registrarNacimiento(hembra.getDatos().getNombre());
-                            }
-                        } else {
-                            System.out.println("No hay espacio para añadir más peces. Capacidad máxima alcanzada.");
-                            break;
-                        }
-                    }
-                    hembra.setFertil(false);
-                }
-            }
+        if (nacidos > 0) {
+            resultado.registrarNacimientos(especie, nacidos);
         }
     }
 
@@ -152,18 +209,18 @@ public class Tanque {
      */
     public boolean addFish(Pez pez) {
 
-        if (peces.size() < capacidadMaxima) {
-            if (Simulador.monedas.gastarMonedas(pez.getDatos().getCoste())) {
-                if (peces.isEmpty() || peces.get(0).getNombre().equals(pez.getNombre())) {
-                    peces.add(pez);
+        if (poblacion().size() < capacidadMaxima) {
+            if (Simulador.monedas.gastarMonedas(pez.getEspecie().getCoste())) {
+                if (poblacion().size() == 0 || poblacion().getEspecie().getId() == pez.getEspecie().getId()) {
+                    poblacion().getPeces().add(pez);
                     return true;
                 } else {
                     System.out.println("\nTipo de pez incompatible. Solo se pueden agregar peces de tipo: "
-                            + peces.get(0).getNombre());
+                            + poblacion().getEspecie().getNombre());
                     return false;
                 }
             } else {
-                System.out.println("\nNecesitas " + pez.getDatos().getCoste() + " monedas para comprar un "
+                System.out.println("\nNecesitas " + pez.getEspecie().getCoste() + " monedas para comprar un "
                         + pez.getNombre() + ".");
                 return false;
             }
@@ -174,39 +231,26 @@ public class Tanque {
     }
 
     /**
-     * Vende los peces maduros, actualiza el sistema de monedas y registra la venta.
+     * Vende los peces en edad óptima y registra la venta en el resultado del día.
      * 
-     * @return Un arreglo con el número de peces vendidos y las monedas ganadas.
+     * @param resultado Resultado del día donde se registran las ventas y monedas ganadas.
      */
-    public int[] sellFish() {
-        int pecesVendidos = 0, monedasGanadas = 0;
-
-        Iterator<Pez> iterator = peces.iterator();
-        while (iterator.hasNext()) {
-            Pez pez = iterator.next();
-            if (pez.getEdad() >= pez.getDatos().getOptimo() && pez.isVivo()) {
-                Simulador.monedas.ganarMonedas(pez.getDatos().getMonedas());
-                Simulador.instance.estadisticas.registrarVenta(pez.getNombre(), pez.getDatos().getMonedas());
-
-                monedasGanadas += pez.getDatos().getMonedas();
-                pecesVendidos++;
-                iterator.remove();
-            }
+    public void sellFish(ResultadoDia resultado) {
+        Especie especie = poblacion().getEspecie();
+        int pecesVendidos = poblacion().retirarOptimos();
+
+        if (pecesVendidos > 0) {
+            resultado.registrarVentas(especie, pecesVendidos);
         }
-        return new int[] { pecesVendidos, monedasGanadas };
     }
 
-    /** Recolecta los peces muertos, eliminándolos de la lista y agregándolos a la granja de langostinos. */
-    public void retroalimentacionMuertos() {
-        Iterator<Pez> iterator = peces.iterator();
-
-        while (iterator.hasNext()) {
-            Pez pez = iterator.next();
-            if (!pez.isVivo()) {
-                iterator.remove();
-                Simulador.instance.granjaLangostinos.agregarPezMuerto();
-            }
-        }
+    /**
+     * Recolecta los peces muertos, eliminándolos del tanque y apuntándolos para la granja de langostinos.
+     *
+     * @param resultado Resultado del día donde se registran los peces muertos.
+     */
+    public void retroalimentacionMuertos(ResultadoDia resultado) {
+        resultado.registrarMuertos(poblacion().retirarMuertos());
     }
 
     /**
@@ -215,7 +259,34 @@ public class Tanque {
      * @return lista de peces en el tanque.
      */
     public List<Pez> getPeces() {
-        return peces;
+        return poblacion().getPeces();
+    }
+
+    /**
+     * Devuelve el número de peces en el tanque, sin cargarlos si están pendientes.
+     *
+     * @return número de peces en el tanque.
+     */
+    public int getOcupacion() {
+        return cargaDiferida != null ? cargaDiferida.getPeces() : poblacion.size();
+    }
+
+    /**
+     * Devuelve la especie del tanque.
+     *
+     * @return la especie, o null si el tanque está vacío.
+     */
+    public Especie getEspecie() {
+        return cargaDiferida != null ? cargaDiferida.getEspecie() : poblacion.getEspecie();
+    }
+
+    /**
+     * Devuelve los datos de la especie del tanque.
+     *
+     * @return datos de la especie, o null si el tanque está vacío.
+     */
+    public PecesDatos getDatos() {
+        return poblacion().getDatos();
     }
 
     /**
@@ -237,93 +308,57 @@ public class Tanque {
     }
 
     /**
-     * Cuenta y devuelve el número de machos en el tanque.
+     * Devuelve el número de machos en el tanque.
      *
      * @return número de machos en el tanque.
      */
     public int getMachos() {
-        int machos = 0;
-        for (Pez pez : peces) {
-            if (pez.isSexo()) {
-                machos++;
-            }
-        }
-        return machos;
+        return cargaDiferida != null ? cargaDiferida.getMachos() : poblacion.getMachos();
     }
 
     /**
-     * Cuenta y devuelve el número de hembras en el tanque.
+     * Devuelve el número de hembras en el tanque.
      * 
      * @return número de hembras en el tanque.
      */
     public int getHembras() {
-        int hembras = 0;
-        for (Pez pez : peces) {
-            if (!pez.isSexo()) {
-                hembras++;
-            }
-        }
-        return hembras;
+        return cargaDiferida != null ? cargaDiferida.getHembras() : poblacion.getHembras();
     }
 
     /**
-     * Cuenta y devuelve el número de peces fértiles en el tanque.
+     * Devuelve el número de peces fértiles en el tanque.
      *
      * @return número de peces fértiles en el tanque.
      */
     public int getFertiles() {
-        int fertiles = 0;
-        for (Pez pez : peces) {
-            if (pez.isFertil()) {
-                fertiles++;
-            }
-        }
-        return fertiles;
+        return cargaDiferida != null ? cargaDiferida.getFertiles() : poblacion.getFertiles();
     }
 
     /**
-     * Cuenta y devuelve el número de peces vivos en el tanque.
+     * Devuelve el número de peces vivos en el tanque.
      *
      * @return número de peces vivos en el tanque.
      */
     public int getVivos() {
-        int pecesVivos = 0;
-        for (Pez pez : peces) {
-            if (pez.isVivo()) {
-                pecesVivos++;
-            }
-        }
-        return pecesVivos;
+        return cargaDiferida != null ? cargaDiferida.getVivos() : poblacion.getVivos();
     }
 
     /**
-     * Cuenta y devuelve el número de peces alimentados en el tanque.
+     * Devuelve el número de peces alimentados en el tanque.
      *
      * @return número de peces alimentados en el tanque.
      */
     public int getAlimentados() {
-        int pecesAlimentados = 0;
-        for (Pez pez : peces) {
-            if (pez.isAlimentado()) {
-                pecesAlimentados++;
-            }
-        }
-        return pecesAlimentados;
+        return cargaDiferida != null ? cargaDiferida.getAlimentados() : poblacion.getAlimentados();
     }
 
     /**
-     * Cuenta y devuelve el número de peces maduros en el tanque.
+     * Devuelve el número de peces maduros en el tanque.
      *
      * @return número de peces maduros en el tanque.
      */
     public int getMaduros() {
-        int maduros = 0;
-        for (Pez pez : peces) {
-            if (pez.isMaduro()) {
-                maduros++;
-            }
-        }
-        return maduros;
+        return cargaDiferida != null ? cargaDiferida.getMaduros() : poblacion.getMaduros();
     }
 
     /**
@@ -335,8 +370,8 @@ public class Tanque {
     public String toString() {
         return "\nInformación del Tanque: " + numeroTanque +
                 "\n  Capacidad Máxima    : " + capacidadMaxima +
-                "\n  Peces en el Tanque  : " + peces.size() +
-                "\n  Tipo de Pez         : " + (!peces.isEmpty() ? peces.get(0).getNombre() : "Ninguno") +
+                "\n  Peces en el Tanque  : " + poblacion().size() +
+                "\n  Tipo de Pez         : " + (poblacion().size() > 0 ? poblacion().getDatos().getNombre() : "Ninguno") +
                 "\n  Peces Vivos         : " + getVivos() +
                 "\n  Peces Alimentados   : " + getAlimentados() +
                 "\n  Peces Adultos       : " + getMaduros() +